@@ -0,0 +1,124 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Parameter;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.ExceptionFactory;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An in-memory TinkerGraph that can be read and mutated by multiple threads without external locking.
+ * <br />
+ * Vertices, edges, indices and element properties are held in concurrent maps and ids are drawn from an atomic
+ * counter. The adjacencies of the vertices are guarded by a fixed set of striped locks which are only held while
+ * adding or removing an edge or while taking a snapshot of the incident edges. Index lookups do not lock.
+ * <br />
+ * Each operation is atomic on its own, but compound operations are not. For instance, an edge added to a vertex
+ * while that vertex is being removed may survive the removal. Since concurrent maps can not hold null values,
+ * setting a property to null throws an IllegalArgumentException.
+ */
+public class ConcurrentTinkerGraph extends TinkerGraph {
+
+    private static final int LOCK_STRIPES = 1024;
+
+    private final transient Object[] locks = new Object[LOCK_STRIPES];
+
+    public ConcurrentTinkerGraph(final AdjacencyType adjacencyType) {
+        super(adjacencyType);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            this.locks[i] = new Object();
+        }
+        this.vertices = new ConcurrentHashMap<String, Vertex>();
+        this.edges = new ConcurrentHashMap<String, Edge>();
+        this.indices = new ConcurrentHashMap<String, TinkerIndex>();
+        this.vertexKeyIndex = new TinkerKeyIndex<TinkerVertex>(TinkerVertex.class, this, true);
+        this.edgeKeyIndex = new TinkerKeyIndex<TinkerEdge>(TinkerEdge.class, this, true);
+        this.vertexCentricIndices = new ConcurrentHashMap<String, Map<String, Boolean>>();
+    }
+
+    public ConcurrentTinkerGraph() {
+        this(AdjacencyType.HASH);
+    }
+
+    public <T extends Element> Index<T> createIndex(final String indexName, final Class<T> indexClass, final Parameter... indexParameters) {
+        final TinkerIndex index = new TinkerIndex(indexName, indexClass, true);
+        if (null != ((ConcurrentMap<String, TinkerIndex>) this.indices).putIfAbsent(indexName, index))
+            throw ExceptionFactory.indexAlreadyExists(indexName);
+        return index;
+    }
+
+    public synchronized void createVertexCentricIndex(final String label, final String key, final Parameter... indexParameters) {
+        super.createVertexCentricIndex(label, key, indexParameters);
+    }
+
+    public synchronized void dropVertexCentricIndex(final String label, final String key) {
+        super.dropVertexCentricIndex(label, key);
+    }
+
+    public Vertex addVertex(final Object id) {
+        final ConcurrentMap<String, Vertex> vertices = (ConcurrentMap<String, Vertex>) this.vertices;
+        if (null != id) {
+            final String idString = id.toString();
+            if (vertices.containsKey(idString))
+                throw ExceptionFactory.vertexWithIdAlreadyExists(id);
+            final TinkerVertex vertex = new TinkerVertex(idString, this);
+            if (null != vertices.putIfAbsent(idString, vertex))
+                throw ExceptionFactory.vertexWithIdAlreadyExists(id);
+            return vertex;
+        } else {
+            while (true) {
+                final TinkerVertex vertex = new TinkerVertex(this.getNextId(), this);
+                if (null == vertices.putIfAbsent(vertex.getId(), vertex))
+                    return vertex;
+            }
+        }
+    }
+
+    public Edge addEdge(final Object id, final Vertex outVertex, final Vertex inVertex, final String label) {
+        final ConcurrentMap<String, Edge> edges = (ConcurrentMap<String, Edge>) this.edges;
+        TinkerEdge edge;
+        if (null != id) {
+            final String idString = id.toString();
+            if (edges.containsKey(idString))
+                throw ExceptionFactory.edgeWithIdAlreadyExist(id);
+            edge = new TinkerEdge(idString, outVertex, inVertex, label, this);
+            if (null != edges.putIfAbsent(idString, edge)) {
+                this.edgeKeyIndex.autoRemove(StringFactory.LABEL, label, edge);
+                throw ExceptionFactory.edgeWithIdAlreadyExist(id);
+            }
+        } else {
+            while (true) {
+                edge = new TinkerEdge(this.getNextId(), outVertex, inVertex, label, this);
+                if (null == edges.putIfAbsent(edge.getId(), edge))
+                    break;
+                this.edgeKeyIndex.autoRemove(StringFactory.LABEL, label, edge);
+            }
+        }
+
+        ((TinkerVertex) outVertex).addOutEdge(edge);
+        ((TinkerVertex) inVertex).addInEdge(edge);
+        return edge;
+    }
+
+    public void clear() {
+        super.clear();
+        this.vertexKeyIndex = new TinkerKeyIndex<TinkerVertex>(TinkerVertex.class, this, true);
+        this.edgeKeyIndex = new TinkerKeyIndex<TinkerEdge>(TinkerEdge.class, this, true);
+    }
+
+    protected TinkerAdjacency createAdjacency(final String vertexId, final Direction direction) {
+        final Object lock = this.locks[(vertexId.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+        return new TinkerLockedAdjacency(super.createAdjacency(vertexId, direction), lock);
+    }
+
+    protected Map<String, Object> createPropertyMap() {
+        return new ConcurrentHashMap<String, Object>(4, 0.75f, 1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Edge;
+
+import java.io.Serializable;
+
+/**
+ * The edges of a single direction of a TinkerVertex grouped by their label.
+ * <br />
+ * The iterables returned by {@link #getEdges(String...)} are lazy views that are not copied up front. They behave as
+ * snapshots of the adjacency at the time getEdges() was called: an adjacency copies the edges of a label on write
+ * when they were handed out before. Consequently, edges can be added and removed while iterating.
+ */
+interface TinkerAdjacency extends Serializable {
+
+    public void addEdge(final TinkerEdge edge);
+
+    public void removeEdge(final TinkerEdge edge);
+
+    public Iterable<Edge> getEdges(final String... labels);
+
+    /**
+     * Counts the edges with the labels, or all edges if no labels are provided, without retrieving them.
+     */
+    public long countEdges(final String... labels);
+
+}
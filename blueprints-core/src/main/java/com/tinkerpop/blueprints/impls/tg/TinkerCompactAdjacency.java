@@ -0,0 +1,265 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.util.MultiIterable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Keeps a growable array of edges per interned label. Every edge remembers its slot in the arrays of its two
+ * vertices so that removal is constant time. Removed slots are left as tombstones and the array of a label is
+ * compacted once more than half of its slots are tombstones.
+ * <br />
+ * Iterables over a label read its array directly up to the size at the time they were created. Adding edges only
+ * writes beyond that size and growing or compacting allocates a new array. Only removal writes into existing slots,
+ * so the first removal after the array has been handed out compacts into a new array instead.
+ */
+class TinkerCompactAdjacency implements TinkerAdjacency {
+
+    private static final int INITIAL_CAPACITY = 2;
+    private static final int[] NO_LABELS = new int[0];
+    private static final TinkerEdge[][] NO_EDGES = new TinkerEdge[0][];
+    private static final boolean[] NO_FLAGS = new boolean[0];
+
+    private final boolean out;
+    private final TinkerLabelDictionary dictionary;
+
+    private int[] labelIds = NO_LABELS;
+    private TinkerEdge[][] edges = NO_EDGES;
+    private int[] sizes = NO_LABELS;
+    private int[] tombstones = NO_LABELS;
+    private boolean[] shared = NO_FLAGS;
+
+    public TinkerCompactAdjacency(final Direction direction, final TinkerLabelDictionary dictionary) {
+        this.out = direction.equals(Direction.OUT);
+        this.dictionary = dictionary;
+    }
+
+    public void addEdge(final TinkerEdge edge) {
+        final int labelId = this.dictionary.intern(edge.getLabel());
+        int position = this.indexOf(labelId);
+        if (position < 0)
+            position = this.addLabel(labelId);
+
+        TinkerEdge[] array = this.edges[position];
+        final int size = this.sizes[position];
+        if (size == array.length) {
+            final TinkerEdge[] grown = new TinkerEdge[array.length + (array.length >> 1) + 1];
+            System.arraycopy(array, 0, grown, 0, size);
+            this.edges[position] = array = grown;
+            this.shared[position] = false;
+        }
+        array[size] = edge;
+        this.setSlot(edge, size);
+        this.sizes[position] = size + 1;
+    }
+
+    public void removeEdge(final TinkerEdge edge) {
+        final int position = this.indexOf(this.dictionary.getId(edge.getLabel()));
+        if (position < 0)
+            return;
+        final int slot = this.getSlot(edge);
+        final TinkerEdge[] array = this.edges[position];
+        if (slot < 0 || slot >= this.sizes[position] || array[slot] != edge)
+            return;
+
+        this.setSlot(edge, -1);
+        this.tombstones[position]++;
+        if (this.tombstones[position] == this.sizes[position]) {
+            this.removeLabel(position);
+        } else if (this.shared[position] || this.tombstones[position] > this.sizes[position] >> 1) {
+            this.compact(position, edge);
+        } else {
+            array[slot] = null;
+        }
+    }
+
+    public Iterable<Edge> getEdges(final String... labels) {
+        if (labels.length == 1) {
+            final int position = this.indexOf(this.dictionary.getId(labels[0]));
+            if (position < 0) {
+                return Collections.emptyList();
+            } else {
+                return this.share(position);
+            }
+        } else {
+            final List<Iterable<Edge>> iterables = new ArrayList<Iterable<Edge>>();
+            if (labels.length == 0) {
+                for (int i = 0; i < this.labelIds.length; i++) {
+                    iterables.add(this.share(i));
+                }
+            } else {
+                for (final String label : labels) {
+                    final int position = this.indexOf(this.dictionary.getId(label));
+                    if (position >= 0) {
+                        iterables.add(this.share(position));
+                    }
+                }
+            }
+            return new MultiIterable<Edge>(iterables);
+        }
+    }
+
+    public long countEdges(final String... labels) {
+        long count = 0;
+        if (labels.length == 0) {
+            for (int i = 0; i < this.labelIds.length; i++) {
+                count = count + this.sizes[i] - this.tombstones[i];
+            }
+        } else {
+            for (final String label : labels) {
+                final int position = this.indexOf(this.dictionary.getId(label));
+                if (position >= 0)
+                    count = count + this.sizes[position] - this.tombstones[position];
+            }
+        }
+        return count;
+    }
+
+    private Iterable<Edge> share(final int position) {
+        this.shared[position] = true;
+        return new EdgeArrayIterable(this.edges[position], this.sizes[position]);
+    }
+
+    private int indexOf(final int labelId) {
+        if (labelId == TinkerLabelDictionary.UNKNOWN)
+            return -1;
+        for (int i = 0; i < this.labelIds.length; i++) {
+            if (this.labelIds[i] == labelId)
+                return i;
+        }
+        return -1;
+    }
+
+    private int addLabel(final int labelId) {
+        final int position = this.labelIds.length;
+        final int[] newLabelIds = new int[position + 1];
+        final TinkerEdge[][] newEdges = new TinkerEdge[position + 1][];
+        final int[] newSizes = new int[position + 1];
+        final int[] newTombstones = new int[position + 1];
+        final boolean[] newShared = new boolean[position + 1];
+        System.arraycopy(this.labelIds, 0, newLabelIds, 0, position);
+        System.arraycopy(this.edges, 0, newEdges, 0, position);
+        System.arraycopy(this.sizes, 0, newSizes, 0, position);
+        System.arraycopy(this.tombstones, 0, newTombstones, 0, position);
+        System.arraycopy(this.shared, 0, newShared, 0, position);
+        newLabelIds[position] = labelId;
+        newEdges[position] = new TinkerEdge[INITIAL_CAPACITY];
+        this.labelIds = newLabelIds;
+        this.edges = newEdges;
+        this.sizes = newSizes;
+        this.tombstones = newTombstones;
+        this.shared = newShared;
+        return position;
+    }
+
+    private void removeLabel(final int position) {
+        final int length = this.labelIds.length - 1;
+        if (length == 0) {
+            this.labelIds = NO_LABELS;
+            this.edges = NO_EDGES;
+            this.sizes = NO_LABELS;
+            this.tombstones = NO_LABELS;
+            this.shared = NO_FLAGS;
+            return;
+        }
+        final int[] newLabelIds = new int[length];
+        final TinkerEdge[][] newEdges = new TinkerEdge[length][];
+        final int[] newSizes = new int[length];
+        final int[] newTombstones = new int[length];
+        final boolean[] newShared = new boolean[length];
+        System.arraycopy(this.labelIds, 0, newLabelIds, 0, position);
+        System.arraycopy(this.edges, 0, newEdges, 0, position);
+        System.arraycopy(this.sizes, 0, newSizes, 0, position);
+        System.arraycopy(this.tombstones, 0, newTombstones, 0, position);
+        System.arraycopy(this.shared, 0, newShared, 0, position);
+        System.arraycopy(this.labelIds, position + 1, newLabelIds, position, length - position);
+        System.arraycopy(this.edges, position + 1, newEdges, position, length - position);
+        System.arraycopy(this.sizes, position + 1, newSizes, position, length - position);
+        System.arraycopy(this.tombstones, position + 1, newTombstones, position, length - position);
+        System.arraycopy(this.shared, position + 1, newShared, position, length - position);
+        this.labelIds = newLabelIds;
+        this.edges = newEdges;
+        this.sizes = newSizes;
+        this.tombstones = newTombstones;
+        this.shared = newShared;
+    }
+
+    /**
+     * Copies the live edges of a label into a new array leaving out the removed edge.
+     */
+    private void compact(final int position, final TinkerEdge removed) {
+        final TinkerEdge[] array = this.edges[position];
+        final int size = this.sizes[position];
+        final int live = size - this.tombstones[position];
+        final TinkerEdge[] compacted = new TinkerEdge[Math.max(INITIAL_CAPACITY, live + (live >> 1))];
+        int slot = 0;
+        for (int i = 0; i < size; i++) {
+            if (null != array[i] && removed != array[i]) {
+                compacted[slot] = array[i];
+                this.setSlot(array[i], slot);
+                slot++;
+            }
+        }
+        this.edges[position] = compacted;
+        this.sizes[position] = live;
+        this.tombstones[position] = 0;
+        this.shared[position] = false;
+    }
+
+    private int getSlot(final TinkerEdge edge) {
+        return this.out ? edge.outSlot : edge.inSlot;
+    }
+
+    private void setSlot(final TinkerEdge edge, final int slot) {
+        if (this.out)
+            edge.outSlot = slot;
+        else
+            edge.inSlot = slot;
+    }
+
+    private static class EdgeArrayIterable implements Iterable<Edge> {
+
+        private final TinkerEdge[] array;
+        private final int size;
+
+        public EdgeArrayIterable(final TinkerEdge[] array, final int size) {
+            this.array = array;
+            this.size = size;
+        }
+
+        public Iterator<Edge> iterator() {
+            return new Iterator<Edge>() {
+                private int current = this.advance(0);
+
+                public boolean hasNext() {
+                    return this.current < size;
+                }
+
+                public Edge next() {
+                    if (this.current >= size)
+                        throw new NoSuchElementException();
+                    final Edge edge = array[this.current];
+                    this.current = this.advance(this.current + 1);
+                    return edge;
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+
+                private int advance(int slot) {
+                    while (slot < size && null == array[slot]) {
+                        slot++;
+                    }
+                    return slot;
+                }
+            };
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.tinkerpop.blueprints.util.ExceptionFactory;
 import com.tinkerpop.blueprints.util.StringFactory;
 
 import java.io.Serializable;
+import java.util.Map;
 
 
 /**
@@ -18,6 +19,12 @@ class TinkerEdge extends TinkerElement implements Edge, Serializable {
     private final Vertex inVertex;
     private final Vertex outVertex;
 
+    /**
+     * The positions of this edge in the compact adjacencies of its out and in vertex.
+     */
+    protected int outSlot = -1;
+    protected int inSlot = -1;
+
     protected TinkerEdge(final String id, final Vertex outVertex, final Vertex inVertex, final String label, final TinkerGraph graph) {
         super(id, graph);
         this.label = label;
@@ -42,4 +49,51 @@ class TinkerEdge extends TinkerElement implements Edge, Serializable {
     public String toString() {
         return StringFactory.edgeString(this);
     }
+
+    /**
+     * Moves this edge from the old to the new value of a key in the vertex-centric indices of its vertices, if the
+     * key is indexed for its label. Null values are not indexed.
+     */
+    protected void updateVertexIndex(final String key, final Object newValue, final Object oldValue) {
+        final Map<String, Boolean> keys = this.graph.vertexCentricIndices.get(this.label);
+        if (null == keys)
+            return;
+        final Boolean ordered = keys.get(key);
+        if (null == ordered)
+            return;
+        final TinkerVertexIndex outIndex = ((TinkerVertex) this.outVertex).getVertexIndex(true);
+        final TinkerVertexIndex inIndex = ((TinkerVertex) this.inVertex).getVertexIndex(true);
+        if (null != oldValue) {
+            outIndex.remove(Direction.OUT, this.label, key, oldValue, this);
+            inIndex.remove(Direction.IN, this.label, key, oldValue, this);
+        }
+        if (null != newValue) {
+            outIndex.put(Direction.OUT, this.label, key, ordered, newValue, this);
+            inIndex.put(Direction.IN, this.label, key, ordered, newValue, this);
+        }
+    }
+
+    /**
+     * Adds all properties of this edge to the vertex-centric indices of its vertices.
+     */
+    protected void addToVertexIndex() {
+        final Map<String, Boolean> keys = this.graph.vertexCentricIndices.get(this.label);
+        if (null == keys)
+            return;
+        for (final String key : keys.keySet()) {
+            this.updateVertexIndex(key, this.properties.get(key), null);
+        }
+    }
+
+    /**
+     * Removes all properties of this edge from the vertex-centric indices of its vertices.
+     */
+    protected void removeFromVertexIndex() {
+        final Map<String, Boolean> keys = this.graph.vertexCentricIndices.get(this.label);
+        if (null == keys)
+            return;
+        for (final String key : keys.keySet()) {
+            this.updateVertexIndex(key, null, this.properties.get(key));
+        }
+    }
 }
@@ -8,22 +8,23 @@ import com.tinkerpop.blueprints.util.ExceptionFactory;
 import com.tinkerpop.blueprints.util.StringFactory;
 
 import java.io.Serializable;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 abstract class TinkerElement implements Element, Serializable {
 
-    protected Map<String, Object> properties = new HashMap<String, Object>();
+    protected Map<String, Object> properties;
     protected final String id;
     protected final TinkerGraph graph;
 
     protected TinkerElement(final String id, final TinkerGraph graph) {
         this.graph = graph;
         this.id = id;
+        this.properties = graph.createPropertyMap();
     }
 
     public Set<String> getPropertyKeys() {
@@ -41,21 +42,41 @@ abstract class TinkerElement implements Element, Serializable {
             throw ExceptionFactory.propertyKeyLabelIsReservedForEdges();
         if (key.equals(StringFactory.EMPTY_STRING))
             throw ExceptionFactory.elementKeyCanNotBeEmpty();
+        if (null == value && this.properties instanceof ConcurrentMap)
+            throw ExceptionFactory.propertyValueCanNotBeNull();
 
-        Object oldValue = this.properties.put(key, value);
-        if (this instanceof TinkerVertex)
-            this.graph.vertexKeyIndex.autoUpdate(key, value, oldValue, (TinkerVertex) this);
-        else
-            this.graph.edgeKeyIndex.autoUpdate(key, value, oldValue, (TinkerEdge) this);
+        this.graph.lockLog();
+        try {
+            Object oldValue = this.properties.put(key, value);
+            if (this instanceof TinkerVertex)
+                this.graph.vertexKeyIndex.autoUpdate(key, value, oldValue, (TinkerVertex) this);
+            else {
+                this.graph.edgeKeyIndex.autoUpdate(key, value, oldValue, (TinkerEdge) this);
+                ((TinkerEdge) this).updateVertexIndex(key, value, oldValue);
+            }
+            if (null != this.graph.log)
+                this.graph.log.setProperty(this, key, value);
+        } finally {
+            this.graph.unlockLog();
+        }
     }
 
     public Object removeProperty(final String key) {
-        Object oldValue = this.properties.remove(key);
-        if (this instanceof TinkerVertex)
-            this.graph.vertexKeyIndex.autoRemove(key, oldValue, (TinkerVertex) this);
-        else
-            this.graph.edgeKeyIndex.autoRemove(key, oldValue, (TinkerEdge) this);
-        return oldValue;
+        this.graph.lockLog();
+        try {
+            Object oldValue = this.properties.remove(key);
+            if (this instanceof TinkerVertex)
+                this.graph.vertexKeyIndex.autoRemove(key, oldValue, (TinkerVertex) this);
+            else {
+                this.graph.edgeKeyIndex.autoRemove(key, oldValue, (TinkerEdge) this);
+                ((TinkerEdge) this).updateVertexIndex(key, null, oldValue);
+            }
+            if (null != this.graph.log)
+                this.graph.log.removeProperty(this, key);
+            return oldValue;
+        } finally {
+            this.graph.unlockLog();
+        }
     }
 
 
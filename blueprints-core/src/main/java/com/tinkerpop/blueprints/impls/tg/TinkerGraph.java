@@ -9,26 +9,26 @@ import com.tinkerpop.blueprints.Index;
 import com.tinkerpop.blueprints.IndexableGraph;
 import com.tinkerpop.blueprints.KeyIndexableGraph;
 import com.tinkerpop.blueprints.Parameter;
+import com.tinkerpop.blueprints.Query.Compare;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
-import com.tinkerpop.blueprints.util.KeyIndexableGraphHelper;
 import com.tinkerpop.blueprints.util.PropertyFilteredIterable;
 import com.tinkerpop.blueprints.util.StringFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An in-memory, reference implementation of the property graph interfaces provided by Blueprints.
@@ -37,7 +37,7 @@ import java.util.Set;
  */
 public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializable {
 
-    private Long currentId = 0l;
+    protected AtomicLong currentId = new AtomicLong(0l);
     protected Map<String, Vertex> vertices = new HashMap<String, Vertex>();
     protected Map<String, Edge> edges = new HashMap<String, Edge>();
     protected Map<String, TinkerIndex> indices = new HashMap<String, TinkerIndex>();
@@ -45,8 +45,35 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
     protected TinkerKeyIndex<TinkerVertex> vertexKeyIndex = new TinkerKeyIndex<TinkerVertex>(TinkerVertex.class, this);
     protected TinkerKeyIndex<TinkerEdge> edgeKeyIndex = new TinkerKeyIndex<TinkerEdge>(TinkerEdge.class, this);
 
+    /**
+     * The edge property keys with a vertex-centric index by edge label. Each key maps to whether its index is ordered.
+     * The maps of the labels are never mutated but replaced, so that they can be read without locking.
+     */
+    protected Map<String, Map<String, Boolean>> vertexCentricIndices = new HashMap<String, Map<String, Boolean>>();
+
+    protected AdjacencyType adjacencyType;
+    protected TinkerLabelDictionary labelDictionary = new TinkerLabelDictionary();
+
     private final String directory;
     private static final String GRAPH_FILE = "/tinkergraph.dat";
+    private static final String SNAPSHOT_FILE = "/tinkergraph.snapshot";
+    private static final String LOG_FILE = "/tinkergraph.log";
+    protected transient TinkerLog log;
+
+    /**
+     * The default milliseconds between forcing the mutation log of a persistent TinkerGraph to disk.
+     */
+    public static final long DEFAULT_SYNC_INTERVAL = 100;
+
+    /**
+     * The default milliseconds between checkpoints of a persistent TinkerGraph.
+     */
+    public static final long DEFAULT_CHECKPOINT_INTERVAL = 300000;
+
+    /**
+     * The parameter to create an ordered key index with.
+     */
+    public static final Parameter<String, String> ORDERED_KEY_INDEX = new Parameter<String, String>("type", "ordered");
 
     private static final Features FEATURES = new Features();
     private static final Features PERSISTENT_FEATURES;
@@ -89,32 +116,78 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
         PERSISTENT_FEATURES.isPersistent = true;
     }
 
-    public TinkerGraph(final String directory) {
+    /**
+     * The layout used by the vertices of a TinkerGraph to store their incident edges.
+     */
+    public static enum AdjacencyType {
+        /**
+         * A hash set of edges per label. Each edge costs an entry in a hash set of both of its vertices.
+         */
+        HASH,
+        /**
+         * A growable array of edges per interned label. Removed edges leave tombstones that are compacted lazily.
+         * This considerably reduces the memory footprint of large graphs.
+         */
+        COMPACT
+    }
+
+    /**
+     * Constructs a persistent TinkerGraph. If the directory already holds a graph, that graph is loaded and
+     * it keeps the adjacency type it was created with. Graphs that were Java serialized by earlier versions are
+     * loaded as well and take the given adjacency type.
+     * <br />
+     * Every mutation is appended to a log which is forced to disk every sync interval, so that a crash loses at most
+     * the mutations of the last sync interval. Every checkpoint interval and on shutdown the graph is written to a
+     * binary snapshot and the log is truncated. Restarting loads the snapshot and replays the log.
+     *
+     * @param directory          the directory to persist the graph to
+     * @param adjacencyType      the adjacency type to use for a new graph
+     * @param syncInterval       the milliseconds between forcing the log to disk or 0 to force every mutation
+     * @param checkpointInterval the milliseconds between checkpoints or 0 to only checkpoint on shutdown
+     */
+    public TinkerGraph(final String directory, final AdjacencyType adjacencyType, final long syncInterval, final long checkpointInterval) {
         this.directory = directory;
+        this.adjacencyType = adjacencyType;
         try {
             final File file = new File(directory);
+            TinkerSnapshot.LogPosition position = new TinkerSnapshot.LogPosition(0, 0);
             if (!file.exists()) {
                 if (!file.mkdirs()) {
                     throw new RuntimeException("Could not create directory");
                 }
-            } else {
-                ObjectInputStream input = new ObjectInputStream(new FileInputStream(directory + GRAPH_FILE));
-                TinkerGraph temp = (TinkerGraph) input.readObject();
-                input.close();
-                this.currentId = temp.currentId;
-                this.vertices = temp.vertices;
-                this.edges = temp.edges;
-                this.indices = temp.indices;
-                this.vertexKeyIndex = temp.vertexKeyIndex;
-                this.edgeKeyIndex = temp.edgeKeyIndex;
+            } else if (new File(directory + SNAPSHOT_FILE).exists()) {
+                position = TinkerSnapshot.read(this, new File(directory + SNAPSHOT_FILE));
+            } else if (new File(directory + GRAPH_FILE).exists()) {
+                TinkerLegacyGraph.read(this, new File(directory + GRAPH_FILE));
+            }
+            this.log = new TinkerLog(this, new File(directory + LOG_FILE), new File(directory + SNAPSHOT_FILE), position, syncInterval, checkpointInterval);
+            for (final TinkerIndex index : this.indices.values()) {
+                index.log = this.log;
             }
         } catch (Exception e) {
             throw new RuntimeException(e.getMessage(), e);
         }
     }
 
-    public TinkerGraph() {
+    public TinkerGraph(final String directory, final AdjacencyType adjacencyType) {
+        this(directory, adjacencyType, DEFAULT_SYNC_INTERVAL, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    public TinkerGraph(final String directory) {
+        this(directory, AdjacencyType.HASH);
+    }
+
+    public TinkerGraph(final AdjacencyType adjacencyType) {
         this.directory = null;
+        this.adjacencyType = adjacencyType;
+    }
+
+    public TinkerGraph() {
+        this(AdjacencyType.HASH);
+    }
+
+    public AdjacencyType getAdjacencyType() {
+        return this.adjacencyType;
     }
 
     public Iterable<Vertex> getVertices(final String key, final Object value) {
@@ -133,23 +206,112 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
         }
     }
 
-    public <T extends Element> void createKeyIndex(final String key, final Class<T> elementClass) {
-        if (Vertex.class.isAssignableFrom(elementClass)) {
-            this.vertexKeyIndex.createKeyIndex(key);
-        } else if (Edge.class.isAssignableFrom(elementClass)) {
-            this.edgeKeyIndex.createKeyIndex(key);
+    /**
+     * Lookup the vertices whose value for the key compares to the provided value. An ordered key index on the key
+     * answers all comparisons but NOT_EQUAL, a hash key index answers EQUAL and the vertices are scanned otherwise.
+     *
+     * @param key     the key of the property
+     * @param compare the comparison to the property value
+     * @param value   the value to compare against
+     * @return the vertices whose property value matches
+     */
+    public Iterable<Vertex> getVertices(final String key, final Compare compare, final Object value) {
+        if (vertexKeyIndex.isOrdered(key) && !Compare.NOT_EQUAL.equals(compare)) {
+            return (Iterable) vertexKeyIndex.get(key, compare, value);
+        } else if (Compare.EQUAL.equals(compare)) {
+            return this.getVertices(key, value);
         } else {
-            throw ExceptionFactory.classIsNotIndexable(elementClass);
+            return new PropertyFilteredIterable<Vertex>(key, value, compare, this.getVertices());
         }
     }
 
-    public <T extends Element> void dropKeyIndex(final String key, final Class<T> elementClass) {
-        if (Vertex.class.isAssignableFrom(elementClass)) {
-            this.vertexKeyIndex.dropKeyIndex(key);
-        } else if (Edge.class.isAssignableFrom(elementClass)) {
-            this.edgeKeyIndex.dropKeyIndex(key);
+    public Iterable<Edge> getEdges(final String key, final Compare compare, final Object value) {
+        if (edgeKeyIndex.isOrdered(key) && !Compare.NOT_EQUAL.equals(compare)) {
+            return (Iterable) edgeKeyIndex.get(key, compare, value);
+        } else if (Compare.EQUAL.equals(compare)) {
+            return this.getEdges(key, value);
         } else {
-            throw ExceptionFactory.classIsNotIndexable(elementClass);
+            return new PropertyFilteredIterable<Edge>(key, value, compare, this.getEdges());
+        }
+    }
+
+    /**
+     * Lookup the vertices whose value for the key is within the interval. An ordered key index on the key answers
+     * the lookup while the vertices are scanned otherwise.
+     *
+     * @param key        the key of the property
+     * @param startValue the inclusive start value of the interval
+     * @param endValue   the exclusive end value of the interval
+     * @return the vertices whose property value is within the interval
+     */
+    public <T extends Comparable<T>> Iterable<Vertex> getVerticesInInterval(final String key, final T startValue, final T endValue) {
+        if (vertexKeyIndex.isOrdered(key)) {
+            return (Iterable) vertexKeyIndex.get(key, startValue, endValue);
+        } else {
+            return new PropertyFilteredIterable<Vertex>(key, endValue, Compare.LESS_THAN,
+                    new PropertyFilteredIterable<Vertex>(key, startValue, Compare.GREATER_THAN_EQUAL, this.getVertices()));
+        }
+    }
+
+    public <T extends Comparable<T>> Iterable<Edge> getEdgesInInterval(final String key, final T startValue, final T endValue) {
+        if (edgeKeyIndex.isOrdered(key)) {
+            return (Iterable) edgeKeyIndex.get(key, startValue, endValue);
+        } else {
+            return new PropertyFilteredIterable<Edge>(key, endValue, Compare.LESS_THAN,
+                    new PropertyFilteredIterable<Edge>(key, startValue, Compare.GREATER_THAN_EQUAL, this.getEdges()));
+        }
+    }
+
+    public <T extends Element> void createKeyIndex(final String key, final Class<T> elementClass) {
+        this.createKeyIndex(key, elementClass, new Parameter[0]);
+    }
+
+    /**
+     * Create a key index. By default a key index is a hash index that answers lookups of equal values only.
+     * Providing the {@link #ORDERED_KEY_INDEX} parameter creates an ordered key index which also answers range
+     * lookups through {@link #getVertices(String, Compare, Object)} and {@link #getVerticesInInterval(String, Comparable, Comparable)}.
+     *
+     * @param key             the key to create the index for
+     * @param elementClass    the element class that the index is for
+     * @param indexParameters the parameters of the key index
+     */
+    public <T extends Element> void createKeyIndex(final String key, final Class<T> elementClass, final Parameter... indexParameters) {
+        boolean ordered = false;
+        for (final Parameter parameter : indexParameters) {
+            if (ORDERED_KEY_INDEX.getKey().equals(parameter.getKey()) && ORDERED_KEY_INDEX.getValue().equals(parameter.getValue()))
+                ordered = true;
+        }
+
+        this.lockLog();
+        try {
+            if (Vertex.class.isAssignableFrom(elementClass)) {
+                this.vertexKeyIndex.createKeyIndex(key, ordered);
+            } else if (Edge.class.isAssignableFrom(elementClass)) {
+                this.edgeKeyIndex.createKeyIndex(key, ordered);
+            } else {
+                throw ExceptionFactory.classIsNotIndexable(elementClass);
+            }
+            if (null != this.log)
+                this.log.createKeyIndex(key, elementClass, ordered);
+        } finally {
+            this.unlockLog();
+        }
+    }
+
+    public <T extends Element> void dropKeyIndex(final String key, final Class<T> elementClass) {
+        this.lockLog();
+        try {
+            if (Vertex.class.isAssignableFrom(elementClass)) {
+                this.vertexKeyIndex.dropKeyIndex(key);
+            } else if (Edge.class.isAssignableFrom(elementClass)) {
+                this.edgeKeyIndex.dropKeyIndex(key);
+            } else {
+                throw ExceptionFactory.classIsNotIndexable(elementClass);
+            }
+            if (null != this.log)
+                this.log.dropKeyIndex(key, elementClass);
+        } finally {
+            this.unlockLog();
         }
     }
 
@@ -163,13 +325,89 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
         }
     }
 
-    public <T extends Element> Index<T> createIndex(final String indexName, final Class<T> indexClass, final Parameter... indexParameters) {
-        if (this.indices.containsKey(indexName))
-            throw ExceptionFactory.indexAlreadyExists(indexName);
+    /**
+     * Create a vertex-centric index. Every vertex then indexes its incident edges with the label by their value for
+     * the key, so that a query of a vertex that is restricted to indexed labels and has a condition on the key
+     * only touches the matching edges. By default the index only answers conditions of equal values. Providing the
+     * {@link #ORDERED_KEY_INDEX} parameter creates an ordered index which also answers ranges and intervals.
+     *
+     * @param label           the label of the edges to index
+     * @param key             the edge property key to index
+     * @param indexParameters the parameters of the vertex-centric index
+     */
+    public void createVertexCentricIndex(final String label, final String key, final Parameter... indexParameters) {
+        boolean ordered = false;
+        for (final Parameter parameter : indexParameters) {
+            if (ORDERED_KEY_INDEX.getKey().equals(parameter.getKey()) && ORDERED_KEY_INDEX.getValue().equals(parameter.getValue()))
+                ordered = true;
+        }
 
-        final TinkerIndex index = new TinkerIndex(indexName, indexClass);
-        this.indices.put(index.getIndexName(), index);
-        return index;
+        this.lockLog();
+        try {
+            final Map<String, Boolean> keys = this.vertexCentricIndices.get(label);
+            if (null != keys && keys.containsKey(key))
+                return;
+            final Map<String, Boolean> temp = null == keys ? new HashMap<String, Boolean>() : new HashMap<String, Boolean>(keys);
+            temp.put(key, ordered);
+            this.vertexCentricIndices.put(label, temp);
+            for (final Edge edge : this.edges.values()) {
+                if (edge.getLabel().equals(label))
+                    ((TinkerEdge) edge).updateVertexIndex(key, edge.getProperty(key), null);
+            }
+            if (null != this.log)
+                this.log.createVertexCentricIndex(label, key, ordered);
+        } finally {
+            this.unlockLog();
+        }
+    }
+
+    public void dropVertexCentricIndex(final String label, final String key) {
+        this.lockLog();
+        try {
+            final Map<String, Boolean> keys = this.vertexCentricIndices.get(label);
+            if (null == keys || !keys.containsKey(key))
+                return;
+            final Map<String, Boolean> temp = new HashMap<String, Boolean>(keys);
+            temp.remove(key);
+            if (temp.isEmpty())
+                this.vertexCentricIndices.remove(label);
+            else
+                this.vertexCentricIndices.put(label, temp);
+            for (final Vertex vertex : this.vertices.values()) {
+                final TinkerVertexIndex index = ((TinkerVertex) vertex).getVertexIndex(false);
+                if (null != index)
+                    index.drop(label, key);
+            }
+            if (null != this.log)
+                this.log.dropVertexCentricIndex(label, key);
+        } finally {
+            this.unlockLog();
+        }
+    }
+
+    public Set<String> getVertexCentricIndexedKeys(final String label) {
+        final Map<String, Boolean> keys = this.vertexCentricIndices.get(label);
+        if (null == keys)
+            return Collections.emptySet();
+        return new HashSet<String>(keys.keySet());
+    }
+
+    public <T extends Element> Index<T> createIndex(final String indexName, final Class<T> indexClass, final Parameter... indexParameters) {
+        this.lockLog();
+        try {
+            if (this.indices.containsKey(indexName))
+                throw ExceptionFactory.indexAlreadyExists(indexName);
+
+            final TinkerIndex index = new TinkerIndex(indexName, indexClass);
+            this.indices.put(index.getIndexName(), index);
+            if (null != this.log) {
+                index.log = this.log;
+                this.log.createIndex(indexName, indexClass);
+            }
+            return index;
+        } finally {
+            this.unlockLog();
+        }
     }
 
     public <T extends Element> Index<T> getIndex(final String indexName, final Class<T> indexClass) {
@@ -191,33 +429,48 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
     }
 
     public void dropIndex(final String indexName) {
-        this.indices.remove(indexName);
+        this.lockLog();
+        try {
+            final TinkerIndex index = this.indices.remove(indexName);
+            if (null != index && null != this.log) {
+                index.log = null;
+                this.log.dropIndex(indexName);
+            }
+        } finally {
+            this.unlockLog();
+        }
     }
 
 
     public Vertex addVertex(final Object id) {
-        String idString = null;
-        Vertex vertex;
-        if (null != id) {
-            idString = id.toString();
-            vertex = this.vertices.get(idString);
-            if (null != vertex) {
-                throw ExceptionFactory.vertexWithIdAlreadyExists(id);
-            }
-        } else {
-            boolean done = false;
-            while (!done) {
-                idString = this.getNextId();
+        this.lockLog();
+        try {
+            String idString = null;
+            Vertex vertex;
+            if (null != id) {
+                idString = id.toString();
                 vertex = this.vertices.get(idString);
-                if (null == vertex)
-                    done = true;
+                if (null != vertex) {
+                    throw ExceptionFactory.vertexWithIdAlreadyExists(id);
+                }
+            } else {
+                boolean done = false;
+                while (!done) {
+                    idString = this.getNextId();
+                    vertex = this.vertices.get(idString);
+                    if (null == vertex)
+                        done = true;
+                }
             }
-        }
-
-        vertex = new TinkerVertex(idString, this);
-        this.vertices.put(vertex.getId().toString(), vertex);
-        return vertex;
 
+            vertex = new TinkerVertex(idString, this);
+            this.vertices.put(vertex.getId().toString(), vertex);
+            if (null != this.log)
+                this.log.addVertex(idString);
+            return vertex;
+        } finally {
+            this.unlockLog();
+        }
     }
 
     public Vertex getVertex(final Object id) {
@@ -246,74 +499,91 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
     }
 
     public void removeVertex(final Vertex vertex) {
-        for (Edge edge : vertex.getEdges(Direction.BOTH)) {
-            this.removeEdge(edge);
-        }
+        this.lockLog();
+        try {
+            for (Edge edge : vertex.getEdges(Direction.BOTH)) {
+                this.removeEdge(edge);
+            }
 
-        this.vertexKeyIndex.removeElement((TinkerVertex) vertex);
-        for (Index index : this.getIndices()) {
-            if (Vertex.class.isAssignableFrom(index.getIndexClass())) {
-                TinkerIndex<TinkerVertex> idx = (TinkerIndex<TinkerVertex>) index;
-                idx.removeElement((TinkerVertex) vertex);
+            this.vertexKeyIndex.removeElement((TinkerVertex) vertex);
+            for (Index index : this.getIndices()) {
+                if (Vertex.class.isAssignableFrom(index.getIndexClass())) {
+                    TinkerIndex<TinkerVertex> idx = (TinkerIndex<TinkerVertex>) index;
+                    idx.removeElement((TinkerVertex) vertex);
+                }
             }
-        }
 
-        this.vertices.remove(vertex.getId().toString());
+            this.vertices.remove(vertex.getId().toString());
+            if (null != this.log)
+                this.log.removeVertex(vertex.getId().toString());
+        } finally {
+            this.unlockLog();
+        }
     }
 
     public Edge addEdge(final Object id, final Vertex outVertex, final Vertex inVertex, final String label) {
-        String idString = null;
-        Edge edge;
-        if (null != id) {
-            idString = id.toString();
-            edge = this.edges.get(idString);
-            if (null != edge) {
-                throw ExceptionFactory.edgeWithIdAlreadyExist(id);
-            }
-        } else {
-            boolean done = false;
-            while (!done) {
-                idString = this.getNextId();
+        this.lockLog();
+        try {
+            String idString = null;
+            Edge edge;
+            if (null != id) {
+                idString = id.toString();
                 edge = this.edges.get(idString);
-                if (null == edge)
-                    done = true;
+                if (null != edge) {
+                    throw ExceptionFactory.edgeWithIdAlreadyExist(id);
+                }
+            } else {
+                boolean done = false;
+                while (!done) {
+                    idString = this.getNextId();
+                    edge = this.edges.get(idString);
+                    if (null == edge)
+                        done = true;
+                }
             }
-        }
-
-        edge = new TinkerEdge(idString, outVertex, inVertex, label, this);
-        this.edges.put(edge.getId().toString(), edge);
-        final TinkerVertex out = (TinkerVertex) outVertex;
-        final TinkerVertex in = (TinkerVertex) inVertex;
-        out.addOutEdge(label, edge);
-        in.addInEdge(label, edge);
-        return edge;
 
+            final TinkerEdge tinkerEdge = new TinkerEdge(idString, outVertex, inVertex, label, this);
+            this.edges.put(tinkerEdge.getId().toString(), tinkerEdge);
+            final TinkerVertex out = (TinkerVertex) outVertex;
+            final TinkerVertex in = (TinkerVertex) inVertex;
+            out.addOutEdge(tinkerEdge);
+            in.addInEdge(tinkerEdge);
+            if (null != this.log)
+                this.log.addEdge(tinkerEdge);
+            return tinkerEdge;
+        } finally {
+            this.unlockLog();
+        }
     }
 
     public void removeEdge(final Edge edge) {
-        TinkerVertex outVertex = (TinkerVertex) edge.getVertex(Direction.OUT);
-        TinkerVertex inVertex = (TinkerVertex) edge.getVertex(Direction.IN);
-        if (null != outVertex && null != outVertex.outEdges) {
-            final Set<Edge> edges = outVertex.outEdges.get(edge.getLabel());
-            if (null != edges)
-                edges.remove(edge);
-        }
-        if (null != inVertex && null != inVertex.inEdges) {
-            final Set<Edge> edges = inVertex.inEdges.get(edge.getLabel());
-            if (null != edges)
-                edges.remove(edge);
-        }
+        this.lockLog();
+        try {
+            TinkerVertex outVertex = (TinkerVertex) edge.getVertex(Direction.OUT);
+            TinkerVertex inVertex = (TinkerVertex) edge.getVertex(Direction.IN);
+            if (null != outVertex && null != outVertex.outEdges) {
+                outVertex.outEdges.removeEdge((TinkerEdge) edge);
+            }
+            if (null != inVertex && null != inVertex.inEdges) {
+                inVertex.inEdges.removeEdge((TinkerEdge) edge);
+            }
 
 
-        this.edgeKeyIndex.removeElement((TinkerEdge) edge);
-        for (Index index : this.getIndices()) {
-            if (Edge.class.isAssignableFrom(index.getIndexClass())) {
-                TinkerIndex<TinkerEdge> idx = (TinkerIndex<TinkerEdge>) index;
-                idx.removeElement((TinkerEdge) edge);
+            this.edgeKeyIndex.removeElement((TinkerEdge) edge);
+            ((TinkerEdge) edge).removeFromVertexIndex();
+            for (Index index : this.getIndices()) {
+                if (Edge.class.isAssignableFrom(index.getIndexClass())) {
+                    TinkerIndex<TinkerEdge> idx = (TinkerIndex<TinkerEdge>) index;
+                    idx.removeElement((TinkerEdge) edge);
+                }
             }
-        }
 
-        this.edges.remove(edge.getId().toString());
+            this.edges.remove(edge.getId().toString());
+            if (null != this.log)
+                this.log.removeEdge(edge.getId().toString());
+        } finally {
+            this.unlockLog();
+        }
     }
 
 
@@ -325,41 +595,86 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
     }
 
     public void clear() {
-        this.vertices.clear();
-        this.edges.clear();
-        this.indices.clear();
-        this.currentId = 0l;
-        this.vertexKeyIndex = new TinkerKeyIndex<TinkerVertex>(TinkerVertex.class, this);
-        this.edgeKeyIndex = new TinkerKeyIndex<TinkerEdge>(TinkerEdge.class, this);
+        this.lockLog();
+        try {
+            this.vertices.clear();
+            this.edges.clear();
+            this.indices.clear();
+            this.currentId.set(0l);
+            this.labelDictionary = new TinkerLabelDictionary();
+            this.vertexKeyIndex = new TinkerKeyIndex<TinkerVertex>(TinkerVertex.class, this);
+            this.edgeKeyIndex = new TinkerKeyIndex<TinkerEdge>(TinkerEdge.class, this);
+            this.vertexCentricIndices.clear();
+            if (null != this.log)
+                this.log.clear();
+        } finally {
+            this.unlockLog();
+        }
+    }
+
+    /**
+     * Writes a persistent graph to a new snapshot and truncates its mutation log.
+     */
+    public void checkpoint() {
+        if (null != this.log) {
+            try {
+                this.log.checkpoint();
+            } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
     }
 
     public void shutdown() {
         if (null != this.directory) {
             try {
+                this.log.close();
                 final File file = new File(this.directory + GRAPH_FILE);
                 if (file.exists()) {
                     file.delete();
                 }
-                ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(this.directory + GRAPH_FILE));
-                out.writeObject(this);
-                out.close();
             } catch (Exception e) {
                 throw new RuntimeException(e.getMessage(), e);
             }
         }
     }
 
-    private String getNextId() {
+    protected String getNextId() {
         String idString;
         while (true) {
-            idString = this.currentId.toString();
-            this.currentId++;
-            if (null == this.vertices.get(idString) || null == this.edges.get(idString) || this.currentId == Long.MAX_VALUE)
+            final long id = this.currentId.getAndIncrement();
+            idString = Long.toString(id);
+            if (null == this.vertices.get(idString) || null == this.edges.get(idString) || id == Long.MAX_VALUE)
                 break;
         }
         return idString;
     }
 
+    /**
+     * Mutations of a persistent graph are applied and logged while holding the lock of its log, so that checkpoints
+     * see a consistent graph. These are no-ops for in-memory graphs.
+     */
+    protected void lockLog() {
+        if (null != this.log)
+            this.log.lock();
+    }
+
+    protected void unlockLog() {
+        if (null != this.log)
+            this.log.unlock();
+    }
+
+    protected TinkerAdjacency createAdjacency(final String vertexId, final Direction direction) {
+        if (AdjacencyType.COMPACT.equals(this.adjacencyType))
+            return new TinkerCompactAdjacency(direction, this.labelDictionary);
+        else
+            return new TinkerHashAdjacency();
+    }
+
+    protected Map<String, Object> createPropertyMap() {
+        return new HashMap<String, Object>();
+    }
+
     public Features getFeatures() {
         if (null == directory)
             return FEATURES;
@@ -369,12 +684,24 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
 
     protected class TinkerKeyIndex<T extends TinkerElement> extends TinkerIndex<T> implements Serializable {
 
-        private final Set<String> indexedKeys = new HashSet<String>();
+        private final Set<String> indexedKeys;
+        private final Set<String> orderedKeys;
         private TinkerGraph graph;
 
         public TinkerKeyIndex(final Class<T> indexClass, final TinkerGraph graph) {
-            super(null, indexClass);
+            this(indexClass, graph, false);
+        }
+
+        public TinkerKeyIndex(final Class<T> indexClass, final TinkerGraph graph, final boolean concurrent) {
+            super(null, indexClass, concurrent);
             this.graph = graph;
+            if (concurrent) {
+                this.indexedKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                this.orderedKeys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            } else {
+                this.indexedKeys = new HashSet<String>();
+                this.orderedKeys = new HashSet<String>();
+            }
         }
 
         public void autoUpdate(final String key, final Object newValue, final Object oldValue, final T element) {
@@ -391,16 +718,20 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
             }
         }
 
-        public void createKeyIndex(final String key) {
+        public void createKeyIndex(final String key, final boolean ordered) {
             if (this.indexedKeys.contains(key))
                 return;
 
+            if (ordered)
+                this.orderedKeys.add(key);
             this.indexedKeys.add(key);
 
-            if (TinkerVertex.class.equals(this.indexClass)) {
-                KeyIndexableGraphHelper.reIndexElements(graph, graph.getVertices(), new HashSet<String>(Arrays.asList(key)));
-            } else {
-                KeyIndexableGraphHelper.reIndexElements(graph, graph.getEdges(), new HashSet<String>(Arrays.asList(key)));
+            // index the properties directly rather than removing and setting them again, which would log them
+            final Iterable<? extends Element> elements = TinkerVertex.class.equals(this.indexClass) ? graph.getVertices() : graph.getEdges();
+            for (final Element element : elements) {
+                final Object value = ((TinkerElement) element).properties.get(key);
+                if (null != value)
+                    this.put(key, value, (T) element);
             }
         }
 
@@ -409,6 +740,7 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
                 return;
 
             this.indexedKeys.remove(key);
+            this.orderedKeys.remove(key);
             this.index.remove(key);
 
         }
@@ -419,6 +751,88 @@ public class TinkerGraph implements IndexableGraph, KeyIndexableGraph, Serializa
             else
                 return Collections.emptySet();
         }
+
+        public boolean isOrdered(final String key) {
+            return this.orderedKeys.contains(key);
+        }
+
+        /**
+         * A key index finds the values an element is indexed by through the properties of the element.
+         */
+        protected Map<T, Map<String, Set<Object>>> createPostings() {
+            return null;
+        }
+
+        public void removeElement(final T element) {
+            if (!this.indexClass.isAssignableFrom(element.getClass()))
+                return;
+            for (final String key : this.indexedKeys) {
+                final Object value;
+                if (StringFactory.LABEL.equals(key) && element instanceof TinkerEdge)
+                    value = ((TinkerEdge) element).getLabel();
+                else
+                    value = element.properties.get(key);
+                // concurrent maps can not hold null values
+                if (null != value || !this.concurrent)
+                    this.remove(key, value, element);
+            }
+        }
+
+        protected Map<Object, Set<T>> createKeyMap(final String key) {
+            if (!this.orderedKeys.contains(key))
+                return super.createKeyMap(key);
+            else if (this.concurrent)
+                return new ConcurrentSkipListMap<Object, Set<T>>(TinkerValueComparator.INSTANCE);
+            else
+                return new TreeMap<Object, Set<T>>(TinkerValueComparator.INSTANCE);
+        }
+
+        /**
+         * Looks up the elements whose value for an ordered key compares to the provided value. Values that can not be
+         * compared to the provided value, such as strings when looking up a number, never match.
+         */
+        public List<T> get(final String key, final Compare compare, final Object value) {
+            final NavigableMap<Object, Set<T>> keyMap = (NavigableMap<Object, Set<T>>) this.index.get(key);
+            if (null == keyMap || null == value)
+                return Collections.emptyList();
+            switch (compare) {
+                case EQUAL:
+                    return this.collect(keyMap.subMap(value, true, value, true), value, false);
+                case GREATER_THAN:
+                    return this.collect(keyMap.tailMap(value, false), value, false);
+                case GREATER_THAN_EQUAL:
+                    return this.collect(keyMap.tailMap(value, true), value, false);
+                case LESS_THAN:
+                    return this.collect(keyMap.headMap(value, false).descendingMap(), value, true);
+                case LESS_THAN_EQUAL:
+                    return this.collect(keyMap.headMap(value, true).descendingMap(), value, true);
+                default:
+                    throw new IllegalArgumentException("An ordered key index can not answer " + compare);
+            }
+        }
+
+        /**
+         * Looks up the elements whose value for an ordered key is within the interval from the inclusive start value
+         * to the exclusive end value.
+         */
+        public List<T> get(final String key, final Object startValue, final Object endValue) {
+            final NavigableMap<Object, Set<T>> keyMap = (NavigableMap<Object, Set<T>>) this.index.get(key);
+            if (null == keyMap || null == startValue || null == endValue || TinkerValueComparator.INSTANCE.compare(startValue, endValue) >= 0)
+                return Collections.emptyList();
+            return this.collect(keyMap.subMap(startValue, true, endValue, false), startValue, false);
+        }
+
+        private List<T> collect(final Map<Object, Set<T>> range, final Object value, final boolean descending) {
+            final List<T> elements = new ArrayList<T>();
+            for (final Map.Entry<Object, Set<T>> entry : range.entrySet()) {
+                if (!TinkerValueComparator.INSTANCE.isComparable(value, entry.getKey()))
+                    break;
+                elements.addAll(entry.getValue());
+            }
+            if (descending)
+                Collections.reverse(elements);
+            return elements;
+        }
     }
 
 }
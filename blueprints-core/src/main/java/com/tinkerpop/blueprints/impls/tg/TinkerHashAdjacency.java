@@ -0,0 +1,110 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.util.MultiIterable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a hash set of edges per label. This is the default adjacency of TinkerGraph.
+ */
+class TinkerHashAdjacency implements TinkerAdjacency {
+
+    private final Map<String, EdgeSet> edges = new HashMap<String, EdgeSet>();
+
+    public void addEdge(final TinkerEdge edge) {
+        EdgeSet set = this.edges.get(edge.getLabel());
+        if (null == set) {
+            set = new EdgeSet();
+            this.edges.put(edge.getLabel(), set);
+        } else if (set.shared) {
+            set = new EdgeSet(set);
+            this.edges.put(edge.getLabel(), set);
+        }
+        set.add(edge);
+    }
+
+    public void removeEdge(final TinkerEdge edge) {
+        EdgeSet set = this.edges.get(edge.getLabel());
+        if (null == set || !set.contains(edge))
+            return;
+
+        if (set.size() == 1) {
+            this.edges.remove(edge.getLabel());
+        } else {
+            if (set.shared) {
+                set = new EdgeSet(set);
+                this.edges.put(edge.getLabel(), set);
+            }
+            set.remove(edge);
+        }
+    }
+
+    public Iterable<Edge> getEdges(final String... labels) {
+        if (labels.length == 1) {
+            final EdgeSet set = this.edges.get(labels[0]);
+            if (null == set) {
+                return Collections.emptyList();
+            } else {
+                return set.share();
+            }
+        } else {
+            final List<Iterable<Edge>> iterables = new ArrayList<Iterable<Edge>>();
+            if (labels.length == 0) {
+                for (final EdgeSet set : this.edges.values()) {
+                    iterables.add(set.share());
+                }
+            } else {
+                for (final String label : labels) {
+                    final EdgeSet set = this.edges.get(label);
+                    if (null != set) {
+                        iterables.add(set.share());
+                    }
+                }
+            }
+            return new MultiIterable<Edge>(iterables);
+        }
+    }
+
+    public long countEdges(final String... labels) {
+        long count = 0;
+        if (labels.length == 0) {
+            for (final EdgeSet set : this.edges.values()) {
+                count = count + set.size();
+            }
+        } else {
+            for (final String label : labels) {
+                final EdgeSet set = this.edges.get(label);
+                if (null != set)
+                    count = count + set.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A set of edges that is no longer modified once it has been handed out.
+     */
+    private static class EdgeSet extends HashSet<Edge> {
+
+        private transient boolean shared = false;
+
+        public EdgeSet() {
+            super();
+        }
+
+        public EdgeSet(final EdgeSet set) {
+            super(set);
+        }
+
+        public Iterable<Edge> share() {
+            this.shared = true;
+            return Collections.unmodifiableSet(this);
+        }
+    }
+}
@@ -11,21 +11,78 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 class TinkerIndex<T extends Element> implements Index<T>, Serializable {
 
-    protected Map<String, Map<Object, Set<T>>> index = new HashMap<String, Map<Object, Set<T>>>();
+    protected Map<String, Map<Object, Set<T>>> index;
+    /**
+     * The keys and values that each element is indexed by, so that an element is removed without scanning the index.
+     */
+    protected Map<T, Map<String, Set<Object>>> postings;
     protected final String indexName;
     protected final Class<T> indexClass;
+    protected final boolean concurrent;
+    protected transient TinkerLog log;
 
     public TinkerIndex(final String indexName, final Class<T> indexClass) {
+        this(indexName, indexClass, false);
+    }
+
+    /**
+     * A concurrent index is backed by concurrent maps and sets. Lookups do not lock while mutations lock on the
+     * map of the respective key.
+     *
+     * @param indexName  the name of the index
+     * @param indexClass the class of the indexed elements
+     * @param concurrent whether the index is safe for use by multiple threads
+     */
+    public TinkerIndex(final String indexName, final Class<T> indexClass, final boolean concurrent) {
         this.indexName = indexName;
         this.indexClass = indexClass;
+        this.concurrent = concurrent;
+        if (concurrent)
+            this.index = new ConcurrentHashMap<String, Map<Object, Set<T>>>();
+        else
+            this.index = new HashMap<String, Map<Object, Set<T>>>();
+        this.postings = this.createPostings();
+    }
+
+    /**
+     * Creates the reverse map from elements to the keys and values they are indexed by or returns null if the index
+     * can find the postings of an element otherwise.
+     */
+    protected Map<T, Map<String, Set<Object>>> createPostings() {
+        if (this.concurrent)
+            return new ConcurrentHashMap<T, Map<String, Set<Object>>>();
+        else
+            return new HashMap<T, Map<String, Set<Object>>>();
+    }
+
+    /**
+     * Rebuilds the postings of an index that was serialized without them.
+     */
+    protected Object readResolve() {
+        if (null == this.postings) {
+            this.postings = this.createPostings();
+            if (null != this.postings) {
+                for (final Map.Entry<String, Map<Object, Set<T>>> keyEntry : this.index.entrySet()) {
+                    for (final Map.Entry<Object, Set<T>> valueEntry : keyEntry.getValue().entrySet()) {
+                        for (final T element : valueEntry.getValue()) {
+                            this.addPosting(keyEntry.getKey(), valueEntry.getKey(), element);
+                        }
+                    }
+                }
+            }
+        }
+        return this;
     }
 
     public String getIndexName() {
@@ -37,18 +94,59 @@ class TinkerIndex<T extends Element> implements Index<T>, Serializable {
     }
 
     public void put(final String key, final Object value, final T element) {
-        Map<Object, Set<T>> keyMap = this.index.get(key);
-        if (keyMap == null) {
-            keyMap = new HashMap<Object, Set<T>>();
-            this.index.put(key, keyMap);
+        if (null != this.log) {
+            this.log.lock();
+            try {
+                this.putUnlogged(key, value, element);
+                this.log.indexPut(this.indexName, key, value, element);
+            } finally {
+                this.log.unlock();
+            }
+        } else {
+            this.putUnlogged(key, value, element);
+        }
+    }
+
+    private void putUnlogged(final String key, final Object value, final T element) {
+        if (this.concurrent) {
+            Map<Object, Set<T>> keyMap = this.index.get(key);
+            if (keyMap == null) {
+                keyMap = this.createKeyMap(key);
+                final Map<Object, Set<T>> existing = ((ConcurrentMap<String, Map<Object, Set<T>>>) this.index).putIfAbsent(key, keyMap);
+                if (null != existing)
+                    keyMap = existing;
+            }
+            synchronized (keyMap) {
+                this.put(keyMap, value, element);
+            }
+        } else {
+            Map<Object, Set<T>> keyMap = this.index.get(key);
+            if (keyMap == null) {
+                keyMap = this.createKeyMap(key);
+                this.index.put(key, keyMap);
+            }
+            this.put(keyMap, value, element);
         }
+        this.addPosting(key, value, element);
+    }
+
+    protected Map<Object, Set<T>> createKeyMap(final String key) {
+        if (this.concurrent)
+            return new ConcurrentHashMap<Object, Set<T>>();
+        else
+            return new HashMap<Object, Set<T>>();
+    }
+
+    private void put(final Map<Object, Set<T>> keyMap, final Object value, final T element) {
         Set<T> objects = keyMap.get(value);
         if (null == objects) {
-            objects = new HashSet<T>();
+            if (this.concurrent)
+                objects = Collections.newSetFromMap(new ConcurrentHashMap<T, Boolean>());
+            else
+                objects = new HashSet<T>();
             keyMap.put(value, objects);
         }
         objects.add(element);
-
     }
 
     public CloseableIterable<T> get(final String key, final Object value) {
@@ -56,7 +154,7 @@ class TinkerIndex<T extends Element> implements Index<T>, Serializable {
         if (null == keyMap) {
             return new WrappingCloseableIterable<T>((Iterable) Collections.emptyList());
         } else {
-            Set<T> set = keyMap.get(value);
+            final Set<T> set = this.getSet(keyMap, value);
             if (null == set)
                 return new WrappingCloseableIterable<T>((Iterable) Collections.emptyList());
             else
@@ -73,7 +171,7 @@ class TinkerIndex<T extends Element> implements Index<T>, Serializable {
         if (null == keyMap) {
             return 0;
         } else {
-            Set<T> set = keyMap.get(value);
+            final Set<T> set = this.getSet(keyMap, value);
             if (null == set)
                 return 0;
             else
@@ -81,24 +179,139 @@ class TinkerIndex<T extends Element> implements Index<T>, Serializable {
         }
     }
 
+    private Set<T> getSet(final Map<Object, Set<T>> keyMap, final Object value) {
+        // concurrent maps can not hold null values
+        if (null == value && this.concurrent)
+            return null;
+        return keyMap.get(value);
+    }
+
     public void remove(final String key, final Object value, final T element) {
+        if (null != this.log) {
+            this.log.lock();
+            try {
+                this.removeUnlogged(key, value, element);
+                this.log.indexRemove(this.indexName, key, value, element);
+            } finally {
+                this.log.unlock();
+            }
+        } else {
+            this.removeUnlogged(key, value, element);
+        }
+    }
+
+    private void removeUnlogged(final String key, final Object value, final T element) {
+        this.removeFromKeyMap(key, value, element);
+        this.removePosting(key, value, element);
+    }
+
+    private void removeFromKeyMap(final String key, final Object value, final T element) {
         final Map<Object, Set<T>> keyMap = this.index.get(key);
         if (null != keyMap) {
-            Set<T> objects = keyMap.get(value);
-            if (null != objects) {
-                objects.remove(element);
-                if (objects.size() == 0) {
-                    keyMap.remove(value);
+            if (this.concurrent) {
+                synchronized (keyMap) {
+                    this.remove(keyMap, value, element);
+                }
+            } else {
+                this.remove(keyMap, value, element);
+            }
+        }
+    }
+
+    private void remove(final Map<Object, Set<T>> keyMap, final Object value, final T element) {
+        final Set<T> objects = keyMap.get(value);
+        if (null != objects) {
+            objects.remove(element);
+            if (objects.size() == 0) {
+                keyMap.remove(value);
+            }
+        }
+    }
+
+    private void addPosting(final String key, final Object value, final T element) {
+        if (null == this.postings)
+            return;
+        Map<String, Set<Object>> elementPostings = this.postings.get(element);
+        if (null == elementPostings) {
+            elementPostings = new HashMap<String, Set<Object>>(4);
+            if (this.concurrent) {
+                final Map<String, Set<Object>> existing = ((ConcurrentMap<T, Map<String, Set<Object>>>) this.postings).putIfAbsent(element, elementPostings);
+                if (null != existing)
+                    elementPostings = existing;
+            } else {
+                this.postings.put(element, elementPostings);
+            }
+        }
+        if (this.concurrent) {
+            synchronized (elementPostings) {
+                this.addPosting(elementPostings, key, value);
+            }
+        } else {
+            this.addPosting(elementPostings, key, value);
+        }
+    }
+
+    private void addPosting(final Map<String, Set<Object>> elementPostings, final String key, final Object value) {
+        Set<Object> values = elementPostings.get(key);
+        if (null == values) {
+            values = new HashSet<Object>(2);
+            elementPostings.put(key, values);
+        }
+        values.add(value);
+    }
+
+    private void removePosting(final String key, final Object value, final T element) {
+        if (null == this.postings)
+            return;
+        final Map<String, Set<Object>> elementPostings = this.postings.get(element);
+        if (null != elementPostings) {
+            if (this.concurrent) {
+                synchronized (elementPostings) {
+                    this.removePosting(elementPostings, key, value, element);
                 }
+            } else {
+                this.removePosting(elementPostings, key, value, element);
+            }
+        }
+    }
+
+    private void removePosting(final Map<String, Set<Object>> elementPostings, final String key, final Object value, final T element) {
+        final Set<Object> values = elementPostings.get(key);
+        if (null != values) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                elementPostings.remove(key);
+                if (elementPostings.isEmpty())
+                    this.postings.remove(element);
             }
         }
     }
 
+    /**
+     * Removes the element from all keys and values it is indexed by. Only the postings of the element are visited.
+     */
     public void removeElement(final T element) {
         if (this.indexClass.isAssignableFrom(element.getClass())) {
-            for (Map<Object, Set<T>> map : index.values()) {
-                for (Set<T> set : map.values()) {
-                    set.remove(element);
+            final Map<String, Set<Object>> elementPostings = this.postings.remove(element);
+            if (null != elementPostings) {
+                if (this.concurrent) {
+                    final Map<String, List<Object>> copy = new HashMap<String, List<Object>>();
+                    synchronized (elementPostings) {
+                        for (final Map.Entry<String, Set<Object>> entry : elementPostings.entrySet()) {
+                            copy.put(entry.getKey(), new ArrayList<Object>(entry.getValue()));
+                        }
+                    }
+                    for (final Map.Entry<String, List<Object>> entry : copy.entrySet()) {
+                        for (final Object value : entry.getValue()) {
+                            this.removeFromKeyMap(entry.getKey(), value, element);
+                        }
+                    }
+                } else {
+                    for (final Map.Entry<String, Set<Object>> entry : elementPostings.entrySet()) {
+                        for (final Object value : entry.getValue()) {
+                            this.removeFromKeyMap(entry.getKey(), value, element);
+                        }
+                    }
                 }
             }
         }
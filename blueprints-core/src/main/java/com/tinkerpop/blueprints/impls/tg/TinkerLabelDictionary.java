@@ -0,0 +1,50 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns edge labels to small ints so that compact adjacencies do not need to hold a label per vertex.
+ * Lookups do not lock and new labels are interned under the dictionary's lock.
+ */
+class TinkerLabelDictionary implements Serializable {
+
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+    private volatile String[] labels = new String[0];
+
+    public int intern(final String label) {
+        final Integer id = this.ids.get(label);
+        if (null != id)
+            return id;
+
+        synchronized (this) {
+            final Integer existing = this.ids.get(label);
+            if (null != existing)
+                return existing;
+
+            final int newId = this.labels.length;
+            final String[] newLabels = new String[newId + 1];
+            System.arraycopy(this.labels, 0, newLabels, 0, newId);
+            newLabels[newId] = label;
+            this.labels = newLabels;
+            this.ids.put(label, newId);
+            return newId;
+        }
+    }
+
+    public int getId(final String label) {
+        final Integer id = this.ids.get(label);
+        return null == id ? UNKNOWN : id;
+    }
+
+    public String getLabel(final int id) {
+        return this.labels[id];
+    }
+
+    public int size() {
+        return this.labels.length;
+    }
+}
@@ -0,0 +1,209 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads a tinkergraph.dat file that an earlier version of TinkerGraph wrote by Java serializing itself.
+ * <br />
+ * The serialized TinkerGraph, TinkerVertex, TinkerEdge, TinkerElement, TinkerIndex and TinkerKeyIndex classes of
+ * that version are read as the mirror classes below, which carry their serialVersionUIDs and serialized fields. The
+ * graph is then rebuilt from the mirrors, so the current classes are free to change their fields.
+ */
+class TinkerLegacyGraph {
+
+    private static final String PACKAGE = "com.tinkerpop.blueprints.impls.tg.";
+    private static final Map<String, Class<?>> MIRRORS = new HashMap<String, Class<?>>();
+
+    static {
+        MIRRORS.put(PACKAGE + "TinkerGraph", LegacyGraph.class);
+        MIRRORS.put(PACKAGE + "TinkerElement", LegacyElement.class);
+        MIRRORS.put(PACKAGE + "TinkerVertex", LegacyVertex.class);
+        MIRRORS.put(PACKAGE + "TinkerEdge", LegacyEdge.class);
+        MIRRORS.put(PACKAGE + "TinkerIndex", LegacyIndex.class);
+        MIRRORS.put(PACKAGE + "TinkerGraph$TinkerKeyIndex", LegacyKeyIndex.class);
+    }
+
+    /**
+     * Reads the serialized graph into the empty graph.
+     */
+    public static void read(final TinkerGraph graph, final File file) throws IOException {
+        final LegacyInputStream input = new LegacyInputStream(new FileInputStream(file));
+        final LegacyGraph legacy;
+        try {
+            legacy = (LegacyGraph) input.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Could not read serialized TinkerGraph " + file + ": " + e.getMessage(), e);
+        } catch (ClassCastException e) {
+            throw new IOException("Not a serialized TinkerGraph " + file, e);
+        } finally {
+            input.close();
+        }
+        convert(legacy, graph);
+    }
+
+    private static void convert(final LegacyGraph legacy, final TinkerGraph graph) throws IOException {
+        if (null != legacy.currentId)
+            graph.currentId.set(legacy.currentId);
+
+        for (final String key : legacy.vertexKeyIndex.indexedKeys) {
+            graph.createKeyIndex(key, Vertex.class);
+        }
+        for (final String key : legacy.edgeKeyIndex.indexedKeys) {
+            graph.createKeyIndex(key, Edge.class);
+        }
+
+        for (final Object value : legacy.vertices.values()) {
+            final LegacyVertex legacyVertex = (LegacyVertex) value;
+            final TinkerVertex vertex = new TinkerVertex(legacyVertex.id, graph);
+            graph.vertices.put(vertex.getId(), vertex);
+            setProperties(legacyVertex, vertex, graph.vertexKeyIndex);
+        }
+
+        for (final Object value : legacy.edges.values()) {
+            final LegacyEdge legacyEdge = (LegacyEdge) value;
+            final TinkerVertex outVertex = getVertex(graph, legacyEdge.outVertex);
+            final TinkerVertex inVertex = getVertex(graph, legacyEdge.inVertex);
+            final TinkerEdge edge = new TinkerEdge(legacyEdge.id, outVertex, inVertex, legacyEdge.label, graph);
+            graph.edges.put(edge.getId(), edge);
+            outVertex.addOutEdge(edge);
+            inVertex.addInEdge(edge);
+            setProperties(legacyEdge, edge, graph.edgeKeyIndex);
+            edge.addToVertexIndex();
+        }
+
+        for (final Object value : legacy.indices.values()) {
+            final LegacyIndex legacyIndex = (LegacyIndex) value;
+            final boolean vertexIndex = Vertex.class.isAssignableFrom(legacyIndex.indexClass);
+            final TinkerIndex index = vertexIndex ?
+                    (TinkerIndex) graph.createIndex(legacyIndex.indexName, Vertex.class) :
+                    (TinkerIndex) graph.createIndex(legacyIndex.indexName, Edge.class);
+            for (final Map.Entry<String, Map<Object, Set<Object>>> keyEntry : legacyIndex.index.entrySet()) {
+                for (final Map.Entry<Object, Set<Object>> valueEntry : keyEntry.getValue().entrySet()) {
+                    for (final Object element : valueEntry.getValue()) {
+                        final String id = ((LegacyElement) element).id;
+                        final Element indexed = vertexIndex ? graph.vertices.get(id) : graph.edges.get(id);
+                        if (null == indexed)
+                            throw new IOException("Index " + legacyIndex.indexName + " references missing element " + id);
+                        index.put(keyEntry.getKey(), valueEntry.getKey(), indexed);
+                    }
+                }
+            }
+        }
+    }
+
+    private static TinkerVertex getVertex(final TinkerGraph graph, final LegacyVertex legacyVertex) throws IOException {
+        final TinkerVertex vertex = (TinkerVertex) graph.vertices.get(legacyVertex.id);
+        if (null == vertex)
+            throw new IOException("Edge references missing vertex " + legacyVertex.id);
+        return vertex;
+    }
+
+    private static <T extends TinkerElement> void setProperties(final LegacyElement legacyElement, final T element, final TinkerGraph.TinkerKeyIndex<T> keyIndex) {
+        for (final Map.Entry<String, Object> property : legacyElement.properties.entrySet()) {
+            element.properties.put(property.getKey(), property.getValue());
+            keyIndex.autoUpdate(property.getKey(), property.getValue(), null, element);
+        }
+    }
+
+    /**
+     * Replaces the class descriptors of the earlier version by those of their mirrors. The fields of a mirror are
+     * read in the order of their names, so a mirror declares all serialized fields of its class under the same names,
+     * even those that are not needed.
+     */
+    private static class LegacyInputStream extends ObjectInputStream {
+
+        public LegacyInputStream(final InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            final ObjectStreamClass desc = super.readClassDescriptor();
+            final Class<?> mirror = MIRRORS.get(desc.getName());
+            if (null == mirror)
+                return desc;
+
+            final ObjectStreamClass mirrorDesc = ObjectStreamClass.lookup(mirror);
+            if (desc.getSerialVersionUID() != mirrorDesc.getSerialVersionUID())
+                throw new InvalidClassException(desc.getName(), "unsupported serialVersionUID " + desc.getSerialVersionUID());
+            final ObjectStreamField[] fields = desc.getFields();
+            final ObjectStreamField[] mirrorFields = mirrorDesc.getFields();
+            if (fields.length != mirrorFields.length)
+                throw new InvalidClassException(desc.getName(), "unsupported serialized fields");
+            for (int i = 0; i < fields.length; i++) {
+                if (!fields[i].getName().equals(mirrorFields[i].getName()) || fields[i].getTypeCode() != mirrorFields[i].getTypeCode())
+                    throw new InvalidClassException(desc.getName(), "unsupported serialized field " + fields[i].getName());
+            }
+            return mirrorDesc;
+        }
+    }
+
+    private static class LegacyGraph implements Serializable {
+        private static final long serialVersionUID = 2408485431345293423L;
+
+        private Long currentId;
+        private String directory;
+        private LegacyKeyIndex edgeKeyIndex;
+        private Map<String, Object> edges;
+        private Map<String, LegacyIndex> indices;
+        private LegacyKeyIndex vertexKeyIndex;
+        private Map<String, Object> vertices;
+    }
+
+    private static abstract class LegacyElement implements Serializable {
+        private static final long serialVersionUID = 1879436292563621305L;
+
+        protected Object graph;
+        protected String id;
+        protected Map<String, Object> properties;
+    }
+
+    private static class LegacyVertex extends LegacyElement {
+        private static final long serialVersionUID = 8362060158076225251L;
+
+        private Object inEdges;
+        private Object outEdges;
+    }
+
+    private static class LegacyEdge extends LegacyElement {
+        private static final long serialVersionUID = 868340606500353560L;
+
+        private LegacyVertex inVertex;
+        private String label;
+        private LegacyVertex outVertex;
+    }
+
+    private static class LegacyIndex implements Serializable {
+        private static final long serialVersionUID = 539822656793902585L;
+
+        protected Map<String, Map<Object, Set<Object>>> index;
+        protected Class<?> indexClass;
+        protected String indexName;
+    }
+
+    /**
+     * TinkerKeyIndex was an inner class, so it also serialized its enclosing graph as this$0.
+     */
+    private static class LegacyKeyIndex extends LegacyIndex {
+        private static final long serialVersionUID = -9089393694678720810L;
+
+        private Object graph;
+        private Set<String> indexedKeys;
+        private Object this$0;
+    }
+}
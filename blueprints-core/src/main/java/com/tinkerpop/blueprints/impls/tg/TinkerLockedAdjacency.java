@@ -0,0 +1,42 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Edge;
+
+/**
+ * Guards an adjacency by a lock that is shared with other adjacencies. Since the iterables returned by an adjacency
+ * are snapshots, the lock is only held while taking the snapshot and not while iterating.
+ */
+class TinkerLockedAdjacency implements TinkerAdjacency {
+
+    private final TinkerAdjacency adjacency;
+    private final transient Object lock;
+
+    public TinkerLockedAdjacency(final TinkerAdjacency adjacency, final Object lock) {
+        this.adjacency = adjacency;
+        this.lock = lock;
+    }
+
+    public void addEdge(final TinkerEdge edge) {
+        synchronized (this.lock) {
+            this.adjacency.addEdge(edge);
+        }
+    }
+
+    public void removeEdge(final TinkerEdge edge) {
+        synchronized (this.lock) {
+            this.adjacency.removeEdge(edge);
+        }
+    }
+
+    public Iterable<Edge> getEdges(final String... labels) {
+        synchronized (this.lock) {
+            return this.adjacency.getEdges(labels);
+        }
+    }
+
+    public long countEdges(final String... labels) {
+        synchronized (this.lock) {
+            return this.adjacency.countEdges(labels);
+        }
+    }
+}
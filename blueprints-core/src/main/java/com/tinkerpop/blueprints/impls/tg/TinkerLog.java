@@ -0,0 +1,749 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the mutations of a persistent TinkerGraph.
+ * <br />
+ * Every mutation is applied and logged while holding the lock of the log. Records are framed with their length and
+ * a CRC32 checksum and collected in memory. They are written to the log file once a group of records is full and
+ * all written records are forced to disk together every sync interval, so that a crash loses at most the mutations
+ * of the last sync interval. A sync interval of zero forces every single record to disk.
+ * <br />
+ * Every checkpoint interval the graph is streamed to a new snapshot file while holding the lock, but the snapshot is
+ * forced to disk without holding it, so that mutations continue meanwhile. The snapshot carries the offset in the
+ * log it was taken at and the log is then switched to the next generation, which keeps only the records after that
+ * offset. The log file starts with its generation. On startup the log is replayed when its generation matches the
+ * generation of the snapshot. A log of the previous generation is replayed from the offset of the snapshot, as the
+ * process died between writing the snapshot and switching the log, and older logs are discarded. Replay stops at the
+ * first torn or corrupt record and the log is truncated there. A log of an earlier format version is checkpointed
+ * right after it was replayed, so that new records are never appended to it.
+ * <br />
+ * Syncs and checkpoints run on threads of the log, which are stopped when the log is closed.
+ */
+class TinkerLog {
+
+    public static final int MAGIC = 0x54474c47;
+    /**
+     * The format version: 1 is the initial layout and 2 adds the ordered flag to key index records.
+     */
+    public static final int VERSION = 2;
+
+    private static final int GROUP_SIZE = 1 << 16;
+
+    private static final byte ADD_VERTEX = 0;
+    private static final byte ADD_EDGE = 1;
+    private static final byte REMOVE_VERTEX = 2;
+    private static final byte REMOVE_EDGE = 3;
+    private static final byte SET_PROPERTY = 4;
+    private static final byte REMOVE_PROPERTY = 5;
+    private static final byte CREATE_INDEX = 6;
+    private static final byte DROP_INDEX = 7;
+    private static final byte INDEX_PUT = 8;
+    private static final byte INDEX_REMOVE = 9;
+    private static final byte CREATE_KEY_INDEX = 10;
+    private static final byte DROP_KEY_INDEX = 11;
+    private static final byte CLEAR = 12;
+    private static final byte CREATE_VERTEX_CENTRIC_INDEX = 13;
+    private static final byte DROP_VERTEX_CENTRIC_INDEX = 14;
+
+    private static final byte VERTEX = 0;
+    private static final byte EDGE = 1;
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "tinkergraph-log");
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
+
+    private final TinkerGraph graph;
+    private final File file;
+    private final File snapshotFile;
+    private final long syncInterval;
+    private final long checkpointInterval;
+    private long generation;
+    private long covered = 0;
+    private int version = VERSION;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    private final TinkerSnapshot.Output recordOutput = new TinkerSnapshot.Output(Channels.newChannel(this.record), 1024);
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(GROUP_SIZE);
+    private final CRC32 crc = new CRC32();
+    private volatile long records = 0;
+
+    private FileChannel channel;
+    private OutputStream channelStream;
+    private ScheduledExecutorService scheduler;
+    private volatile IOException failure;
+
+    /**
+     * Opens the log of a graph that was just loaded from a snapshot and replays it.
+     *
+     * @param graph              the loaded graph
+     * @param file               the log file
+     * @param snapshotFile       the snapshot file written by checkpoints
+     * @param position           the position in the log the loaded snapshot supersedes or generation 0 if there was none
+     * @param syncInterval       the milliseconds between forcing the log to disk
+     * @param checkpointInterval the milliseconds between checkpoints or 0 to only checkpoint on close
+     */
+    public TinkerLog(final TinkerGraph graph, final File file, final File snapshotFile, final TinkerSnapshot.LogPosition position, final long syncInterval, final long checkpointInterval) throws IOException {
+        this.graph = graph;
+        this.file = file;
+        this.snapshotFile = snapshotFile;
+        this.generation = position.generation;
+        this.syncInterval = syncInterval;
+        this.checkpointInterval = checkpointInterval;
+
+        final long valid = this.file.exists() ? this.replay(position.offset) : -1;
+        this.open();
+        if (valid < 0) {
+            this.reset();
+        } else {
+            this.channel.truncate(valid);
+            this.channel.position(valid);
+            if (this.version < VERSION)
+                this.checkpoint();
+            else if (this.covered > 0)
+                this.rewrite(this.covered);
+        }
+        this.schedule();
+    }
+
+    /**
+     * Replays the log onto the graph.
+     *
+     * @param offset the offset in the log of the previous generation the snapshot was taken at
+     * @return the length of the valid prefix of the log or -1 if the log has to be reset
+     */
+    private long replay(final long offset) throws IOException {
+        final TinkerSnapshot.Input input = new TinkerSnapshot.Input(new FileInputStream(this.file).getChannel());
+        try {
+            final long logGeneration;
+            try {
+                if (input.readInt() != MAGIC)
+                    return -1;
+                final int version = input.readVarInt();
+                if (version < 1 || version > VERSION)
+                    throw new IOException("Unsupported TinkerGraph log version: " + version);
+                logGeneration = input.readVarLong();
+                this.version = version;
+            } catch (EOFException e) {
+                return -1;
+            }
+            if (logGeneration > this.generation)
+                throw new IOException("TinkerGraph log " + logGeneration + " is newer than its snapshot " + this.generation);
+            if (logGeneration < this.generation) {
+                // only the records after the snapshot of a log that was not switched yet are replayed
+                if (logGeneration != this.generation - 1 || offset <= 0 || offset > input.position() + input.remaining())
+                    return -1;
+                input.seek(offset);
+                this.covered = offset;
+            }
+
+            long valid = input.position();
+            while (input.remaining() >= 8) {
+                final int length = input.readInt();
+                final int checksum = input.readInt();
+                if (length < 0 || length > input.remaining())
+                    break;
+                final byte[] bytes = input.readBytes(length);
+                this.crc.reset();
+                this.crc.update(bytes, 0, length);
+                if ((int) this.crc.getValue() != checksum)
+                    break;
+                this.apply(new TinkerSnapshot.Input(ByteBuffer.wrap(bytes)));
+                this.records++;
+                valid = input.position();
+            }
+            return valid;
+        } finally {
+            input.close();
+        }
+    }
+
+    private void apply(final TinkerSnapshot.Input input) throws IOException {
+        final byte operation = input.readByte();
+        switch (operation) {
+            case ADD_VERTEX: {
+                final String id = input.readId();
+                if (null == this.graph.vertices.get(id)) {
+                    this.graph.vertices.put(id, new TinkerVertex(id, this.graph));
+                    this.advanceId(id);
+                }
+                break;
+            }
+            case ADD_EDGE: {
+                final String id = input.readId();
+                final TinkerVertex outVertex = (TinkerVertex) this.getElement(VERTEX, input.readId());
+                final TinkerVertex inVertex = (TinkerVertex) this.getElement(VERTEX, input.readId());
+                final String label = input.readString();
+                if (null == this.graph.edges.get(id)) {
+                    final TinkerEdge edge = new TinkerEdge(id, outVertex, inVertex, label, this.graph);
+                    this.graph.edges.put(id, edge);
+                    outVertex.addOutEdge(edge);
+                    inVertex.addInEdge(edge);
+                    this.advanceId(id);
+                }
+                break;
+            }
+            case REMOVE_VERTEX: {
+                final Vertex vertex = this.graph.vertices.get(input.readId());
+                if (null != vertex)
+                    this.graph.removeVertex(vertex);
+                break;
+            }
+            case REMOVE_EDGE: {
+                final Edge edge = this.graph.edges.get(input.readId());
+                if (null != edge)
+                    this.graph.removeEdge(edge);
+                break;
+            }
+            case SET_PROPERTY: {
+                final Element element = this.getElement(input.readByte(), input.readId());
+                element.setProperty(input.readString(), input.readValue());
+                break;
+            }
+            case REMOVE_PROPERTY: {
+                final Element element = this.getElement(input.readByte(), input.readId());
+                element.removeProperty(input.readString());
+                break;
+            }
+            case CREATE_INDEX: {
+                final String indexName = input.readString();
+                final Class indexClass = getClass(input.readByte());
+                if (!this.graph.indices.containsKey(indexName))
+                    this.graph.createIndex(indexName, indexClass);
+                break;
+            }
+            case DROP_INDEX:
+                this.graph.dropIndex(input.readString());
+                break;
+            case INDEX_PUT:
+            case INDEX_REMOVE: {
+                final TinkerIndex index = this.getIndex(input.readString());
+                final String key = input.readString();
+                final Object value = input.readValue();
+                final Element element = this.getElement(Vertex.class.isAssignableFrom(index.getIndexClass()) ? VERTEX : EDGE, input.readId());
+                if (operation == INDEX_PUT)
+                    index.put(key, value, element);
+                else
+                    index.remove(key, value, element);
+                break;
+            }
+            case CREATE_KEY_INDEX: {
+                final String key = input.readString();
+                final Class elementClass = getClass(input.readByte());
+                if (this.version >= 2 && input.readByte() != 0)
+                    this.graph.createKeyIndex(key, elementClass, TinkerGraph.ORDERED_KEY_INDEX);
+                else
+                    this.graph.createKeyIndex(key, elementClass);
+                break;
+            }
+            case DROP_KEY_INDEX:
+                this.graph.dropKeyIndex(input.readString(), getClass(input.readByte()));
+                break;
+            case CLEAR:
+                this.graph.clear();
+                break;
+            case CREATE_VERTEX_CENTRIC_INDEX: {
+                final String label = input.readString();
+                final String key = input.readString();
+                if (input.readByte() != 0)
+                    this.graph.createVertexCentricIndex(label, key, TinkerGraph.ORDERED_KEY_INDEX);
+                else
+                    this.graph.createVertexCentricIndex(label, key);
+                break;
+            }
+            case DROP_VERTEX_CENTRIC_INDEX:
+                this.graph.dropVertexCentricIndex(input.readString(), input.readString());
+                break;
+            default:
+                throw new IOException("Unknown TinkerGraph log operation: " + operation);
+        }
+    }
+
+    private Element getElement(final byte type, final String id) throws IOException {
+        final Element element = type == VERTEX ? this.graph.vertices.get(id) : this.graph.edges.get(id);
+        if (null == element)
+            throw new IOException("TinkerGraph log references missing element " + id);
+        return element;
+    }
+
+    private TinkerIndex getIndex(final String indexName) throws IOException {
+        final TinkerIndex index = this.graph.indices.get(indexName);
+        if (null == index)
+            throw new IOException("TinkerGraph log references missing index " + indexName);
+        return index;
+    }
+
+    private void advanceId(final String id) {
+        if (TinkerSnapshot.isCanonicalLong(id)) {
+            final long next = Long.parseLong(id) + 1;
+            if (next > this.graph.currentId.get())
+                this.graph.currentId.set(next);
+        }
+    }
+
+    private void schedule() {
+        if (null != this.scheduler || (this.syncInterval <= 0 && this.checkpointInterval <= 0))
+            return;
+        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, THREAD_FACTORY);
+        this.scheduler = scheduler;
+        if (this.syncInterval > 0) {
+            scheduler.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    try {
+                        sync();
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }, this.syncInterval, this.syncInterval, TimeUnit.MILLISECONDS);
+        }
+        if (this.checkpointInterval > 0) {
+            scheduler.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    checkpointLock.lock();
+                    try {
+                        // a checkpoint that waited for close must not run after it
+                        if (!scheduler.isShutdown() && records > 0)
+                            checkpoint();
+                    } catch (IOException e) {
+                        failure = e;
+                    } finally {
+                        checkpointLock.unlock();
+                    }
+                }
+            }, this.checkpointInterval, this.checkpointInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void lock() {
+        this.lock.lock();
+    }
+
+    public void unlock() {
+        this.lock.unlock();
+    }
+
+    /**
+     * Writes the pending records and forces the log to disk. The lock is only held while writing, not while forcing.
+     * A log file that is closed or replaced meanwhile was forced by close or copied and forced by the checkpoint.
+     */
+    public void sync() throws IOException {
+        final FileChannel channel;
+        this.lock.lock();
+        try {
+            if (null == this.channel)
+                return;
+            this.writePending();
+            channel = this.channel;
+        } finally {
+            this.lock.unlock();
+        }
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            this.lock.lock();
+            try {
+                if (this.channel == channel)
+                    throw e;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private void writePending() throws IOException {
+        if (this.pending.size() > 0) {
+            this.pending.writeTo(this.channelStream);
+            this.pending.reset();
+        }
+    }
+
+    /**
+     * Writes the graph to a new snapshot and switches the log to the next generation. The lock is only held while
+     * streaming the snapshot to a temporary file and while switching the log, not while forcing the snapshot to disk.
+     */
+    public void checkpoint() throws IOException {
+        this.checkpointLock.lock();
+        boolean opened = false;
+        try {
+            final File snapshot;
+            final long offset;
+            final long covered;
+            this.lock.lock();
+            try {
+                if (null == this.channel) {
+                    this.open();
+                    opened = true;
+                }
+                this.writePending();
+                offset = this.channel.position();
+                covered = this.records;
+                snapshot = TinkerSnapshot.write(this.graph, this.snapshotFile, this.generation + 1, offset);
+            } finally {
+                this.lock.unlock();
+            }
+
+            TinkerSnapshot.install(snapshot, this.snapshotFile);
+
+            this.lock.lock();
+            try {
+                this.generation++;
+                this.records -= covered;
+                this.rewrite(offset);
+            } finally {
+                this.lock.unlock();
+            }
+        } finally {
+            try {
+                if (opened) {
+                    this.lock.lock();
+                    try {
+                        this.closeChannel();
+                    } finally {
+                        this.lock.unlock();
+                    }
+                }
+            } finally {
+                this.checkpointLock.unlock();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        this.channel = new RandomAccessFile(this.file, "rw").getChannel();
+        this.channelStream = Channels.newOutputStream(this.channel);
+        this.channel.position(this.channel.size());
+    }
+
+    private void closeChannel() throws IOException {
+        if (null == this.channel)
+            return;
+        try {
+            this.writePending();
+            this.channel.force(false);
+        } finally {
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    private void reset() throws IOException {
+        this.channel.truncate(0);
+        this.channel.position(0);
+        this.writeHeader(this.channel);
+        this.channel.force(true);
+    }
+
+    /**
+     * Replaces the log by a log of the current generation that holds the records after the given offset.
+     */
+    private void rewrite(final long offset) throws IOException {
+        this.writePending();
+        final File temp = new File(this.file.getPath() + ".tmp");
+        final FileChannel target = new FileOutputStream(temp).getChannel();
+        try {
+            this.writeHeader(target);
+            final long size = this.channel.size();
+            for (long position = offset; position < size; ) {
+                position += this.channel.transferTo(position, size - position, target);
+            }
+            target.force(true);
+        } finally {
+            target.close();
+        }
+        this.channel.close();
+        this.channel = null;
+        if (!temp.renameTo(this.file)) {
+            if (this.file.exists() && !this.file.delete())
+                throw new IOException("Could not replace log " + this.file);
+            if (!temp.renameTo(this.file))
+                throw new IOException("Could not rename log " + temp);
+        }
+        this.open();
+    }
+
+    private void writeHeader(final WritableByteChannel channel) throws IOException {
+        final TinkerSnapshot.Output header = new TinkerSnapshot.Output(channel, 32);
+        header.writeInt(MAGIC);
+        header.writeVarInt(VERSION);
+        header.writeVarLong(this.generation);
+        header.flush();
+    }
+
+    /**
+     * Stops the scheduled syncs and checkpoints, checkpoints the graph and closes the log file. The log is reopened
+     * when the graph is mutated again.
+     */
+    public void close() throws IOException {
+        this.checkpointLock.lock();
+        try {
+            this.lock.lock();
+            try {
+                if (null != this.scheduler) {
+                    this.scheduler.shutdown();
+                    this.scheduler = null;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+            if (this.records > 0 || !this.snapshotFile.exists())
+                this.checkpoint();
+            this.lock.lock();
+            try {
+                this.closeChannel();
+            } finally {
+                this.lock.unlock();
+            }
+        } finally {
+            this.checkpointLock.unlock();
+        }
+    }
+
+    private void append() {
+        if (null != this.failure)
+            throw new RuntimeException(this.failure.getMessage(), this.failure);
+        try {
+            if (null == this.channel) {
+                this.open();
+                this.schedule();
+            }
+            this.recordOutput.flush();
+            final int length = this.record.size();
+            this.crc.reset();
+            this.crc.update(this.record.toByteArray(), 0, length);
+            writeInt(this.pending, length);
+            writeInt(this.pending, (int) this.crc.getValue());
+            this.record.writeTo(this.pending);
+            this.record.reset();
+            this.records++;
+
+            if (this.syncInterval <= 0) {
+                this.writePending();
+                this.channel.force(false);
+            } else if (this.pending.size() >= GROUP_SIZE) {
+                this.writePending();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private static void writeInt(final ByteArrayOutputStream out, final int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static Class getClass(final byte type) {
+        return type == VERTEX ? Vertex.class : Edge.class;
+    }
+
+    private static byte getType(final Element element) {
+        return element instanceof Vertex ? VERTEX : EDGE;
+    }
+
+    private static byte getType(final Class elementClass) {
+        return Vertex.class.isAssignableFrom(elementClass) ? VERTEX : EDGE;
+    }
+
+    private void begin(final byte operation) throws IOException {
+        this.record.reset();
+        this.recordOutput.writeByte(operation);
+    }
+
+    public void addVertex(final String id) {
+        try {
+            this.begin(ADD_VERTEX);
+            this.recordOutput.writeId(id);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void addEdge(final TinkerEdge edge) {
+        try {
+            this.begin(ADD_EDGE);
+            this.recordOutput.writeId(edge.getId());
+            this.recordOutput.writeId((String) edge.getVertex(Direction.OUT).getId());
+            this.recordOutput.writeId((String) edge.getVertex(Direction.IN).getId());
+            this.recordOutput.writeString(edge.getLabel());
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void removeVertex(final String id) {
+        try {
+            this.begin(REMOVE_VERTEX);
+            this.recordOutput.writeId(id);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void removeEdge(final String id) {
+        try {
+            this.begin(REMOVE_EDGE);
+            this.recordOutput.writeId(id);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void setProperty(final TinkerElement element, final String key, final Object value) {
+        try {
+            this.begin(SET_PROPERTY);
+            this.recordOutput.writeByte(getType(element));
+            this.recordOutput.writeId(element.getId());
+            this.recordOutput.writeString(key);
+            this.recordOutput.writeValue(value);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void removeProperty(final TinkerElement element, final String key) {
+        try {
+            this.begin(REMOVE_PROPERTY);
+            this.recordOutput.writeByte(getType(element));
+            this.recordOutput.writeId(element.getId());
+            this.recordOutput.writeString(key);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void createIndex(final String indexName, final Class indexClass) {
+        try {
+            this.begin(CREATE_INDEX);
+            this.recordOutput.writeString(indexName);
+            this.recordOutput.writeByte(getType(indexClass));
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void dropIndex(final String indexName) {
+        try {
+            this.begin(DROP_INDEX);
+            this.recordOutput.writeString(indexName);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void indexPut(final String indexName, final String key, final Object value, final Element element) {
+        this.indexRecord(INDEX_PUT, indexName, key, value, element);
+    }
+
+    public void indexRemove(final String indexName, final String key, final Object value, final Element element) {
+        this.indexRecord(INDEX_REMOVE, indexName, key, value, element);
+    }
+
+    private void indexRecord(final byte operation, final String indexName, final String key, final Object value, final Element element) {
+        try {
+            this.begin(operation);
+            this.recordOutput.writeString(indexName);
+            this.recordOutput.writeString(key);
+            this.recordOutput.writeValue(value);
+            this.recordOutput.writeId((String) element.getId());
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void createKeyIndex(final String key, final Class elementClass, final boolean ordered) {
+        try {
+            this.begin(CREATE_KEY_INDEX);
+            this.recordOutput.writeString(key);
+            this.recordOutput.writeByte(getType(elementClass));
+            this.recordOutput.writeByte(ordered ? (byte) 1 : (byte) 0);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void dropKeyIndex(final String key, final Class elementClass) {
+        try {
+            this.begin(DROP_KEY_INDEX);
+            this.recordOutput.writeString(key);
+            this.recordOutput.writeByte(getType(elementClass));
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void clear() {
+        try {
+            this.begin(CLEAR);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void createVertexCentricIndex(final String label, final String key, final boolean ordered) {
+        try {
+            this.begin(CREATE_VERTEX_CENTRIC_INDEX);
+            this.recordOutput.writeString(label);
+            this.recordOutput.writeString(key);
+            this.recordOutput.writeByte(ordered ? (byte) 1 : (byte) 0);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+
+    public void dropVertexCentricIndex(final String label, final String key) {
+        try {
+            this.begin(DROP_VERTEX_CENTRIC_INDEX);
+            this.recordOutput.writeString(label);
+            this.recordOutput.writeString(key);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.append();
+    }
+}
@@ -0,0 +1,166 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Query.Compare;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.DefaultQuery.HasContainer;
+import com.tinkerpop.blueprints.util.QueryPlanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The statistics and access paths that TinkerGraph contributes to the queries of a TinkerVertex. The edges of a
+ * vertex are counted exactly from the sizes of its adjacencies. If all labels of a query index the key of an equality
+ * condition in a vertex-centric index, the condition is estimated and answered from the index. If all labels of a
+ * query have an ordered index for the key of a range condition, the range is answered from the index. In both cases
+ * the index stops as soon as it found as many matching edges as the limit of the query.
+ */
+class TinkerQueryStatistics implements QueryPlanner.Statistics {
+
+    public static final TinkerQueryStatistics INSTANCE = new TinkerQueryStatistics();
+
+    private static final Direction[] IN_OUT = new Direction[]{Direction.IN, Direction.OUT};
+
+    public long estimateEdges(final Vertex vertex, final Direction direction, final String... labels) {
+        return ((TinkerVertex) vertex).countEdges(direction, labels);
+    }
+
+    public long countEdges(final Vertex vertex, final Direction direction, final String... labels) {
+        return ((TinkerVertex) vertex).countEdges(direction, labels);
+    }
+
+    public double estimateSelectivity(final Vertex vertex, final Direction direction, final String[] labels, final HasContainer hasContainer) {
+        final TinkerVertex tinkerVertex = (TinkerVertex) vertex;
+        if (!Compare.EQUAL.equals(hasContainer.compare) || null == hasContainer.value || !isIndexed(tinkerVertex.graph, labels, hasContainer.key, false))
+            return -1.0d;
+        final long edges = tinkerVertex.countEdges(direction, labels);
+        if (edges == 0)
+            return 0.0d;
+        return (double) countIndexed(tinkerVertex, direction, labels, hasContainer) / (double) edges;
+    }
+
+    public QueryPlanner.AccessPath getAccessPath(final Vertex vertex, final Direction direction, final String[] labels, final List<HasContainer> hasContainers) {
+        final TinkerVertex tinkerVertex = (TinkerVertex) vertex;
+        HasContainer equal = null;
+        HasContainer start = null;
+        HasContainer end = null;
+        for (final HasContainer hasContainer : hasContainers) {
+            if (null == hasContainer.value)
+                continue;
+            if (Compare.EQUAL.equals(hasContainer.compare)) {
+                if (null == equal && isIndexed(tinkerVertex.graph, labels, hasContainer.key, false))
+                    equal = hasContainer;
+            } else if (!Compare.NOT_EQUAL.equals(hasContainer.compare) && isIndexed(tinkerVertex.graph, labels, hasContainer.key, true)) {
+                final boolean lower = Compare.GREATER_THAN.equals(hasContainer.compare) || Compare.GREATER_THAN_EQUAL.equals(hasContainer.compare);
+                if (lower) {
+                    if (null == start && (null == end || end.key.equals(hasContainer.key)))
+                        start = hasContainer;
+                } else {
+                    if (null == end && (null == start || start.key.equals(hasContainer.key)))
+                        end = hasContainer;
+                }
+            }
+        }
+        if (null != equal)
+            return new VertexIndexAccessPath(tinkerVertex, direction, labels, equal, null, null, countIndexed(tinkerVertex, direction, labels, equal));
+        else if (null != start || null != end)
+            return new VertexIndexAccessPath(tinkerVertex, direction, labels, null, start, end, QueryPlanner.UNKNOWN);
+        else
+            return null;
+    }
+
+    private static boolean isIndexed(final TinkerGraph graph, final String[] labels, final String key, final boolean ordered) {
+        if (labels.length == 0)
+            return false;
+        for (final String label : labels) {
+            final Map<String, Boolean> keys = graph.vertexCentricIndices.get(label);
+            if (null == keys)
+                return false;
+            final Boolean indexOrdered = keys.get(key);
+            if (null == indexOrdered || (ordered && !indexOrdered))
+                return false;
+        }
+        return true;
+    }
+
+    private static long countIndexed(final TinkerVertex vertex, final Direction direction, final String[] labels, final HasContainer equal) {
+        final TinkerVertexIndex index = vertex.getVertexIndex(false);
+        if (null == index)
+            return 0;
+        long count = 0;
+        for (final Direction d : Direction.BOTH.equals(direction) ? IN_OUT : new Direction[]{direction}) {
+            for (final String label : labels) {
+                count = count + index.count(d, label, equal.key, equal.value);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the edges with an equal value or with a value within a range from the vertex-centric index of a vertex.
+     */
+    private static class VertexIndexAccessPath implements QueryPlanner.AccessPath {
+
+        private final TinkerVertex vertex;
+        private final Direction direction;
+        private final String[] labels;
+        private final HasContainer equal;
+        private final HasContainer start;
+        private final HasContainer end;
+        private final long edges;
+
+        public VertexIndexAccessPath(final TinkerVertex vertex, final Direction direction, final String[] labels,
+                                     final HasContainer equal, final HasContainer start, final HasContainer end, final long edges) {
+            this.vertex = vertex;
+            this.direction = direction;
+            this.labels = labels;
+            this.equal = equal;
+            this.start = start;
+            this.end = end;
+            this.edges = edges;
+        }
+
+        public long estimateEdges() {
+            return this.edges;
+        }
+
+        public Iterable<Edge> getEdges(final List<HasContainer> hasContainers, final long limit) {
+            final TinkerVertexIndex index = this.vertex.getVertexIndex(false);
+            if (null == index)
+                return Collections.emptyList();
+
+            final List<Edge> edges = new ArrayList<Edge>();
+            for (final Direction d : Direction.BOTH.equals(this.direction) ? IN_OUT : new Direction[]{this.direction}) {
+                for (final String label : this.labels) {
+                    if (null != this.equal) {
+                        index.get(d, label, this.equal.key, this.equal.value, hasContainers, limit, edges);
+                    } else {
+                        index.get(d, label, null != this.start ? this.start.key : this.end.key,
+                                null == this.start ? null : this.start.value, null != this.start && Compare.GREATER_THAN_EQUAL.equals(this.start.compare),
+                                null == this.end ? null : this.end.value, null != this.end && Compare.LESS_THAN_EQUAL.equals(this.end.compare),
+                                hasContainers, limit, edges);
+                    }
+                }
+            }
+            return edges;
+        }
+
+        public String toString() {
+            final String condition;
+            if (null != this.equal)
+                condition = this.equal.toString();
+            else if (null == this.start)
+                condition = this.end.toString();
+            else if (null == this.end)
+                condition = this.start.toString();
+            else
+                condition = this.start + " and " + this.end;
+            return "vertex-centric index[direction:" + this.direction + " labels:" + Arrays.asList(this.labels) + " " + condition + " estimate:" + QueryPlanner.estimateString(this.edges) + "]";
+        }
+    }
+}
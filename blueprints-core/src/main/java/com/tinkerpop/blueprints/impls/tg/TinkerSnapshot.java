@@ -0,0 +1,648 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The binary snapshot format of a persistent TinkerGraph.
+ * <br />
+ * A snapshot starts with a magic number and a format version followed by a dictionary of all edge labels and
+ * property keys and the declarations of the key indices and vertex-centric indices. Vertices are written before edges, so that a snapshot can be loaded in a single streaming pass that
+ * rebuilds the adjacencies as the edges are read. Ids that are canonical longs are written as varints, all other ids
+ * as strings. Property values of the common primitive types are written in a typed encoding and any other value is
+ * Java serialized. Snapshots of earlier format versions are read as well.
+ * <br />
+ * Snapshots are streamed to a file through a buffered file channel and read from memory mapped windows of the file.
+ * Each snapshot carries the generation of the mutation log it supersedes and the offset in the log of the previous
+ * generation it was taken at, see {@link TinkerLog}.
+ */
+class TinkerSnapshot {
+
+    public static final int MAGIC = 0x54475342;
+    /**
+     * The format version, which is bumped whenever the layout changes:
+     * 1 is the initial layout, 2 adds the log generation, 3 the ordered flag of key indices, 4 the vertex-centric
+     * indices and 5 the log offset.
+     */
+    public static final int VERSION = 5;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final byte ID_LONG = 0;
+    private static final byte ID_STRING = 1;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INTEGER = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_FLOAT = 4;
+    private static final byte VALUE_DOUBLE = 5;
+    private static final byte VALUE_BOOLEAN = 6;
+    private static final byte VALUE_SHORT = 7;
+    private static final byte VALUE_BYTE = 8;
+    private static final byte VALUE_SERIALIZED = 9;
+
+    private static final byte INDEX_VERTEX = 0;
+    private static final byte INDEX_EDGE = 1;
+
+    /**
+     * Streams the graph to a temporary file next to the snapshot file through a buffered file channel. The
+     * temporary file is not forced to disk yet, so that only encoding and not forcing the snapshot has to see a graph
+     * that is not mutated at the same time.
+     *
+     * @param generation the generation of the mutation log the snapshot supersedes
+     * @param logOffset  the offset in the log of the previous generation up to which the snapshot covers its records
+     * @return the temporary file to {@link #install} as the snapshot file
+     */
+    public static File write(final TinkerGraph graph, final File file, final long generation, final long logOffset) throws IOException {
+        final File temp = new File(file.getPath() + ".tmp");
+        final Output output = new Output(new FileOutputStream(temp).getChannel());
+        try {
+            write(graph, output, generation, logOffset);
+        } finally {
+            output.close();
+        }
+        return temp;
+    }
+
+    /**
+     * Forces a written snapshot to disk and then renames it to the snapshot file.
+     */
+    public static void install(final File temp, final File file) throws IOException {
+        final FileChannel channel = new RandomAccessFile(temp, "rw").getChannel();
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+        if (!temp.renameTo(file)) {
+            if (file.exists() && !file.delete())
+                throw new IOException("Could not replace snapshot " + file);
+            if (!temp.renameTo(file))
+                throw new IOException("Could not rename snapshot " + temp);
+        }
+    }
+
+    private static void write(final TinkerGraph graph, final Output output, final long generation, final long logOffset) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeVarInt(VERSION);
+        output.writeByte((byte) graph.getAdjacencyType().ordinal());
+        output.writeVarLong(graph.currentId.get());
+        output.writeVarLong(generation);
+        output.writeVarLong(logOffset);
+
+        final Map<String, Integer> dictionary = new HashMap<String, Integer>();
+        for (final Vertex vertex : graph.vertices.values()) {
+            intern(dictionary, ((TinkerElement) vertex).properties.keySet());
+        }
+        for (final Edge edge : graph.edges.values()) {
+            intern(dictionary, edge.getLabel());
+            intern(dictionary, ((TinkerElement) edge).properties.keySet());
+        }
+        final String[] strings = new String[dictionary.size()];
+        for (final Map.Entry<String, Integer> entry : dictionary.entrySet()) {
+            strings[entry.getValue()] = entry.getKey();
+        }
+        output.writeVarInt(strings.length);
+        for (final String string : strings) {
+            output.writeString(string);
+        }
+
+        writeKeys(output, graph.vertexKeyIndex);
+        writeKeys(output, graph.edgeKeyIndex);
+
+        output.writeVarInt(graph.vertexCentricIndices.size());
+        for (final Map.Entry<String, Map<String, Boolean>> labelEntry : graph.vertexCentricIndices.entrySet()) {
+            output.writeString(labelEntry.getKey());
+            output.writeVarInt(labelEntry.getValue().size());
+            for (final Map.Entry<String, Boolean> keyEntry : labelEntry.getValue().entrySet()) {
+                output.writeString(keyEntry.getKey());
+                output.writeByte(keyEntry.getValue() ? (byte) 1 : (byte) 0);
+            }
+        }
+
+        output.writeVarInt(graph.vertices.size());
+        for (final Vertex vertex : graph.vertices.values()) {
+            output.writeId((String) vertex.getId());
+            writeProperties(output, dictionary, (TinkerElement) vertex);
+        }
+
+        output.writeVarInt(graph.edges.size());
+        for (final Edge edge : graph.edges.values()) {
+            final TinkerEdge tinkerEdge = (TinkerEdge) edge;
+            output.writeId(tinkerEdge.getId());
+            output.writeId((String) tinkerEdge.getVertex(Direction.OUT).getId());
+            output.writeId((String) tinkerEdge.getVertex(Direction.IN).getId());
+            output.writeVarInt(dictionary.get(tinkerEdge.getLabel()));
+            writeProperties(output, dictionary, tinkerEdge);
+        }
+
+        output.writeVarInt(graph.indices.size());
+        for (final TinkerIndex index : graph.indices.values()) {
+            writeIndex(output, (TinkerIndex<? extends Element>) index);
+        }
+    }
+
+    private static <T extends Element> void writeIndex(final Output output, final TinkerIndex<T> index) throws IOException {
+        output.writeString(index.getIndexName());
+        output.writeByte(Vertex.class.isAssignableFrom(index.getIndexClass()) ? INDEX_VERTEX : INDEX_EDGE);
+        output.writeVarInt(index.index.size());
+        for (final Map.Entry<String, Map<Object, Set<T>>> keyEntry : index.index.entrySet()) {
+            output.writeString(keyEntry.getKey());
+            output.writeVarInt(keyEntry.getValue().size());
+            for (final Map.Entry<Object, Set<T>> valueEntry : keyEntry.getValue().entrySet()) {
+                output.writeValue(valueEntry.getKey());
+                output.writeVarInt(valueEntry.getValue().size());
+                for (final T element : valueEntry.getValue()) {
+                    output.writeId((String) element.getId());
+                }
+            }
+        }
+    }
+
+    private static void intern(final Map<String, Integer> dictionary, final Set<String> strings) {
+        for (final String string : strings) {
+            intern(dictionary, string);
+        }
+    }
+
+    private static void intern(final Map<String, Integer> dictionary, final String string) {
+        if (!dictionary.containsKey(string))
+            dictionary.put(string, dictionary.size());
+    }
+
+    private static void writeKeys(final Output output, final TinkerGraph.TinkerKeyIndex keyIndex) throws IOException {
+        final Set<String> keys = keyIndex.getIndexedKeys();
+        output.writeVarInt(keys.size());
+        for (final String key : keys) {
+            output.writeString(key);
+            output.writeByte(keyIndex.isOrdered(key) ? (byte) 1 : (byte) 0);
+        }
+    }
+
+    private static void writeProperties(final Output output, final Map<String, Integer> dictionary, final TinkerElement element) throws IOException {
+        output.writeVarInt(element.properties.size());
+        for (final Map.Entry<String, Object> entry : element.properties.entrySet()) {
+            output.writeVarInt(dictionary.get(entry.getKey()));
+            output.writeValue(entry.getValue());
+        }
+    }
+
+    /**
+     * Loads a snapshot into an empty graph.
+     *
+     * @return the position in the mutation log the snapshot supersedes
+     */
+    public static LogPosition read(final TinkerGraph graph, final File file) throws IOException {
+        final Input input = new Input(new FileInputStream(file).getChannel());
+        try {
+            return read(graph, input);
+        } finally {
+            input.close();
+        }
+    }
+
+    private static LogPosition read(final TinkerGraph graph, final Input input) throws IOException {
+        if (input.readInt() != MAGIC)
+            throw new IOException("Not a TinkerGraph snapshot");
+        final int version = input.readVarInt();
+        if (version < 1 || version > VERSION)
+            throw new IOException("Unsupported TinkerGraph snapshot version: " + version);
+        graph.adjacencyType = TinkerGraph.AdjacencyType.values()[input.readByte()];
+        graph.currentId.set(input.readVarLong());
+        final long generation = version < 2 ? 0 : input.readVarLong();
+        final LogPosition position = new LogPosition(generation, version < 5 ? 0 : input.readVarLong());
+
+        final String[] dictionary = new String[input.readVarInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = input.readString();
+        }
+
+        readKeys(input, graph, Vertex.class, version);
+        readKeys(input, graph, Edge.class, version);
+
+        if (version >= 4) {
+            for (int i = input.readVarInt(); i > 0; i--) {
+                final String label = input.readString();
+                for (int j = input.readVarInt(); j > 0; j--) {
+                    final String key = input.readString();
+                    if (input.readByte() != 0)
+                        graph.createVertexCentricIndex(label, key, TinkerGraph.ORDERED_KEY_INDEX);
+                    else
+                        graph.createVertexCentricIndex(label, key);
+                }
+            }
+        }
+
+        for (int i = input.readVarInt(); i > 0; i--) {
+            final TinkerVertex vertex = new TinkerVertex(input.readId(), graph);
+            graph.vertices.put(vertex.getId(), vertex);
+            readProperties(input, dictionary, vertex, graph.vertexKeyIndex);
+        }
+
+        for (int i = input.readVarInt(); i > 0; i--) {
+            final String id = input.readId();
+            final TinkerVertex outVertex = getVertex(graph, input.readId());
+            final TinkerVertex inVertex = getVertex(graph, input.readId());
+            final TinkerEdge edge = new TinkerEdge(id, outVertex, inVertex, dictionary[input.readVarInt()], graph);
+            graph.edges.put(id, edge);
+            outVertex.addOutEdge(edge);
+            inVertex.addInEdge(edge);
+            readProperties(input, dictionary, edge, graph.edgeKeyIndex);
+            edge.addToVertexIndex();
+        }
+
+        for (int i = input.readVarInt(); i > 0; i--) {
+            final String indexName = input.readString();
+            final boolean vertexIndex = input.readByte() == INDEX_VERTEX;
+            final TinkerIndex index;
+            if (vertexIndex)
+                index = (TinkerIndex) graph.createIndex(indexName, Vertex.class);
+            else
+                index = (TinkerIndex) graph.createIndex(indexName, Edge.class);
+            for (int j = input.readVarInt(); j > 0; j--) {
+                final String key = input.readString();
+                for (int k = input.readVarInt(); k > 0; k--) {
+                    final Object value = input.readValue();
+                    for (int l = input.readVarInt(); l > 0; l--) {
+                        final String id = input.readId();
+                        final Element element = vertexIndex ? graph.vertices.get(id) : graph.edges.get(id);
+                        if (null == element)
+                            throw new IOException("Index " + indexName + " references missing element " + id);
+                        index.put(key, value, element);
+                    }
+                }
+            }
+        }
+        return position;
+    }
+
+    private static void readKeys(final Input input, final TinkerGraph graph, final Class<? extends Element> elementClass, final int version) throws IOException {
+        for (int i = input.readVarInt(); i > 0; i--) {
+            final String key = input.readString();
+            if (version >= 3 && input.readByte() != 0)
+                graph.createKeyIndex(key, elementClass, TinkerGraph.ORDERED_KEY_INDEX);
+            else
+                graph.createKeyIndex(key, elementClass);
+        }
+    }
+
+    private static TinkerVertex getVertex(final TinkerGraph graph, final String id) throws IOException {
+        final TinkerVertex vertex = (TinkerVertex) graph.vertices.get(id);
+        if (null == vertex)
+            throw new IOException("Edge references missing vertex " + id);
+        return vertex;
+    }
+
+    private static <T extends TinkerElement> void readProperties(final Input input, final String[] dictionary, final T element, final TinkerGraph.TinkerKeyIndex<T> keyIndex) throws IOException {
+        for (int i = input.readVarInt(); i > 0; i--) {
+            final String key = dictionary[input.readVarInt()];
+            final Object value = input.readValue();
+            element.properties.put(key, value);
+            keyIndex.autoUpdate(key, value, null, element);
+        }
+    }
+
+    static boolean isCanonicalLong(final String id) {
+        if (id.length() == 0 || id.length() > 20)
+            return false;
+        for (int i = 0; i < id.length(); i++) {
+            final char c = id.charAt(i);
+            if ((c < '0' || c > '9') && !(c == '-' && i == 0))
+                return false;
+        }
+        try {
+            return Long.toString(Long.parseLong(id)).equals(id);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The generation of the mutation log a snapshot supersedes and the offset in the log of the previous generation
+     * it was taken at, which is 0 for snapshots that cover the previous generation entirely.
+     */
+    static class LogPosition {
+
+        final long generation;
+        final long offset;
+
+        LogPosition(final long generation, final long offset) {
+            this.generation = generation;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Writes varints, strings and typed values to a channel through a direct buffer.
+     */
+    static class Output {
+
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        public Output(final WritableByteChannel channel) {
+            this(channel, BUFFER_SIZE);
+        }
+
+        public Output(final WritableByteChannel channel, final int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        private void ensure(final int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes)
+                this.flush();
+        }
+
+        public void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        public void close() throws IOException {
+            try {
+                this.flush();
+            } finally {
+                this.channel.close();
+            }
+        }
+
+        public void writeByte(final byte value) throws IOException {
+            this.ensure(1);
+            this.buffer.put(value);
+        }
+
+        public void writeInt(final int value) throws IOException {
+            this.ensure(4);
+            this.buffer.putInt(value);
+        }
+
+        public void writeVarInt(final int value) throws IOException {
+            this.writeVarLong(value & 0xffffffffl);
+        }
+
+        public void writeVarLong(long value) throws IOException {
+            this.ensure(10);
+            while ((value & ~0x7fl) != 0) {
+                this.buffer.put((byte) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            this.buffer.put((byte) value);
+        }
+
+        public void writeZigZag(final long value) throws IOException {
+            this.writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        public void writeBytes(final byte[] bytes) throws IOException {
+            this.writeVarInt(bytes.length);
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!this.buffer.hasRemaining())
+                    this.flush();
+                final int length = Math.min(this.buffer.remaining(), bytes.length - offset);
+                this.buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        public void writeString(final String string) throws IOException {
+            this.writeBytes(string.getBytes(UTF8));
+        }
+
+        public void writeId(final String id) throws IOException {
+            if (isCanonicalLong(id)) {
+                this.writeByte(ID_LONG);
+                this.writeZigZag(Long.parseLong(id));
+            } else {
+                this.writeByte(ID_STRING);
+                this.writeString(id);
+            }
+        }
+
+        public void writeValue(final Object value) throws IOException {
+            if (null == value) {
+                this.writeByte(VALUE_NULL);
+            } else if (value instanceof String) {
+                this.writeByte(VALUE_STRING);
+                this.writeString((String) value);
+            } else if (value instanceof Integer) {
+                this.writeByte(VALUE_INTEGER);
+                this.writeZigZag((Integer) value);
+            } else if (value instanceof Long) {
+                this.writeByte(VALUE_LONG);
+                this.writeZigZag((Long) value);
+            } else if (value instanceof Float) {
+                this.writeByte(VALUE_FLOAT);
+                this.ensure(4);
+                this.buffer.putFloat((Float) value);
+            } else if (value instanceof Double) {
+                this.writeByte(VALUE_DOUBLE);
+                this.ensure(8);
+                this.buffer.putDouble((Double) value);
+            } else if (value instanceof Boolean) {
+                this.writeByte(VALUE_BOOLEAN);
+                this.writeByte((Boolean) value ? (byte) 1 : (byte) 0);
+            } else if (value instanceof Short) {
+                this.writeByte(VALUE_SHORT);
+                this.writeZigZag((Short) value);
+            } else if (value instanceof Byte) {
+                this.writeByte(VALUE_BYTE);
+                this.writeByte((Byte) value);
+            } else {
+                this.writeByte(VALUE_SERIALIZED);
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                final ObjectOutputStream out = new ObjectOutputStream(bytes);
+                out.writeObject(value);
+                out.close();
+                this.writeBytes(bytes.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Reads what an {@link Output} wrote from memory mapped windows of a file channel, so that files larger than
+     * the addressable size of a single buffer can be read as well. An input can also read from a single buffer.
+     */
+    static class Input {
+
+        private static final int WINDOW_SIZE = 1 << 26;
+        private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart = 0;
+        private ByteBuffer buffer = EMPTY;
+
+        public Input(final FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        public Input(final ByteBuffer buffer) {
+            this.channel = null;
+            this.size = buffer.remaining();
+            this.buffer = buffer.slice();
+        }
+
+        private void ensure(final int bytes) throws IOException {
+            if (this.buffer.remaining() >= bytes)
+                return;
+            if (null == this.channel)
+                throw new EOFException();
+            this.windowStart += this.buffer.position();
+            final long length = Math.min(WINDOW_SIZE, this.size - this.windowStart);
+            if (length < bytes)
+                throw new EOFException();
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.windowStart, length);
+        }
+
+        public long position() {
+            return this.windowStart + this.buffer.position();
+        }
+
+        public void seek(final long position) {
+            if (position >= this.windowStart && position <= this.windowStart + this.buffer.limit()) {
+                this.buffer.position((int) (position - this.windowStart));
+            } else if (null == this.channel || position > this.size) {
+                throw new IllegalArgumentException("Position out of range: " + position);
+            } else {
+                this.windowStart = position;
+                this.buffer = EMPTY;
+            }
+        }
+
+        public long remaining() {
+            return this.size - this.position();
+        }
+
+        public void close() throws IOException {
+            if (null != this.channel)
+                this.channel.close();
+        }
+
+        public byte readByte() throws IOException {
+            this.ensure(1);
+            return this.buffer.get();
+        }
+
+        public int readInt() throws IOException {
+            this.ensure(4);
+            return this.buffer.getInt();
+        }
+
+        public int readVarInt() throws IOException {
+            return (int) this.readVarLong();
+        }
+
+        public long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final byte b = this.readByte();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0)
+                    return value;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        public long readZigZag() throws IOException {
+            final long value = this.readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        public byte[] readBytes() throws IOException {
+            return this.readBytes(this.readVarInt());
+        }
+
+        public byte[] readBytes(final int length) throws IOException {
+            final byte[] bytes = new byte[length];
+            int offset = 0;
+            while (offset < bytes.length) {
+                if (!this.buffer.hasRemaining())
+                    this.ensure(1);
+                final int chunk = Math.min(this.buffer.remaining(), bytes.length - offset);
+                this.buffer.get(bytes, offset, chunk);
+                offset += chunk;
+            }
+            return bytes;
+        }
+
+        public String readString() throws IOException {
+            return new String(this.readBytes(), UTF8);
+        }
+
+        public String readId() throws IOException {
+            final byte type = this.readByte();
+            if (type == ID_LONG)
+                return Long.toString(this.readZigZag());
+            else if (type == ID_STRING)
+                return this.readString();
+            else
+                throw new IOException("Unknown id type: " + type);
+        }
+
+        public Object readValue() throws IOException {
+            final byte type = this.readByte();
+            switch (type) {
+                case VALUE_NULL:
+                    return null;
+                case VALUE_STRING:
+                    return this.readString();
+                case VALUE_INTEGER:
+                    return (int) this.readZigZag();
+                case VALUE_LONG:
+                    return this.readZigZag();
+                case VALUE_FLOAT:
+                    this.ensure(4);
+                    return this.buffer.getFloat();
+                case VALUE_DOUBLE:
+                    this.ensure(8);
+                    return this.buffer.getDouble();
+                case VALUE_BOOLEAN:
+                    return this.readByte() != 0;
+                case VALUE_SHORT:
+                    return (short) this.readZigZag();
+                case VALUE_BYTE:
+                    return this.readByte();
+                case VALUE_SERIALIZED:
+                    final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(this.readBytes()));
+                    try {
+                        return in.readObject();
+                    } catch (ClassNotFoundException e) {
+                        throw new IOException(e.getMessage());
+                    } finally {
+                        in.close();
+                    }
+                default:
+                    throw new IOException("Unknown value type: " + type);
+            }
+        }
+    }
+}
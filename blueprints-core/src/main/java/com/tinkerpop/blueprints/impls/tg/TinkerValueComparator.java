@@ -0,0 +1,100 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * Totally orders arbitrary property values for ordered key indices. Values are grouped into segments: null first,
+ * then all numbers, then comparable values grouped by their class and last all other values grouped by their class.
+ * <br />
+ * Numbers are compared by their numeric value regardless of their type, so that a range over a key holding both
+ * integers and longs can be answered. Consequently, numbers of different types that are numerically equal are equal
+ * in an ordered key index and a lookup of 5 matches both 5 and 5l. Values that are not comparable are ordered by
+ * their hash code. Should unequal values of the same class share a hash code, they are ordered by their identity.
+ */
+class TinkerValueComparator implements Comparator<Object>, Serializable {
+
+    public static final TinkerValueComparator INSTANCE = new TinkerValueComparator();
+
+    private static final int NULL = 0;
+    private static final int NUMBER = 1;
+    private static final int COMPARABLE = 2;
+    private static final int OTHER = 3;
+
+    public int compare(final Object a, final Object b) {
+        final int segmentA = segment(a);
+        final int segmentB = segment(b);
+        if (segmentA != segmentB)
+            return segmentA < segmentB ? -1 : 1;
+
+        switch (segmentA) {
+            case NULL:
+                return 0;
+            case NUMBER:
+                return compareNumbers((Number) a, (Number) b);
+            case COMPARABLE: {
+                final int compare = compareClasses(a, b);
+                return compare != 0 ? compare : ((Comparable) a).compareTo(b);
+            }
+            default: {
+                final int compare = compareClasses(a, b);
+                if (compare != 0)
+                    return compare;
+                if (a.equals(b))
+                    return 0;
+                final int hashA = a.hashCode();
+                final int hashB = b.hashCode();
+                if (hashA != hashB)
+                    return hashA < hashB ? -1 : 1;
+                final int identityA = System.identityHashCode(a);
+                final int identityB = System.identityHashCode(b);
+                return identityA < identityB ? -1 : (identityA == identityB ? 0 : 1);
+            }
+        }
+    }
+
+    /**
+     * Whether two values are in the same segment of the order, meaning that a range starting at one of them may
+     * include the other. This is the case for two numbers, or two comparable values of the same class.
+     */
+    public boolean isComparable(final Object a, final Object b) {
+        final int segment = segment(a);
+        if (segment != segment(b))
+            return false;
+        else if (segment == NUMBER)
+            return true;
+        else
+            return segment == COMPARABLE && a.getClass().equals(b.getClass());
+    }
+
+    private static int segment(final Object value) {
+        if (null == value)
+            return NULL;
+        else if (value instanceof Number)
+            return NUMBER;
+        else if (value instanceof Comparable)
+            return COMPARABLE;
+        else
+            return OTHER;
+    }
+
+    private static int compareNumbers(final Number a, final Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            final long longA = a.longValue();
+            final long longB = b.longValue();
+            return longA < longB ? -1 : (longA == longB ? 0 : 1);
+        } else {
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+    }
+
+    private static boolean isIntegral(final Number number) {
+        return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+    }
+
+    private static int compareClasses(final Object a, final Object b) {
+        if (a.getClass().equals(b.getClass()))
+            return 0;
+        return a.getClass().getName().compareTo(b.getClass().getName());
+    }
+}
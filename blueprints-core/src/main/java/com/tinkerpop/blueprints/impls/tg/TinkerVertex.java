@@ -10,35 +10,30 @@ import com.tinkerpop.blueprints.util.StringFactory;
 import com.tinkerpop.blueprints.util.VerticesFromEdgesIterable;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
 class TinkerVertex extends TinkerElement implements Vertex, Serializable {
 
-    protected Map<String, Set<Edge>> outEdges = new HashMap<String, Set<Edge>>();
-    protected Map<String, Set<Edge>> inEdges = new HashMap<String, Set<Edge>>();
+    protected final TinkerAdjacency outEdges;
+    protected final TinkerAdjacency inEdges;
+    private TinkerVertexIndex vertexIndex;
 
     protected TinkerVertex(final String id, final TinkerGraph graph) {
         super(id, graph);
+        this.outEdges = graph.createAdjacency(id, Direction.OUT);
+        this.inEdges = graph.createAdjacency(id, Direction.IN);
     }
 
     public Iterable<Edge> getEdges(final Direction direction, final String... labels) {
         if (direction.equals(Direction.OUT)) {
-            return this.getOutEdges(labels);
+            return this.outEdges.getEdges(labels);
         } else if (direction.equals(Direction.IN))
-            return this.getInEdges(labels);
+            return this.inEdges.getEdges(labels);
         else {
-            return new MultiIterable<Edge>(Arrays.asList(this.getInEdges(labels), this.getOutEdges(labels)));
+            return new MultiIterable<Edge>(Arrays.asList(this.inEdges.getEdges(labels), this.outEdges.getEdges(labels)));
         }
     }
 
@@ -46,81 +41,37 @@ class TinkerVertex extends TinkerElement implements Vertex, Serializable {
         return new VerticesFromEdgesIterable(this, direction, labels);
     }
 
-    private Iterable<Edge> getInEdges(final String... labels) {
-        if (labels.length == 0) {
-            final List<Edge> totalEdges = new ArrayList<Edge>();
-            for (final Collection<Edge> edges : this.inEdges.values()) {
-                totalEdges.addAll(edges);
-            }
-            return totalEdges;
-        } else if (labels.length == 1) {
-            final Set<Edge> edges = this.inEdges.get(labels[0]);
-            if (null == edges) {
-                return Collections.emptyList();
-            } else {
-                return new ArrayList<Edge>(edges);
-            }
-        } else {
-            final List<Edge> totalEdges = new ArrayList<Edge>();
-            for (final String label : labels) {
-                final Set<Edge> edges = this.inEdges.get(label);
-                if (null != edges) {
-                    totalEdges.addAll(edges);
-                }
-            }
-            return totalEdges;
-        }
+    public Query query() {
+        return new DefaultQuery(this, TinkerQueryStatistics.INSTANCE);
     }
 
-    private Iterable<Edge> getOutEdges(final String... labels) {
-        if (labels.length == 0) {
-            final List<Edge> totalEdges = new ArrayList<Edge>();
-            for (final Collection<Edge> edges : this.outEdges.values()) {
-                totalEdges.addAll(edges);
-            }
-            return totalEdges;
-        } else if (labels.length == 1) {
-            final Set<Edge> edges = this.outEdges.get(labels[0]);
-            if (null == edges) {
-                return Collections.emptyList();
-            } else {
-                return new ArrayList<Edge>(edges);
-            }
-        } else {
-            final List<Edge> totalEdges = new ArrayList<Edge>();
-            for (final String label : labels) {
-                final Set<Edge> edges = this.outEdges.get(label);
-                if (null != edges) {
-                    totalEdges.addAll(edges);
-                }
-            }
-            return totalEdges;
-        }
+    public String toString() {
+        return StringFactory.vertexString(this);
     }
 
-    public Query query() {
-        return new DefaultQuery(this);
+    protected long countEdges(final Direction direction, final String... labels) {
+        if (direction.equals(Direction.OUT))
+            return this.outEdges.countEdges(labels);
+        else if (direction.equals(Direction.IN))
+            return this.inEdges.countEdges(labels);
+        else
+            return this.outEdges.countEdges(labels) + this.inEdges.countEdges(labels);
     }
 
-    public String toString() {
-        return StringFactory.vertexString(this);
+    protected void addOutEdge(final TinkerEdge edge) {
+        this.outEdges.addEdge(edge);
     }
 
-    protected void addOutEdge(final String label, final Edge edge) {
-        Set<Edge> edges = this.outEdges.get(label);
-        if (null == edges) {
-            edges = new HashSet<Edge>();
-            this.outEdges.put(label, edges);
-        }
-        edges.add(edge);
+    protected void addInEdge(final TinkerEdge edge) {
+        this.inEdges.addEdge(edge);
     }
 
-    protected void addInEdge(final String label, final Edge edge) {
-        Set<Edge> edges = this.inEdges.get(label);
-        if (null == edges) {
-            edges = new HashSet<Edge>();
-            this.inEdges.put(label, edges);
-        }
-        edges.add(edge);
+    /**
+     * The vertex-centric indices of this vertex or null if no incident edge has been indexed and create is false.
+     */
+    protected synchronized TinkerVertexIndex getVertexIndex(final boolean create) {
+        if (null == this.vertexIndex && create)
+            this.vertexIndex = new TinkerVertexIndex();
+        return this.vertexIndex;
     }
 }
@@ -0,0 +1,159 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.util.DefaultQuery;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The vertex-centric indices of a single TinkerVertex. For every indexed label and edge property key, the incident
+ * edges of each direction are indexed by their property value in a hash map or, for ordered indices, in a sorted map.
+ * <br />
+ * All methods synchronize on the index, so that it can be used by a ConcurrentTinkerGraph as well. Lookups copy the
+ * matching edges into a list and therefore behave as snapshots, just like the edge iterables of a vertex.
+ */
+class TinkerVertexIndex implements Serializable {
+
+    private final Map<String, Map<String, Map<Object, Set<TinkerEdge>>>> outEdges = new HashMap<String, Map<String, Map<Object, Set<TinkerEdge>>>>();
+    private final Map<String, Map<String, Map<Object, Set<TinkerEdge>>>> inEdges = new HashMap<String, Map<String, Map<Object, Set<TinkerEdge>>>>();
+
+    public synchronized void put(final Direction direction, final String label, final String key, final boolean ordered, final Object value, final TinkerEdge edge) {
+        final Map<String, Map<String, Map<Object, Set<TinkerEdge>>>> labels = this.getLabels(direction);
+        Map<String, Map<Object, Set<TinkerEdge>>> keys = labels.get(label);
+        if (null == keys) {
+            keys = new HashMap<String, Map<Object, Set<TinkerEdge>>>();
+            labels.put(label, keys);
+        }
+        Map<Object, Set<TinkerEdge>> values = keys.get(key);
+        if (null == values) {
+            if (ordered)
+                values = new TreeMap<Object, Set<TinkerEdge>>(TinkerValueComparator.INSTANCE);
+            else
+                values = new HashMap<Object, Set<TinkerEdge>>();
+            keys.put(key, values);
+        }
+        Set<TinkerEdge> edges = values.get(value);
+        if (null == edges) {
+            edges = new HashSet<TinkerEdge>();
+            values.put(value, edges);
+        }
+        edges.add(edge);
+    }
+
+    public synchronized void remove(final Direction direction, final String label, final String key, final Object value, final TinkerEdge edge) {
+        final Map<Object, Set<TinkerEdge>> values = this.getValues(direction, label, key);
+        if (null != values) {
+            final Set<TinkerEdge> edges = values.get(value);
+            if (null != edges) {
+                edges.remove(edge);
+                if (edges.isEmpty())
+                    values.remove(value);
+            }
+        }
+    }
+
+    public synchronized void drop(final String label, final String key) {
+        for (final Direction direction : new Direction[]{Direction.OUT, Direction.IN}) {
+            final Map<String, Map<Object, Set<TinkerEdge>>> keys = this.getLabels(direction).get(label);
+            if (null != keys) {
+                keys.remove(key);
+                if (keys.isEmpty())
+                    this.getLabels(direction).remove(label);
+            }
+        }
+    }
+
+    /**
+     * Counts the edges of one direction and label whose value for the key equals the provided value.
+     */
+    public synchronized long count(final Direction direction, final String label, final String key, final Object value) {
+        final Map<Object, Set<TinkerEdge>> values = this.getValues(direction, label, key);
+        if (null == values)
+            return 0;
+        final Set<TinkerEdge> edges = values.get(value);
+        return null == edges ? 0 : edges.size();
+    }
+
+    /**
+     * Adds the edges of one direction and label whose value for the key equals the provided value to the list, as
+     * long as they are legal for all has containers and the list holds less edges than the limit.
+     */
+    public synchronized void get(final Direction direction, final String label, final String key, final Object value,
+                                 final List<DefaultQuery.HasContainer> hasContainers, final long limit, final List<Edge> edges) {
+        final Map<Object, Set<TinkerEdge>> values = this.getValues(direction, label, key);
+        if (null != values)
+            collect(values.get(value), hasContainers, limit, edges);
+    }
+
+    /**
+     * Adds the edges of one direction and label whose value for the key is within the range to the list, as long as
+     * they are legal for all has containers and the list holds less edges than the limit. A null bound leaves the
+     * range open on that side. Values that can not be compared to the bounds end the range.
+     */
+    public synchronized void get(final Direction direction, final String label, final String key,
+                                 final Object startValue, final boolean startInclusive, final Object endValue, final boolean endInclusive,
+                                 final List<DefaultQuery.HasContainer> hasContainers, final long limit, final List<Edge> edges) {
+        final NavigableMap<Object, Set<TinkerEdge>> values = (NavigableMap<Object, Set<TinkerEdge>>) this.getValues(direction, label, key);
+        if (null == values)
+            return;
+
+        final NavigableMap<Object, Set<TinkerEdge>> range;
+        if (null != startValue && null != endValue) {
+            if (TinkerValueComparator.INSTANCE.compare(startValue, endValue) > 0)
+                return;
+            range = values.subMap(startValue, startInclusive, endValue, endInclusive);
+        } else if (null != startValue) {
+            range = values.tailMap(startValue, startInclusive);
+        } else {
+            range = values.headMap(endValue, endInclusive);
+        }
+
+        final Object bound = null != startValue ? startValue : endValue;
+        for (final Map.Entry<Object, Set<TinkerEdge>> entry : range.entrySet()) {
+            if (edges.size() >= limit)
+                return;
+            if (!TinkerValueComparator.INSTANCE.isComparable(bound, entry.getKey())) {
+                if (null != startValue)
+                    return;
+                else
+                    continue;
+            }
+            collect(entry.getValue(), hasContainers, limit, edges);
+        }
+    }
+
+    private static void collect(final Set<TinkerEdge> candidates, final List<DefaultQuery.HasContainer> hasContainers, final long limit, final List<Edge> edges) {
+        if (null == candidates)
+            return;
+        for (final TinkerEdge edge : candidates) {
+            if (edges.size() >= limit)
+                return;
+            boolean legal = true;
+            for (final DefaultQuery.HasContainer hasContainer : hasContainers) {
+                if (!hasContainer.isLegal(edge)) {
+                    legal = false;
+                    break;
+                }
+            }
+            if (legal)
+                edges.add(edge);
+        }
+    }
+
+    private Map<String, Map<String, Map<Object, Set<TinkerEdge>>>> getLabels(final Direction direction) {
+        return Direction.OUT.equals(direction) ? this.outEdges : this.inEdges;
+    }
+
+    private Map<Object, Set<TinkerEdge>> getValues(final Direction direction, final String label, final String key) {
+        final Map<String, Map<Object, Set<TinkerEdge>>> keys = this.getLabels(direction).get(label);
+        return null == keys ? null : keys.get(key);
+    }
+}
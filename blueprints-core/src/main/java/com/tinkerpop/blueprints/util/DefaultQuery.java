@@ -21,14 +21,24 @@ public class DefaultQuery implements Query {
 
     private static final String[] EMPTY_LABELS = new String[]{};
 
-    private final Vertex vertex;
+    protected final Vertex vertex;
+    protected final QueryPlanner planner;
     public Direction direction = Direction.BOTH;
     public String[] labels = EMPTY_LABELS;
     public long limit = Long.MAX_VALUE;
     public List<HasContainer> hasContainers = new ArrayList<HasContainer>();
 
     public DefaultQuery(final Vertex vertex) {
+        this(vertex, null);
+    }
+
+    /**
+     * @param vertex     the vertex whose edges are queried
+     * @param statistics the statistics and access paths of the graph or null if the graph provides none
+     */
+    public DefaultQuery(final Vertex vertex, final QueryPlanner.Statistics statistics) {
         this.vertex = vertex;
+        this.planner = new QueryPlanner(statistics);
     }
 
     public Query has(final String key, final Object value) {
@@ -71,6 +81,11 @@ public class DefaultQuery implements Query {
     }
 
     public long count() {
+        if (this.hasContainers.isEmpty()) {
+            final long count = this.planner.countEdges(this.vertex, this.direction, this.labels);
+            if (count != QueryPlanner.UNKNOWN)
+                return Math.min(count, this.limit);
+        }
         long count = 0;
         for (final Edge edge : this.edges()) {
             count++;
@@ -86,7 +101,26 @@ public class DefaultQuery implements Query {
         return list;
     }
 
-    private class HasContainer {
+    /**
+     * Plans the query with its current filters and modifiers.
+     *
+     * @return the access path and order of has containers the query is evaluated with
+     */
+    public QueryPlanner.Plan plan() {
+        return this.planner.plan(this.vertex, this.direction, this.labels, this.hasContainers, this.limit);
+    }
+
+    /**
+     * @return a description of the plan the query is evaluated with
+     */
+    public String explain() {
+        return this.plan().toString();
+    }
+
+    /**
+     * A property condition that elements are filtered by.
+     */
+    public static class HasContainer {
         public String key;
         public Object value;
         public Compare compare;
@@ -97,6 +131,10 @@ public class DefaultQuery implements Query {
             this.compare = compare;
         }
 
+        public String toString() {
+            return this.key + " " + this.compare + " " + this.value;
+        }
+
         public boolean isLegal(final Element element) {
             final Object elementValue = element.getProperty(key);
             switch (compare) {
@@ -133,11 +171,14 @@ public class DefaultQuery implements Query {
     private class DefaultQueryIterable<T extends Element> implements Iterable<T> {
 
         private Iterable<Edge> iterable;
+        private List<HasContainer> orderedHasContainers;
         private boolean forVertex;
 
         public DefaultQueryIterable(final boolean forVertex) {
             this.forVertex = forVertex;
-            this.iterable = vertex.getEdges(direction, labels);
+            final QueryPlanner.Plan plan = plan();
+            this.iterable = plan.getEdges();
+            this.orderedHasContainers = plan.getHasContainers();
         }
 
         public Iterator<T> iterator() {
@@ -192,7 +233,7 @@ public class DefaultQuery implements Query {
                     while (this.itty.hasNext()) {
                         final Edge edge = this.itty.next();
                         boolean filter = false;
-                        for (final HasContainer hasContainer : hasContainers) {
+                        for (final HasContainer hasContainer : orderedHasContainers) {
                             if (!hasContainer.isLegal(edge)) {
                                 filter = true;
                                 break;
@@ -48,6 +48,10 @@ public class ExceptionFactory {
         return new IllegalArgumentException("Property key can not be the empty string");
     }
 
+    public static IllegalArgumentException propertyValueCanNotBeNull() {
+        return new IllegalArgumentException("Property value can not be null");
+    }
+
     // IndexableGraph related exceptions
 
     public static IllegalArgumentException indexAlreadyExists(final String indexName) {
@@ -0,0 +1,302 @@
+package com.tinkerpop.blueprints.util;
+
+import com.tinkerpop.blueprints.CloseableIterable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts more elements than fit into memory. Elements are buffered until the buffer holds the maximum number of
+ * elements, at which point the buffer is sorted and spilled as a run to a temporary file. Iterating the sorter merges
+ * all runs and the remaining buffer in sorted order, reading each run sequentially. At most the merge width of runs
+ * are read at the same time: if there are more runs, consecutive runs are first merged into longer runs in
+ * intermediate passes. Elements are written to the runs with Java serialization and must therefore be serializable.
+ * <br />
+ * The sort is stable: elements that are equal according to the comparator are returned in the order they were added.
+ * Elements must not be added once iteration started. Closing the sorter closes the runs that are still being read and
+ * deletes its temporary files.
+ */
+public class ExternalSorter<T> implements CloseableIterable<T> {
+
+    /**
+     * Default maximum number of runs that are merged at the same time
+     */
+    public static final int DEFAULT_MERGE_WIDTH = 64;
+
+    private static final int RESET_INTERVAL = 1000;
+    private static final int STREAM_BUFFER_SIZE = 65536;
+
+    private final Comparator<? super T> comparator;
+    private final int bufferSize;
+    private final File directory;
+    private final int mergeWidth;
+
+    private final List<T> buffer = new ArrayList<T>();
+    private final List<File> runs = new ArrayList<File>();
+    private final List<ObjectInputStream> readers = new ArrayList<ObjectInputStream>();
+    private boolean sorted = false;
+    private long size = 0;
+
+    /**
+     * @param comparator the order of the elements
+     * @param bufferSize the maximum number of elements held in memory
+     * @param directory  the directory of the temporary run files or null for the default temporary directory
+     */
+    public ExternalSorter(final Comparator<? super T> comparator, final int bufferSize, final File directory) {
+        this(comparator, bufferSize, directory, DEFAULT_MERGE_WIDTH);
+    }
+
+    /**
+     * @param comparator the order of the elements
+     * @param bufferSize the maximum number of elements held in memory
+     * @param directory  the directory of the temporary run files or null for the default temporary directory
+     * @param mergeWidth the maximum number of runs that are read at the same time
+     */
+    public ExternalSorter(final Comparator<? super T> comparator, final int bufferSize, final File directory, final int mergeWidth) {
+        if (null == comparator) throw new IllegalArgumentException("Comparator may not be null");
+        if (bufferSize <= 0) throw new IllegalArgumentException("BufferSize must be positive");
+        if (mergeWidth < 2) throw new IllegalArgumentException("MergeWidth must be at least 2");
+        this.comparator = comparator;
+        this.bufferSize = bufferSize;
+        this.directory = directory;
+        this.mergeWidth = mergeWidth;
+    }
+
+    public void add(final T element) {
+        if (this.sorted)
+            throw new IllegalStateException("Elements can not be added once the sorter has been iterated");
+        this.buffer.add(element);
+        this.size++;
+        if (this.buffer.size() >= this.bufferSize)
+            this.spill();
+    }
+
+    /**
+     * @return the number of added elements
+     */
+    public long size() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of runs spilled to temporary files, or left after the intermediate merge passes once the
+     *         sorter has been iterated
+     */
+    public int getRunCount() {
+        return this.runs.size();
+    }
+
+    public Iterator<T> iterator() {
+        if (!this.sorted) {
+            Collections.sort(this.buffer, this.comparator);
+            this.sorted = true;
+            this.mergeRuns();
+        }
+        if (this.runs.isEmpty())
+            return Collections.unmodifiableList(this.buffer).iterator();
+        try {
+            final List<Source> sources = this.open(this.runs);
+            sources.add(new Source(this.runs.size(), this.buffer.iterator()));
+            return new MergeIterator(sources);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    public void close() {
+        for (final ObjectInputStream reader : this.readers) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                // the run is deleted anyway
+            }
+        }
+        this.readers.clear();
+        for (final File run : this.runs) {
+            run.delete();
+        }
+        this.runs.clear();
+        this.buffer.clear();
+    }
+
+    private void spill() {
+        Collections.sort(this.buffer, this.comparator);
+        try {
+            this.runs.add(this.writeRun(this.buffer.iterator(), this.buffer.size()));
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+        this.buffer.clear();
+    }
+
+    /**
+     * Merges groups of consecutive runs into single runs until there are no more runs than the merge width. Since the
+     * groups keep the position of their runs, the merge stays stable.
+     */
+    private void mergeRuns() {
+        try {
+            while (this.runs.size() > this.mergeWidth) {
+                for (int i = 0; i < this.runs.size(); i++) {
+                    final List<File> group = this.runs.subList(i, Math.min(i + this.mergeWidth, this.runs.size()));
+                    if (group.size() < 2)
+                        continue;
+                    final List<Source> sources = this.open(group);
+                    long count = 0;
+                    for (final Source source : sources) {
+                        count += source.remaining;
+                    }
+                    final File run = this.writeRun(new MergeIterator(sources), count);
+                    for (final File merged : group) {
+                        merged.delete();
+                    }
+                    group.clear();
+                    this.runs.add(i, run);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private File writeRun(final Iterator<T> elements, final long count) throws IOException {
+        final File run = File.createTempFile("sort", ".run", this.directory);
+        run.deleteOnExit();
+        boolean written = false;
+        try {
+            final ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(run), STREAM_BUFFER_SIZE));
+            try {
+                out.writeLong(count);
+                for (long i = 0; i < count; i++) {
+                    out.writeObject(elements.next());
+                    // drop the back references of the stream so that its handle table does not grow with the run
+                    if (i % RESET_INTERVAL == RESET_INTERVAL - 1)
+                        out.reset();
+                }
+            } finally {
+                out.close();
+            }
+            written = true;
+        } finally {
+            if (!written)
+                run.delete();
+        }
+        return run;
+    }
+
+    private List<Source> open(final List<File> runs) throws IOException {
+        final List<Source> sources = new ArrayList<Source>(runs.size() + 1);
+        for (int i = 0; i < runs.size(); i++) {
+            sources.add(new Source(i, runs.get(i)));
+        }
+        return sources;
+    }
+
+    /**
+     * A source of the merge: either a run file or the in-memory buffer. The index of a source breaks ties, so that
+     * elements of earlier runs come first and the merge is stable.
+     */
+    private class Source implements Comparable<Source> {
+
+        private final int index;
+        private final ObjectInputStream in;
+        private final Iterator<T> iterator;
+        private long remaining;
+        private T head;
+
+        Source(final int index, final File run) throws IOException {
+            this.index = index;
+            final FileInputStream file = new FileInputStream(run);
+            try {
+                this.in = new ObjectInputStream(new BufferedInputStream(file, STREAM_BUFFER_SIZE));
+            } catch (IOException e) {
+                file.close();
+                throw e;
+            }
+            readers.add(this.in);
+            this.iterator = null;
+            this.remaining = this.in.readLong();
+        }
+
+        Source(final int index, final Iterator<T> iterator) {
+            this.index = index;
+            this.in = null;
+            this.iterator = iterator;
+        }
+
+        boolean advance() {
+            if (null != this.iterator) {
+                if (!this.iterator.hasNext())
+                    return false;
+                this.head = this.iterator.next();
+                return true;
+            }
+            try {
+                if (this.remaining == 0) {
+                    this.in.close();
+                    readers.remove(this.in);
+                    return false;
+                }
+                this.remaining--;
+                @SuppressWarnings("unchecked")
+                final T head = (T) this.in.readObject();
+                this.head = head;
+                return true;
+            } catch (EOFException e) {
+                throw new RuntimeException("Run ended prematurely: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+
+        public int compareTo(final Source other) {
+            final int compare = comparator.compare(this.head, other.head);
+            return compare != 0 ? compare : (this.index < other.index ? -1 : 1);
+        }
+    }
+
+    private class MergeIterator implements Iterator<T> {
+
+        private final PriorityQueue<Source> queue = new PriorityQueue<Source>();
+
+        MergeIterator(final List<Source> sources) {
+            for (final Source source : sources) {
+                if (source.advance())
+                    this.queue.add(source);
+            }
+        }
+
+        public boolean hasNext() {
+            return !this.queue.isEmpty();
+        }
+
+        public T next() {
+            final Source source = this.queue.poll();
+            if (null == source)
+                throw new NoSuchElementException();
+            final T element = source.head;
+            if (source.advance())
+                this.queue.add(source);
+            return element;
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
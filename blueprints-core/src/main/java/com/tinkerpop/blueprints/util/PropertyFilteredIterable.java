@@ -2,6 +2,7 @@ package com.tinkerpop.blueprints.util;
 
 import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Query;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
@@ -9,6 +10,7 @@ import java.util.NoSuchElementException;
 /**
  * This is a helper class for filtering an iterable of elements by their key/value.
  * Useful for graph implementations that do no support automatic key indices and need to filter on Graph.getVertices/Edges(key,value).
+ * Elements can also be filtered by comparing their value to the provided value.
  *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
@@ -17,11 +19,27 @@ public class PropertyFilteredIterable<T extends Element> implements CloseableIte
     private final String key;
     private final Object value;
     private final Iterable<T> iterable;
+    private final DefaultQuery.HasContainer hasContainer;
 
     public PropertyFilteredIterable(final String key, final Object value, final Iterable<T> iterable) {
         this.key = key;
         this.value = value;
         this.iterable = iterable;
+        this.hasContainer = null;
+    }
+
+    public PropertyFilteredIterable(final String key, final Object value, final Query.Compare compare, final Iterable<T> iterable) {
+        this.key = key;
+        this.value = value;
+        this.iterable = iterable;
+        this.hasContainer = new DefaultQuery.HasContainer(key, value, compare);
+    }
+
+    private boolean isLegal(final T element) {
+        if (null != this.hasContainer)
+            return this.hasContainer.isLegal(element);
+        final Object temp = element.getProperty(key);
+        return null != temp && temp.equals(value);
     }
 
     public void close() {
@@ -46,8 +64,7 @@ public class PropertyFilteredIterable<T extends Element> implements CloseableIte
                     try {
                         while (true) {
                             final T element = this.itty.next();
-                            final Object temp = element.getProperty(key);
-                            if (null != temp && temp.equals(value)) {
+                            if (isLegal(element)) {
                                 this.nextElement = element;
                                 return true;
                             }
@@ -67,7 +84,7 @@ public class PropertyFilteredIterable<T extends Element> implements CloseableIte
                 } else {
                     while (true) {
                         final T element = this.itty.next();
-                        if (element.getPropertyKeys().contains(key) && element.getProperty(key).equals(value)) {
+                        if (isLegal(element)) {
                             return element;
                         }
                     }
@@ -0,0 +1,268 @@
+package com.tinkerpop.blueprints.util;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Query.Compare;
+import com.tinkerpop.blueprints.Vertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * QueryPlanner chooses how a DefaultQuery retrieves and filters the edges of a vertex.
+ * <br />
+ * The edges are retrieved through an access path. By default this is a scan of the edges of the vertex in the
+ * direction of the query, where the labels of the query are handed to the graph rather than filtered. A graph can
+ * provide {@link Statistics} which estimate the number of edges and offer native index access paths. The access path
+ * which is estimated to retrieve less edges is chosen. The has containers are then evaluated in the order of their
+ * estimated selectivity, so that most edges are filtered out by the first container they are checked against.
+ */
+public class QueryPlanner {
+
+    /**
+     * The value of an estimate that is not known.
+     */
+    public static final long UNKNOWN = -1;
+
+    /**
+     * The default fractions of edges that pass a has container if the statistics of the graph can not tell.
+     */
+    public static final double EQUAL_SELECTIVITY = 0.1d;
+    public static final double NOT_EQUAL_SELECTIVITY = 0.9d;
+    public static final double RANGE_SELECTIVITY = 1.0d / 3.0d;
+
+    private final Statistics statistics;
+
+    /**
+     * @param statistics the statistics of the graph or null if the graph provides none
+     */
+    public QueryPlanner(final Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public Plan plan(final Vertex vertex, final Direction direction, final String[] labels, final List<DefaultQuery.HasContainer> hasContainers, final long limit) {
+        final long edges = null == this.statistics ? UNKNOWN : this.statistics.estimateEdges(vertex, direction, labels);
+        AccessPath accessPath = new ScanAccessPath(vertex, direction, labels, edges);
+        if (null != this.statistics) {
+            final AccessPath indexPath = this.statistics.getAccessPath(vertex, direction, labels, hasContainers);
+            if (null != indexPath && (edges == UNKNOWN || indexPath.estimateEdges() == UNKNOWN || indexPath.estimateEdges() < edges))
+                accessPath = indexPath;
+        }
+
+        final List<DefaultQuery.HasContainer> ordered = new ArrayList<DefaultQuery.HasContainer>(hasContainers);
+        final double[] selectivities = new double[ordered.size()];
+        for (int i = 0; i < ordered.size(); i++) {
+            double selectivity = null == this.statistics ? -1.0d : this.statistics.estimateSelectivity(vertex, direction, labels, ordered.get(i));
+            if (selectivity < 0.0d)
+                selectivity = getDefaultSelectivity(ordered.get(i).compare);
+            selectivities[i] = selectivity;
+        }
+        // a stable insertion sort keeps the order of the query for containers of equal selectivity
+        for (int i = 1; i < ordered.size(); i++) {
+            final DefaultQuery.HasContainer hasContainer = ordered.get(i);
+            final double selectivity = selectivities[i];
+            int j = i - 1;
+            while (j >= 0 && selectivities[j] > selectivity) {
+                ordered.set(j + 1, ordered.get(j));
+                selectivities[j + 1] = selectivities[j];
+                j--;
+            }
+            ordered.set(j + 1, hasContainer);
+            selectivities[j + 1] = selectivity;
+        }
+        return new Plan(accessPath, ordered, selectivities, limit);
+    }
+
+    /**
+     * Counts the edges of a vertex exactly if the statistics of the graph can do so without retrieving the edges.
+     *
+     * @return the number of edges or UNKNOWN
+     */
+    public long countEdges(final Vertex vertex, final Direction direction, final String[] labels) {
+        return null == this.statistics ? UNKNOWN : this.statistics.countEdges(vertex, direction, labels);
+    }
+
+    public static double getDefaultSelectivity(final Compare compare) {
+        switch (compare) {
+            case EQUAL:
+                return EQUAL_SELECTIVITY;
+            case NOT_EQUAL:
+                return NOT_EQUAL_SELECTIVITY;
+            default:
+                return RANGE_SELECTIVITY;
+        }
+    }
+
+    /**
+     * The statistics and native access paths that a graph contributes to the planning of queries.
+     */
+    public interface Statistics {
+
+        /**
+         * Estimates the number of edges of a vertex.
+         *
+         * @param vertex    the vertex of the query
+         * @param direction the direction of the edges
+         * @param labels    the labels of the edges or no labels for all edges
+         * @return the estimated number of edges or UNKNOWN
+         */
+        public long estimateEdges(final Vertex vertex, final Direction direction, final String... labels);
+
+        /**
+         * Counts the edges of a vertex exactly, for instance through a native degree, without retrieving them.
+         *
+         * @param vertex    the vertex of the query
+         * @param direction the direction of the edges
+         * @param labels    the labels of the edges or no labels for all edges
+         * @return the number of edges or UNKNOWN if they can not be counted without retrieving them
+         */
+        public long countEdges(final Vertex vertex, final Direction direction, final String... labels);
+
+        /**
+         * Estimates the fraction of the edges of a vertex that pass a has container.
+         *
+         * @param vertex       the vertex of the query
+         * @param direction    the direction of the edges
+         * @param labels       the labels of the edges or no labels for all edges
+         * @param hasContainer the has container to estimate
+         * @return the estimated fraction between 0 and 1 or a negative number if it is not known
+         */
+        public double estimateSelectivity(final Vertex vertex, final Direction direction, final String[] labels, final DefaultQuery.HasContainer hasContainer);
+
+        /**
+         * Provides a native access path that retrieves a subset of the edges of a vertex which holds all edges that
+         * pass the has containers.
+         *
+         * @param vertex        the vertex of the query
+         * @param direction     the direction of the edges
+         * @param labels        the labels of the edges or no labels for all edges
+         * @param hasContainers the has containers of the query
+         * @return the access path or null if the graph has no access path for the query
+         */
+        public AccessPath getAccessPath(final Vertex vertex, final Direction direction, final String[] labels, final List<DefaultQuery.HasContainer> hasContainers);
+    }
+
+    /**
+     * Statistics that know nothing. Graphs can extend it to only provide the statistics they have.
+     */
+    public static class DefaultStatistics implements Statistics {
+
+        public long estimateEdges(final Vertex vertex, final Direction direction, final String... labels) {
+            return UNKNOWN;
+        }
+
+        public long countEdges(final Vertex vertex, final Direction direction, final String... labels) {
+            return UNKNOWN;
+        }
+
+        public double estimateSelectivity(final Vertex vertex, final Direction direction, final String[] labels, final DefaultQuery.HasContainer hasContainer) {
+            return -1.0d;
+        }
+
+        public AccessPath getAccessPath(final Vertex vertex, final Direction direction, final String[] labels, final List<DefaultQuery.HasContainer> hasContainers) {
+            return null;
+        }
+    }
+
+    /**
+     * A way to retrieve the candidate edges of a query. The toString() of an access path describes it in a plan.
+     */
+    public interface AccessPath {
+
+        /**
+         * @return the estimated number of edges the access path retrieves or UNKNOWN
+         */
+        public long estimateEdges();
+
+        /**
+         * Retrieves the candidate edges. An access path may stop once it retrieved as many edges that pass all has
+         * containers as the limit. The has containers are evaluated again on the retrieved edges.
+         *
+         * @param hasContainers the has containers of the query in the order of evaluation
+         * @param limit         the limit of the query
+         * @return the candidate edges
+         */
+        public Iterable<Edge> getEdges(final List<DefaultQuery.HasContainer> hasContainers, final long limit);
+    }
+
+    /**
+     * The access path that retrieves the edges of a vertex with the labels of the query.
+     */
+    public static class ScanAccessPath implements AccessPath {
+
+        private final Vertex vertex;
+        private final Direction direction;
+        private final String[] labels;
+        private final long edges;
+
+        public ScanAccessPath(final Vertex vertex, final Direction direction, final String[] labels, final long edges) {
+            this.vertex = vertex;
+            this.direction = direction;
+            this.labels = labels;
+            this.edges = edges;
+        }
+
+        public long estimateEdges() {
+            return this.edges;
+        }
+
+        public Iterable<Edge> getEdges(final List<DefaultQuery.HasContainer> hasContainers, final long limit) {
+            return this.vertex.getEdges(this.direction, this.labels);
+        }
+
+        public String toString() {
+            return "scan[direction:" + this.direction + " labels:" + Arrays.asList(this.labels) + " estimate:" + estimateString(this.edges) + "]";
+        }
+    }
+
+    /**
+     * The chosen access path and order of has containers of a query. The toString() of a plan explains it.
+     */
+    public static class Plan {
+
+        private final AccessPath accessPath;
+        private final List<DefaultQuery.HasContainer> hasContainers;
+        private final double[] selectivities;
+        private final long limit;
+
+        public Plan(final AccessPath accessPath, final List<DefaultQuery.HasContainer> hasContainers, final double[] selectivities, final long limit) {
+            this.accessPath = accessPath;
+            this.hasContainers = hasContainers;
+            this.selectivities = selectivities;
+            this.limit = limit;
+        }
+
+        public AccessPath getAccessPath() {
+            return this.accessPath;
+        }
+
+        public List<DefaultQuery.HasContainer> getHasContainers() {
+            return this.hasContainers;
+        }
+
+        public Iterable<Edge> getEdges() {
+            return this.accessPath.getEdges(this.hasContainers, this.limit);
+        }
+
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(this.accessPath.toString());
+            if (!this.hasContainers.isEmpty()) {
+                builder.append(" -> filter[");
+                for (int i = 0; i < this.hasContainers.size(); i++) {
+                    if (i > 0)
+                        builder.append(", ");
+                    builder.append(this.hasContainers.get(i)).append(" selectivity:").append(Math.round(this.selectivities[i] * 1000.0d) / 1000.0d);
+                }
+                builder.append("]");
+            }
+            if (this.limit != Long.MAX_VALUE)
+                builder.append(" -> limit[").append(this.limit).append("]");
+            return builder.toString();
+        }
+    }
+
+    public static String estimateString(final long estimate) {
+        return estimate == UNKNOWN ? "unknown" : Long.toString(estimate);
+    }
+}
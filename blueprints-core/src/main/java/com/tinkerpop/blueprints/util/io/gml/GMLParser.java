@@ -6,7 +6,6 @@ import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.Vertex;
 
 import java.io.IOException;
-import java.io.StreamTokenizer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -45,42 +44,37 @@ class GMLParser {
         this.defaultEdgeLabel = defaultEdgeLabel;
     }
 
-    public void parse(final StreamTokenizer st) throws IOException {
+    public void parse(final GMLTokenizer st) throws IOException {
         while (hasNext(st)) {
-            int type = st.ttype;
-            if (notLineBreak(type)) {
-                final String value = st.sval;
-                if (GMLTokens.GRAPH.equals(value)) {
-                    parseGraph(st);
-                    if (!hasNext(st)) {
-                        return;
-                    }
+            final String value = st.sval;
+            if (GMLTokens.GRAPH.equals(value)) {
+                parseGraph(st);
+                if (!hasNext(st)) {
+                    return;
                 }
             }
         }
         throw new IOException("Graph not complete");
     }
 
-    private void parseGraph(final StreamTokenizer st) throws IOException {
+    private void parseGraph(final GMLTokenizer st) throws IOException {
         checkValid(st, GMLTokens.GRAPH);
         while (hasNext(st)) {
             // st.nextToken();
             final int type = st.ttype;
-            if (notLineBreak(type)) {
-                if (type == ']') {
-                    return;
+            if (type == ']') {
+                return;
+            } else {
+                final String key = st.sval;
+                if (GMLTokens.NODE.equals(key)) {
+                    addNode(parseNode(st));
+                } else if (GMLTokens.EDGE.equals(key)) {
+                    addEdge(parseEdge(st));
+                } else if (GMLTokens.DIRECTED.equals(key)) {
+                    directed = parseBoolean(st);
                 } else {
-                    final String key = st.sval;
-                    if (GMLTokens.NODE.equals(key)) {
-                        addNode(parseNode(st));
-                    } else if (GMLTokens.EDGE.equals(key)) {
-                        addEdge(parseEdge(st));
-                    } else if (GMLTokens.DIRECTED.equals(key)) {
-                        directed = parseBoolean(st);
-                    } else {
-                        // IGNORE
-                        parseValue("ignore", st);
-                    }
+                    // IGNORE
+                    parseValue("ignore", st);
                 }
             }
         }
@@ -179,82 +173,81 @@ class GMLParser {
         }
     }
 
-    private Object parseValue(final String key, final StreamTokenizer st) throws IOException {
+    private Object parseValue(final String key, final GMLTokenizer st) throws IOException {
         while (hasNext(st)) {
             final int type = st.ttype;
-            if (notLineBreak(type)) {
-                if (type == StreamTokenizer.TT_NUMBER) {
-                    final Double doubleValue = Double.valueOf(st.nval);
-                    if (doubleValue.equals(Double.valueOf(doubleValue.intValue()))) {
-                        return doubleValue.intValue();
-                    } else {
-                        return doubleValue.floatValue();
-                    }
+            if (type == GMLTokenizer.TT_INTEGER) {
+                final long longValue = st.lval;
+                if (longValue == (int) longValue) {
+                    return (int) longValue;
                 } else {
-                    if (type == '[') {
-                        return parseMap(key, st);
-                    } else if (type == '"') {
-                        return st.sval;
-                    }
+                    return longValue;
+                }
+            } else if (type == GMLTokenizer.TT_REAL) {
+                final Double doubleValue = Double.valueOf(st.dval);
+                if (doubleValue.equals(Double.valueOf(doubleValue.intValue()))) {
+                    return doubleValue.intValue();
+                } else {
+                    return doubleValue.floatValue();
+                }
+            } else {
+                if (type == '[') {
+                    return parseMap(key, st);
+                } else if (type == GMLTokenizer.TT_STRING) {
+                    return st.sval;
                 }
             }
         }
         throw new IOException("value not found");
     }
 
-    private boolean parseBoolean(final StreamTokenizer st) throws IOException {
+    private boolean parseBoolean(final GMLTokenizer st) throws IOException {
         while (hasNext(st)) {
             final int type = st.ttype;
-            if (notLineBreak(type)) {
-                if (type == StreamTokenizer.TT_NUMBER) {
-                    return st.nval == 1.0;
-                }
+            if (type == GMLTokenizer.TT_INTEGER) {
+                return st.lval == 1;
+            } else if (type == GMLTokenizer.TT_REAL) {
+                return st.dval == 1.0;
             }
         }
         throw new IOException("boolean not found");
     }
 
-    private Map<String, Object> parseNode(final StreamTokenizer st) throws IOException {
+    private Map<String, Object> parseNode(final GMLTokenizer st) throws IOException {
         return parseElement(st, GMLTokens.NODE);
     }
 
-    private Map<String, Object> parseEdge(final StreamTokenizer st) throws IOException {
+    private Map<String, Object> parseEdge(final GMLTokenizer st) throws IOException {
         return parseElement(st, GMLTokens.EDGE);
     }
 
-    private Map<String, Object> parseElement(final StreamTokenizer st, final String node) throws IOException {
+    private Map<String, Object> parseElement(final GMLTokenizer st, final String node) throws IOException {
         checkValid(st, node);
         return parseMap(node, st);
     }
 
-    private Map<String, Object> parseMap(final String node, final StreamTokenizer st) throws IOException {
+    private Map<String, Object> parseMap(final String node, final GMLTokenizer st) throws IOException {
         final Map<String, Object> map = new HashMap<String, Object>();
         while (hasNext(st)) {
             final int type = st.ttype;
-            if (notLineBreak(type)) {
-                if (type == ']') {
-                    return map;
-                } else {
-                    final String key = st.sval;
-                    final Object value = parseValue(key, st);
-                    map.put(key, value);
-                }
+            if (type == ']') {
+                return map;
+            } else {
+                final String key = st.sval;
+                final Object value = parseValue(key, st);
+                map.put(key, value);
             }
         }
         throw new IOException(node + " incomplete");
     }
 
-    private void checkValid(final StreamTokenizer st, final String token) throws IOException {
+    private void checkValid(final GMLTokenizer st, final String token) throws IOException {
         if (st.nextToken() != '[') {
             throw new IOException(token + " not followed by [");
         }
     }
 
-    private boolean hasNext(final StreamTokenizer st) throws IOException {
-        return st.nextToken() != StreamTokenizer.TT_EOF;
-    }
-
-    private boolean notLineBreak(final int type) {
-        return type != StreamTokenizer.TT_EOL;
+    private boolean hasNext(final GMLTokenizer st) throws IOException {
+        return st.nextToken() != GMLTokenizer.TT_EOF;
     }
 }
@@ -4,13 +4,8 @@ import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.TransactionalGraph;
 import com.tinkerpop.blueprints.util.wrappers.batch.BatchGraph;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.StreamTokenizer;
-import java.nio.charset.Charset;
 
 /**
  * A reader for the Graph Modelling Language (GML).
@@ -136,19 +131,10 @@ public class GMLReader {
                                   final String edgeLabelKey) throws IOException {
         final BatchGraph graph = BatchGraph.wrap(inputGraph, bufferSize);
 
-        final Reader r = new BufferedReader(new InputStreamReader(inputStream, Charset.forName("ISO-8859-1")));
-        final StreamTokenizer st = new StreamTokenizer(r);
+        // ISO 8859-1 as specified in the GML documentation
+        final GMLTokenizer st = new GMLTokenizer(inputStream);
 
         try {
-            st.commentChar(GMLTokens.COMMENT_CHAR);
-            st.ordinaryChar('[');
-            st.ordinaryChar(']');
-
-            final String stringCharacters = "/\\(){}<>!£$%^&*-+=,.?:;@_`|~";
-            for (int i = 0; i < stringCharacters.length(); i++) {
-                st.wordChars(stringCharacters.charAt(i), stringCharacters.charAt(i));
-            }
-
             new GMLParser(graph, defaultEdgeLabel, vertexIdKey, edgeIdKey, edgeLabelKey).parse(st);
 
             graph.stopTransaction(TransactionalGraph.Conclusion.SUCCESS);
@@ -0,0 +1,368 @@
+package com.tinkerpop.blueprints.util.io.gml;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * GMLTokenizer splits a GML stream into keys, integers, reals, strings and the brackets of lists.
+ * <p/>
+ * Unlike java.io.StreamTokenizer, it reads the ISO 8859-1 bytes of the stream directly from a buffer, parses integers
+ * as longs without going through doubles, lets strings span lines and shares the String instances of short keys
+ * between tokens.  Strings hold their characters verbatim, as GML has no escape sequences.  Comments run from # to the
+ * end of the line.
+ */
+public class GMLTokenizer {
+
+    public static final int TT_EOF = -1;
+    public static final int TT_WORD = -3;
+    public static final int TT_INTEGER = -4;
+    public static final int TT_REAL = -5;
+    public static final int TT_STRING = '"';
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private static final int MAX_SHARED_WORD_LENGTH = 32;
+    private static final int SHARED_WORDS = 1024;
+
+    private static final byte WORD = 1;
+    private static final byte DIGIT = 2;
+    private static final byte[] CHARACTER_TYPES = new byte[256];
+
+    static {
+        for (int c = 'a'; c <= 'z'; c++) CHARACTER_TYPES[c] = WORD;
+        for (int c = 'A'; c <= 'Z'; c++) CHARACTER_TYPES[c] = WORD;
+        for (int c = 128 + 32; c <= 255; c++) CHARACTER_TYPES[c] = WORD;
+        final String wordCharacters = "/\\(){}<>!$%^&*-+=,.?:;@_`|~";
+        for (int i = 0; i < wordCharacters.length(); i++) {
+            CHARACTER_TYPES[wordCharacters.charAt(i)] = WORD;
+        }
+        for (int c = '0'; c <= '9'; c++) CHARACTER_TYPES[c] = DIGIT;
+    }
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private int length = 0;
+
+    private char[] chars = new char[256];
+    private int charCount = 0;
+    private final String[] sharedWords = new String[SHARED_WORDS];
+
+    private int lineNumber = 1;
+
+    /**
+     * The type of the current token: one of the TT_ constants or the character of a bracket or any other character
+     * that is not part of a token.
+     */
+    public int ttype = TT_EOF;
+
+    /**
+     * The key of a TT_WORD token or the characters of a TT_STRING token.
+     */
+    public String sval = null;
+
+    /**
+     * The value of a TT_INTEGER token.
+     */
+    public long lval = 0;
+
+    /**
+     * The value of a TT_REAL token.
+     */
+    public double dval = 0;
+
+    /**
+     * @param inputStream the ISO 8859-1 encoded GML stream
+     */
+    public GMLTokenizer(final InputStream inputStream) {
+        this.in = inputStream;
+    }
+
+    /**
+     * @return the number of the line of the current token
+     */
+    public int lineno() {
+        return this.lineNumber;
+    }
+
+    /**
+     * Moves to the next token.
+     *
+     * @return the type of the token
+     */
+    public int nextToken() throws IOException {
+        this.sval = null;
+        int c = this.skipWhitespaceAndComments();
+        if (c < 0) {
+            return this.ttype = TT_EOF;
+        }
+
+        if (CHARACTER_TYPES[c] == DIGIT || c == '-' || c == '.') {
+            return this.ttype = this.readNumber(c);
+        } else if (CHARACTER_TYPES[c] == WORD) {
+            this.readWord(c);
+            return this.ttype = TT_WORD;
+        } else if (c == '"') {
+            this.readString();
+            return this.ttype = TT_STRING;
+        } else {
+            this.position++;
+            return this.ttype = c;
+        }
+    }
+
+    /**
+     * @return the character at the current position, which is left unread, or -1 at the end of the stream
+     */
+    private int skipWhitespaceAndComments() throws IOException {
+        while (true) {
+            if (this.position == this.length && !this.fill()) {
+                return -1;
+            }
+            final int c = this.buffer[this.position] & 0xFF;
+            if (c == GMLTokens.COMMENT_CHAR) {
+                // the line break is counted as whitespace
+                do {
+                    this.position++;
+                } while ((this.position < this.length || this.fill())
+                        && this.buffer[this.position] != '\n' && this.buffer[this.position] != '\r');
+            } else if (c <= ' ') {
+                this.position++;
+                this.countLineBreak(c);
+            } else {
+                return c;
+            }
+        }
+    }
+
+    /**
+     * Counts \n, \r and \r\n as a single line break each.  The character has already been read.
+     */
+    private void countLineBreak(final int c) throws IOException {
+        if (c == '\n') {
+            this.lineNumber++;
+        } else if (c == '\r') {
+            this.lineNumber++;
+            if ((this.position < this.length || this.fill()) && this.buffer[this.position] == '\n') {
+                this.position++;
+            }
+        }
+    }
+
+    /**
+     * Reads an optional minus sign, digits, an optional fraction and an optional exponent.  A lone minus sign is
+     * returned as a character of its own.
+     */
+    private int readNumber(int c) throws IOException {
+        this.charCount = 0;
+        if (c == '-') {
+            this.appendChar(c);
+            this.position++;
+            c = this.peek();
+            if (c != '.' && (c < '0' || c > '9')) {
+                return '-';
+            }
+        }
+
+        boolean integer = true;
+        long value = 0;
+        int digits = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            digits++;
+            this.appendChar(c);
+            this.position++;
+            c = this.peek();
+        }
+        if (c == '.') {
+            integer = false;
+            this.appendChar(c);
+            this.position++;
+            c = this.peek();
+            while (c >= '0' && c <= '9') {
+                this.appendChar(c);
+                this.position++;
+                c = this.peek();
+            }
+        }
+        if ((c == 'e' || c == 'E') && this.isExponent()) {
+            integer = false;
+            this.appendChar(c);
+            this.position++;
+            c = this.peek();
+            if (c == '+' || c == '-') {
+                this.appendChar(c);
+                this.position++;
+                c = this.peek();
+            }
+            while (c >= '0' && c <= '9') {
+                this.appendChar(c);
+                this.position++;
+                c = this.peek();
+            }
+        }
+
+        if (integer && digits <= 18) {
+            this.lval = this.chars[0] == '-' ? -value : value;
+            return TT_INTEGER;
+        }
+
+        final String number = new String(this.chars, 0, this.charCount);
+        if (integer) {
+            // longer integers may overflow a long
+            try {
+                this.lval = Long.parseLong(number);
+                return TT_INTEGER;
+            } catch (NumberFormatException nfe) {
+                // read as a real
+            }
+        }
+        try {
+            this.dval = Double.parseDouble(number);
+        } catch (NumberFormatException nfe) {
+            // a lone dot
+            this.dval = 0;
+        }
+        return TT_REAL;
+    }
+
+    /**
+     * @return whether the e at the current position is followed by the digits of an exponent, rather than being the
+     * start of a key that follows the number
+     */
+    private boolean isExponent() throws IOException {
+        int c = this.peek(1);
+        if (c == '+' || c == '-') {
+            c = this.peek(2);
+        }
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Reads a key, which continues with digits once it started with a word character.
+     */
+    private void readWord(int c) throws IOException {
+        this.charCount = 0;
+        int hash = 0;
+        do {
+            this.appendChar(c);
+            hash = 31 * hash + c;
+            this.position++;
+            c = this.peek();
+        } while (c >= 0 && CHARACTER_TYPES[c] != 0);
+
+        if (this.charCount > MAX_SHARED_WORD_LENGTH) {
+            this.sval = new String(this.chars, 0, this.charCount);
+            return;
+        }
+
+        final int slot = (hash ^ (hash >>> 16)) & (SHARED_WORDS - 1);
+        final String shared = this.sharedWords[slot];
+        if (shared != null && this.isCurrentWord(shared)) {
+            this.sval = shared;
+        } else {
+            this.sval = new String(this.chars, 0, this.charCount);
+            this.sharedWords[slot] = this.sval;
+        }
+    }
+
+    private boolean isCurrentWord(final String word) {
+        if (word.length() != this.charCount) {
+            return false;
+        }
+        for (int i = 0; i < this.charCount; i++) {
+            if (word.charAt(i) != this.chars[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the characters up to the closing quote, which may be on a later line, or up to the end of the stream.
+     */
+    private void readString() throws IOException {
+        this.position++;
+        this.charCount = 0;
+        while (this.position < this.length || this.fill()) {
+            final int start = this.position;
+            while (this.position < this.length && this.buffer[this.position] != '"'
+                    && this.buffer[this.position] != '\n' && this.buffer[this.position] != '\r') {
+                this.position++;
+            }
+            this.appendBytes(start, this.position);
+            if (this.position == this.length) {
+                continue;
+            }
+
+            final int c = this.buffer[this.position++] & 0xFF;
+            if (c == '"') {
+                break;
+            }
+            this.appendChar(c);
+            if (c == '\r' && (this.position < this.length || this.fill()) && this.buffer[this.position] == '\n') {
+                this.appendChar('\n');
+                this.position++;
+            }
+            this.lineNumber++;
+        }
+        this.sval = new String(this.chars, 0, this.charCount);
+    }
+
+    private int peek() throws IOException {
+        if (this.position == this.length && !this.fill()) {
+            return -1;
+        }
+        return this.buffer[this.position] & 0xFF;
+    }
+
+    /**
+     * @return the character at the given offset from the current position or -1 beyond the end of the stream
+     */
+    private int peek(final int offset) throws IOException {
+        while (this.position + offset >= this.length) {
+            // keep the unread bytes and read more after them
+            System.arraycopy(this.buffer, this.position, this.buffer, 0, this.length - this.position);
+            this.length -= this.position;
+            this.position = 0;
+            final int read = this.in.read(this.buffer, this.length, this.buffer.length - this.length);
+            if (read <= 0) {
+                return -1;
+            }
+            this.length += read;
+        }
+        return this.buffer[this.position + offset] & 0xFF;
+    }
+
+    private void appendChar(final int c) {
+        if (this.charCount == this.chars.length) {
+            this.growChars(this.charCount + 1);
+        }
+        this.chars[this.charCount++] = (char) c;
+    }
+
+    private void appendBytes(final int start, final int end) {
+        if (this.charCount + end - start > this.chars.length) {
+            this.growChars(this.charCount + end - start);
+        }
+        for (int i = start; i < end; i++) {
+            this.chars[this.charCount++] = (char) (this.buffer[i] & 0xFF);
+        }
+    }
+
+    private void growChars(final int minimum) {
+        final char[] grown = new char[Math.max(this.chars.length * 2, minimum)];
+        System.arraycopy(this.chars, 0, grown, 0, this.charCount);
+        this.chars = grown;
+    }
+
+    /**
+     * @return false if the stream is at its end
+     */
+    private boolean fill() throws IOException {
+        final int read = this.in.read(this.buffer);
+        this.position = 0;
+        this.length = Math.max(read, 0);
+        return read > 0;
+    }
+}
@@ -5,17 +5,23 @@ import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.ExternalSorter;
 import com.tinkerpop.blueprints.util.io.LexicographicalElementComparator;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -41,6 +47,8 @@ public class GMLWriter {
     private boolean normalize = false;
     private boolean useId = false;
     private boolean strict = false;
+    private int normalizeBufferSize = 0;
+    private File spillDirectory = null;
     private String vertexIdKey = GMLTokens.BLUEPRINTS_ID;
     private String edgeIdKey = GMLTokens.BLUEPRINTS_ID;
 
@@ -68,12 +76,31 @@ public class GMLWriter {
     /**
      * @param normalize whether to normalize the output. Normalized output is deterministic with respect to the order of
      *                  elements and properties in the resulting XML document, and is compatible with line diff-based tools
-     *                  such as Git. Note: normalized output is memory-intensive and is not appropriate for very large graphs.
+     *                  such as Git. Note: normalized output is memory-intensive and is not appropriate for very large graphs,
+     *                  unless a normalize buffer size is set.
      */
     public void setNormalize(final boolean normalize) {
         this.normalize = normalize;
     }
 
+    /**
+     * @param normalizeBufferSize the maximum number of vertices and of edges held in memory while sorting normalized
+     *                            output. When set, the vertices and edges are sorted in runs that are spilled to
+     *                            temporary files and merged while writing. By default all vertices and edges are
+     *                            sorted in memory.
+     */
+    public void setNormalizeBufferSize(final int normalizeBufferSize) {
+        this.normalizeBufferSize = normalizeBufferSize;
+    }
+
+    /**
+     * @param spillDirectory the directory of the temporary files of sorted runs or null for the default temporary
+     *                       directory
+     */
+    public void setSpillDirectory(final File spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
     /**
      * @param useId whether to use the blueprints id directly or substitute with a generated integer. To use this option
      *              the blueprints ids must all be Integers of String representations of integers
@@ -107,6 +134,13 @@ public class GMLWriter {
         // ISO 8859-1 as specified in the GML documentation
         final Writer writer = new BufferedWriter(new OutputStreamWriter(gMLOutputStream, Charset.forName("ISO-8859-1")));
 
+        if (normalize && normalizeBufferSize > 0) {
+            writeSortedGraph(writer);
+            writer.flush();
+            writer.close();
+            return;
+        }
+
         final List<Vertex> vertices = new ArrayList<Vertex>();
         final List<Edge> edges = new ArrayList<Edge>();
 
@@ -135,6 +169,97 @@ public class GMLWriter {
 
     }
 
+    /**
+     * Writes the graph with its vertices and edges sorted in runs that are spilled to temporary files.  Vertex and
+     * edge properties are written to records up front.  Unless the blueprints ids are used, the numbers of the
+     * vertices are their positions in the sorted order, so the edges are joined with the sorted vertices, once sorted
+     * by their out vertex and once by their in vertex, to look up the numbers of their source and target.
+     */
+    private void writeSortedGraph(final Writer writer) throws IOException {
+        final ExternalSorter<VertexRecord> vertices = new ExternalSorter<VertexRecord>(VertexRecord.ID_ORDER,
+                normalizeBufferSize, spillDirectory);
+        ExternalSorter<EdgeRecord> edges = new ExternalSorter<EdgeRecord>(useId ? EdgeRecord.ID_ORDER : EdgeRecord.OUT_ORDER,
+                normalizeBufferSize, spillDirectory);
+        try {
+            for (Vertex v : graph.getVertices()) {
+                final StringWriter properties = new StringWriter();
+                writeVertexProperties(properties, v);
+                vertices.add(new VertexRecord(v.getId().toString(), properties.toString()));
+            }
+            long count = 0;
+            for (Edge e : graph.getEdges()) {
+                final StringWriter properties = new StringWriter();
+                writeKey(properties, GMLTokens.LABEL);
+                writeStringProperty(properties, e.getLabel());
+                writeEdgeProperties(properties, e);
+                final EdgeRecord edge = new EdgeRecord(e.getId().toString(), count++,
+                        e.getVertex(Direction.OUT).getId().toString(), e.getVertex(Direction.IN).getId().toString(),
+                        properties.toString());
+                if (useId) {
+                    edge.source = Integer.valueOf(edge.out);
+                    edge.target = Integer.valueOf(edge.in);
+                }
+                edges.add(edge);
+            }
+
+            if (!useId) {
+                edges = joinVertices(vertices, edges, true);
+                edges = joinVertices(vertices, edges, false);
+            }
+
+            writer.write(GMLTokens.GRAPH);
+            writer.write(OPEN_LIST);
+            int number = 1;
+            for (VertexRecord v : vertices) {
+                writeVertex(writer, useId ? Integer.valueOf(v.id) : number++, v.properties);
+            }
+            for (EdgeRecord e : edges) {
+                writeEdge(writer, e.source, e.target, e.properties);
+            }
+            writer.write(CLOSE_LIST);
+        } finally {
+            vertices.close();
+            edges.close();
+        }
+    }
+
+    /**
+     * Sets the source or target number of the edges, sorted by their out or in vertex, from the sorted vertices.
+     *
+     * @return the edges sorted for the next join or for writing
+     */
+    private ExternalSorter<EdgeRecord> joinVertices(final ExternalSorter<VertexRecord> vertices,
+                                                    final ExternalSorter<EdgeRecord> edges, final boolean source) {
+        final ExternalSorter<EdgeRecord> joined = new ExternalSorter<EdgeRecord>(source ? EdgeRecord.IN_ORDER : EdgeRecord.ID_ORDER,
+                normalizeBufferSize, spillDirectory);
+        try {
+            final Iterator<VertexRecord> vertexIterator = vertices.iterator();
+            VertexRecord vertex = null;
+            int number = 0;
+            for (EdgeRecord edge : edges) {
+                final String id = source ? edge.out : edge.in;
+                while ((null == vertex || vertex.id.compareTo(id) < 0) && vertexIterator.hasNext()) {
+                    vertex = vertexIterator.next();
+                    number++;
+                }
+                if (null == vertex || !vertex.id.equals(id))
+                    throw new IllegalStateException("Edge " + edge.id + " references a vertex that is not in the graph: " + id);
+                if (source) {
+                    edge.source = number;
+                } else {
+                    edge.target = number;
+                }
+                joined.add(edge);
+            }
+        } catch (RuntimeException e) {
+            joined.close();
+            throw e;
+        } finally {
+            edges.close();
+        }
+        return joined;
+    }
+
     private void writeVertices(final Writer writer, final List<Vertex> vertices,
                                final Map<Vertex, Integer> ids) throws IOException {
         int count = 1;
@@ -162,6 +287,17 @@ public class GMLWriter {
         writer.write(CLOSE_LIST);
     }
 
+    private void writeVertex(final Writer writer, final int id, final String properties) throws IOException {
+        writer.write(TAB);
+        writer.write(GMLTokens.NODE);
+        writer.write(OPEN_LIST);
+        writeKey(writer, GMLTokens.ID);
+        writeNumberProperty(writer, id);
+        writer.write(properties);
+        writer.write(TAB);
+        writer.write(CLOSE_LIST);
+    }
+
     private void writeEdges(final Writer writer, final List<Edge> edges,
                             final Map<Vertex, Integer> ids) throws IOException {
         for (Edge e : edges) {
@@ -185,6 +321,20 @@ public class GMLWriter {
         writer.write(CLOSE_LIST);
     }
 
+    private void writeEdge(final Writer writer, final Integer source, final Integer target,
+                           final String properties) throws IOException {
+        writer.write(TAB);
+        writer.write(GMLTokens.EDGE);
+        writer.write(OPEN_LIST);
+        writeKey(writer, GMLTokens.SOURCE);
+        writeNumberProperty(writer, source);
+        writeKey(writer, GMLTokens.TARGET);
+        writeNumberProperty(writer, target);
+        writer.write(properties);
+        writer.write(TAB);
+        writer.write(CLOSE_LIST);
+    }
+
     private void writeVertexProperties(final Writer writer, final Vertex e) throws IOException {
         final Object blueprintsId = e.getId();
         if (!useId) {
@@ -278,6 +428,72 @@ public class GMLWriter {
         }
     }
 
+    /**
+     * A vertex of sorted output with its properties written as GML.
+     */
+    private static class VertexRecord implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        static final Comparator<VertexRecord> ID_ORDER = new Comparator<VertexRecord>() {
+            public int compare(final VertexRecord a, final VertexRecord b) {
+                return a.id.compareTo(b.id);
+            }
+        };
+
+        final String id;
+        final String properties;
+
+        VertexRecord(final String id, final String properties) {
+            this.id = id;
+            this.properties = properties;
+        }
+    }
+
+    /**
+     * An edge of sorted output with its label and properties written as GML.  The position of the edge in the graph
+     * breaks ties between equal ids, so that edges are written in the same order as by an in-memory sort.
+     */
+    private static class EdgeRecord implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        static final Comparator<EdgeRecord> ID_ORDER = new Comparator<EdgeRecord>() {
+            public int compare(final EdgeRecord a, final EdgeRecord b) {
+                final int compare = a.id.compareTo(b.id);
+                return compare != 0 ? compare : (a.position < b.position ? -1 : (a.position == b.position ? 0 : 1));
+            }
+        };
+
+        static final Comparator<EdgeRecord> OUT_ORDER = new Comparator<EdgeRecord>() {
+            public int compare(final EdgeRecord a, final EdgeRecord b) {
+                return a.out.compareTo(b.out);
+            }
+        };
+
+        static final Comparator<EdgeRecord> IN_ORDER = new Comparator<EdgeRecord>() {
+            public int compare(final EdgeRecord a, final EdgeRecord b) {
+                return a.in.compareTo(b.in);
+            }
+        };
+
+        final String id;
+        final long position;
+        final String out;
+        final String in;
+        final String properties;
+        Integer source;
+        Integer target;
+
+        EdgeRecord(final String id, final long position, final String out, final String in, final String properties) {
+            this.id = id;
+            this.position = position;
+            this.out = out;
+            this.in = in;
+            this.properties = properties;
+        }
+    }
+
     /**
      * Write the data in a Graph to a GML OutputStream.
      *
@@ -1,6 +1,7 @@
 package com.tinkerpop.blueprints.util.io.graphml;
 
 import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.TransactionalGraph;
 import com.tinkerpop.blueprints.Vertex;
@@ -12,9 +13,9 @@ import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.events.XMLEvent;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * GraphMLReader writes the data from a GraphML stream to a graph.
@@ -114,7 +115,9 @@ public class GraphMLReader {
 
             final BatchGraph graph = BatchGraph.wrap(inputGraph, bufferSize);
 
-            Map<String, String> keyIdMap = new HashMap<String, String>();
+            // <Key ID String, Key>
+            Map<String, Key> keyIdMap = new HashMap<String, Key>();
+            // <Attribute Name String, Attribute Type String>
             Map<String, String> keyTypesMaps = new HashMap<String, String>();
             // <Mapped ID String, ID Object>
 
@@ -123,93 +126,92 @@ public class GraphMLReader {
 
             // Buffered Vertex Data
             String vertexId = null;
-            Map<String, Object> vertexProps = null;
             boolean inVertex = false;
 
             // Buffered Edge Data
             String edgeId = null;
             String edgeLabel = null;
-            Vertex[] edgeEndVertices = null; //[0] = outVertex , [1] = inVertex
-            Map<String, Object> edgeProps = null;
+            final Vertex[] edgeEndVertices = new Vertex[2]; //[0] = outVertex , [1] = inVertex
             boolean inEdge = false;
 
+            // Buffered properties of the current vertex or edge
+            final Properties props = new Properties();
+
             while (reader.hasNext()) {
 
-                Integer eventType = reader.next();
-                if (eventType.equals(XMLEvent.START_ELEMENT)) {
-                    String elementName = reader.getName().getLocalPart();
+                final int eventType = reader.next();
+                if (eventType == XMLEvent.START_ELEMENT) {
+                    String elementName = reader.getLocalName();
 
-                    if (elementName.equals(GraphMLTokens.KEY)) {
-                        String id = reader.getAttributeValue(null, GraphMLTokens.ID);
-                        String attributeName = reader.getAttributeValue(null, GraphMLTokens.ATTR_NAME);
-                        String attributeType = reader.getAttributeValue(null, GraphMLTokens.ATTR_TYPE);
-                        keyIdMap.put(id, attributeName);
-                        keyTypesMaps.put(attributeName, attributeType);
+                    if (elementName.equals(GraphMLTokens.DATA)) {
+                        String key = reader.getAttributeValue(null, GraphMLTokens.KEY);
+                        Key attribute = keyIdMap.get(key);
+
+                        if (attribute != null) {
+                            String value = reader.getElementText();
+
+                            if (inVertex == true) {
+                                if ((vertexIdKey != null) && (key.equals(vertexIdKey))) {
+                                    // Should occur at most once per Vertex
+                                    // Assumes single ID prop per Vertex
+                                    vertexMappedIdMap.put(vertexId, value);
+                                    vertexId = value;
+                                } else
+                                    props.add(attribute.name, attribute.typeCastValue(value, keyTypesMaps));
+                            } else if (inEdge == true) {
+                                if ((edgeLabelKey != null) && (key.equals(edgeLabelKey)))
+                                    edgeLabel = value;
+                                else if ((edgeIdKey != null) && (key.equals(edgeIdKey)))
+                                    edgeId = value;
+                                else
+                                    props.add(attribute.name, attribute.typeCastValue(value, keyTypesMaps));
+                            }
+                        }
 
                     } else if (elementName.equals(GraphMLTokens.NODE)) {
                         vertexId = reader.getAttributeValue(null, GraphMLTokens.ID);
                         if (vertexIdKey != null)
                             vertexMappedIdMap.put(vertexId, vertexId);
                         inVertex = true;
-                        vertexProps = new HashMap<String, Object>();
 
                     } else if (elementName.equals(GraphMLTokens.EDGE)) {
                         edgeId = reader.getAttributeValue(null, GraphMLTokens.ID);
                         edgeLabel = reader.getAttributeValue(null, GraphMLTokens.LABEL);
                         edgeLabel = edgeLabel == null ? GraphMLTokens._DEFAULT : edgeLabel;
 
-                        String[] vertexIds = new String[2];
-                        vertexIds[0] = reader.getAttributeValue(null, GraphMLTokens.SOURCE);
-                        vertexIds[1] = reader.getAttributeValue(null, GraphMLTokens.TARGET);
-                        edgeEndVertices = new Vertex[2];
-
                         for (int i = 0; i < 2; i++) { //i=0 => outVertex, i=1 => inVertex
+                            final String vertexIdAttribute = reader.getAttributeValue(null, i == 0 ? GraphMLTokens.SOURCE : GraphMLTokens.TARGET);
                             if (vertexIdKey == null) {
-                                edgeEndVertices[i] = graph.getVertex(vertexIds[i]);
+                                edgeEndVertices[i] = graph.getVertex(vertexIdAttribute);
                             } else {
-                                edgeEndVertices[i] = graph.getVertex(vertexMappedIdMap.get(vertexIds[i]));
+                                edgeEndVertices[i] = graph.getVertex(vertexMappedIdMap.get(vertexIdAttribute));
                             }
 
                             if (null == edgeEndVertices[i]) {
-                                edgeEndVertices[i] = graph.addVertex(vertexIds[i]);
+                                edgeEndVertices[i] = graph.addVertex(vertexIdAttribute);
                                 if (vertexIdKey != null)
                                     // Default to standard ID system (in case no mapped
                                     // ID is found later)
-                                    vertexMappedIdMap.put(vertexIds[i], vertexIds[i]);
+                                    vertexMappedIdMap.put(vertexIdAttribute, vertexIdAttribute);
                             }
                         }
 
                         inEdge = true;
-                        edgeProps = new HashMap<String, Object>();
-
-                    } else if (elementName.equals(GraphMLTokens.DATA)) {
-                        String key = reader.getAttributeValue(null, GraphMLTokens.KEY);
-                        String attributeName = keyIdMap.get(key);
 
-                        if (attributeName != null) {
-                            String value = reader.getElementText();
+                    } else if (elementName.equals(GraphMLTokens.KEY)) {
+                        String id = reader.getAttributeValue(null, GraphMLTokens.ID);
+                        String attributeName = reader.getAttributeValue(null, GraphMLTokens.ATTR_NAME);
+                        String attributeType = reader.getAttributeValue(null, GraphMLTokens.ATTR_TYPE);
+                        keyIdMap.put(id, new Key(id, attributeName));
+                        keyTypesMaps.put(attributeName, attributeType);
 
-                            if (inVertex == true) {
-                                if ((vertexIdKey != null) && (key.equals(vertexIdKey))) {
-                                    // Should occur at most once per Vertex
-                                    // Assumes single ID prop per Vertex
-                                    vertexMappedIdMap.put(vertexId, value);
-                                    vertexId = value;
-                                } else
-                                    vertexProps.put(attributeName, typeCastValue(key, value, keyTypesMaps));
-                            } else if (inEdge == true) {
-                                if ((edgeLabelKey != null) && (key.equals(edgeLabelKey)))
-                                    edgeLabel = value;
-                                else if ((edgeIdKey != null) && (key.equals(edgeIdKey)))
-                                    edgeId = value;
-                                else
-                                    edgeProps.put(attributeName, typeCastValue(key, value, keyTypesMaps));
-                            }
+                        // a new attribute type may change the type of any key
+                        for (Key key : keyIdMap.values()) {
+                            key.type = null;
                         }
-
                     }
-                } else if (eventType.equals(XMLEvent.END_ELEMENT)) {
-                    String elementName = reader.getName().getLocalPart();
+                } else if (eventType == XMLEvent.END_ELEMENT) {
+                    String elementName = reader.getLocalName();
 
                     if (elementName.equals(GraphMLTokens.NODE)) {
                         Vertex currentVertex = graph.getVertex(vertexId);
@@ -217,24 +219,19 @@ public class GraphMLReader {
                             currentVertex = graph.addVertex(vertexId);
                         }
 
-                        for (Entry<String, Object> prop : vertexProps.entrySet()) {
-                            currentVertex.setProperty(prop.getKey(), prop.getValue());
-                        }
+                        props.setProperties(currentVertex);
 
                         vertexId = null;
-                        vertexProps = null;
                         inVertex = false;
                     } else if (elementName.equals(GraphMLTokens.EDGE)) {
                         Edge currentEdge = graph.addEdge(edgeId, edgeEndVertices[0], edgeEndVertices[1], edgeLabel);
 
-                        for (Entry<String, Object> prop : edgeProps.entrySet()) {
-                            currentEdge.setProperty(prop.getKey(), prop.getValue());
-                        }
+                        props.setProperties(currentEdge);
 
                         edgeId = null;
                         edgeLabel = null;
-                        edgeEndVertices = null;
-                        edgeProps = null;
+                        edgeEndVertices[0] = null;
+                        edgeEndVertices[1] = null;
                         inEdge = false;
                     }
 
@@ -249,21 +246,109 @@ public class GraphMLReader {
         }
     }
 
-    private static Object typeCastValue(String key, String value, Map<String, String> keyTypes) {
-        String type = keyTypes.get(key);
-        if (null == type || type.equals(GraphMLTokens.STRING))
-            return value;
-        else if (type.equals(GraphMLTokens.FLOAT))
-            return Float.valueOf(value);
-        else if (type.equals(GraphMLTokens.INT))
-            return Integer.valueOf(value);
-        else if (type.equals(GraphMLTokens.DOUBLE))
-            return Double.valueOf(value);
-        else if (type.equals(GraphMLTokens.BOOLEAN))
-            return Boolean.valueOf(value);
-        else if (type.equals(GraphMLTokens.LONG))
-            return Long.valueOf(value);
-        else
-            return value;
+    /**
+     * A &lt;key/&gt; with the attribute name of its data and the type its values are cast to.
+     */
+    private static class Key {
+        private final String id;
+        private final String name;
+        private KeyType type = null;
+
+        Key(final String id, final String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        Object typeCastValue(final String value, final Map<String, String> keyTypes) {
+            if (null == this.type) {
+                // the type is looked up by the id of the key among the attribute names
+                this.type = KeyType.forType(keyTypes.get(this.id));
+            }
+            return this.type.cast(value);
+        }
+    }
+
+    private enum KeyType {
+        STRING {
+            Object cast(final String value) {
+                return value;
+            }
+        },
+        FLOAT {
+            Object cast(final String value) {
+                return Float.valueOf(value);
+            }
+        },
+        INT {
+            Object cast(final String value) {
+                return Integer.valueOf(value);
+            }
+        },
+        DOUBLE {
+            Object cast(final String value) {
+                return Double.valueOf(value);
+            }
+        },
+        BOOLEAN {
+            Object cast(final String value) {
+                return Boolean.valueOf(value);
+            }
+        },
+        LONG {
+            Object cast(final String value) {
+                return Long.valueOf(value);
+            }
+        };
+
+        abstract Object cast(final String value);
+
+        static KeyType forType(final String type) {
+            if (null == type || type.equals(GraphMLTokens.STRING))
+                return STRING;
+            else if (type.equals(GraphMLTokens.FLOAT))
+                return FLOAT;
+            else if (type.equals(GraphMLTokens.INT))
+                return INT;
+            else if (type.equals(GraphMLTokens.DOUBLE))
+                return DOUBLE;
+            else if (type.equals(GraphMLTokens.BOOLEAN))
+                return BOOLEAN;
+            else if (type.equals(GraphMLTokens.LONG))
+                return LONG;
+            else
+                return STRING;
+        }
+    }
+
+    /**
+     * The properties of the current vertex or edge, buffered in arrays that are reused for every element.
+     */
+    private static class Properties {
+        private String[] keys = new String[8];
+        private Object[] values = new Object[8];
+        private int size = 0;
+
+        void add(final String key, final Object value) {
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, this.size * 2);
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.keys[this.size] = key;
+            this.values[this.size] = value;
+            this.size++;
+        }
+
+        /**
+         * Sets the buffered properties on the element, where a later value of a key replaces an earlier one, and
+         * clears the buffer.
+         */
+        void setProperties(final Element element) {
+            for (int i = 0; i < this.size; i++) {
+                element.setProperty(this.keys[i], this.values[i]);
+                this.keys[i] = null;
+                this.values[i] = null;
+            }
+            this.size = 0;
+        }
     }
-}
\ No newline at end of file
+}
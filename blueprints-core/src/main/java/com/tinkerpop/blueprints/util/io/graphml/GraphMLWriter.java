@@ -2,19 +2,27 @@ package com.tinkerpop.blueprints.util.io.graphml;
 
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.Vertex;
-import com.tinkerpop.blueprints.util.io.LexicographicalElementComparator;
+import com.tinkerpop.blueprints.util.ExternalSorter;
 
 import javax.xml.XMLConstants;
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -28,8 +36,13 @@ import java.util.Map;
  */
 public class GraphMLWriter {
 
+    private static final int BUFFER_SIZE = 65536;
+
     private final Graph graph;
     private boolean normalize = false;
+    private boolean singlePass = false;
+    private int normalizeBufferSize = 0;
+    private File spillDirectory = null;
     private Map<String, String> vertexKeyTypes = null;
     private Map<String, String> edgeKeyTypes = null;
 
@@ -66,12 +79,41 @@ public class GraphMLWriter {
     /**
      * @param normalize whether to normalize the output. Normalized output is deterministic with respect to the order of
      *                  elements and properties in the resulting XML document, and is compatible with line diff-based tools
-     *                  such as Git. Note: normalized output is memory-intensive and is not appropriate for very large graphs.
+     *                  such as Git. Note: normalized output is memory-intensive and is not appropriate for very large graphs,
+     *                  unless a normalize buffer size is set.
      */
     public void setNormalize(final boolean normalize) {
         this.normalize = normalize;
     }
 
+    /**
+     * @param normalizeBufferSize the maximum number of nodes and of edges held in memory while sorting normalized
+     *                            output. Larger graphs are sorted in runs that are spilled to temporary files and
+     *                            merged while writing. By default all nodes and edges are sorted in memory.
+     */
+    public void setNormalizeBufferSize(final int normalizeBufferSize) {
+        this.normalizeBufferSize = normalizeBufferSize;
+    }
+
+    /**
+     * @param singlePass whether to iterate the graph only once when the key types are not set. The nodes and edges
+     *                   are written to a temporary file while the key types are collected and then copied to the
+     *                   output after the keys. Otherwise the graph is iterated once to collect the key types and
+     *                   once more to write the nodes and edges. The output is the same either way. Normalized output
+     *                   collects the key types while sorting, so it always iterates the graph only once.
+     */
+    public void setSinglePass(final boolean singlePass) {
+        this.singlePass = singlePass;
+    }
+
+    /**
+     * @param spillDirectory the directory of the temporary files of a single pass or of sorted runs or null for the
+     *                       default temporary directory
+     */
+    public void setSpillDirectory(final File spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
     /**
      * @param vertexKeyTypes a Map of the data types of the vertex keys
      */
@@ -94,7 +136,17 @@ public class GraphMLWriter {
      */
     public void outputGraph(final OutputStream graphMLOutputStream) throws IOException {
 
+        if (normalize) {
+            outputNormalizedGraph(graphMLOutputStream);
+            return;
+        }
+
         if (null == vertexKeyTypes || null == edgeKeyTypes) {
+            if (singlePass) {
+                outputGraphSinglePass(graphMLOutputStream);
+                return;
+            }
+
             Map<String, String> vertexKeyTypes = new HashMap<String, String>();
             Map<String, String> edgeKeyTypes = new HashMap<String, String>();
 
@@ -113,184 +165,323 @@ public class GraphMLWriter {
                 }
             }
 
-            if (null == this.vertexKeyTypes) {
-                this.vertexKeyTypes = vertexKeyTypes;
-            }
+            setKeyTypes(vertexKeyTypes, edgeKeyTypes);
+        }
 
-            if (null == this.edgeKeyTypes) {
-                this.edgeKeyTypes = edgeKeyTypes;
-            }
+        addEdgeLabelKeyType();
+
+        try {
+            final XMLStreamWriter writer = createXMLStreamWriter(graphMLOutputStream);
+            writeHeader(writer);
+            writeGraph(writer, null, null);
+            writeFooter(writer);
+        } catch (XMLStreamException xse) {
+            throw new IOException(xse);
         }
+    }
 
-        // adding the edge label key will push the label into the data portion of the graphml otherwise it
-        // will live with the edge data itself (which won't validate against the graphml schema)
-        if (null != this.edgeLabelKey && null != this.edgeKeyTypes && null == this.edgeKeyTypes.get(this.edgeLabelKey))
-            this.edgeKeyTypes.put(this.edgeLabelKey, GraphMLTokens.STRING);
+    /**
+     * Writes the graph element to a temporary file while collecting the key types, so that the graph is only
+     * iterated once, and then writes the keys followed by the graph element copied from the file.
+     */
+    private void outputGraphSinglePass(final OutputStream graphMLOutputStream) throws IOException {
+        final Map<String, String> vertexKeyTypes = new HashMap<String, String>();
+        final Map<String, String> edgeKeyTypes = new HashMap<String, String>();
 
-        final XMLOutputFactory inputFactory = XMLOutputFactory.newInstance();
+        final File spill = File.createTempFile("graphml", ".xml", this.spillDirectory);
         try {
-            XMLStreamWriter writer = inputFactory.createXMLStreamWriter(graphMLOutputStream, "UTF8");
-            if (normalize) {
-                writer = new GraphMLWriterHelper.IndentingXMLStreamWriter(writer);
-                ((GraphMLWriterHelper.IndentingXMLStreamWriter) writer).setIndentStep("    ");
+            final OutputStream spillStream = new BufferedOutputStream(new FileOutputStream(spill), BUFFER_SIZE);
+            try {
+                final XMLStreamWriter spillWriter = createXMLStreamWriter(spillStream);
+                writeGraph(spillWriter, vertexKeyTypes, edgeKeyTypes);
+                spillWriter.flush();
+                spillWriter.close();
+            } finally {
+                spillStream.close();
             }
 
-            writer.writeStartDocument();
-            writer.writeStartElement(GraphMLTokens.GRAPHML);
-            writer.writeAttribute(GraphMLTokens.XMLNS, GraphMLTokens.GRAPHML_XMLNS);
-
-            //XML Schema instance namespace definition (xsi)
-            writer.writeAttribute(XMLConstants.XMLNS_ATTRIBUTE + ":" + GraphMLTokens.XML_SCHEMA_NAMESPACE_TAG,
-                    XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
-            //XML Schema location
-            writer.writeAttribute(GraphMLTokens.XML_SCHEMA_NAMESPACE_TAG + ":" + GraphMLTokens.XML_SCHEMA_LOCATION_ATTRIBUTE,
-                    GraphMLTokens.GRAPHML_XMLNS + " " + (this.xmlSchemaLocation == null ?
-                            GraphMLTokens.DEFAULT_GRAPHML_SCHEMA_LOCATION : this.xmlSchemaLocation));
-
-            // <key id="weight" for="edge" attr.name="weight" attr.type="float"/>
-            Collection<String> keyset;
-
-            if (normalize) {
-                keyset = new ArrayList<String>();
-                keyset.addAll(vertexKeyTypes.keySet());
-                Collections.sort((List<String>) keyset);
-            } else {
-                keyset = vertexKeyTypes.keySet();
-            }
-            for (String key : keyset) {
-                writer.writeStartElement(GraphMLTokens.KEY);
-                writer.writeAttribute(GraphMLTokens.ID, key);
-                writer.writeAttribute(GraphMLTokens.FOR, GraphMLTokens.NODE);
-                writer.writeAttribute(GraphMLTokens.ATTR_NAME, key);
-                writer.writeAttribute(GraphMLTokens.ATTR_TYPE, vertexKeyTypes.get(key));
-                writer.writeEndElement();
-            }
+            setKeyTypes(vertexKeyTypes, edgeKeyTypes);
+            addEdgeLabelKeyType();
 
-            if (normalize) {
-                keyset = new ArrayList<String>();
-                keyset.addAll(edgeKeyTypes.keySet());
-                Collections.sort((List<String>) keyset);
-            } else {
-                keyset = edgeKeyTypes.keySet();
-            }
-            for (String key : keyset) {
-                writer.writeStartElement(GraphMLTokens.KEY);
-                writer.writeAttribute(GraphMLTokens.ID, key);
-                writer.writeAttribute(GraphMLTokens.FOR, GraphMLTokens.EDGE);
-                writer.writeAttribute(GraphMLTokens.ATTR_NAME, key);
-                writer.writeAttribute(GraphMLTokens.ATTR_TYPE, edgeKeyTypes.get(key));
-                writer.writeEndElement();
+            final XMLStreamWriter writer = createXMLStreamWriter(graphMLOutputStream);
+            writeHeader(writer);
+
+            // close the start tag of the graphml element before the graph element is copied into it
+            writer.writeCharacters("");
+            writer.flush();
+
+            final InputStream in = new FileInputStream(spill);
+            try {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    graphMLOutputStream.write(buffer, 0, read);
+                }
+            } finally {
+                in.close();
             }
 
-            writer.writeStartElement(GraphMLTokens.GRAPH);
-            writer.writeAttribute(GraphMLTokens.ID, GraphMLTokens.G);
-            writer.writeAttribute(GraphMLTokens.EDGEDEFAULT, GraphMLTokens.DIRECTED);
+            writeFooter(writer);
+        } catch (XMLStreamException xse) {
+            throw new IOException(xse);
+        } finally {
+            spill.delete();
+        }
+    }
+
+    /**
+     * Sorts the nodes and edges by their ids, in memory or in runs spilled to temporary files, while collecting the
+     * key types, and then writes the keys followed by the sorted nodes and edges.
+     */
+    private void outputNormalizedGraph(final OutputStream graphMLOutputStream) throws IOException {
+        final Map<String, String> vertexKeyTypes = null == this.vertexKeyTypes ? new HashMap<String, String>() : null;
+        final Map<String, String> edgeKeyTypes = null == this.edgeKeyTypes ? new HashMap<String, String>() : null;
 
-            Iterable<Vertex> vertices;
-            if (normalize) {
-                vertices = new ArrayList<Vertex>();
-                for (Vertex v : graph.getVertices()) {
-                    ((Collection<Vertex>) vertices).add(v);
+        final int bufferSize = this.normalizeBufferSize > 0 ? this.normalizeBufferSize : Integer.MAX_VALUE;
+        final ExternalSorter<ElementRecord> vertices = new ExternalSorter<ElementRecord>(ElementRecord.ID_ORDER, bufferSize, this.spillDirectory);
+        final ExternalSorter<ElementRecord> edges = new ExternalSorter<ElementRecord>(ElementRecord.ID_ORDER, bufferSize, this.spillDirectory);
+        try {
+            for (Vertex vertex : graph.getVertices()) {
+                vertices.add(new ElementRecord(vertex, vertexKeyTypes));
+                for (Edge edge : vertex.getEdges(Direction.OUT)) {
+                    edges.add(new ElementRecord(edge, edgeKeyTypes));
                 }
-                Collections.sort((List<Vertex>) vertices, new LexicographicalElementComparator());
-            } else {
-                vertices = graph.getVertices();
             }
-            for (Vertex vertex : vertices) {
+
+            setKeyTypes(vertexKeyTypes, edgeKeyTypes);
+            addEdgeLabelKeyType();
+
+            final XMLStreamWriter writer = createXMLStreamWriter(graphMLOutputStream);
+            writeHeader(writer);
+            writeGraphStart(writer);
+
+            for (ElementRecord vertex : vertices) {
                 writer.writeStartElement(GraphMLTokens.NODE);
-                writer.writeAttribute(GraphMLTokens.ID, vertex.getId().toString());
-                Collection<String> keys;
-                if (normalize) {
-                    keys = new ArrayList<String>();
-                    keys.addAll(vertex.getPropertyKeys());
-                    Collections.sort((List<String>) keys);
+                writer.writeAttribute(GraphMLTokens.ID, vertex.id);
+                writeData(writer, vertex);
+                writer.writeEndElement();
+            }
+
+            for (ElementRecord edge : edges) {
+                writer.writeStartElement(GraphMLTokens.EDGE);
+                writer.writeAttribute(GraphMLTokens.ID, edge.id);
+                writer.writeAttribute(GraphMLTokens.SOURCE, edge.source);
+                writer.writeAttribute(GraphMLTokens.TARGET, edge.target);
+
+                if (this.edgeLabelKey == null) {
+                    // this will not comply with the graphml schema but is here so that the label is not
+                    // mixed up with properties.
+                    writer.writeAttribute(GraphMLTokens.LABEL, edge.label);
                 } else {
-                    keys = vertex.getPropertyKeys();
-                }
-                for (String key : keys) {
                     writer.writeStartElement(GraphMLTokens.DATA);
-                    writer.writeAttribute(GraphMLTokens.KEY, key);
-                    Object value = vertex.getProperty(key);
-                    if (null != value) {
-                        writer.writeCharacters(value.toString());
-                    }
+                    writer.writeAttribute(GraphMLTokens.KEY, this.edgeLabelKey);
+                    writer.writeCharacters(edge.label);
                     writer.writeEndElement();
                 }
+
+                writeData(writer, edge);
                 writer.writeEndElement();
             }
 
-            if (normalize) {
-                List<Edge> edges = new ArrayList<Edge>();
-                for (Vertex vertex : graph.getVertices()) {
-                    for (Edge edge : vertex.getEdges(Direction.OUT)) {
-                        edges.add(edge);
-                    }
-                }
-                Collections.sort(edges, new LexicographicalElementComparator());
-
-                for (Edge edge : edges) {
-                    writer.writeStartElement(GraphMLTokens.EDGE);
-                    writer.writeAttribute(GraphMLTokens.ID, edge.getId().toString());
-                    writer.writeAttribute(GraphMLTokens.SOURCE, edge.getVertex(Direction.OUT).getId().toString());
-                    writer.writeAttribute(GraphMLTokens.TARGET, edge.getVertex(Direction.IN).getId().toString());
-
-                    if (this.edgeLabelKey == null) {
-                        // this will not comply with the graphml schema but is here so that the label is not
-                        // mixed up with properties.
-                        writer.writeAttribute(GraphMLTokens.LABEL, edge.getLabel());
-                    } else {
-                        writer.writeStartElement(GraphMLTokens.DATA);
-                        writer.writeAttribute(GraphMLTokens.KEY, this.edgeLabelKey);
-                        writer.writeCharacters(edge.getLabel());
-                        writer.writeEndElement();
-                    }
+            writer.writeEndElement(); // graph
+            writeFooter(writer);
+        } catch (XMLStreamException xse) {
+            throw new IOException(xse);
+        } finally {
+            vertices.close();
+            edges.close();
+        }
+    }
 
-                    final List<String> keys = new ArrayList<String>();
-                    keys.addAll(edge.getPropertyKeys());
-                    Collections.sort(keys);
+    private void setKeyTypes(final Map<String, String> vertexKeyTypes, final Map<String, String> edgeKeyTypes) {
+        if (null == this.vertexKeyTypes) {
+            this.vertexKeyTypes = vertexKeyTypes;
+        }
 
-                    for (String key : keys) {
-                        writer.writeStartElement(GraphMLTokens.DATA);
-                        writer.writeAttribute(GraphMLTokens.KEY, key);
-                        Object value = edge.getProperty(key);
-                        if (null != value) {
-                            writer.writeCharacters(value.toString());
-                        }
-                        writer.writeEndElement();
-                    }
-                    writer.writeEndElement();
-                }
-            } else {
-                for (Vertex vertex : graph.getVertices()) {
-                    for (Edge edge : vertex.getEdges(Direction.OUT)) {
-                        writer.writeStartElement(GraphMLTokens.EDGE);
-                        writer.writeAttribute(GraphMLTokens.ID, edge.getId().toString());
-                        writer.writeAttribute(GraphMLTokens.SOURCE, edge.getVertex(Direction.OUT).getId().toString());
-                        writer.writeAttribute(GraphMLTokens.TARGET, edge.getVertex(Direction.IN).getId().toString());
-                        writer.writeAttribute(GraphMLTokens.LABEL, edge.getLabel());
-
-                        for (String key : edge.getPropertyKeys()) {
-                            writer.writeStartElement(GraphMLTokens.DATA);
-                            writer.writeAttribute(GraphMLTokens.KEY, key);
-                            Object value = edge.getProperty(key);
-                            if (null != value) {
-                                writer.writeCharacters(value.toString());
-                            }
-                            writer.writeEndElement();
-                        }
-                        writer.writeEndElement();
-                    }
-                }
+        if (null == this.edgeKeyTypes) {
+            this.edgeKeyTypes = edgeKeyTypes;
+        }
+    }
+
+    private void addEdgeLabelKeyType() {
+        // adding the edge label key will push the label into the data portion of the graphml otherwise it
+        // will live with the edge data itself (which won't validate against the graphml schema)
+        if (null != this.edgeLabelKey && null != this.edgeKeyTypes && null == this.edgeKeyTypes.get(this.edgeLabelKey))
+            this.edgeKeyTypes.put(this.edgeLabelKey, GraphMLTokens.STRING);
+    }
+
+    private XMLStreamWriter createXMLStreamWriter(final OutputStream outputStream) throws XMLStreamException {
+        final XMLOutputFactory inputFactory = XMLOutputFactory.newInstance();
+        XMLStreamWriter writer = inputFactory.createXMLStreamWriter(outputStream, "UTF8");
+        if (normalize) {
+            writer = new GraphMLWriterHelper.IndentingXMLStreamWriter(writer);
+            ((GraphMLWriterHelper.IndentingXMLStreamWriter) writer).setIndentStep("    ");
+        }
+        return writer;
+    }
+
+    private void writeHeader(final XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartDocument();
+        writer.writeStartElement(GraphMLTokens.GRAPHML);
+        writer.writeAttribute(GraphMLTokens.XMLNS, GraphMLTokens.GRAPHML_XMLNS);
+
+        //XML Schema instance namespace definition (xsi)
+        writer.writeAttribute(XMLConstants.XMLNS_ATTRIBUTE + ":" + GraphMLTokens.XML_SCHEMA_NAMESPACE_TAG,
+                XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI);
+        //XML Schema location
+        writer.writeAttribute(GraphMLTokens.XML_SCHEMA_NAMESPACE_TAG + ":" + GraphMLTokens.XML_SCHEMA_LOCATION_ATTRIBUTE,
+                GraphMLTokens.GRAPHML_XMLNS + " " + (this.xmlSchemaLocation == null ?
+                        GraphMLTokens.DEFAULT_GRAPHML_SCHEMA_LOCATION : this.xmlSchemaLocation));
+
+        // <key id="weight" for="edge" attr.name="weight" attr.type="float"/>
+        writeKeys(writer, GraphMLTokens.NODE, vertexKeyTypes);
+        writeKeys(writer, GraphMLTokens.EDGE, edgeKeyTypes);
+    }
+
+    private void writeFooter(final XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeEndElement(); // graphml
+        writer.writeEndDocument();
+
+        writer.flush();
+        writer.close();
+    }
+
+    private void writeKeys(final XMLStreamWriter writer, final String elementType,
+                           final Map<String, String> keyTypes) throws XMLStreamException {
+        Collection<String> keyset;
+        if (normalize) {
+            keyset = new ArrayList<String>();
+            keyset.addAll(keyTypes.keySet());
+            Collections.sort((List<String>) keyset);
+        } else {
+            keyset = keyTypes.keySet();
+        }
+        for (String key : keyset) {
+            writer.writeStartElement(GraphMLTokens.KEY);
+            writer.writeAttribute(GraphMLTokens.ID, key);
+            writer.writeAttribute(GraphMLTokens.FOR, elementType);
+            writer.writeAttribute(GraphMLTokens.ATTR_NAME, key);
+            writer.writeAttribute(GraphMLTokens.ATTR_TYPE, keyTypes.get(key));
+            writer.writeEndElement();
+        }
+    }
+
+    private void writeGraphStart(final XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartElement(GraphMLTokens.GRAPH);
+        writer.writeAttribute(GraphMLTokens.ID, GraphMLTokens.G);
+        writer.writeAttribute(GraphMLTokens.EDGEDEFAULT, GraphMLTokens.DIRECTED);
+    }
+
+    /**
+     * Writes the graph element with all nodes and edges in the order of the graph.
+     *
+     * @param vertexKeyTypes the Map to collect the types of the vertex keys in or null to not collect them
+     * @param edgeKeyTypes   the Map to collect the types of the edge keys in or null to not collect them
+     */
+    private void writeGraph(final XMLStreamWriter writer, final Map<String, String> vertexKeyTypes,
+                            final Map<String, String> edgeKeyTypes) throws XMLStreamException {
+        writeGraphStart(writer);
+
+        for (Vertex vertex : graph.getVertices()) {
+            writer.writeStartElement(GraphMLTokens.NODE);
+            writer.writeAttribute(GraphMLTokens.ID, vertex.getId().toString());
+            writeData(writer, vertex, vertexKeyTypes);
+            writer.writeEndElement();
+        }
+
+        for (Vertex vertex : graph.getVertices()) {
+            for (Edge edge : vertex.getEdges(Direction.OUT)) {
+                writer.writeStartElement(GraphMLTokens.EDGE);
+                writer.writeAttribute(GraphMLTokens.ID, edge.getId().toString());
+                writer.writeAttribute(GraphMLTokens.SOURCE, edge.getVertex(Direction.OUT).getId().toString());
+                writer.writeAttribute(GraphMLTokens.TARGET, edge.getVertex(Direction.IN).getId().toString());
+                writer.writeAttribute(GraphMLTokens.LABEL, edge.getLabel());
+
+                writeData(writer, edge, edgeKeyTypes);
+                writer.writeEndElement();
             }
+        }
 
-            writer.writeEndElement(); // graph
-            writer.writeEndElement(); // graphml
-            writer.writeEndDocument();
+        writer.writeEndElement(); // graph
+    }
 
-            writer.flush();
-            writer.close();
-        } catch (XMLStreamException xse) {
-            throw new IOException(xse);
+    private void writeData(final XMLStreamWriter writer, final Element element,
+                           final Map<String, String> keyTypes) throws XMLStreamException {
+        for (String key : element.getPropertyKeys()) {
+            writer.writeStartElement(GraphMLTokens.DATA);
+            writer.writeAttribute(GraphMLTokens.KEY, key);
+            Object value = element.getProperty(key);
+            if (null != keyTypes && !keyTypes.containsKey(key)) {
+                keyTypes.put(key, GraphMLWriter.getStringType(value));
+            }
+            if (null != value) {
+                writer.writeCharacters(value.toString());
+            }
+            writer.writeEndElement();
+        }
+    }
+
+    private void writeData(final XMLStreamWriter writer, final ElementRecord record) throws XMLStreamException {
+        for (int i = 0; i < record.keys.length; i++) {
+            writer.writeStartElement(GraphMLTokens.DATA);
+            writer.writeAttribute(GraphMLTokens.KEY, record.keys[i]);
+            if (null != record.values[i]) {
+                writer.writeCharacters(record.values[i]);
+            }
+            writer.writeEndElement();
+        }
+    }
+
+    /**
+     * The part of a node or an edge that normalized output writes, with the properties sorted by key.  Sorted runs
+     * of records are spilled to temporary files with Java serialization.
+     */
+    private static class ElementRecord implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        static final Comparator<ElementRecord> ID_ORDER = new Comparator<ElementRecord>() {
+            public int compare(final ElementRecord a, final ElementRecord b) {
+                return a.id.compareTo(b.id);
+            }
+        };
+
+        final String id;
+        final String source;
+        final String target;
+        final String label;
+        final String[] keys;
+        final String[] values;
+
+        /**
+         * @param keyTypes the Map to collect the types of the keys in or null to not collect them
+         */
+        ElementRecord(final Element element, final Map<String, String> keyTypes) {
+            this.id = element.getId().toString();
+            if (element instanceof Edge) {
+                final Edge edge = (Edge) element;
+                this.source = edge.getVertex(Direction.OUT).getId().toString();
+                this.target = edge.getVertex(Direction.IN).getId().toString();
+                this.label = edge.getLabel();
+            } else {
+                this.source = null;
+                this.target = null;
+                this.label = null;
+            }
+
+            final List<String> keys = new ArrayList<String>(element.getPropertyKeys());
+            Collections.sort(keys);
+            this.keys = keys.toArray(new String[keys.size()]);
+            this.values = new String[this.keys.length];
+            for (int i = 0; i < this.keys.length; i++) {
+                final Object value = element.getProperty(this.keys[i]);
+                if (null != keyTypes && !keyTypes.containsKey(this.keys[i])) {
+                    keyTypes.put(this.keys[i], GraphMLWriter.getStringType(value));
+                }
+                if (null != value) {
+                    this.values[i] = value.toString();
+                }
+            }
         }
     }
 
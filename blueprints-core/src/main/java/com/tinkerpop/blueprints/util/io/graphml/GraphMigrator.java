@@ -1,59 +1,299 @@
 package com.tinkerpop.blueprints.util.io.graphml;
 
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.ElementHelper;
+import com.tinkerpop.blueprints.util.wrappers.batch.BatchGraph;
+import com.tinkerpop.blueprints.util.wrappers.batch.ParallelBatchLoader;
 
-import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * GraphMigrator takes the data in one graph and pipes it to another graph.
+ * <p/>
+ * The elements are copied directly, without serializing them in between.  The calling thread reads the vertices and
+ * then the edges of the source graph and hands them over a bounded queue to the writer threads, which add them to the
+ * target graph and commit them in transactions of the buffer size.  A single writer loads the target graph through a
+ * BatchGraph.  Multiple writers load it through a ParallelBatchLoader, so the target graph must then be safe to use
+ * from multiple threads.  Only a TransactionalGraph is loaded by multiple writers, any other graph is loaded by one.
+ * <p/>
+ * As in the GraphML round trip this replaces, vertices and edges keep the string representation of their ids, while
+ * their properties keep their values and types.  The number of migrated elements and the throughput may be polled
+ * from another thread while the migration is running.
  *
  * @author Alex Averbuch (alex.averbuch@gmail.com)
  */
 public class GraphMigrator {
 
     /**
-     * Pipe the data from one graph to another graph.
-     *
+     * Default number of read elements that have not been written yet
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+    private static final Object END = new Object();
+
+    private final Graph fromGraph;
+    private final Graph toGraph;
+    private int writers = 1;
+    private long bufferSize = BatchGraph.DEFAULT_BUFFER_SIZE;
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+
+    private final AtomicLong vertices = new AtomicLong(0);
+    private final AtomicLong edges = new AtomicLong(0);
+    private volatile ParallelBatchLoader<?> loader = null;
+    private volatile long startTime = 0;
+    private volatile long endTime = 0;
+
+    /**
      * @param fromGraph the graph to take data from
      * @param toGraph   the graph to take data to
-     * @throws XMLStreamException thrown if the serialization process causes an exception
-     * @throws IOException        thrown if there is an error in steam between the two graphs
-     */
-    public static void migrateGraph(final Graph fromGraph, final Graph toGraph) throws XMLStreamException, IOException {
-
-        final PipedInputStream inPipe = new PipedInputStream() {
-            // Default is 1024
-            protected static final int PIPE_SIZE = 1024;
-        };
-
-        final PipedOutputStream outPipe = new PipedOutputStream(inPipe) {
-            public void close() throws IOException {
-                while (inPipe.available() > 0) {
-                    try {
-                        Thread.sleep(500);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }
-                super.close();
+     */
+    public GraphMigrator(final Graph fromGraph, final Graph toGraph) {
+        this.fromGraph = fromGraph;
+        this.toGraph = toGraph;
+    }
+
+    /**
+     * @param writers the number of threads that write to the target graph if it is a TransactionalGraph, which must
+     *                be safe to use from multiple threads if there is more than one
+     */
+    public void setWriters(final int writers) {
+        if (writers <= 0) throw new IllegalArgumentException("Number of writers must be positive");
+        this.writers = writers;
+    }
+
+    /**
+     * @param bufferSize the amount of elements a writer adds before committing a transaction (only valid for
+     *                   TransactionalGraphs)
+     */
+    public void setBufferSize(final long bufferSize) {
+        if (bufferSize <= 0) throw new IllegalArgumentException("BufferSize must be positive");
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @param queueSize the amount of read elements a writer may fall behind before reading blocks
+     */
+    public void setQueueSize(final int queueSize) {
+        if (queueSize <= 0) throw new IllegalArgumentException("QueueSize must be positive");
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Pipe the data from the source graph to the target graph.
+     *
+     * @throws IOException thrown if the migration is interrupted
+     */
+    public void migrateGraph() throws IOException {
+        this.loader = null;
+        this.vertices.set(0);
+        this.edges.set(0);
+        this.startTime = System.nanoTime();
+        this.endTime = 0;
+        try {
+            if (this.writers == 1) {
+                this.migrateWithBatchGraph();
+            } else {
+                this.migrateWithParallelBatchLoader();
+            }
+        } finally {
+            this.endTime = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return the number of vertices written to the target graph so far
+     */
+    public long getVerticesMigrated() {
+        final ParallelBatchLoader<?> loader = this.loader;
+        return loader == null ? this.vertices.get() : loader.getVertexPhase().getElements();
+    }
+
+    /**
+     * @return the number of edges written to the target graph so far
+     */
+    public long getEdgesMigrated() {
+        final ParallelBatchLoader<?> loader = this.loader;
+        return loader == null ? this.edges.get() : loader.getEdgePhase().getElements();
+    }
+
+    /**
+     * @return the duration of the migration so far, or of the last migration once it has finished, in milliseconds
+     */
+    public long getDuration() {
+        if (this.startTime == 0) return 0;
+        final long end = this.endTime == 0 ? System.nanoTime() : this.endTime;
+        return (end - this.startTime) / 1000000;
+    }
+
+    /**
+     * @return the number of vertices and edges written per second
+     */
+    public double getThroughput() {
+        if (this.startTime == 0) return 0.0d;
+        final long end = this.endTime == 0 ? System.nanoTime() : this.endTime;
+        return (this.getVerticesMigrated() + this.getEdgesMigrated()) * 1000000000.0d / Math.max(end - this.startTime, 1);
+    }
+
+    @Override
+    public String toString() {
+        return "graphmigrator[" + this.getVerticesMigrated() + " vertices, " + this.getEdgesMigrated() + " edges in "
+                + this.getDuration() + "ms, " + Math.round(this.getThroughput()) + "/s]";
+    }
+
+    private void migrateWithBatchGraph() throws IOException {
+        final Writer writer = new Writer(BatchGraph.wrap(this.toGraph, this.bufferSize), this.queueSize);
+        writer.start();
+        try {
+            for (final Vertex vertex : this.fromGraph.getVertices()) {
+                writer.submit(new Element(vertex.getId().toString(), null, null, null, ElementHelper.getProperties(vertex)));
+            }
+            for (final Edge edge : this.fromGraph.getEdges()) {
+                writer.submit(new Element(edge.getId().toString(), edge.getVertex(Direction.OUT).getId().toString(),
+                        edge.getVertex(Direction.IN).getId().toString(), edge.getLabel(), ElementHelper.getProperties(edge)));
             }
-        };
+            writer.close();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while migrating the graph", ie);
+        } finally {
+            // stops a writer that is left waiting for elements after a failed read
+            if (writer.isAlive()) writer.interrupt();
+        }
+    }
+
+    private void migrateWithParallelBatchLoader() {
+        final ParallelBatchLoader<?> loader = ParallelBatchLoader.wrap(this.toGraph, this.writers, this.bufferSize, this.queueSize);
+        this.loader = loader;
+        try {
+            for (final Vertex vertex : this.fromGraph.getVertices()) {
+                loader.addVertex(vertex.getId().toString(), ElementHelper.getProperties(vertex));
+            }
+            for (final Edge edge : this.fromGraph.getEdges()) {
+                loader.addEdge(edge.getId().toString(), edge.getVertex(Direction.OUT).getId().toString(),
+                        edge.getVertex(Direction.IN).getId().toString(), edge.getLabel(), ElementHelper.getProperties(edge));
+            }
+        } finally {
+            // a failure of the loader is rethrown by close, which must also stop its threads after a failed read
+            loader.close();
+        }
+    }
+
+    private static class Element {
+
+        private final String id;
+        private final String outId;
+        private final String inId;
+        private final String label;
+        private final Map<String, Object> properties;
+
+        Element(final String id, final String outId, final String inId, final String label, final Map<String, Object> properties) {
+            this.id = id;
+            this.outId = outId;
+            this.inId = inId;
+            this.label = label;
+            this.properties = properties;
+        }
+    }
 
-        new Thread(new Runnable() {
-            public void run() {
+    /**
+     * Adds the submitted elements to a BatchGraph, which commits whenever its buffer is full.  A failure rolls back
+     * the transaction of the target graph that has not been committed yet.
+     */
+    private class Writer extends Thread {
+
+        private final BatchGraph<?> graph;
+        private final BlockingQueue<Object> queue;
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        Writer(final BatchGraph<?> graph, final int queueSize) {
+            super("GraphMigrator-writer");
+            setDaemon(true);
+            this.graph = graph;
+            this.queue = new ArrayBlockingQueue<Object>(queueSize);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    final Object next = this.queue.take();
+                    if (next == END) break;
+                    this.write((Element) next);
+                }
+                this.graph.stopTransaction(TransactionalGraph.Conclusion.SUCCESS);
+            } catch (Throwable t) {
+                this.failure.compareAndSet(null, t);
                 try {
-                    GraphMLWriter.outputGraph(fromGraph, outPipe);
-                    outPipe.flush();
-                    outPipe.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
+                    this.graph.getBaseGraph().stopTransaction(TransactionalGraph.Conclusion.FAILURE);
+                } catch (Throwable ignored) {
+                    //The original failure is reported
                 }
             }
-        }).start();
+        }
 
-        GraphMLReader.inputGraph(toGraph, inPipe);
+        private void write(final Element element) {
+            if (element.label == null) {
+                final Vertex vertex = this.graph.addVertex(element.id);
+                for (final Map.Entry<String, Object> property : element.properties.entrySet()) {
+                    vertex.setProperty(property.getKey(), property.getValue());
+                }
+                vertices.incrementAndGet();
+            } else {
+                final Vertex outVertex = this.graph.getVertex(element.outId);
+                final Vertex inVertex = this.graph.getVertex(element.inId);
+                if (outVertex == null || inVertex == null)
+                    throw new IllegalArgumentException("Vertex for given ID cannot be found: " + (outVertex == null ? element.outId : element.inId));
+                this.graph.addEdge(element.id, outVertex, inVertex, element.label, element.properties);
+                edges.incrementAndGet();
+            }
+        }
+
+        /**
+         * Waits for room in the queue as long as the writer has not failed.
+         */
+        void submit(final Object element) throws InterruptedException {
+            while (!this.queue.offer(element, 100, TimeUnit.MILLISECONDS)) {
+                this.checkFailure();
+            }
+            this.checkFailure();
+        }
+
+        /**
+         * Waits until all submitted elements are written and committed.
+         */
+        void close() throws InterruptedException {
+            this.submit(END);
+            this.join();
+            this.checkFailure();
+        }
+
+        private void checkFailure() {
+            final Throwable t = this.failure.get();
+            if (t == null) return;
+            if (t instanceof RuntimeException) throw (RuntimeException) t;
+            if (t instanceof Error) throw (Error) t;
+            throw new RuntimeException(t.getMessage(), t);
+        }
+    }
+
+    /**
+     * Pipe the data from one graph to another graph with a single writer.
+     *
+     * @param fromGraph the graph to take data from
+     * @param toGraph   the graph to take data to
+     * @throws IOException thrown if the migration is interrupted
+     */
+    public static void migrateGraph(final Graph fromGraph, final Graph toGraph) throws IOException {
+        new GraphMigrator(fromGraph, toGraph).migrateGraph();
     }
-}
\ No newline at end of file
+}
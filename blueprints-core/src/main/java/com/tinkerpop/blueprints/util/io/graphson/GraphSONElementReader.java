@@ -0,0 +1,444 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.tinkerpop.blueprints.util.io.graphson.ElementPropertyConfig.ElementPropertiesRule;
+
+/**
+ * Reads GraphSON vertices and edges directly from the tokens of a JsonParser, without first reading each element
+ * into a JsonNode tree and its properties into a map as GraphSONUtility does.  The properties of an element are
+ * collected in buffers that are reused for every element, as the element can only be created once its identifier
+ * has been read, which GraphSON does not necessarily place first.  Properties that are not included by the
+ * ElementPropertyConfig are skipped without being parsed.
+ * <p/>
+ * Elements read by this reader are identical to those read by GraphSONUtility.  Typed values of EXTENDED mode that
+ * deviate from the layout GraphSONWriter produces are read as trees and converted by GraphSONUtility.
+ * <p/>
+ * A GraphSONElementReader is not thread-safe.
+ */
+public class GraphSONElementReader {
+
+    private static final JsonNodeFactory jsonNodeFactory = JsonNodeFactory.instance;
+
+    private final ElementFactory factory;
+    private final boolean hasEmbeddedTypes;
+    private final Set<String> vertexPropertyKeys;
+    private final Set<String> edgePropertyKeys;
+    private final ElementPropertiesRule vertexPropertiesRule;
+    private final ElementPropertiesRule edgePropertiesRule;
+
+    private final List<String> keys = new ArrayList<String>();
+    private final List<Object> values = new ArrayList<Object>();
+    private Object id;
+    private Object outId;
+    private Object inId;
+    private String label;
+
+    /**
+     * A GraphSONElementReader that includes all properties of vertices and edges.
+     */
+    public GraphSONElementReader(final GraphSONMode mode, final ElementFactory factory) {
+        this(mode, factory, ElementPropertyConfig.AllProperties);
+    }
+
+    public GraphSONElementReader(final GraphSONMode mode, final ElementFactory factory,
+                                 final ElementPropertyConfig config) {
+        this.factory = factory;
+        this.hasEmbeddedTypes = mode == GraphSONMode.EXTENDED;
+        this.vertexPropertyKeys = config.getVertexPropertyKeys();
+        this.edgePropertyKeys = config.getEdgePropertyKeys();
+        this.vertexPropertiesRule = config.getVertexPropertiesRule();
+        this.edgePropertiesRule = config.getEdgePropertiesRule();
+    }
+
+    /**
+     * Creates a vertex from the GraphSON object the parser is positioned at.  The parser is left at the end of the
+     * object.
+     */
+    public Vertex readVertex(final JsonParser jp) throws IOException {
+        this.parseVertex(jp);
+        return this.createVertex();
+    }
+
+    /**
+     * Creates an edge from the GraphSON object the parser is positioned at.  The parser is left at the end of the
+     * object.
+     *
+     * @param graph the graph to look up the out and in vertex of the edge by their identifiers
+     */
+    public Edge readEdge(final JsonParser jp, final Graph graph) throws IOException {
+        this.parseEdge(jp);
+        return this.createEdge(graph);
+    }
+
+    /**
+     * Creates a vertex or an edge from the GraphSON object the parser is positioned at, depending on its _type key
+     * or, if it has none, on whether it has an out or in vertex.  The parser is left at the end of the object.
+     *
+     * @param graph the graph to look up the out and in vertex of an edge by their identifiers
+     */
+    public Element readElement(final JsonParser jp, final Graph graph) throws IOException {
+        if (this.parseElement(jp)) {
+            return this.createEdge(graph);
+        } else {
+            return this.createVertex();
+        }
+    }
+
+    Vertex createVertex() {
+        final Vertex vertex = this.factory.createVertex(this.id);
+        this.setProperties(vertex);
+        return vertex;
+    }
+
+    Edge createEdge(final Graph graph) {
+        final Vertex in = graph.getVertex(this.inId);
+        final Vertex out = graph.getVertex(this.outId);
+        final Edge edge = this.factory.createEdge(this.id, out, in, this.label);
+        this.setProperties(edge);
+        return edge;
+    }
+
+    /**
+     * Reads the GraphSON object of a vertex the parser is positioned at without creating the vertex.  The identifier
+     * is available from getId() and the properties from takeProperties() until the next element is read.
+     */
+    void parseVertex(final JsonParser jp) throws IOException {
+        this.clearElement();
+
+        while (jp.nextToken() != JsonToken.END_OBJECT) {
+            final String key = jp.getCurrentName();
+            jp.nextToken();
+            if (key.equals(GraphSONTokens._ID)) {
+                this.id = readTypedValue(jp);
+            } else if (GraphSONUtility.isReservedKey(key) || !GraphSONUtility.includeKey(key, this.vertexPropertyKeys, this.vertexPropertiesRule)) {
+                jp.skipChildren();
+            } else {
+                this.keys.add(key);
+                this.values.add(readProperty(jp));
+            }
+        }
+    }
+
+    /**
+     * Reads the GraphSON object of an edge the parser is positioned at without creating the edge.  The identifiers,
+     * the label and the properties are available until the next element is read.
+     */
+    void parseEdge(final JsonParser jp) throws IOException {
+        this.clearElement();
+
+        while (jp.nextToken() != JsonToken.END_OBJECT) {
+            final String key = jp.getCurrentName();
+            jp.nextToken();
+            if (key.equals(GraphSONTokens._ID)) {
+                this.id = readTypedValue(jp);
+            } else if (key.equals(GraphSONTokens._OUT_V)) {
+                this.outId = readTypedValue(jp);
+            } else if (key.equals(GraphSONTokens._IN_V)) {
+                this.inId = readTypedValue(jp);
+            } else if (key.equals(GraphSONTokens._LABEL)) {
+                this.label = jp.getCurrentToken() == JsonToken.VALUE_STRING ? jp.getText() : jp.readValueAsTree().getValueAsText();
+            } else if (GraphSONUtility.isReservedKey(key) || !GraphSONUtility.includeKey(key, this.edgePropertyKeys, this.edgePropertiesRule)) {
+                jp.skipChildren();
+            } else {
+                this.keys.add(key);
+                this.values.add(readProperty(jp));
+            }
+        }
+    }
+
+    /**
+     * Reads the GraphSON object of a vertex or an edge the parser is positioned at without creating the element.
+     *
+     * @return true if the object is an edge
+     */
+    boolean parseElement(final JsonParser jp) throws IOException {
+        this.clearElement();
+        String type = null;
+
+        while (jp.nextToken() != JsonToken.END_OBJECT) {
+            final String key = jp.getCurrentName();
+            jp.nextToken();
+            if (key.equals(GraphSONTokens._ID)) {
+                this.id = readTypedValue(jp);
+            } else if (key.equals(GraphSONTokens._TYPE)) {
+                type = jp.getCurrentToken().isScalarValue() ? jp.getText() : jp.readValueAsTree().getValueAsText();
+            } else if (key.equals(GraphSONTokens._OUT_V)) {
+                this.outId = readTypedValue(jp);
+            } else if (key.equals(GraphSONTokens._IN_V)) {
+                this.inId = readTypedValue(jp);
+            } else if (key.equals(GraphSONTokens._LABEL)) {
+                this.label = jp.getCurrentToken() == JsonToken.VALUE_STRING ? jp.getText() : jp.readValueAsTree().getValueAsText();
+            } else {
+                this.keys.add(key);
+                this.values.add(readProperty(jp));
+            }
+        }
+
+        final boolean isEdge = type == null ? this.outId != null || this.inId != null : type.equals(GraphSONTokens.EDGE);
+
+        // the type of the element may follow its properties, so they are only filtered now
+        final Set<String> propertyKeys = isEdge ? this.edgePropertyKeys : this.vertexPropertyKeys;
+        final ElementPropertiesRule rule = isEdge ? this.edgePropertiesRule : this.vertexPropertiesRule;
+        int included = 0;
+        for (int i = 0; i < this.keys.size(); i++) {
+            if (GraphSONUtility.includeKey(this.keys.get(i), propertyKeys, rule)) {
+                this.keys.set(included, this.keys.get(i));
+                this.values.set(included, this.values.get(i));
+                included++;
+            }
+        }
+        while (this.keys.size() > included) {
+            this.keys.remove(this.keys.size() - 1);
+            this.values.remove(this.values.size() - 1);
+        }
+
+        return isEdge;
+    }
+
+    /**
+     * Determines whether the GraphSON object the parser is positioned at is an edge, the same way parseElement does,
+     * without reading the values of its properties.  The parser is left at the end of the object.
+     */
+    static boolean isEdge(final JsonParser jp) throws IOException {
+        boolean hasVertices = false;
+        while (jp.nextToken() != JsonToken.END_OBJECT) {
+            final String key = jp.getCurrentName();
+            jp.nextToken();
+            if (key.equals(GraphSONTokens._TYPE) && jp.getCurrentToken().isScalarValue()) {
+                final boolean isEdge = jp.getText().equals(GraphSONTokens.EDGE);
+                jp.skipChildren();
+                while (jp.nextToken() != JsonToken.END_OBJECT) {
+                    jp.nextToken();
+                    jp.skipChildren();
+                }
+                return isEdge;
+            } else if ((key.equals(GraphSONTokens._OUT_V) || key.equals(GraphSONTokens._IN_V))
+                    && jp.getCurrentToken() != JsonToken.VALUE_NULL) {
+                hasVertices = true;
+            }
+            jp.skipChildren();
+        }
+        return hasVertices;
+    }
+
+    Object getId() {
+        return this.id;
+    }
+
+    Object getOutId() {
+        return this.outId;
+    }
+
+    Object getInId() {
+        return this.inId;
+    }
+
+    String getLabel() {
+        return this.label;
+    }
+
+    /**
+     * Moves the properties of the element read last into a new map, or returns null if it has none.
+     */
+    Map<String, Object> takeProperties() {
+        if (this.keys.isEmpty()) {
+            return null;
+        }
+
+        final Map<String, Object> properties = new HashMap<String, Object>();
+        for (int i = 0; i < this.keys.size(); i++) {
+            properties.put(this.keys.get(i), this.values.get(i));
+        }
+        this.keys.clear();
+        this.values.clear();
+        return properties;
+    }
+
+    private void setProperties(final Element element) {
+        for (int i = 0; i < this.keys.size(); i++) {
+            element.setProperty(this.keys.get(i), this.values.get(i));
+        }
+        this.keys.clear();
+        this.values.clear();
+    }
+
+    private void clearElement() {
+        this.id = null;
+        this.outId = null;
+        this.inId = null;
+        this.label = null;
+        this.keys.clear();
+        this.values.clear();
+    }
+
+    private Object readProperty(final JsonParser jp) throws IOException {
+        return this.hasEmbeddedTypes ? readEmbeddedTypeValue(jp) : readValue(jp);
+    }
+
+    /**
+     * Reads a value the way GraphSONUtility.getTypedValueFromJsonNode converts a node, which is used for identifiers.
+     */
+    private static Object readTypedValue(final JsonParser jp) throws IOException {
+        switch (jp.getCurrentToken()) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return jp.getText();
+            case START_ARRAY:
+            case START_OBJECT:
+                return GraphSONUtility.getTypedValueFromJsonNode(jp.readValueAsTree());
+            default:
+                return readValue(jp);
+        }
+    }
+
+    /**
+     * Reads a value of NORMAL or COMPACT mode, in which the value carries the JSON data type.
+     */
+    private static Object readValue(final JsonParser jp) throws IOException {
+        switch (jp.getCurrentToken()) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NUMBER_FLOAT:
+                return jp.getDoubleValue();
+            case VALUE_NUMBER_INT:
+                switch (jp.getNumberType()) {
+                    case INT:
+                        return jp.getIntValue();
+                    case LONG:
+                        return jp.getLongValue();
+                    default:
+                        return jp.getText();
+                }
+            case START_ARRAY:
+                final List list = new ArrayList();
+                while (jp.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readValue(jp));
+                }
+                return list;
+            case START_OBJECT:
+                final Map<String, Object> map = new HashMap<String, Object>();
+                while (jp.nextToken() != JsonToken.END_OBJECT) {
+                    final String key = jp.getCurrentName();
+                    jp.nextToken();
+                    map.put(key, readValue(jp));
+                }
+                return map;
+            default:
+                return jp.getText();
+        }
+    }
+
+    /**
+     * Reads a value of EXTENDED mode, which is an object of the data type and the value.
+     */
+    private static Object readEmbeddedTypeValue(final JsonParser jp) throws IOException {
+        if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+            return GraphSONUtility.readProperty(jp.readValueAsTree(), true);
+        }
+
+        String type = null;
+        JsonNode valueNode = null;
+        Object value = null;
+        boolean hasValue = false;
+        while (jp.nextToken() != JsonToken.END_OBJECT) {
+            final String key = jp.getCurrentName();
+            jp.nextToken();
+            if (key.equals(GraphSONTokens.TYPE)) {
+                type = jp.getCurrentToken().isScalarValue() ? jp.getText() : jp.readValueAsTree().getValueAsText();
+            } else if (key.equals(GraphSONTokens.VALUE)) {
+                if (type == null) {
+                    valueNode = jp.readValueAsTree();
+                } else {
+                    value = readValueOfType(jp, type);
+                    hasValue = true;
+                }
+            } else {
+                jp.skipChildren();
+            }
+        }
+
+        // the value was read before its type was known
+        return hasValue ? value : GraphSONUtility.readProperty(typedNode(type, valueNode), true);
+    }
+
+    private static Object readValueOfType(final JsonParser jp, final String type) throws IOException {
+        final JsonToken token = jp.getCurrentToken();
+        if (type.equals(GraphSONTokens.TYPE_UNKNOWN)) {
+            jp.skipChildren();
+            return null;
+        } else if (type.equals(GraphSONTokens.TYPE_BOOLEAN)) {
+            if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE)
+                return jp.getBooleanValue();
+        } else if (type.equals(GraphSONTokens.TYPE_FLOAT)) {
+            if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_STRING)
+                return Float.parseFloat(jp.getText());
+        } else if (type.equals(GraphSONTokens.TYPE_DOUBLE)) {
+            if (token == JsonToken.VALUE_NUMBER_FLOAT || (token == JsonToken.VALUE_NUMBER_INT && jp.getNumberType() != JsonParser.NumberType.BIG_INTEGER))
+                return jp.getDoubleValue();
+        } else if (type.equals(GraphSONTokens.TYPE_INTEGER)) {
+            if (token == JsonToken.VALUE_NUMBER_INT && jp.getNumberType() == JsonParser.NumberType.INT)
+                return jp.getIntValue();
+        } else if (type.equals(GraphSONTokens.TYPE_LONG)) {
+            if (token == JsonToken.VALUE_NUMBER_INT && jp.getNumberType() != JsonParser.NumberType.BIG_INTEGER)
+                return jp.getLongValue();
+        } else if (type.equals(GraphSONTokens.TYPE_STRING)) {
+            if (token == JsonToken.VALUE_STRING)
+                return jp.getText();
+        } else if (type.equals(GraphSONTokens.TYPE_LIST)) {
+            if (token == JsonToken.START_ARRAY) {
+                final List list = new ArrayList();
+                while (jp.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(readEmbeddedTypeValue(jp));
+                }
+                return list;
+            }
+        } else if (type.equals(GraphSONTokens.TYPE_MAP)) {
+            if (token == JsonToken.START_OBJECT) {
+                final Map<String, Object> map = new HashMap<String, Object>();
+                while (jp.nextToken() != JsonToken.END_OBJECT) {
+                    final String key = jp.getCurrentName();
+                    jp.nextToken();
+                    map.put(key, readEmbeddedTypeValue(jp));
+                }
+                return map;
+            }
+        } else {
+            // values of unknown types are read as the text of the typed object, which is null
+            jp.skipChildren();
+            return null;
+        }
+
+        // the value does not have the token of its type, so leave the conversion to GraphSONUtility
+        return GraphSONUtility.readProperty(typedNode(type, jp.readValueAsTree()), true);
+    }
+
+    private static JsonNode typedNode(final String type, final JsonNode value) {
+        final ObjectNode node = jsonNodeFactory.objectNode();
+        node.put(GraphSONTokens.TYPE, type);
+        if (value != null) {
+            node.put(GraphSONTokens.VALUE, value);
+        }
+        return node;
+    }
+}
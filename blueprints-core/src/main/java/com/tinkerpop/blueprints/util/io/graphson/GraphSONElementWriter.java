@@ -0,0 +1,264 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+import org.codehaus.jackson.JsonGenerator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.tinkerpop.blueprints.util.io.graphson.ElementPropertyConfig.ElementPropertiesRule;
+
+/**
+ * Writes GraphSON vertices and edges directly to a JsonGenerator, without first building a Jackson ObjectNode per
+ * element as GraphSONUtility.objectNodeFromElement does.
+ * <p/>
+ * The output is identical to writing the ObjectNode of the element, including the order of the keys and the quirks
+ * of EXTENDED mode: floats inside of lists are written as doubles and maps and elements inside of lists are written
+ * as values of unknown type.
+ * <p/>
+ * A GraphSONElementWriter is thread-safe.
+ */
+public class GraphSONElementWriter {
+
+    private final GraphSONMode mode;
+    private final boolean showTypes;
+    private final Set<String> vertexPropertyKeys;
+    private final Set<String> edgePropertyKeys;
+
+    private final boolean includeReservedVertexId;
+    private final boolean includeReservedEdgeId;
+    private final boolean includeReservedVertexType;
+    private final boolean includeReservedEdgeType;
+    private final boolean includeReservedEdgeLabel;
+    private final boolean includeReservedEdgeOutV;
+    private final boolean includeReservedEdgeInV;
+
+    /**
+     * A GraphSONElementWriter that includes all properties of vertices and edges.
+     */
+    public GraphSONElementWriter(final GraphSONMode mode) {
+        this(mode, ElementPropertyConfig.AllProperties);
+    }
+
+    public GraphSONElementWriter(final GraphSONMode mode, final ElementPropertyConfig config) {
+        this.mode = mode;
+        this.showTypes = mode == GraphSONMode.EXTENDED;
+        this.vertexPropertyKeys = config.getVertexPropertyKeys();
+        this.edgePropertyKeys = config.getEdgePropertyKeys();
+
+        final ElementPropertiesRule vertexPropertiesRule = config.getVertexPropertiesRule();
+        final ElementPropertiesRule edgePropertiesRule = config.getEdgePropertiesRule();
+        this.includeReservedVertexId = GraphSONUtility.includeReservedKey(mode, GraphSONTokens._ID, this.vertexPropertyKeys, vertexPropertiesRule);
+        this.includeReservedEdgeId = GraphSONUtility.includeReservedKey(mode, GraphSONTokens._ID, this.edgePropertyKeys, edgePropertiesRule);
+        this.includeReservedVertexType = GraphSONUtility.includeReservedKey(mode, GraphSONTokens._TYPE, this.vertexPropertyKeys, vertexPropertiesRule);
+        this.includeReservedEdgeType = GraphSONUtility.includeReservedKey(mode, GraphSONTokens._TYPE, this.edgePropertyKeys, edgePropertiesRule);
+        this.includeReservedEdgeLabel = GraphSONUtility.includeReservedKey(mode, GraphSONTokens._LABEL, this.edgePropertyKeys, edgePropertiesRule);
+        this.includeReservedEdgeOutV = GraphSONUtility.includeReservedKey(mode, GraphSONTokens._OUT_V, this.edgePropertyKeys, edgePropertiesRule);
+        this.includeReservedEdgeInV = GraphSONUtility.includeReservedKey(mode, GraphSONTokens._IN_V, this.edgePropertyKeys, edgePropertiesRule);
+    }
+
+    public GraphSONMode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Writes the GraphSON object of a single graph element.
+     */
+    public void writeElement(final JsonGenerator jg, final Element element) throws IOException {
+        // it's important to keep the order of these straight.  check Edge first and then Vertex because there
+        // are graph implementations that have Edge extend from Vertex
+        final boolean isEdge = element instanceof Edge;
+        final boolean isVertex = !isEdge && element instanceof Vertex;
+        final Set<String> propertyKeys = isEdge ? this.edgePropertyKeys : this.vertexPropertyKeys;
+
+        jg.writeStartObject();
+
+        // the properties are written in the order of the map that objectNodeFromElement builds them from
+        final Map properties = GraphSONUtility.createPropertyMap(element, propertyKeys);
+        for (final Object key : properties.keySet()) {
+            final String fieldName = key.toString();
+            jg.writeFieldName(fieldName);
+
+            // a reserved key overwrites a property of the same name in its place
+            if (!this.writeReservedValue(jg, element, fieldName, isEdge, isVertex)) {
+                final Object value = properties.get(key);
+                if (this.showTypes) {
+                    this.writeTypedValue(jg, value, propertyKeys);
+                } else {
+                    this.writeValue(jg, value, propertyKeys);
+                }
+            }
+        }
+
+        this.writeReservedField(jg, element, GraphSONTokens._ID, properties, isEdge, isVertex);
+        if (isEdge) {
+            this.writeReservedField(jg, element, GraphSONTokens._TYPE, properties, isEdge, isVertex);
+            this.writeReservedField(jg, element, GraphSONTokens._OUT_V, properties, isEdge, isVertex);
+            this.writeReservedField(jg, element, GraphSONTokens._IN_V, properties, isEdge, isVertex);
+            this.writeReservedField(jg, element, GraphSONTokens._LABEL, properties, isEdge, isVertex);
+        } else if (isVertex) {
+            this.writeReservedField(jg, element, GraphSONTokens._TYPE, properties, isEdge, isVertex);
+        }
+
+        jg.writeEndObject();
+    }
+
+    private void writeReservedField(final JsonGenerator jg, final Element element, final String key, final Map properties,
+                                    final boolean isEdge, final boolean isVertex) throws IOException {
+        if (!properties.containsKey(key) && this.includeReservedKey(key, isEdge, isVertex)) {
+            jg.writeFieldName(key);
+            this.writeReservedValue(jg, element, key, isEdge, isVertex);
+        }
+    }
+
+    private boolean writeReservedValue(final JsonGenerator jg, final Element element, final String key,
+                                       final boolean isEdge, final boolean isVertex) throws IOException {
+        if (!this.includeReservedKey(key, isEdge, isVertex)) {
+            return false;
+        }
+
+        if (key.equals(GraphSONTokens._ID)) {
+            writeObject(jg, element.getId());
+        } else if (key.equals(GraphSONTokens._TYPE)) {
+            jg.writeString(isEdge ? GraphSONTokens.EDGE : GraphSONTokens.VERTEX);
+        } else if (key.equals(GraphSONTokens._OUT_V)) {
+            writeObject(jg, ((Edge) element).getVertex(Direction.OUT).getId());
+        } else if (key.equals(GraphSONTokens._IN_V)) {
+            writeObject(jg, ((Edge) element).getVertex(Direction.IN).getId());
+        } else {
+            jg.writeString(((Edge) element).getLabel());
+        }
+
+        return true;
+    }
+
+    private boolean includeReservedKey(final String key, final boolean isEdge, final boolean isVertex) {
+        if (key.equals(GraphSONTokens._ID)) {
+            return isEdge ? this.includeReservedEdgeId : this.includeReservedVertexId;
+        } else if (key.equals(GraphSONTokens._TYPE)) {
+            return isEdge ? this.includeReservedEdgeType : isVertex && this.includeReservedVertexType;
+        } else if (key.equals(GraphSONTokens._OUT_V)) {
+            return isEdge && this.includeReservedEdgeOutV;
+        } else if (key.equals(GraphSONTokens._IN_V)) {
+            return isEdge && this.includeReservedEdgeInV;
+        } else if (key.equals(GraphSONTokens._LABEL)) {
+            return isEdge && this.includeReservedEdgeLabel;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Writes an element that is the value of a property.  It is written like GraphSONUtility.objectNodeFromElement
+     * writes it, with the property keys of the element that holds it and all reserved keys.
+     */
+    private void writeNestedElement(final JsonGenerator jg, final Element element, final Set<String> propertyKeys) throws IOException {
+        final GraphSONElementWriter writer = new GraphSONElementWriter(this.showTypes ? GraphSONMode.EXTENDED : GraphSONMode.NORMAL,
+                ElementPropertyConfig.IncludeProperties(propertyKeys, propertyKeys));
+        writer.writeElement(jg, element);
+    }
+
+    /**
+     * Writes a value of NORMAL or COMPACT mode.
+     */
+    private void writeValue(final JsonGenerator jg, final Object value, final Set<String> propertyKeys) throws IOException {
+        if (value instanceof Element) {
+            this.writeNestedElement(jg, (Element) value, propertyKeys);
+        } else if (value instanceof List) {
+            jg.writeStartArray();
+            for (final Object item : (List) value) {
+                this.writeValue(jg, item, propertyKeys);
+            }
+            jg.writeEndArray();
+        } else if (value instanceof Map) {
+            final Map map = (Map) value;
+            jg.writeStartObject();
+            for (final Object key : map.keySet()) {
+                jg.writeFieldName(key.toString());
+                this.writeValue(jg, map.get(key), propertyKeys);
+            }
+            jg.writeEndObject();
+        } else if (value != null && value.getClass().isArray()) {
+            this.writeValue(jg, GraphSONUtility.convertArrayToList(value), propertyKeys);
+        } else {
+            writeObject(jg, value);
+        }
+    }
+
+    /**
+     * Writes a value of EXTENDED mode as an object of the data type and the value.
+     */
+    private void writeTypedValue(final JsonGenerator jg, final Object value, final Set<String> propertyKeys) throws IOException {
+        jg.writeStartObject();
+        if (value instanceof List || (value != null && value.getClass().isArray())) {
+            jg.writeStringField(GraphSONTokens.TYPE, GraphSONTokens.TYPE_LIST);
+            jg.writeArrayFieldStart(GraphSONTokens.VALUE);
+            final List list = value instanceof List ? (List) value : GraphSONUtility.convertArrayToList(value);
+            for (final Object item : list) {
+                this.writeTypedListItem(jg, item, propertyKeys);
+            }
+            jg.writeEndArray();
+        } else if (value instanceof Map) {
+            final Map map = (Map) value;
+            jg.writeStringField(GraphSONTokens.TYPE, GraphSONTokens.TYPE_MAP);
+            jg.writeObjectFieldStart(GraphSONTokens.VALUE);
+            for (final Object key : map.keySet()) {
+                jg.writeFieldName(key.toString());
+                this.writeTypedValue(jg, map.get(key), propertyKeys);
+            }
+            jg.writeEndObject();
+        } else if (value instanceof Element) {
+            jg.writeStringField(GraphSONTokens.TYPE, GraphSONTokens.TYPE_MAP);
+            jg.writeFieldName(GraphSONTokens.VALUE);
+            this.writeNestedElement(jg, (Element) value, propertyKeys);
+        } else {
+            jg.writeStringField(GraphSONTokens.TYPE, GraphSONUtility.determineType(value));
+            jg.writeFieldName(GraphSONTokens.VALUE);
+            writeObject(jg, value);
+        }
+        jg.writeEndObject();
+    }
+
+    /**
+     * Writes an item of a list in EXTENDED mode.  GraphSONUtility converts the list to an ArrayNode first and reads
+     * the items back from it, so floats come back as doubles and objects come back without a value.
+     */
+    private void writeTypedListItem(final JsonGenerator jg, final Object item, final Set<String> propertyKeys) throws IOException {
+        if (item instanceof Element || item instanceof Map) {
+            this.writeTypedValue(jg, null, propertyKeys);
+        } else if (item instanceof Float) {
+            this.writeTypedValue(jg, ((Float) item).doubleValue(), propertyKeys);
+        } else {
+            this.writeTypedValue(jg, item, propertyKeys);
+        }
+    }
+
+    /**
+     * Writes a scalar value the way GraphSONUtility puts it into an ObjectNode.
+     */
+    private static void writeObject(final JsonGenerator jg, final Object value) throws IOException {
+        if (value == null) {
+            jg.writeNull();
+        } else if (value instanceof Boolean) {
+            jg.writeBoolean(((Boolean) value).booleanValue());
+        } else if (value instanceof Long) {
+            jg.writeNumber(((Long) value).longValue());
+        } else if (value instanceof Integer) {
+            jg.writeNumber(((Integer) value).intValue());
+        } else if (value instanceof Float) {
+            // jackson holds floats as doubles
+            jg.writeNumber(((Float) value).doubleValue());
+        } else if (value instanceof Double) {
+            jg.writeNumber(((Double) value).doubleValue());
+        } else if (value instanceof String) {
+            jg.writeString((String) value);
+        } else {
+            jg.writeString(value.toString());
+        }
+    }
+}
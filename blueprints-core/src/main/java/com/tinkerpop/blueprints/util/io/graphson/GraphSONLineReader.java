@@ -0,0 +1,257 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Graph;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.MappingJsonFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * GraphSONLineReader reads line-delimited GraphSON as written by GraphSONLineWriter, one vertex or edge per line.
+ * <p/>
+ * A reader may be restricted to a split of a file given by a start and an end byte offset.  A line belongs to the
+ * split its first byte lies in, so the splits of any set of offsets that cover a file together read every line
+ * exactly once, regardless of where the offsets fall.
+ * <p/>
+ * Lines that are not a valid GraphSON object fail the read, unless corrupt lines are skipped.
+ */
+public class GraphSONLineReader {
+
+    private static final JsonFactory jsonFactory = new MappingJsonFactory();
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final InputStream in;
+    private final long end;
+    private final GraphSONElementReader reader;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLength = 0;
+    private long position;
+
+    private byte[] line = new byte[1024];
+    private int lineLength = 0;
+    private long lineStart = 0;
+
+    private boolean skipCorruptLines = false;
+    private long corruptLines = 0;
+
+    /**
+     * Reads all lines of an InputStream.
+     *
+     * @param jsonInputStream the InputStream of line-delimited GraphSON
+     * @param mode            the mode the lines were written in
+     * @param factory         the factory that creates the vertices and edges
+     * @param config          the properties of the vertices and edges to read
+     */
+    public GraphSONLineReader(final InputStream jsonInputStream, final GraphSONMode mode, final ElementFactory factory,
+                              final ElementPropertyConfig config) {
+        this(jsonInputStream, 0, Long.MAX_VALUE, new GraphSONElementReader(mode, factory, config));
+    }
+
+    private GraphSONLineReader(final InputStream in, final long start, final long end, final GraphSONElementReader reader) {
+        this.in = in;
+        this.position = start;
+        this.end = end;
+        this.reader = reader;
+    }
+
+    /**
+     * Opens a split of a file of line-delimited GraphSON.
+     *
+     * @param file    the file of line-delimited GraphSON
+     * @param start   the offset of the first byte of the split
+     * @param end     the offset of the byte after the split
+     * @param mode    the mode the lines were written in
+     * @param factory the factory that creates the vertices and edges
+     * @param config  the properties of the vertices and edges to read
+     */
+    public static GraphSONLineReader open(final File file, final long start, final long end, final GraphSONMode mode,
+                                          final ElementFactory factory, final ElementPropertyConfig config) throws IOException {
+        final GraphSONElementReader reader = new GraphSONElementReader(mode, factory, config);
+        final FileInputStream in = new FileInputStream(file);
+        if (start == 0) {
+            return new GraphSONLineReader(in, 0, end, reader);
+        }
+
+        // the line that contains the byte before the split belongs to the previous split
+        in.getChannel().position(start - 1);
+        final GraphSONLineReader lineReader = new GraphSONLineReader(in, start - 1, end, reader);
+        lineReader.readLine();
+        return lineReader;
+    }
+
+    /**
+     * Splits a file into byte ranges of about equal size.
+     *
+     * @return the start offsets of the splits followed by the length of the file, so that split i ranges from offset
+     *         i to offset i + 1
+     */
+    public static long[] split(final File file, final int splits) {
+        if (splits <= 0) throw new IllegalArgumentException("Number of splits must be positive");
+        final long length = file.length();
+        final long[] offsets = new long[splits + 1];
+        for (int i = 0; i <= splits; i++) {
+            offsets[i] = length * i / splits;
+        }
+        return offsets;
+    }
+
+    /**
+     * @param skip whether lines that are not valid GraphSON are skipped rather than failing the read
+     */
+    public void setSkipCorruptLines(final boolean skip) {
+        this.skipCorruptLines = skip;
+    }
+
+    /**
+     * @return the number of lines that have been skipped as they are not valid GraphSON
+     */
+    public long getCorruptLines() {
+        return this.corruptLines;
+    }
+
+    /**
+     * Creates the vertex or edge of the next line.
+     *
+     * @param graph the graph to look up the out and in vertex of an edge by their identifiers
+     * @return the created element or null if there are no more lines
+     */
+    public Element readElement(final Graph graph) throws IOException {
+        while (this.nextElementLine()) {
+            try {
+                return this.reader.readElement(this.parser(), graph);
+            } catch (JsonParseException jpe) {
+                this.corruptLine(jpe);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Moves to the next line that is not blank.
+     *
+     * @return false if there are no more lines in the split
+     */
+    boolean nextElementLine() throws IOException {
+        while (this.position < this.end && this.readLine()) {
+            for (int i = 0; i < this.lineLength; i++) {
+                final byte b = this.line[i];
+                if (b != ' ' && b != '\t' && b != '\r') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the offset of the first byte of the current line
+     */
+    long getLineStart() {
+        return this.lineStart;
+    }
+
+    /**
+     * Determines whether the current line is an edge, without reading its properties.
+     *
+     * @return null if the line is corrupt and corrupt lines are skipped
+     */
+    Boolean isEdge() throws IOException {
+        try {
+            return GraphSONElementReader.isEdge(this.parser());
+        } catch (JsonParseException jpe) {
+            this.corruptLine(jpe);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the current line into the buffers of the element reader.
+     *
+     * @return true if the line is an edge or null if the line is corrupt and corrupt lines are skipped
+     */
+    Boolean parseElement() throws IOException {
+        try {
+            return this.reader.parseElement(this.parser());
+        } catch (JsonParseException jpe) {
+            this.corruptLine(jpe);
+            return null;
+        }
+    }
+
+    GraphSONElementReader getElementReader() {
+        return this.reader;
+    }
+
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    private JsonParser parser() throws IOException {
+        final JsonParser jp = jsonFactory.createJsonParser(this.line, 0, this.lineLength);
+        if (jp.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Line does not hold a GraphSON object", jp.getCurrentLocation());
+        }
+        return jp;
+    }
+
+    private void corruptLine(final JsonParseException jpe) throws IOException {
+        if (!this.skipCorruptLines) {
+            throw new IOException("Corrupt line at byte offset " + this.lineStart + ": " + jpe.getMessage(), jpe);
+        }
+        this.corruptLines++;
+    }
+
+    /**
+     * Reads the bytes up to the next line feed into the line buffer.
+     *
+     * @return false if the stream is at its end
+     */
+    private boolean readLine() throws IOException {
+        this.lineStart = this.position;
+        this.lineLength = 0;
+        while (true) {
+            if (this.bufferPosition == this.bufferLength) {
+                this.bufferLength = this.in.read(this.buffer);
+                this.bufferPosition = 0;
+                if (this.bufferLength <= 0) {
+                    this.bufferLength = 0;
+                    return this.lineLength > 0;
+                }
+            }
+
+            int lineEnd = this.bufferPosition;
+            while (lineEnd < this.bufferLength && this.buffer[lineEnd] != '\n') {
+                lineEnd++;
+            }
+
+            this.appendToLine(lineEnd - this.bufferPosition);
+            if (lineEnd < this.bufferLength) {
+                // skip the line feed
+                this.bufferPosition++;
+                this.position++;
+                return true;
+            }
+        }
+    }
+
+    private void appendToLine(final int length) {
+        if (this.lineLength + length > this.line.length) {
+            final byte[] grown = new byte[Math.max(this.line.length * 2, this.lineLength + length)];
+            System.arraycopy(this.line, 0, grown, 0, this.lineLength);
+            this.line = grown;
+        }
+        System.arraycopy(this.buffer, this.bufferPosition, this.line, this.lineLength, length);
+        this.lineLength += length;
+        this.bufferPosition += length;
+        this.position += length;
+    }
+}
@@ -0,0 +1,115 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Element;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.PrettyPrinter;
+import org.codehaus.jackson.map.MappingJsonFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * GraphSONLineWriter writes graph elements as line-delimited GraphSON: every vertex and edge is a GraphSON object on
+ * a line of its own, terminated by a line feed.  Unlike a GraphSON document, line-delimited GraphSON can be split at
+ * any line for parallel reading, appended to by opening the stream in append mode and read past a corrupt line.
+ * <p/>
+ * The lines do not record the GraphSON mode, so the reader has to be given the mode they were written in.  The
+ * _type key tells vertices and edges apart, so it should not be excluded in COMPACT mode.
+ */
+public class GraphSONLineWriter {
+
+    private static final JsonFactory jsonFactory = new MappingJsonFactory();
+
+    private final JsonGenerator jg;
+    private final GraphSONElementWriter writer;
+
+    /**
+     * @param jsonOutputStream the OutputStream to write the lines to, which may already hold lines
+     * @param mode             determines the format of the GraphSON
+     * @param config           the properties of the vertices and edges to write
+     */
+    public GraphSONLineWriter(final OutputStream jsonOutputStream, final GraphSONMode mode,
+                              final ElementPropertyConfig config) throws IOException {
+        this.jg = jsonFactory.createJsonGenerator(jsonOutputStream, JsonEncoding.UTF8);
+        this.jg.setPrettyPrinter(new LinePrettyPrinter());
+        this.writer = new GraphSONElementWriter(mode, config);
+    }
+
+    public GraphSONLineWriter(final OutputStream jsonOutputStream, final GraphSONMode mode) throws IOException {
+        this(jsonOutputStream, mode, ElementPropertyConfig.AllProperties);
+    }
+
+    /**
+     * Writes a vertex or an edge as a line.
+     */
+    public void writeElement(final Element element) throws IOException {
+        this.writer.writeElement(this.jg, element);
+        this.jg.writeRaw('\n');
+    }
+
+    /**
+     * Writes all vertices or edges as lines.
+     */
+    public void writeElements(final Iterable<? extends Element> elements) throws IOException {
+        for (final Element element : elements) {
+            this.writeElement(element);
+        }
+    }
+
+    public void flush() throws IOException {
+        this.jg.flush();
+    }
+
+    /**
+     * Flushes the written lines and closes the underlying OutputStream.
+     */
+    public void close() throws IOException {
+        this.jg.close();
+    }
+
+    /**
+     * Writes GraphSON without any whitespace, like a JsonGenerator without a PrettyPrinter does, except that it does
+     * not separate elements with a space, as they are separated by line feeds.
+     */
+    private static class LinePrettyPrinter implements PrettyPrinter {
+
+        public void writeRootValueSeparator(final JsonGenerator jg) {
+        }
+
+        public void writeStartObject(final JsonGenerator jg) throws IOException {
+            jg.writeRaw('{');
+        }
+
+        public void writeEndObject(final JsonGenerator jg, final int nrOfEntries) throws IOException {
+            jg.writeRaw('}');
+        }
+
+        public void writeObjectEntrySeparator(final JsonGenerator jg) throws IOException {
+            jg.writeRaw(',');
+        }
+
+        public void writeObjectFieldValueSeparator(final JsonGenerator jg) throws IOException {
+            jg.writeRaw(':');
+        }
+
+        public void writeStartArray(final JsonGenerator jg) throws IOException {
+            jg.writeRaw('[');
+        }
+
+        public void writeEndArray(final JsonGenerator jg, final int nrOfValues) throws IOException {
+            jg.writeRaw(']');
+        }
+
+        public void writeArrayValueSeparator(final JsonGenerator jg) throws IOException {
+            jg.writeRaw(',');
+        }
+
+        public void beforeArrayValues(final JsonGenerator jg) {
+        }
+
+        public void beforeObjectEntries(final JsonGenerator jg) {
+        }
+    }
+}
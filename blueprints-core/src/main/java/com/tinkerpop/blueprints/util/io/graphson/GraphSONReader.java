@@ -2,10 +2,8 @@ package com.tinkerpop.blueprints.util.io.graphson;
 
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.TransactionalGraph;
-import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.wrappers.batch.BatchGraph;
 import org.codehaus.jackson.JsonFactory;
-import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.MappingJsonFactory;
@@ -87,33 +85,71 @@ public class GraphSONReader {
         final BatchGraph graph = BatchGraph.wrap(inputGraph, bufferSize);
 
         final ElementFactory elementFactory = new GraphElementFactory(graph);
-        GraphSONUtility graphson = new GraphSONUtility(GraphSONMode.NORMAL, elementFactory,
-                vertexPropertyKeys, edgePropertyKeys);
-
-        while (jp.nextToken() != JsonToken.END_OBJECT) {
-            final String fieldname = jp.getCurrentName() == null ? "" : jp.getCurrentName();
-            if (fieldname.equals(GraphSONTokens.MODE)) {
-                jp.nextToken();
-                final GraphSONMode mode = GraphSONMode.valueOf(jp.getText());
-                graphson = new GraphSONUtility(mode, elementFactory, vertexPropertyKeys, edgePropertyKeys);
-            } else if (fieldname.equals(GraphSONTokens.VERTICES)) {
-                jp.nextToken();
-                while (jp.nextToken() != JsonToken.END_ARRAY) {
-                    final JsonNode node = jp.readValueAsTree();
-                    graphson.vertexFromJson(node);
-                }
-            } else if (fieldname.equals(GraphSONTokens.EDGES)) {
-                jp.nextToken();
-                while (jp.nextToken() != JsonToken.END_ARRAY) {
-                    final JsonNode node = jp.readValueAsTree();
-                    final Vertex inV = graph.getVertex(GraphSONUtility.getTypedValueFromJsonNode(node.get(GraphSONTokens._IN_V)));
-                    final Vertex outV = graph.getVertex(GraphSONUtility.getTypedValueFromJsonNode(node.get(GraphSONTokens._OUT_V)));
-                    graphson.edgeFromJson(node, outV, inV);
+        final ElementPropertyConfig config = ElementPropertyConfig.IncludeProperties(vertexPropertyKeys, edgePropertyKeys);
+        GraphSONElementReader reader = new GraphSONElementReader(GraphSONMode.NORMAL, elementFactory, config);
+
+        try {
+            while (jp.nextToken() != JsonToken.END_OBJECT) {
+                final String fieldname = jp.getCurrentName() == null ? "" : jp.getCurrentName();
+                if (fieldname.equals(GraphSONTokens.MODE)) {
+                    jp.nextToken();
+                    final GraphSONMode mode = GraphSONMode.valueOf(jp.getText());
+                    reader = new GraphSONElementReader(mode, elementFactory, config);
+                } else if (fieldname.equals(GraphSONTokens.VERTICES)) {
+                    jp.nextToken();
+                    while (jp.nextToken() != JsonToken.END_ARRAY) {
+                        reader.readVertex(jp);
+                    }
+                } else if (fieldname.equals(GraphSONTokens.EDGES)) {
+                    jp.nextToken();
+                    while (jp.nextToken() != JsonToken.END_ARRAY) {
+                        reader.readEdge(jp, graph);
+                    }
                 }
             }
+        } finally {
+            jp.close();
         }
 
-        jp.close();
+        graph.stopTransaction(TransactionalGraph.Conclusion.SUCCESS);
+    }
+
+    /**
+     * Input line-delimited GraphSON into the graph, one vertex or edge per line.
+     * The out and in vertex of an edge must precede it.
+     *
+     * @param inputGraph      the graph to populate with the JSON data
+     * @param jsonInputStream an InputStream of line-delimited JSON data
+     * @param mode            the mode the lines were written in
+     * @param bufferSize      the amount of elements to hold in memory before committing a transactions (only valid for TransactionalGraphs)
+     * @throws IOException thrown when a line of JSON data is not correctly formatted
+     */
+    public static void inputGraphLines(final Graph inputGraph, final InputStream jsonInputStream, final GraphSONMode mode,
+                                       int bufferSize) throws IOException {
+        inputGraphLines(inputGraph, jsonInputStream, mode, bufferSize, null, null);
+    }
+
+    /**
+     * Input line-delimited GraphSON into the graph, one vertex or edge per line.
+     * The out and in vertex of an edge must precede it.
+     *
+     * @param inputGraph      the graph to populate with the JSON data
+     * @param jsonInputStream an InputStream of line-delimited JSON data
+     * @param mode            the mode the lines were written in
+     * @param bufferSize      the amount of elements to hold in memory before committing a transactions (only valid for TransactionalGraphs)
+     * @throws IOException thrown when a line of JSON data is not correctly formatted
+     */
+    public static void inputGraphLines(final Graph inputGraph, final InputStream jsonInputStream, final GraphSONMode mode,
+                                       int bufferSize, final Set<String> edgePropertyKeys,
+                                       final Set<String> vertexPropertyKeys) throws IOException {
+        // if this is a transactional graph then we're buffering
+        final BatchGraph graph = BatchGraph.wrap(inputGraph, bufferSize);
+
+        final GraphSONLineReader reader = new GraphSONLineReader(jsonInputStream, mode, new GraphElementFactory(graph),
+                ElementPropertyConfig.IncludeProperties(vertexPropertyKeys, edgePropertyKeys));
+        while (reader.readElement(graph) != null) {
+            // every line has been added to the graph
+        }
 
         graph.stopTransaction(TransactionalGraph.Conclusion.SUCCESS);
     }
@@ -406,16 +406,16 @@ public final class GraphSONUtility {
         return map;
     }
 
-    private static boolean includeReservedKey(final GraphSONMode mode, final String key,
-                                              final Set<String> propertyKeys,
-                                              final ElementPropertiesRule rule) {
+    static boolean includeReservedKey(final GraphSONMode mode, final String key,
+                                      final Set<String> propertyKeys,
+                                      final ElementPropertiesRule rule) {
         // the key is always included in modes other than compact.  if it is compact, then validate that the
         // key is in the property key list
         return mode != GraphSONMode.COMPACT || includeKey(key, propertyKeys, rule);
     }
 
-    private static boolean includeKey(final String key, final Set<String> propertyKeys,
-                                      final ElementPropertiesRule rule) {
+    static boolean includeKey(final String key, final Set<String> propertyKeys,
+                              final ElementPropertiesRule rule) {
         if (propertyKeys == null) {
             // when null always include the key and shortcut this piece
             return true;
@@ -437,12 +437,12 @@ public final class GraphSONUtility {
         return keySituation;
     }
 
-    private static boolean isReservedKey(final String key) {
+    static boolean isReservedKey(final String key) {
         return key.equals(GraphSONTokens._ID) || key.equals(GraphSONTokens._TYPE) || key.equals(GraphSONTokens._LABEL)
                 || key.equals(GraphSONTokens._OUT_V) || key.equals(GraphSONTokens._IN_V);
     }
 
-    private static Object readProperty(final JsonNode node, final boolean hasEmbeddedTypes) {
+    static Object readProperty(final JsonNode node, final boolean hasEmbeddedTypes) {
         final Object propertyValue;
 
         if (hasEmbeddedTypes) {
@@ -592,7 +592,7 @@ public final class GraphSONUtility {
         }
     }
 
-    private static Map createPropertyMap(final Element element, final Set<String> propertyKeys) {
+    static Map createPropertyMap(final Element element, final Set<String> propertyKeys) {
         final Map map = new HashMap<String, Object>();
 
         if (propertyKeys == null) {
@@ -697,7 +697,7 @@ public final class GraphSONUtility {
         return theValue;
     }
 
-    private static List convertArrayToList(final Object value) {
+    static List convertArrayToList(final Object value) {
 
         // is there seriously no better way to do this...bah!
         List list = new ArrayList();
@@ -733,7 +733,7 @@ public final class GraphSONUtility {
         return list;
     }
 
-    private static String determineType(final Object value) {
+    static String determineType(final Object value) {
         String type = GraphSONTokens.TYPE_STRING;
         if (value == null) {
             type = "unknown";
@@ -10,7 +10,6 @@ import org.codehaus.jackson.map.MappingJsonFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.List;
 import java.util.Set;
 
 /**
@@ -41,7 +40,8 @@ public class GraphSONWriter {
     public void outputGraph(final OutputStream jsonOutputStream, final Set<String> vertexPropertyKeys,
                             final Set<String> edgePropertyKeys, final GraphSONMode mode) throws IOException {
         final JsonGenerator jg = jsonFactory.createJsonGenerator(jsonOutputStream);
-        final GraphSONUtility graphson = new GraphSONUtility(mode, null, vertexPropertyKeys, edgePropertyKeys);
+        final GraphSONElementWriter writer = new GraphSONElementWriter(mode,
+                ElementPropertyConfig.IncludeProperties(vertexPropertyKeys, edgePropertyKeys));
 
         jg.writeStartObject();
 
@@ -49,14 +49,14 @@ public class GraphSONWriter {
 
         jg.writeArrayFieldStart(GraphSONTokens.VERTICES);
         for (Vertex v : this.graph.getVertices()) {
-            jg.writeTree(graphson.objectNodeFromElement(v));
+            writer.writeElement(jg, v);
         }
 
         jg.writeEndArray();
 
         jg.writeArrayFieldStart(GraphSONTokens.EDGES);
         for (Edge e : this.graph.getEdges()) {
-            jg.writeTree(graphson.objectNodeFromElement(e));
+            writer.writeElement(jg, e);
         }
         jg.writeEndArray();
 
@@ -66,6 +66,26 @@ public class GraphSONWriter {
         jg.close();
     }
 
+    /**
+     * Write the data in a Graph to a JSON OutputStream as line-delimited GraphSON, with every vertex and then every
+     * edge on a line of its own.  The OutputStream may already hold lines, for example when the data of a graph is
+     * appended to a file.
+     *
+     * @param jsonOutputStream   the JSON OutputStream to write the Graph data to
+     * @param vertexPropertyKeys the keys of the vertex elements to write to JSON
+     * @param edgePropertyKeys   the keys of the edge elements to write to JSON
+     * @param mode               determines the format of the GraphSON
+     * @throws IOException thrown if there is an error generating the JSON data
+     */
+    public void outputGraphLines(final OutputStream jsonOutputStream, final Set<String> vertexPropertyKeys,
+                                 final Set<String> edgePropertyKeys, final GraphSONMode mode) throws IOException {
+        final GraphSONLineWriter writer = new GraphSONLineWriter(jsonOutputStream, mode,
+                ElementPropertyConfig.IncludeProperties(vertexPropertyKeys, edgePropertyKeys));
+        writer.writeElements(this.graph.getVertices());
+        writer.writeElements(this.graph.getEdges());
+        writer.close();
+    }
+
     /**
      * Write the data in a Graph to a JSON OutputStream. All keys are written to JSON. Utilizing
      * GraphSONMode.NORMAL.
@@ -110,4 +130,18 @@ public class GraphSONWriter {
         writer.outputGraph(jsonOutputStream, vertexPropertyKeys, edgePropertyKeys, mode);
     }
 
+    /**
+     * Write the data in a Graph to a JSON OutputStream as line-delimited GraphSON. All keys are written to JSON.
+     *
+     * @param graph            the graph to serialize to JSON
+     * @param jsonOutputStream the JSON OutputStream to write the Graph data to
+     * @param mode             determines the format of the GraphSON
+     * @throws IOException thrown if there is an error generating the JSON data
+     */
+    public static void outputGraphLines(final Graph graph, final OutputStream jsonOutputStream,
+                                        final GraphSONMode mode) throws IOException {
+        final GraphSONWriter writer = new GraphSONWriter(graph);
+        writer.outputGraphLines(jsonOutputStream, null, null, mode);
+    }
+
 }
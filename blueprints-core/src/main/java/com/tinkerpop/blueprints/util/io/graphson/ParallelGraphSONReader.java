@@ -0,0 +1,331 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.util.wrappers.batch.BatchGraph;
+import com.tinkerpop.blueprints.util.wrappers.batch.ParallelBatchLoader;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.MappingJsonFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelGraphSONReader reads the data from multiple TinkerPop JSON streams to a graph, such as the shards written by
+ * ParallelGraphSONWriter, or from the splits of a file of line-delimited GraphSON.
+ * <p/>
+ * Every stream is parsed by its own thread, which submits the parsed vertices and edges to a ParallelBatchLoader.  The
+ * vertices of all streams are submitted before any of their edges, so an edge may connect vertices of any of the
+ * streams.  Within each stream, the vertices must therefore precede the edges, as they do in the output of the
+ * GraphSON writers.
+ * <p/>
+ * A TransactionalGraph is loaded by multiple threads at the same time, each in its own transaction.  Any other graph is
+ * not known to be safe to use from multiple threads and is loaded by a single thread, while the streams are still
+ * parsed in parallel.
+ */
+public class ParallelGraphSONReader {
+
+    private static final JsonFactory jsonFactory = new MappingJsonFactory();
+
+    private final Graph graph;
+    private final int threads;
+    private final long bufferSize;
+    private boolean skipCorruptLines = false;
+
+    /**
+     * @param graph      the graph to populate with the JSON data
+     * @param threads    the number of threads that load vertices and of threads that load edges into the graph (only
+     *                   valid for TransactionalGraphs)
+     * @param bufferSize the amount of elements a loading thread holds in memory before committing a transaction
+     *                   (only valid for TransactionalGraphs)
+     */
+    public ParallelGraphSONReader(final Graph graph, final int threads, final long bufferSize) {
+        this.graph = graph;
+        this.threads = threads;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @param graph the graph to populate with the JSON data, with one loading thread per available processor
+     */
+    public ParallelGraphSONReader(final Graph graph) {
+        this(graph, Runtime.getRuntime().availableProcessors(), BatchGraph.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Input the JSON stream data into the graph.
+     * In practice, usually the provided graph is empty.
+     *
+     * @param jsonInputStreams the InputStreams of JSON data, each of which holds a part of the graph
+     * @throws IOException thrown when the JSON data is not correctly formatted
+     */
+    public void inputGraph(final InputStream[] jsonInputStreams) throws IOException {
+        this.inputGraph(jsonInputStreams, null, null);
+    }
+
+    /**
+     * Input the JSON stream data into the graph.
+     * More control over how data is streamed is provided by this method.
+     *
+     * @param jsonInputStreams   the InputStreams of JSON data, each of which holds a part of the graph
+     * @param vertexPropertyKeys the keys of the vertex properties to read or null to read all of them
+     * @param edgePropertyKeys   the keys of the edge properties to read or null to read all of them
+     * @throws IOException thrown when the JSON data is not correctly formatted
+     */
+    public void inputGraph(final InputStream[] jsonInputStreams, final Set<String> vertexPropertyKeys,
+                           final Set<String> edgePropertyKeys) throws IOException {
+        final ElementPropertyConfig config = ElementPropertyConfig.IncludeProperties(vertexPropertyKeys, edgePropertyKeys);
+        final List<Parser> parsers = new ArrayList<Parser>(jsonInputStreams.length);
+        for (final InputStream jsonInputStream : jsonInputStreams) {
+            parsers.add(new StreamParser(jsonInputStream, config));
+        }
+        this.load(parsers);
+    }
+
+    /**
+     * Input a file of line-delimited GraphSON into the graph.  The file is cut into splits of about equal size, each
+     * of which is parsed by its own thread.  Every thread reads the vertices of its split and, once the vertices of
+     * all splits have been submitted, the edges of its split, so an edge may precede its vertices in the file.
+     *
+     * @param file               the file of line-delimited JSON data
+     * @param mode               the mode the lines were written in
+     * @param splits             the number of splits to parse in parallel
+     * @param vertexPropertyKeys the keys of the vertex properties to read or null to read all of them
+     * @param edgePropertyKeys   the keys of the edge properties to read or null to read all of them
+     * @throws IOException thrown when a line of JSON data is not correctly formatted
+     */
+    public void inputGraphLines(final File file, final GraphSONMode mode, final int splits,
+                                final Set<String> vertexPropertyKeys, final Set<String> edgePropertyKeys) throws IOException {
+        final ElementPropertyConfig config = ElementPropertyConfig.IncludeProperties(vertexPropertyKeys, edgePropertyKeys);
+        final long[] offsets = GraphSONLineReader.split(file, splits);
+        final List<Parser> parsers = new ArrayList<Parser>(splits);
+        for (int i = 0; i < splits; i++) {
+            parsers.add(new SplitParser(file, offsets[i], offsets[i + 1], mode, config));
+        }
+        this.load(parsers);
+    }
+
+    /**
+     * @param skip whether lines of line-delimited GraphSON that are not valid GraphSON are skipped rather than failing
+     *             the read
+     */
+    public void setSkipCorruptLines(final boolean skip) {
+        this.skipCorruptLines = skip;
+    }
+
+    private void load(final List<Parser> parsers) throws IOException {
+        final ParallelBatchLoader loader = ParallelBatchLoader.wrap(this.graph, this.threads, this.bufferSize);
+        final CountDownLatch verticesSubmitted = new CountDownLatch(parsers.size());
+
+        // every parser needs a thread of its own, as they all wait for each other before submitting edges
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(parsers.size(), 1));
+        try {
+            final List<Future<Object>> futures = new ArrayList<Future<Object>>(parsers.size());
+            for (final Parser parser : parsers) {
+                parser.loader = loader;
+                parser.verticesSubmitted = verticesSubmitted;
+                futures.add(executor.submit(parser));
+            }
+
+            Throwable failure = null;
+            for (final Future<Object> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    if (failure == null) failure = new IOException("Interrupted while reading the JSON data", ie);
+                } catch (ExecutionException ee) {
+                    if (failure == null) failure = ee.getCause();
+                }
+            }
+
+            try {
+                loader.close();
+            } catch (RuntimeException re) {
+                // a failure of the loader is also the cause of the failure of a parser
+                if (failure == null) failure = re;
+            }
+
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure != null) {
+                throw new IOException(failure);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Parses a part of the JSON data and submits its elements to the loader.  The vertices of the part must be
+     * submitted before verticesSubmitted is counted down and the edges only after it has reached zero.
+     */
+    private static abstract class Parser implements Callable<Object> {
+        protected ParallelBatchLoader loader;
+        protected CountDownLatch verticesSubmitted;
+        private boolean counted = false;
+
+        public Object call() throws IOException, InterruptedException {
+            try {
+                this.parse();
+            } finally {
+                // a failed parser must not keep the other parsers from finishing
+                this.countDown();
+            }
+            return null;
+        }
+
+        protected abstract void parse() throws IOException, InterruptedException;
+
+        protected void awaitVertices() throws InterruptedException {
+            this.countDown();
+            this.verticesSubmitted.await();
+        }
+
+        protected void addVertex(final GraphSONElementReader reader) {
+            this.loader.addVertex(reader.getId(), reader.takeProperties());
+        }
+
+        protected void addEdge(final GraphSONElementReader reader) {
+            this.loader.addEdge(reader.getId(), reader.getOutId(), reader.getInId(), reader.getLabel(),
+                    reader.takeProperties());
+        }
+
+        private void countDown() {
+            if (!this.counted) {
+                this.counted = true;
+                this.verticesSubmitted.countDown();
+            }
+        }
+    }
+
+    /**
+     * Parses a single stream of JSON data and submits its elements to the loader.
+     */
+    private static class StreamParser extends Parser {
+        private final InputStream jsonInputStream;
+        private final ElementPropertyConfig config;
+
+        public StreamParser(final InputStream jsonInputStream, final ElementPropertyConfig config) {
+            this.jsonInputStream = jsonInputStream;
+            this.config = config;
+        }
+
+        protected void parse() throws IOException, InterruptedException {
+            final JsonParser jp = jsonFactory.createJsonParser(this.jsonInputStream);
+            GraphSONElementReader reader = new GraphSONElementReader(GraphSONMode.NORMAL, null, this.config);
+
+            try {
+                while (jp.nextToken() != JsonToken.END_OBJECT) {
+                    final String fieldname = jp.getCurrentName() == null ? "" : jp.getCurrentName();
+                    if (fieldname.equals(GraphSONTokens.MODE)) {
+                        jp.nextToken();
+                        final GraphSONMode mode = GraphSONMode.valueOf(jp.getText());
+                        reader = new GraphSONElementReader(mode, null, this.config);
+                    } else if (fieldname.equals(GraphSONTokens.VERTICES)) {
+                        jp.nextToken();
+                        while (jp.nextToken() != JsonToken.END_ARRAY) {
+                            reader.parseVertex(jp);
+                            this.addVertex(reader);
+                        }
+                    } else if (fieldname.equals(GraphSONTokens.EDGES)) {
+                        this.awaitVertices();
+                        jp.nextToken();
+                        while (jp.nextToken() != JsonToken.END_ARRAY) {
+                            reader.parseEdge(jp);
+                            this.addEdge(reader);
+                        }
+                    }
+                }
+            } finally {
+                jp.close();
+            }
+        }
+    }
+
+    /**
+     * Parses a split of a file of line-delimited GraphSON.  The split is read twice, first for its vertices and then
+     * for its edges, starting from the first edge.  Only the lines of the elements that are loaded in a pass are
+     * parsed completely.
+     */
+    private class SplitParser extends Parser {
+        private final File file;
+        private final long start;
+        private final long end;
+        private final GraphSONMode mode;
+        private final ElementPropertyConfig config;
+
+        public SplitParser(final File file, final long start, final long end, final GraphSONMode mode,
+                           final ElementPropertyConfig config) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+            this.mode = mode;
+            this.config = config;
+        }
+
+        protected void parse() throws IOException, InterruptedException {
+            final long firstEdge = this.parseLines(this.start, false);
+            this.awaitVertices();
+            if (firstEdge >= 0) {
+                this.parseLines(firstEdge, true);
+            }
+        }
+
+        /**
+         * @return the offset of the first edge or -1 if there is none
+         */
+        private long parseLines(final long from, final boolean edges) throws IOException {
+            final GraphSONLineReader lines = GraphSONLineReader.open(this.file, from, this.end, this.mode, null, this.config);
+            lines.setSkipCorruptLines(skipCorruptLines);
+            long firstEdge = -1;
+            try {
+                while (lines.nextElementLine()) {
+                    final Boolean isEdge = lines.isEdge();
+                    if (isEdge == null) {
+                        continue;
+                    }
+
+                    if (isEdge && firstEdge < 0) {
+                        firstEdge = lines.getLineStart();
+                    }
+                    if (isEdge == edges && lines.parseElement() != null) {
+                        if (edges) {
+                            this.addEdge(lines.getElementReader());
+                        } else {
+                            this.addVertex(lines.getElementReader());
+                        }
+                    }
+                }
+            } finally {
+                lines.close();
+            }
+            return firstEdge;
+        }
+    }
+
+    /**
+     * Input the JSON stream data into the graph with one loading thread per available processor.
+     *
+     * @param graph            the graph to populate with the JSON data
+     * @param jsonInputStreams the InputStreams of JSON data, each of which holds a part of the graph
+     * @throws IOException thrown when the JSON data is not correctly formatted
+     */
+    public static void inputGraph(final Graph graph, final InputStream[] jsonInputStreams) throws IOException {
+        final ParallelGraphSONReader reader = new ParallelGraphSONReader(graph);
+        reader.inputGraph(jsonInputStreams);
+    }
+}
@@ -0,0 +1,256 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Graph;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.MappingJsonFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelGraphSONWriter writes a Graph to TinkerPop JSON OutputStreams with multiple worker threads.
+ * <p/>
+ * Blueprints graphs can only be iterated as a whole, so the vertices and then the edges of the graph are iterated by
+ * the calling thread, which cuts them into chunks of consecutive elements.  Each chunk is serialized into a buffer by
+ * a worker thread, while the calling thread goes on iterating the graph, and the buffers are written to the output in
+ * the order of their chunks.  Writing to a single OutputStream produces the same bytes as GraphSONWriter.
+ * <p/>
+ * Writing to multiple OutputStreams distributes the chunks over them round-robin, so that every stream receives a
+ * complete GraphSON document holding a shard of the vertices and edges.  The shards can be read back in parallel, but
+ * the edges of a shard are generally connected to vertices of other shards.
+ * <p/>
+ * The elements of the graph are read by multiple threads at the same time, so the graph must support concurrent reads.
+ */
+public class ParallelGraphSONWriter {
+
+    /**
+     * Default number of elements serialized by a worker thread at a time
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static final JsonFactory jsonFactory = new MappingJsonFactory();
+
+    private final Graph graph;
+    private final int threads;
+    private final int chunkSize;
+
+    /**
+     * @param graph     the Graph to pull the data from
+     * @param threads   the number of worker threads that serialize elements
+     * @param chunkSize the number of elements serialized by a worker thread at a time
+     */
+    public ParallelGraphSONWriter(final Graph graph, final int threads, final int chunkSize) {
+        if (threads <= 0) throw new IllegalArgumentException("Number of threads must be positive");
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive");
+        this.graph = graph;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param graph the Graph to pull the data from, with one worker thread per available processor
+     */
+    public ParallelGraphSONWriter(final Graph graph) {
+        this(graph, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Write the data in a Graph to a JSON OutputStream.
+     *
+     * @param jsonOutputStream   the JSON OutputStream to write the Graph data to
+     * @param vertexPropertyKeys the keys of the vertex elements to write to JSON
+     * @param edgePropertyKeys   the keys of the edge elements to write to JSON
+     * @param mode               determines the format of the GraphSON
+     * @throws IOException thrown if there is an error generating the JSON data
+     */
+    public void outputGraph(final OutputStream jsonOutputStream, final Set<String> vertexPropertyKeys,
+                            final Set<String> edgePropertyKeys, final GraphSONMode mode) throws IOException {
+        this.outputGraph(new OutputStream[]{jsonOutputStream}, vertexPropertyKeys, edgePropertyKeys, mode);
+    }
+
+    /**
+     * Write the data in a Graph to multiple JSON OutputStreams, each of which receives a shard of the graph.
+     *
+     * @param jsonOutputStreams  the JSON OutputStreams to write the shards of the Graph data to
+     * @param vertexPropertyKeys the keys of the vertex elements to write to JSON
+     * @param edgePropertyKeys   the keys of the edge elements to write to JSON
+     * @param mode               determines the format of the GraphSON
+     * @throws IOException thrown if there is an error generating the JSON data
+     */
+    public void outputGraph(final OutputStream[] jsonOutputStreams, final Set<String> vertexPropertyKeys,
+                            final Set<String> edgePropertyKeys, final GraphSONMode mode) throws IOException {
+        if (jsonOutputStreams.length == 0) throw new IllegalArgumentException("At least one output stream is required");
+
+        final GraphSONElementWriter writer = new GraphSONElementWriter(mode,
+                ElementPropertyConfig.IncludeProperties(vertexPropertyKeys, edgePropertyKeys));
+        final List<Shard> shards = new ArrayList<Shard>(jsonOutputStreams.length);
+        for (final OutputStream jsonOutputStream : jsonOutputStreams) {
+            shards.add(new Shard(jsonOutputStream));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(this.threads);
+        try {
+            for (final Shard shard : shards) {
+                shard.jg.writeStartObject();
+                shard.jg.writeStringField(GraphSONTokens.MODE, mode.toString());
+                shard.startArray(GraphSONTokens.VERTICES);
+            }
+
+            this.outputElements(this.graph.getVertices(), writer, shards, executor);
+
+            for (final Shard shard : shards) {
+                shard.jg.writeEndArray();
+                shard.startArray(GraphSONTokens.EDGES);
+            }
+
+            this.outputElements(this.graph.getEdges(), writer, shards, executor);
+
+            for (final Shard shard : shards) {
+                shard.jg.writeEndArray();
+                shard.jg.writeEndObject();
+                shard.jg.flush();
+                shard.jg.close();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void outputElements(final Iterable<? extends Element> elements, final GraphSONElementWriter writer,
+                                final List<Shard> shards, final ExecutorService executor) throws IOException {
+        // bounds the number of serialized chunks held in memory while the oldest one is not done yet
+        final int maxPendingChunks = 2 * this.threads;
+        final LinkedList<Future<byte[]>> pending = new LinkedList<Future<byte[]>>();
+        final LinkedList<Shard> pendingShards = new LinkedList<Shard>();
+
+        int chunks = 0;
+        List<Element> chunk = new ArrayList<Element>(this.chunkSize);
+        for (final Element element : elements) {
+            chunk.add(element);
+            if (chunk.size() == this.chunkSize) {
+                pending.add(executor.submit(new ChunkSerializer(writer, chunk)));
+                pendingShards.add(shards.get(chunks++ % shards.size()));
+                chunk = new ArrayList<Element>(this.chunkSize);
+
+                if (pending.size() >= maxPendingChunks) {
+                    pendingShards.removeFirst().writeChunk(getChunk(pending.removeFirst()));
+                }
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            pending.add(executor.submit(new ChunkSerializer(writer, chunk)));
+            pendingShards.add(shards.get(chunks % shards.size()));
+        }
+
+        while (!pending.isEmpty()) {
+            pendingShards.removeFirst().writeChunk(getChunk(pending.removeFirst()));
+        }
+    }
+
+    private static byte[] getChunk(final Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a chunk to be serialized", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof IOException) {
+                throw (IOException) ee.getCause();
+            } else if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            } else {
+                throw new IOException(ee.getCause());
+            }
+        }
+    }
+
+    /**
+     * Serializes a chunk of elements as a JSON array.
+     */
+    private static class ChunkSerializer implements Callable<byte[]> {
+        private final GraphSONElementWriter writer;
+        private final List<Element> elements;
+
+        public ChunkSerializer(final GraphSONElementWriter writer, final List<Element> elements) {
+            this.writer = writer;
+            this.elements = elements;
+        }
+
+        public byte[] call() throws IOException {
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            final JsonGenerator jg = jsonFactory.createJsonGenerator(buffer, JsonEncoding.UTF8);
+
+            // elements written at the root would be separated by spaces rather than by commas
+            jg.writeStartArray();
+            for (final Element element : this.elements) {
+                this.writer.writeElement(jg, element);
+            }
+            jg.writeEndArray();
+            jg.close();
+
+            return buffer.toByteArray();
+        }
+    }
+
+    /**
+     * An OutputStream that receives a GraphSON document and the number of chunks written to its current array.
+     */
+    private static class Shard {
+        private final OutputStream out;
+        private final JsonGenerator jg;
+        private int chunks = 0;
+
+        public Shard(final OutputStream out) throws IOException {
+            this.out = out;
+            this.jg = jsonFactory.createJsonGenerator(out, JsonEncoding.UTF8);
+        }
+
+        public void startArray(final String fieldName) throws IOException {
+            this.jg.writeArrayFieldStart(fieldName);
+            this.chunks = 0;
+        }
+
+        /**
+         * Writes the elements of a chunk serialized as a JSON array into the array the generator is in.
+         */
+        public void writeChunk(final byte[] chunk) throws IOException {
+            this.jg.flush();
+            if (this.chunks > 0) {
+                this.out.write(',');
+            }
+            this.out.write(chunk, 1, chunk.length - 2);
+            this.chunks++;
+        }
+    }
+
+    /**
+     * Write the data in a Graph to a JSON OutputStream with one worker thread per available processor.
+     *
+     * @param graph              the graph to serialize to JSON
+     * @param jsonOutputStream   the JSON OutputStream to write the Graph data to
+     * @param vertexPropertyKeys the keys of the vertex elements to write to JSON
+     * @param edgePropertyKeys   the keys of the edge elements to write to JSON
+     * @param mode               determines the format of the GraphSON
+     * @throws IOException thrown if there is an error generating the JSON data
+     */
+    public static void outputGraph(final Graph graph, final OutputStream jsonOutputStream,
+                                   final Set<String> vertexPropertyKeys, final Set<String> edgePropertyKeys,
+                                   final GraphSONMode mode) throws IOException {
+        final ParallelGraphSONWriter writer = new ParallelGraphSONWriter(graph);
+        writer.outputGraph(jsonOutputStream, vertexPropertyKeys, edgePropertyKeys, mode);
+    }
+}
@@ -7,17 +7,21 @@ import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.Query;
 import com.tinkerpop.blueprints.TransactionalGraph;
 import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.ElementHelper;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 import com.tinkerpop.blueprints.util.StringFactory;
 import com.tinkerpop.blueprints.util.wrappers.WrapperGraph;
 import com.tinkerpop.blueprints.util.wrappers.batch.cache.LongIDVertexCache;
 import com.tinkerpop.blueprints.util.wrappers.batch.cache.ObjectIDVertexCache;
+import com.tinkerpop.blueprints.util.wrappers.batch.cache.OffHeapVertexCache;
 import com.tinkerpop.blueprints.util.wrappers.batch.cache.StringIDVertexCache;
 import com.tinkerpop.blueprints.util.wrappers.batch.cache.URLCompression;
 import com.tinkerpop.blueprints.util.wrappers.batch.cache.VertexCache;
 import com.tinkerpop.blueprints.util.wrappers.id.IdGraph;
 
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -115,6 +119,25 @@ public class BatchGraph<T extends TransactionalGraph> implements TransactionalGr
         remainingBufferSize = this.bufferSize;
     }
 
+    /**
+     * Constructs a BatchGraph wrapping the provided baseGraph, using the specified buffer size and vertex cache.
+     * Use an {@link OffHeapVertexCache} if the vertex ids of the load do not fit on the heap.
+     *
+     * @param graph      Graph to be wrapped
+     * @param cache      Vertex cache which is only used by this BatchGraph
+     * @param bufferSize Defines the number of vertices and edges loaded before starting a new transaction. The larger this value, the more memory is required but the faster the loading process.
+     */
+    public BatchGraph(final T graph, final VertexCache cache, final long bufferSize) {
+        if (graph == null) throw new IllegalArgumentException("Graph may not be null");
+        if (cache == null) throw new IllegalArgumentException("Cache may not be null");
+        if (bufferSize <= 0) throw new IllegalArgumentException("BufferSize must be positive");
+        this.baseGraph = graph;
+        this.bufferSize = bufferSize;
+        this.cache = cache;
+
+        remainingBufferSize = this.bufferSize;
+    }
+
     /**
      * Constructs a BatchGraph wrapping the provided baseGraph.
      *
@@ -347,6 +370,43 @@ public class BatchGraph<T extends TransactionalGraph> implements TransactionalGr
         currentEdge = new BatchEdge();
         return currentEdge;
     }
+
+    /**
+     * Adds an edge together with its properties, so that they need not be set on the returned edge before the next
+     * element is added. If the wrapped graph is a {@link BulkEdgeGraph}, the edge and its properties are created in
+     * a single native operation.
+     *
+     * @param properties the properties of the edge, which are not modified, or null for none
+     */
+    public Edge addEdge(final Object id, final Vertex outVertex, final Vertex inVertex, final String label, final Map<String, Object> properties) {
+        if (!BatchVertex.class.isInstance(outVertex) || !BatchVertex.class.isInstance(inVertex))
+            throw new IllegalArgumentException("Given element was not created in this baseGraph");
+        nextElement();
+        final Vertex ov = getCachedVertex(outVertex.getId());
+        final Vertex iv = getCachedVertex(inVertex.getId());
+        Map<String, Object> finalProperties = properties;
+        if (edgeIdKey != null && id != null) {
+            finalProperties = null == properties ? new HashMap<String, Object>() : new HashMap<String, Object>(properties);
+            finalProperties.put(edgeIdKey, id);
+        }
+        currentEdgeCached = addEdge(baseGraph, id, ov, iv, label, finalProperties);
+
+        currentEdge = new BatchEdge();
+        return currentEdge;
+    }
+
+    /**
+     * Adds an edge with its properties through the native operation of a {@link BulkEdgeGraph} or, for any other
+     * graph, by setting the properties one by one.
+     */
+    static Edge addEdge(final Graph graph, final Object id, final Vertex outVertex, final Vertex inVertex, final String label, final Map<String, Object> properties) {
+        if (graph instanceof BulkEdgeGraph)
+            return ((BulkEdgeGraph) graph).addEdge(id, outVertex, inVertex, label, properties);
+        final Edge edge = graph.addEdge(id, outVertex, inVertex, label);
+        if (properties != null)
+            ElementHelper.setProperties(edge, properties);
+        return edge;
+    }
     
     @Override
     public String toString() {
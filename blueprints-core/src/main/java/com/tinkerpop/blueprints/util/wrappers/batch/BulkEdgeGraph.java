@@ -0,0 +1,28 @@
+package com.tinkerpop.blueprints.util.wrappers.batch;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+import java.util.Map;
+
+/**
+ * A graph that can create an edge together with all of its properties in a single native operation, rather than
+ * writing the edge and then each of its properties. {@link BatchGraph} and {@link ParallelBatchLoader} hand the
+ * properties of an edge to such a graph when they are provided up front.
+ */
+public interface BulkEdgeGraph extends Graph {
+
+    /**
+     * Adds an edge with the provided properties to the graph.
+     *
+     * @param id         the recommended object identifier
+     * @param outVertex  the vertex on the tail of the edge
+     * @param inVertex   the vertex on the head of the edge
+     * @param label      the label associated with the edge
+     * @param properties the properties of the edge, which are not modified, or null for none
+     * @return the newly created edge
+     */
+    public Edge addEdge(Object id, Vertex outVertex, Vertex inVertex, String label, Map<String, Object> properties);
+
+}
@@ -0,0 +1,564 @@
+package com.tinkerpop.blueprints.util.wrappers.batch;
+
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.ExceptionFactory;
+import com.tinkerpop.blueprints.util.wrappers.batch.cache.ConcurrentVertexCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ParallelBatchLoader loads a large number of vertices and edges with multiple worker threads. Like {@link BatchGraph}
+ * it chunks the load into transactions of a given buffer size, but every worker thread runs its own transaction
+ * against the wrapped graph. The wrapped graph must therefore bind transactions to threads, which is the default
+ * behavior of a {@link TransactionalGraph}, and must be safe to use from multiple threads. {@link #wrap} only uses
+ * multiple threads for graphs whose features claim transactions and loads any other graph with a single thread.
+ * <br />
+ * Vertices and edges are identified by external ids and are submitted through {@link #addVertex(Object, java.util.Map)}
+ * and {@link #addEdge(Object, Object, Object, String, java.util.Map)}, which may be called from multiple loading
+ * threads. An edge must not be submitted before its endpoints have been submitted by any of them. Edges are created
+ * together with their properties in a single operation if the wrapped graph is a {@link BulkEdgeGraph}. Vertices are
+ * partitioned by the hash of their id and edges by the hash of their endpoints. Each partition is loaded by its own
+ * worker thread, so that vertices and edges are loaded concurrently.
+ * <br />
+ * Cross-partition vertex creation follows a fixed policy. A vertex is claimed in a shared {@link ConcurrentVertexCache}
+ * when it is submitted and only created by the worker of its own partition. Once that worker committed the vertex, its
+ * id is published to the cache. Edge workers never create vertices: an edge whose endpoint has been claimed but not
+ * published yet waits for it, while an edge whose endpoint has never been submitted fails. This allows edges to be
+ * submitted as soon as their endpoints, without waiting for all vertices to be loaded. Vertex workers commit whenever
+ * their buffer is full or they run out of submitted vertices, so that waiting edges are not held up.
+ * <br />
+ * The number of loaded elements and the throughput of the vertex and edge phases are reported by
+ * {@link #getVertexPhase()} and {@link #getEdgePhase()}. Since the phases are pipelined, their durations overlap.
+ * <br />
+ * The first failure of a worker aborts the load. It is rethrown by the next submission or by {@link #close()}.
+ */
+public class ParallelBatchLoader<T extends TransactionalGraph> {
+
+    /**
+     * Default number of elements submitted to a worker that have not been loaded yet
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+    private static final Object END = new Object();
+
+    private final T baseGraph;
+    private final long bufferSize;
+    private final ConcurrentVertexCache cache;
+
+    private String vertexIdKey = null;
+    private String edgeIdKey = null;
+    private boolean loadingFromScratch = true;
+
+    private final List<Worker> vertexWorkers;
+    private final List<Worker> edgeWorkers;
+    private volatile boolean started = false;
+    private volatile boolean closed = false;
+
+    private final Phase vertexPhase = new Phase("vertices");
+    private final Phase edgePhase = new Phase("edges");
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    /**
+     * Constructs a ParallelBatchLoader wrapping the provided baseGraph.
+     *
+     * @param graph      Graph to be loaded
+     * @param threads    Number of vertex partitions and of edge partitions, each of which is loaded by its own thread
+     * @param bufferSize Number of vertices or edges loaded by a worker before it starts a new transaction
+     * @param queueSize  Number of submitted elements a worker may fall behind before submission blocks
+     */
+    public ParallelBatchLoader(final T graph, final int threads, final long bufferSize, final int queueSize) {
+        if (graph == null) throw new IllegalArgumentException("Graph may not be null");
+        if (threads <= 0) throw new IllegalArgumentException("Number of threads must be positive");
+        if (bufferSize <= 0) throw new IllegalArgumentException("BufferSize must be positive");
+        if (queueSize <= 0) throw new IllegalArgumentException("QueueSize must be positive");
+        this.baseGraph = graph;
+        this.bufferSize = bufferSize;
+        cache = new ConcurrentVertexCache(2 * threads);
+        vertexWorkers = new ArrayList<Worker>(threads);
+        edgeWorkers = new ArrayList<Worker>(threads);
+        for (int i = 0; i < threads; i++) {
+            vertexWorkers.add(new VertexWorker(i, queueSize));
+            edgeWorkers.add(new EdgeWorker(i, queueSize));
+        }
+    }
+
+    /**
+     * Constructs a ParallelBatchLoader wrapping the provided baseGraph, using one thread per vertex and edge partition
+     * for each available processor.
+     *
+     * @param graph Graph to be loaded
+     */
+    public ParallelBatchLoader(final T graph) {
+        this(graph, Runtime.getRuntime().availableProcessors(), BatchGraph.DEFAULT_BUFFER_SIZE, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Constructs a ParallelBatchLoader for the provided graph and wraps non-transactional graphs in an additional
+     * {@link WritethroughGraph}.
+     *
+     * @param graph      Graph to be loaded
+     * @param threads    Number of vertex partitions and of edge partitions if the graph supports transactions
+     * @param bufferSize Number of vertices or edges loaded by a worker before it starts a new transaction
+     */
+    public static ParallelBatchLoader wrap(final Graph graph, final int threads, final long bufferSize) {
+        return wrap(graph, threads, bufferSize, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Constructs a ParallelBatchLoader for the provided graph and wraps non-transactional graphs in an additional
+     * {@link WritethroughGraph}. Non-transactional graphs are not known to be safe to use from multiple threads, so
+     * they are loaded with a single vertex and edge partition.
+     *
+     * @param graph      Graph to be loaded
+     * @param threads    Number of vertex partitions and of edge partitions if the graph supports transactions
+     * @param bufferSize Number of vertices or edges loaded by a worker before it starts a new transaction
+     * @param queueSize  Number of submitted elements a worker may fall behind before submission blocks
+     */
+    public static ParallelBatchLoader wrap(final Graph graph, final int threads, final long bufferSize, final int queueSize) {
+        if (threads <= 0) throw new IllegalArgumentException("Number of threads must be positive");
+        if (graph instanceof TransactionalGraph && graph.getFeatures().supportsTransactions)
+            return new ParallelBatchLoader<TransactionalGraph>((TransactionalGraph) graph, threads, bufferSize, queueSize);
+        else return new ParallelBatchLoader<WritethroughGraph>(new WritethroughGraph(graph), 1, bufferSize, queueSize);
+    }
+
+    /**
+     * Sets the key to be used when setting the vertex id as a property on the respective vertex.
+     * If the key is null, then no property will be set. Must be set before loading starts.
+     *
+     * @param key Key to be used.
+     */
+    public void setVertexIdKey(final String key) {
+        checkNotStarted();
+        if (!loadingFromScratch && key == null && baseGraph.getFeatures().ignoresSuppliedIds)
+            throw new IllegalStateException("Cannot set vertex id key to null when not loading from scratch while ids are ignored.");
+        this.vertexIdKey = key;
+    }
+
+    public String getVertexIdKey() {
+        return vertexIdKey;
+    }
+
+    /**
+     * Sets the key to be used when setting the edge id as a property on the respective edge.
+     * If the key is null, then no property will be set. Must be set before loading starts.
+     *
+     * @param key Key to be used.
+     */
+    public void setEdgeIdKey(final String key) {
+        checkNotStarted();
+        this.edgeIdKey = key;
+    }
+
+    public String getEdgeIdKey() {
+        return edgeIdKey;
+    }
+
+    /**
+     * Sets whether the graph is loaded from scratch or incrementally into an existing graph. In the latter case, an
+     * edge whose endpoint has not been submitted is connected to the existing vertex with that id, as with
+     * {@link BatchGraph#setLoadingFromScratch(boolean)}. Must be set before loading starts.
+     *
+     * @param fromScratch
+     */
+    public void setLoadingFromScratch(final boolean fromScratch) {
+        checkNotStarted();
+        if (!fromScratch && vertexIdKey == null && baseGraph.getFeatures().ignoresSuppliedIds)
+            throw new IllegalStateException("Vertex id key is required to query existing vertices in wrapped graph.");
+        loadingFromScratch = fromScratch;
+    }
+
+    public boolean isLoadingFromScratch() {
+        return loadingFromScratch;
+    }
+
+    public T getBaseGraph() {
+        return baseGraph;
+    }
+
+    /**
+     * @return the number of vertex partitions and of edge partitions, each of which is loaded by its own thread
+     */
+    public int getThreads() {
+        return vertexWorkers.size();
+    }
+
+    /**
+     * Submits a vertex to the worker of its partition.
+     *
+     * @param id         External id of the vertex
+     * @param properties Properties of the vertex or null
+     * @throws IllegalArgumentException if a vertex with the id has already been submitted
+     */
+    public void addVertex(final Object id, final Map<String, Object> properties) {
+        if (id == null) throw ExceptionFactory.vertexIdCanNotBeNull();
+        checkOpen();
+        if (!cache.claim(id)) throw ExceptionFactory.vertexWithIdAlreadyExists(id);
+        submit(vertexWorkers.get(partition(id.hashCode())), new Element(id, null, null, null, properties));
+    }
+
+    /**
+     * Submits an edge to the worker of its partition. Both endpoints must have been submitted before, unless the graph
+     * is not loaded from scratch and they exist in the graph.
+     *
+     * @param id         External id of the edge or null
+     * @param outId      External id of the out vertex
+     * @param inId       External id of the in vertex
+     * @param label      Label of the edge
+     * @param properties Properties of the edge or null
+     */
+    public void addEdge(final Object id, final Object outId, final Object inId, final String label, final Map<String, Object> properties) {
+        if (outId == null || inId == null) throw ExceptionFactory.vertexIdCanNotBeNull();
+        if (label == null) throw new IllegalArgumentException("Edge label can not be null");
+        checkOpen();
+        submit(edgeWorkers.get(partition(31 * outId.hashCode() + inId.hashCode())), new Element(id, outId, inId, label, properties));
+    }
+
+    /**
+     * Waits until all submitted vertices and edges are loaded and committed and stops the worker threads.
+     *
+     * @throws RuntimeException if a worker failed
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        if (started) {
+            try {
+                for (final Worker worker : vertexWorkers) {
+                    worker.queue.put(END);
+                }
+                for (final Worker worker : vertexWorkers) {
+                    worker.join();
+                }
+                for (final Worker worker : edgeWorkers) {
+                    worker.queue.put(END);
+                }
+                for (final Worker worker : edgeWorkers) {
+                    worker.join();
+                }
+            } catch (InterruptedException e) {
+                abort(e);
+                Thread.currentThread().interrupt();
+            }
+        }
+        checkFailure();
+    }
+
+    /**
+     * @return the loaded vertices and throughput of the vertex phase
+     */
+    public Phase getVertexPhase() {
+        return vertexPhase;
+    }
+
+    /**
+     * @return the loaded edges and throughput of the edge phase
+     */
+    public Phase getEdgePhase() {
+        return edgePhase;
+    }
+
+    @Override
+    public String toString() {
+        return "parallelbatchloader[" + baseGraph + "]";
+    }
+
+    private int partition(final int hash) {
+        // spread the bits of poor hash codes such as those of consecutive numbers
+        int h = hash ^ (hash >>> 16);
+        h = h * 0x85ebca6b;
+        h = h ^ (h >>> 13);
+        return (h & Integer.MAX_VALUE) % vertexWorkers.size();
+    }
+
+    private void submit(final Worker worker, final Element element) {
+        if (!started) start();
+        try {
+            while (!worker.queue.offer(element, 100, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException e) {
+            abort(e);
+            Thread.currentThread().interrupt();
+        }
+        checkFailure();
+    }
+
+    private synchronized void start() {
+        if (started) return;
+        for (int i = 0; i < vertexWorkers.size(); i++) {
+            vertexWorkers.get(i).start();
+            edgeWorkers.get(i).start();
+        }
+        started = true;
+    }
+
+    private void checkNotStarted() {
+        if (started) throw new IllegalStateException("Loading has already started");
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("Loader has been closed");
+        checkFailure();
+    }
+
+    private void checkFailure() {
+        final Throwable t = failure.get();
+        if (t == null) return;
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        throw new RuntimeException(t.getMessage(), t);
+    }
+
+    private void abort(final Throwable t) {
+        if (failure.compareAndSet(null, t))
+            cache.abort();
+    }
+
+    private Vertex lookupVertex(final Object externalID) {
+        if (baseGraph.getFeatures().ignoresSuppliedIds) {
+            final Iterator<Vertex> iter = baseGraph.getVertices(vertexIdKey, externalID).iterator();
+            if (!iter.hasNext()) return null;
+            final Vertex v = iter.next();
+            if (iter.hasNext())
+                throw new IllegalArgumentException("There are multiple vertices with the provided id in the database: " + externalID);
+            return v;
+        } else {
+            return baseGraph.getVertex(externalID);
+        }
+    }
+
+    private static class Element {
+
+        private final Object id;
+        private final Object outId;
+        private final Object inId;
+        private final String label;
+        private final Map<String, Object> properties;
+
+        Element(final Object id, final Object outId, final Object inId, final String label, final Map<String, Object> properties) {
+            this.id = id;
+            this.outId = outId;
+            this.inId = inId;
+            this.label = label;
+            this.properties = properties;
+        }
+    }
+
+    private abstract class Worker extends Thread {
+
+        private final BlockingQueue<Object> queue;
+        protected final Phase phase;
+        protected long uncommitted = 0;
+
+        Worker(final String name, final Phase phase, final int queueSize) {
+            super(name);
+            setDaemon(true);
+            this.queue = new ArrayBlockingQueue<Object>(queueSize);
+            this.phase = phase;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    Object next = queue.poll();
+                    if (next == null) {
+                        if (uncommitted > 0) commit();
+                        next = queue.take();
+                    }
+                    if (next == END) break;
+                    if (failure.get() != null) continue;
+                    phase.started();
+                    load((Element) next);
+                    uncommitted++;
+                    if (uncommitted >= bufferSize) commit();
+                }
+                if (uncommitted > 0) commit();
+            } catch (Throwable t) {
+                abort(t);
+                try {
+                    baseGraph.stopTransaction(TransactionalGraph.Conclusion.FAILURE);
+                } catch (Throwable ignored) {
+                    //The original failure is reported
+                }
+                // keep draining the queue so that submission does not block
+                try {
+                    while (queue.take() != END) ;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private void commit() {
+            baseGraph.stopTransaction(TransactionalGraph.Conclusion.SUCCESS);
+            committed();
+            phase.loaded(uncommitted);
+            uncommitted = 0;
+        }
+
+        protected abstract void load(Element element) throws InterruptedException;
+
+        protected abstract void committed();
+    }
+
+    private class VertexWorker extends Worker {
+
+        private final List<Object> externalIds = new ArrayList<Object>();
+        private final List<Vertex> vertices = new ArrayList<Vertex>();
+
+        VertexWorker(final int partition, final int queueSize) {
+            super("ParallelBatchLoader-vertices-" + partition, vertexPhase, queueSize);
+        }
+
+        @Override
+        protected void load(final Element element) {
+            final Vertex v = baseGraph.addVertex(element.id);
+            if (vertexIdKey != null) {
+                v.setProperty(vertexIdKey, element.id);
+            }
+            if (element.properties != null) {
+                for (final Map.Entry<String, Object> property : element.properties.entrySet()) {
+                    v.setProperty(property.getKey(), property.getValue());
+                }
+            }
+            externalIds.add(element.id);
+            vertices.add(v);
+        }
+
+        /**
+         * Ids are only published after the commit, since some graphs assign the final id of a vertex on commit and
+         * other workers can not see the vertex before.
+         */
+        @Override
+        protected void committed() {
+            for (int i = 0; i < vertices.size(); i++) {
+                cache.set(vertices.get(i), externalIds.get(i));
+            }
+            externalIds.clear();
+            vertices.clear();
+            cache.publish();
+        }
+    }
+
+    private class EdgeWorker extends Worker {
+
+        private final Map<Object, Vertex> vertices = new HashMap<Object, Vertex>();
+
+        EdgeWorker(final int partition, final int queueSize) {
+            super("ParallelBatchLoader-edges-" + partition, edgePhase, queueSize);
+        }
+
+        @Override
+        protected void load(final Element element) throws InterruptedException {
+            final Vertex outVertex = getVertex(element.outId);
+            final Vertex inVertex = getVertex(element.inId);
+            Map<String, Object> properties = element.properties;
+            if (edgeIdKey != null && element.id != null) {
+                properties = null == properties ? new HashMap<String, Object>() : new HashMap<String, Object>(properties);
+                properties.put(edgeIdKey, element.id);
+            }
+            BatchGraph.addEdge(baseGraph, element.id, outVertex, inVertex, element.label, properties);
+        }
+
+        /**
+         * Vertices are only cached for the current transaction of the worker.
+         */
+        @Override
+        protected void committed() {
+            vertices.clear();
+        }
+
+        private Vertex getVertex(final Object externalID) throws InterruptedException {
+            Vertex v = vertices.get(externalID);
+            if (v != null) return v;
+
+            Object internal = cache.awaitEntry(externalID);
+            if (internal == null && !loadingFromScratch) {
+                v = lookupVertex(externalID);
+                if (v != null) {
+                    internal = cache.setIfAbsent(v, externalID);
+                    if (internal == ConcurrentVertexCache.PENDING) internal = cache.awaitEntry(externalID);
+                }
+            }
+            if (internal == null) throw new IllegalArgumentException("Vertex for given ID cannot be found: " + externalID);
+            if (v == null || !v.getId().equals(internal)) v = baseGraph.getVertex(internal);
+            vertices.put(externalID, v);
+            return v;
+        }
+    }
+
+    /**
+     * The number of elements loaded by a phase and its throughput. The duration of a phase lasts from the first
+     * element a worker started loading to the last commit of the phase.
+     */
+    public static class Phase {
+
+        private final String name;
+        private final AtomicLong elements = new AtomicLong(0);
+        private final AtomicLong startTime = new AtomicLong(0);
+        private final AtomicLong endTime = new AtomicLong(0);
+        private final long origin = System.nanoTime() - 1;
+
+        Phase(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the number of loaded and committed elements
+         */
+        public long getElements() {
+            return elements.get();
+        }
+
+        /**
+         * @return the duration of the phase in milliseconds
+         */
+        public long getDuration() {
+            final long start = startTime.get();
+            if (start == 0) return 0;
+            return Math.max(endTime.get() - start, 0) / 1000000;
+        }
+
+        /**
+         * @return the number of committed elements per second
+         */
+        public double getThroughput() {
+            final long start = startTime.get();
+            if (start == 0) return 0.0d;
+            final long nanos = Math.max(endTime.get() - start, 1);
+            return elements.get() * 1000000000.0d / nanos;
+        }
+
+        private void started() {
+            if (startTime.get() == 0) startTime.compareAndSet(0, System.nanoTime() - origin);
+        }
+
+        private void loaded(final long count) {
+            elements.addAndGet(count);
+            final long now = System.nanoTime() - origin;
+            long end;
+            while ((end = endTime.get()) < now && !endTime.compareAndSet(end, now)) ;
+        }
+
+        @Override
+        public String toString() {
+            return name + "[" + getElements() + " in " + getDuration() + "ms, " + Math.round(getThroughput()) + "/s]";
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.tinkerpop.blueprints.util.wrappers.batch;
+
+import com.tinkerpop.blueprints.TransactionalGraph;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.ElementHelper;
+import com.tinkerpop.blueprints.util.ExceptionFactory;
+import com.tinkerpop.blueprints.util.ExternalSorter;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * SortedBatchImporter imports vertices and edges through a {@link BatchGraph} in the order of their vertex ids rather
+ * than the order of the input. This matters for incremental loads (see {@link BatchGraph#setLoadingFromScratch(boolean)}),
+ * where every vertex that is not cached yet is looked up in the index of the wrapped graph. Looked up in input order,
+ * these are random reads; looked up in id order, they walk the index sequentially.
+ * <br />
+ * Records are collected with {@link #addVertex(Object, java.util.Map)} and
+ * {@link #addEdge(Object, Object, Object, String, java.util.Map)} and externally sorted using a bounded number of
+ * records in memory and temporary files for the rest. {@link #importGraph()} then runs two ordered passes. The first
+ * pass resolves every vertex that is added or referenced by an edge in the order of its id: it is looked up in the
+ * wrapped graph once and created if it does not exist yet. The second pass streams the edges ordered by the ids of
+ * their out and in vertices, whose lookups are all answered by the vertex cache of the BatchGraph.
+ * <br />
+ * Vertex ids, edge ids and property values must be serializable.
+ */
+public class SortedBatchImporter {
+
+    /**
+     * Default number of vertex and of edge records sorted in memory
+     */
+    public static final int DEFAULT_SORT_BUFFER_SIZE = 1000000;
+
+    private final BatchGraph graph;
+    private final ExternalSorter<VertexRecord> vertices;
+    private final ExternalSorter<EdgeRecord> edges;
+    private boolean imported = false;
+
+    /**
+     * @param graph          BatchGraph the records are imported through
+     * @param sortBufferSize Number of vertex records and of edge records sorted in memory before they are spilled
+     * @param directory      Directory of the temporary files or null for the default temporary directory
+     */
+    public SortedBatchImporter(final BatchGraph graph, final int sortBufferSize, final File directory) {
+        if (graph == null) throw new IllegalArgumentException("Graph may not be null");
+        this.graph = graph;
+        this.vertices = new ExternalSorter<VertexRecord>(VERTEX_ORDER, sortBufferSize, directory);
+        this.edges = new ExternalSorter<EdgeRecord>(EDGE_ORDER, sortBufferSize, directory);
+    }
+
+    public SortedBatchImporter(final BatchGraph graph) {
+        this(graph, DEFAULT_SORT_BUFFER_SIZE, null);
+    }
+
+    /**
+     * Adds a vertex, which is created if it does not exist and otherwise updated with the provided properties.
+     *
+     * @param id         External id of the vertex
+     * @param properties Properties of the vertex or null
+     */
+    public void addVertex(final Object id, final Map<String, Object> properties) {
+        if (id == null) throw ExceptionFactory.vertexIdCanNotBeNull();
+        checkNotImported();
+        vertices.add(new VertexRecord(id, properties));
+    }
+
+    /**
+     * Adds an edge between two vertices, which are created if they do not exist.
+     *
+     * @param id         External id of the edge or null
+     * @param outId      External id of the out vertex
+     * @param inId       External id of the in vertex
+     * @param label      Label of the edge
+     * @param properties Properties of the edge or null
+     */
+    public void addEdge(final Object id, final Object outId, final Object inId, final String label, final Map<String, Object> properties) {
+        if (outId == null || inId == null) throw ExceptionFactory.vertexIdCanNotBeNull();
+        if (label == null) throw new IllegalArgumentException("Edge label can not be null");
+        checkNotImported();
+        vertices.add(new VertexRecord(outId, null));
+        vertices.add(new VertexRecord(inId, null));
+        edges.add(new EdgeRecord(id, outId, inId, label, properties));
+    }
+
+    /**
+     * Resolves all vertices in the order of their ids, then adds all edges in the order of their vertex ids and
+     * finally commits the BatchGraph and deletes the temporary files.
+     */
+    public void importGraph() {
+        checkNotImported();
+        imported = true;
+        try {
+            VertexRecord previous = null;
+            Vertex vertex = null;
+            for (final VertexRecord record : vertices) {
+                if (previous == null || ID_ORDER.compare(previous.id, record.id) != 0) {
+                    vertex = graph.getVertex(record.id);
+                    if (vertex == null) vertex = graph.addVertex(record.id);
+                    previous = record;
+                }
+                if (record.properties != null)
+                    ElementHelper.setProperties(vertex, record.properties);
+            }
+
+            for (final EdgeRecord record : edges) {
+                graph.addEdge(record.id, graph.getVertex(record.outId), graph.getVertex(record.inId), record.label, record.properties);
+            }
+            graph.stopTransaction(TransactionalGraph.Conclusion.SUCCESS);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Deletes the temporary files without importing the remaining records.
+     */
+    public void close() {
+        vertices.close();
+        edges.close();
+    }
+
+    private void checkNotImported() {
+        if (imported) throw new IllegalStateException("Records have already been imported");
+    }
+
+    /**
+     * Orders ids of the same class by their natural order if they are comparable and by their string otherwise.
+     * Ids of different classes are ordered by the name of their class.
+     */
+    private static final Comparator<Object> ID_ORDER = new Comparator<Object>() {
+        public int compare(final Object a, final Object b) {
+            final Class classA = a.getClass();
+            final Class classB = b.getClass();
+            if (!classA.equals(classB))
+                return classA.getName().compareTo(classB.getName());
+            if (a instanceof Comparable)
+                return ((Comparable) a).compareTo(b);
+            return a.toString().compareTo(b.toString());
+        }
+    };
+
+    private static final Comparator<VertexRecord> VERTEX_ORDER = new Comparator<VertexRecord>() {
+        public int compare(final VertexRecord a, final VertexRecord b) {
+            return ID_ORDER.compare(a.id, b.id);
+        }
+    };
+
+    private static final Comparator<EdgeRecord> EDGE_ORDER = new Comparator<EdgeRecord>() {
+        public int compare(final EdgeRecord a, final EdgeRecord b) {
+            final int compare = ID_ORDER.compare(a.outId, b.outId);
+            return compare != 0 ? compare : ID_ORDER.compare(a.inId, b.inId);
+        }
+    };
+
+    private static class VertexRecord implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object id;
+        private final Map<String, Object> properties;
+
+        VertexRecord(final Object id, final Map<String, Object> properties) {
+            this.id = id;
+            this.properties = properties;
+        }
+    }
+
+    private static class EdgeRecord implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object id;
+        private final Object outId;
+        private final Object inId;
+        private final String label;
+        private final Map<String, Object> properties;
+
+        EdgeRecord(final Object id, final Object outId, final Object inId, final String label, final Map<String, Object> properties) {
+            this.id = id;
+            this.outId = outId;
+            this.inId = inId;
+            this.label = label;
+            this.properties = properties;
+        }
+    }
+}
@@ -8,6 +8,8 @@ import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.StringFactory;
 import com.tinkerpop.blueprints.util.wrappers.WrapperGraph;
 
+import java.util.Map;
+
 /**
  * This is a naive wrapper to make a non-transactional graph transactional by simply writing all mutations
  * directly through to the wrapped graph and not supporting transactional failures.
@@ -21,7 +23,7 @@ import com.tinkerpop.blueprints.util.wrappers.WrapperGraph;
  * @author Matthias Broecheler (http://www.matthiasb.com)
  */
 
-class WritethroughGraph<T extends Graph> implements WrapperGraph<T>, TransactionalGraph {
+class WritethroughGraph<T extends Graph> implements WrapperGraph<T>, TransactionalGraph, BulkEdgeGraph {
 
     private final T graph;
 
@@ -84,6 +86,11 @@ class WritethroughGraph<T extends Graph> implements WrapperGraph<T>, Transaction
         return graph.addEdge(id, outVertex, inVertex, label);
     }
 
+    @Override
+    public Edge addEdge(final Object id, final Vertex outVertex, final Vertex inVertex, final String label, final Map<String, Object> properties) {
+        return BatchGraph.addEdge(graph, id, outVertex, inVertex, label, properties);
+    }
+
     @Override
     public Edge getEdge(final Object id) {
         return graph.getEdge(id);
@@ -0,0 +1,107 @@
+package com.tinkerpop.blueprints.util.wrappers.batch.cache;
+
+import com.tinkerpop.blueprints.Vertex;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A vertex cache that is shared by the worker threads of a parallel batch load. Since every worker runs in its own
+ * transaction, the cache never holds vertices but only the ids of vertices whose creating transaction has been
+ * committed. Hence {@link #newTransaction()} has nothing to do.
+ * <br />
+ * An external id can be claimed before its vertex is created. Until the vertex is set, {@link #getEntry(Object)}
+ * returns {@link #PENDING} for the id and {@link #awaitEntry(Object)} blocks.
+ */
+public class ConcurrentVertexCache implements VertexCache {
+
+    /**
+     * The entry of an external id that has been claimed but whose vertex has not been committed yet.
+     */
+    public static final Object PENDING = new Object() {
+        @Override
+        public String toString() {
+            return "PENDING";
+        }
+    };
+
+    private static final int INITIAL_CAPACITY = 1000;
+
+    private final ConcurrentHashMap<Object, Object> map;
+    private volatile boolean aborted = false;
+
+    public ConcurrentVertexCache(final int concurrencyLevel) {
+        if (concurrencyLevel <= 0) throw new IllegalArgumentException("Concurrency level must be positive");
+        map = new ConcurrentHashMap<Object, Object>(INITIAL_CAPACITY, 0.75f, concurrencyLevel);
+    }
+
+    /**
+     * Claims the external id for a vertex that is about to be created.
+     *
+     * @return false if the id has already been claimed or set
+     */
+    public boolean claim(final Object externalID) {
+        return map.putIfAbsent(externalID, PENDING) == null;
+    }
+
+    @Override
+    public Object getEntry(final Object externalID) {
+        return map.get(externalID);
+    }
+
+    /**
+     * Returns the id of the vertex with the given external id and waits for it if the external id has been claimed
+     * but the vertex has not been set yet.
+     *
+     * @return the id of the vertex or null if the external id has never been claimed or set
+     */
+    public Object awaitEntry(final Object externalID) throws InterruptedException {
+        Object entry = map.get(externalID);
+        if (entry != PENDING) return entry;
+        synchronized (this) {
+            while ((entry = map.get(externalID)) == PENDING) {
+                if (aborted) throw new IllegalStateException("Loading has been aborted");
+                wait();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Sets the vertex of an external id. The vertex must be committed, because only its id is cached.
+     */
+    @Override
+    public void set(final Vertex vertex, final Object externalID) {
+        map.put(externalID, vertex.getId());
+    }
+
+    /**
+     * Sets the vertex of an external id unless another vertex has already been set for it.
+     *
+     * @return the id of the vertex that is cached for the external id
+     */
+    public Object setIfAbsent(final Vertex vertex, final Object externalID) {
+        final Object id = vertex.getId();
+        final Object existing = map.putIfAbsent(externalID, id);
+        return existing == null ? id : existing;
+    }
+
+    /**
+     * Wakes up the threads which wait for vertices that have been set since the last call.
+     */
+    public synchronized void publish() {
+        notifyAll();
+    }
+
+    /**
+     * Wakes up all waiting threads and makes them fail, since pending vertices might never be set.
+     */
+    public synchronized void abort() {
+        aborted = true;
+        notifyAll();
+    }
+
+    @Override
+    public void newTransaction() {
+        //Only ids of committed vertices are cached
+    }
+}
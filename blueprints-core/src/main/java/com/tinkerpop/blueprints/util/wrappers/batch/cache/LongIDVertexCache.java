@@ -1,6 +1,6 @@
 package com.tinkerpop.blueprints.util.wrappers.batch.cache;
 
-import cern.colt.function.LongObjectProcedure;
+import cern.colt.list.LongArrayList;
 import cern.colt.map.AbstractLongObjectMap;
 import cern.colt.map.OpenLongObjectHashMap;
 import com.tinkerpop.blueprints.Graph;
@@ -16,6 +16,7 @@ public class LongIDVertexCache implements VertexCache {
 
     private final Graph graph;
     private final AbstractLongObjectMap map;
+    private final LongArrayList dirty = new LongArrayList();
 
     public LongIDVertexCache(final Graph graph) {
         if (graph == null) throw new IllegalArgumentException("Graph expected.");
@@ -38,19 +39,19 @@ public class LongIDVertexCache implements VertexCache {
     @Override
     public void set(Vertex vertex, Object externalID) {
         long id = getID(externalID);
+        if (!(map.get(id) instanceof Vertex)) dirty.add(id);
         map.put(id, vertex);
     }
 
     @Override
     public void newTransaction() {
-        map.forEachPair(new LongObjectProcedure() {
-            @Override
-            public boolean apply(long l, Object o) {
-                if (o instanceof Vertex) {
-                    map.put(l, ((Vertex) o).getId());
-                }
-                return true;
+        for (int i = 0; i < dirty.size(); i++) {
+            long id = dirty.getQuick(i);
+            Object entry = map.get(id);
+            if (entry instanceof Vertex) {
+                map.put(id, ((Vertex) entry).getId());
             }
-        });
+        }
+        dirty.clear();
     }
 }
@@ -3,7 +3,9 @@ package com.tinkerpop.blueprints.util.wrappers.batch.cache;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.Vertex;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,6 +18,7 @@ public class ObjectIDVertexCache implements VertexCache {
 
     private final Graph graph;
     private final Map<Object, Object> map;
+    private final List<Object> dirty = new ArrayList<Object>();
 
     public ObjectIDVertexCache(final Graph graph) {
         if (graph == null) throw new IllegalArgumentException("Graph expected.");
@@ -31,16 +34,17 @@ public class ObjectIDVertexCache implements VertexCache {
 
     @Override
     public void set(Vertex vertex, Object externalID) {
-        map.put(externalID, vertex);
+        if (!(map.put(externalID, vertex) instanceof Vertex)) dirty.add(externalID);
     }
 
     @Override
     public void newTransaction() {
-        for (Map.Entry<Object, Object> entry : map.entrySet()) {
-            if (entry.getValue() instanceof Vertex) {
-                Vertex v = (Vertex) entry.getValue();
-                entry.setValue(v.getId());
+        for (Object externalID : dirty) {
+            Object entry = map.get(externalID);
+            if (entry instanceof Vertex) {
+                map.put(externalID, ((Vertex) entry).getId());
             }
         }
+        dirty.clear();
     }
 }
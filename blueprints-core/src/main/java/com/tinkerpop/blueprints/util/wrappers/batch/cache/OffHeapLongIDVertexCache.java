@@ -0,0 +1,61 @@
+package com.tinkerpop.blueprints.util.wrappers.batch.cache;
+
+import java.io.File;
+
+/**
+ * An {@link OffHeapVertexCache} for numeric external ids. A slot of the table holds the complement of the external id,
+ * so that an empty slot is zero, followed by the vertex id. The external id -1 can not be stored in the table and is
+ * cached on the heap.
+ */
+public class OffHeapLongIDVertexCache extends OffHeapVertexCache {
+
+    private static final int SLOT_SIZE = 16;
+
+    /**
+     * @param directory the directory for the mapped table files or null to allocate the table as direct memory
+     */
+    public OffHeapLongIDVertexCache(final File directory) {
+        super(directory, SLOT_SIZE);
+    }
+
+    public OffHeapLongIDVertexCache() {
+        this(null);
+    }
+
+    @Override
+    Object getKey(final Object externalID) {
+        if (!(externalID instanceof Number)) throw new IllegalArgumentException("Number expected.");
+        return ((Number) externalID).longValue();
+    }
+
+    @Override
+    Object encode(final Object key) {
+        final long stored = ~((Long) key);
+        return stored == 0 ? null : stored;
+    }
+
+    @Override
+    long hash(final Object encoded) {
+        return mix((Long) encoded);
+    }
+
+    @Override
+    long hash(final OffHeapStore table, final long slot) {
+        return mix(table.getLong(slot));
+    }
+
+    @Override
+    boolean isEmpty(final OffHeapStore table, final long slot) {
+        return table.getLong(slot) == 0;
+    }
+
+    @Override
+    boolean matches(final OffHeapStore table, final long slot, final Object encoded, final long hash) {
+        return table.getLong(slot) == (Long) encoded;
+    }
+
+    @Override
+    void writeKey(final OffHeapStore table, final long slot, final Object encoded, final long hash) {
+        table.putLong(slot, (Long) encoded);
+    }
+}
@@ -0,0 +1,127 @@
+package com.tinkerpop.blueprints.util.wrappers.batch.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A large array of bytes outside of the Java heap, split into segments of equal size since a single buffer can not
+ * exceed 2GB. Segments are either allocated as direct buffers or, if a directory is given, mapped from temporary files
+ * in that directory, so that the operating system can page them out to disk.
+ * <br />
+ * Longs and ints must be aligned to their size, so that they never cross a segment boundary.
+ */
+class OffHeapStore {
+
+    private final File directory;
+    private final int segmentBits;
+    private final int segmentSize;
+    private final long segmentMask;
+    private final List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+    private final List<File> files = new ArrayList<File>();
+
+    OffHeapStore(final File directory, final int segmentBits) {
+        if (segmentBits < 3 || segmentBits > 30) throw new IllegalArgumentException("Segment bits must be between 3 and 30");
+        if (directory != null && !directory.isDirectory())
+            throw new IllegalArgumentException("Not a directory: " + directory);
+        this.directory = directory;
+        this.segmentBits = segmentBits;
+        this.segmentSize = 1 << segmentBits;
+        this.segmentMask = segmentSize - 1;
+    }
+
+    /**
+     * @return the number of segment bits needed to hold the given number of bytes in a single segment, limited to 1GB
+     */
+    static int segmentBits(final long bytes) {
+        int bits = 3;
+        while (bits < 30 && (1l << bits) < bytes) bits++;
+        return bits;
+    }
+
+    int getSegmentSize() {
+        return segmentSize;
+    }
+
+    long getCapacity() {
+        return (long) segments.size() << segmentBits;
+    }
+
+    void ensureCapacity(final long bytes) {
+        while (getCapacity() < bytes) {
+            if (directory == null) {
+                segments.add(ByteBuffer.allocateDirect(segmentSize));
+            } else {
+                try {
+                    final File file = File.createTempFile("vertexcache", ".bin", directory);
+                    file.deleteOnExit();
+                    files.add(file);
+                    final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                    try {
+                        raf.setLength(segmentSize);
+                        segments.add(raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+                    } finally {
+                        raf.close();
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    long getLong(final long position) {
+        return segments.get((int) (position >>> segmentBits)).getLong((int) (position & segmentMask));
+    }
+
+    void putLong(final long position, final long value) {
+        segments.get((int) (position >>> segmentBits)).putLong((int) (position & segmentMask), value);
+    }
+
+    int getInt(final long position) {
+        return segments.get((int) (position >>> segmentBits)).getInt((int) (position & segmentMask));
+    }
+
+    void putInt(final long position, final int value) {
+        segments.get((int) (position >>> segmentBits)).putInt((int) (position & segmentMask), value);
+    }
+
+    /**
+     * Compares bytes that do not cross a segment boundary.
+     */
+    boolean equals(final long position, final byte[] bytes) {
+        final ByteBuffer segment = segments.get((int) (position >>> segmentBits));
+        final int offset = (int) (position & segmentMask);
+        for (int i = 0; i < bytes.length; i++) {
+            if (segment.get(offset + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes bytes that do not cross a segment boundary.
+     */
+    void putBytes(final long position, final byte[] bytes) {
+        final ByteBuffer segment = segments.get((int) (position >>> segmentBits));
+        final int offset = (int) (position & segmentMask);
+        for (int i = 0; i < bytes.length; i++) {
+            segment.put(offset + i, bytes[i]);
+        }
+    }
+
+    /**
+     * Drops all segments and deletes the mapped files. Mapped files may only be deleted once their buffers have been
+     * garbage collected on some platforms, in which case they are deleted on exit.
+     */
+    void close() {
+        segments.clear();
+        for (final File file : files) {
+            file.delete();
+        }
+        files.clear();
+    }
+}
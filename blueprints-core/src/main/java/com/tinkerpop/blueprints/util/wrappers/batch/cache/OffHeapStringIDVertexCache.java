@@ -0,0 +1,102 @@
+package com.tinkerpop.blueprints.util.wrappers.batch.cache;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * An {@link OffHeapVertexCache} for string external ids. The compressed external ids are appended to a key log outside
+ * of the heap as UTF-8 bytes prefixed by their length. A slot of the table holds the 64 bit hash of the external id,
+ * the position of the external id in the key log plus one, so that an empty slot is zero, and the vertex id. Slots are
+ * matched by their hash first and compared to the key log only if the hash is equal, so that colliding hashes do not
+ * mix up vertices.
+ */
+public class OffHeapStringIDVertexCache extends OffHeapVertexCache {
+
+    private static final int SLOT_SIZE = 24;
+    private static final int KEY_SEGMENT_BITS = 24;
+
+    private final StringCompression compression;
+    private final OffHeapStore keys;
+    private long keyPosition = 0;
+
+    /**
+     * @param compression the compression applied to the external ids before they are cached
+     * @param directory   the directory for the mapped table and key log files or null to allocate them as direct memory
+     */
+    public OffHeapStringIDVertexCache(final StringCompression compression, final File directory) {
+        super(directory, SLOT_SIZE);
+        if (compression == null) throw new IllegalArgumentException("Compression expected.");
+        this.compression = compression;
+        this.keys = createStore(KEY_SEGMENT_BITS);
+    }
+
+    public OffHeapStringIDVertexCache() {
+        this(StringCompression.NO_COMPRESSION, null);
+    }
+
+    @Override
+    Object getKey(final Object externalID) {
+        return compression.compress((String) externalID);
+    }
+
+    @Override
+    Object encode(final Object key) {
+        try {
+            return ((String) key).getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    long hash(final Object encoded) {
+        // 64 bit FNV-1a
+        long hash = 0xcbf29ce484222325l;
+        for (final byte b : (byte[]) encoded) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3l;
+        }
+        return mix(hash);
+    }
+
+    @Override
+    long hash(final OffHeapStore table, final long slot) {
+        return table.getLong(slot);
+    }
+
+    @Override
+    boolean isEmpty(final OffHeapStore table, final long slot) {
+        return table.getLong(slot + 8) == 0;
+    }
+
+    @Override
+    boolean matches(final OffHeapStore table, final long slot, final Object encoded, final long hash) {
+        if (table.getLong(slot) != hash) return false;
+        final byte[] bytes = (byte[]) encoded;
+        final long position = table.getLong(slot + 8) - 1;
+        return keys.getInt(position) == bytes.length && keys.equals(position + 4, bytes);
+    }
+
+    @Override
+    void writeKey(final OffHeapStore table, final long slot, final Object encoded, final long hash) {
+        final byte[] bytes = (byte[]) encoded;
+        final int length = 4 + bytes.length;
+        if (length > keys.getSegmentSize())
+            throw new IllegalArgumentException("External id is too long: " + bytes.length + " bytes");
+        // keys do not cross segments and their lengths are aligned to ints
+        if ((keyPosition % keys.getSegmentSize()) + length > keys.getSegmentSize())
+            keyPosition = keyPosition - (keyPosition % keys.getSegmentSize()) + keys.getSegmentSize();
+        keys.ensureCapacity(keyPosition + length);
+        keys.putInt(keyPosition, bytes.length);
+        keys.putBytes(keyPosition + 4, bytes);
+        table.putLong(slot, hash);
+        table.putLong(slot + 8, keyPosition + 1);
+        keyPosition = keyPosition + ((length + 3) & ~3);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        keys.close();
+    }
+}
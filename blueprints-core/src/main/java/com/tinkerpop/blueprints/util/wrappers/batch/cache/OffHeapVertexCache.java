@@ -0,0 +1,175 @@
+package com.tinkerpop.blueprints.util.wrappers.batch.cache;
+
+import com.tinkerpop.blueprints.Vertex;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A vertex cache that keeps the ids of vertices of committed transactions in an open-addressing hash table outside of
+ * the Java heap. Only the vertices set in the current transaction are held on the heap. On a new transaction their ids
+ * are moved into the table, which takes time proportional to the number of vertices set in the transaction.
+ * <br />
+ * The table is allocated as direct memory, which is limited by -XX:MaxDirectMemorySize, or mapped from temporary files
+ * in a given directory, which allows the cache to grow beyond the available memory and spill to local disk. Only ids
+ * of type Long are stored in the table. Vertices with other ids are cached on the heap.
+ * <br />
+ * The cache is not thread-safe. Call {@link #close()} to release the table once loading is complete.
+ */
+public abstract class OffHeapVertexCache implements VertexCache {
+
+    private static final int INITIAL_SLOTS = 1024;
+
+    private final File directory;
+    private final int slotSize;
+
+    private OffHeapStore table;
+    private long slots;
+    private long size = 0;
+
+    private final Map<Object, Vertex> transaction = new HashMap<Object, Vertex>();
+    private final Map<Object, Object> heapIds = new HashMap<Object, Object>();
+
+    OffHeapVertexCache(final File directory, final int slotSize) {
+        this.directory = directory;
+        this.slotSize = slotSize;
+        this.slots = INITIAL_SLOTS;
+        this.table = createTable(slots);
+    }
+
+    /**
+     * Converts an external id into the key it is cached under.
+     */
+    abstract Object getKey(Object externalID);
+
+    /**
+     * Encodes a key for the table or returns null if the key can not be stored in the table.
+     */
+    abstract Object encode(Object key);
+
+    abstract long hash(Object encoded);
+
+    abstract long hash(OffHeapStore table, long slot);
+
+    abstract boolean isEmpty(OffHeapStore table, long slot);
+
+    abstract boolean matches(OffHeapStore table, long slot, Object encoded, long hash);
+
+    abstract void writeKey(OffHeapStore table, long slot, Object encoded, long hash);
+
+    @Override
+    public Object getEntry(final Object externalID) {
+        final Object key = getKey(externalID);
+        final Vertex vertex = transaction.get(key);
+        if (vertex != null) return vertex;
+        if (!heapIds.isEmpty()) {
+            final Object id = heapIds.get(key);
+            if (id != null) return id;
+        }
+        final Object encoded = encode(key);
+        if (encoded == null) return null;
+        final long slot = find(table, slots, encoded, hash(encoded));
+        if (isEmpty(table, slot)) return null;
+        return table.getLong(slot + slotSize - 8);
+    }
+
+    @Override
+    public void set(final Vertex vertex, final Object externalID) {
+        transaction.put(getKey(externalID), vertex);
+    }
+
+    @Override
+    public void newTransaction() {
+        for (final Map.Entry<Object, Vertex> entry : transaction.entrySet()) {
+            final Object id = entry.getValue().getId();
+            final Object encoded = id instanceof Long ? encode(entry.getKey()) : null;
+            if (encoded == null) {
+                heapIds.put(entry.getKey(), id);
+            } else {
+                heapIds.remove(entry.getKey());
+                put(encoded, (Long) id);
+            }
+        }
+        transaction.clear();
+    }
+
+    /**
+     * @return the number of external ids whose vertex ids are stored outside of the heap
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Releases the table and deletes its files. The cache must not be used afterwards.
+     */
+    public void close() {
+        table.close();
+        transaction.clear();
+        heapIds.clear();
+    }
+
+    OffHeapStore createStore(final int segmentBits) {
+        return new OffHeapStore(directory, segmentBits);
+    }
+
+    private OffHeapStore createTable(final long slots) {
+        final long bytes = slots * slotSize;
+        final OffHeapStore store = createStore(OffHeapStore.segmentBits(bytes));
+        store.ensureCapacity(bytes);
+        return store;
+    }
+
+    private long find(final OffHeapStore table, final long slots, final Object encoded, final long hash) {
+        final long mask = slots - 1;
+        long index = hash & mask;
+        while (true) {
+            final long slot = index * slotSize;
+            if (isEmpty(table, slot) || matches(table, slot, encoded, hash)) return slot;
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void put(final Object encoded, final long id) {
+        final long hash = hash(encoded);
+        long slot = find(table, slots, encoded, hash);
+        if (isEmpty(table, slot)) {
+            if ((size + 1) * 2 > slots) {
+                resize();
+                slot = find(table, slots, encoded, hash);
+            }
+            writeKey(table, slot, encoded, hash);
+            size++;
+        }
+        table.putLong(slot + slotSize - 8, id);
+    }
+
+    private void resize() {
+        final long newSlots = slots * 2;
+        final OffHeapStore newTable = createTable(newSlots);
+        final long mask = newSlots - 1;
+        for (long slot = 0; slot < slots * slotSize; slot += slotSize) {
+            if (isEmpty(table, slot)) continue;
+            long index = hash(table, slot) & mask;
+            while (!isEmpty(newTable, index * slotSize)) {
+                index = (index + 1) & mask;
+            }
+            for (int offset = 0; offset < slotSize; offset += 8) {
+                newTable.putLong(index * slotSize + offset, table.getLong(slot + offset));
+            }
+        }
+        table.close();
+        table = newTable;
+        slots = newSlots;
+    }
+
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdl;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53l;
+        h ^= h >>> 33;
+        return h;
+    }
+}
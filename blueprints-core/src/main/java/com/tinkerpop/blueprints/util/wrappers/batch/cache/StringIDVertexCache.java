@@ -3,7 +3,9 @@ package com.tinkerpop.blueprints.util.wrappers.batch.cache;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.Vertex;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -16,6 +18,7 @@ public class StringIDVertexCache implements VertexCache {
 
     private final Graph graph;
     private final Map<String, Object> map;
+    private final List<String> dirty = new ArrayList<String>();
     private final StringCompression compression;
 
     public StringIDVertexCache(final Graph graph, final StringCompression compression) {
@@ -39,16 +42,17 @@ public class StringIDVertexCache implements VertexCache {
     @Override
     public void set(Vertex vertex, Object externalID) {
         String id = compression.compress((String) externalID);
-        map.put(id, vertex);
+        if (!(map.put(id, vertex) instanceof Vertex)) dirty.add(id);
     }
 
     @Override
     public void newTransaction() {
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            if (entry.getValue() instanceof Vertex) {
-                Vertex v = (Vertex) entry.getValue();
-                entry.setValue(v.getId());
+        for (String id : dirty) {
+            Object entry = map.get(id);
+            if (entry instanceof Vertex) {
+                map.put(id, ((Vertex) entry).getId());
             }
         }
+        dirty.clear();
     }
 }
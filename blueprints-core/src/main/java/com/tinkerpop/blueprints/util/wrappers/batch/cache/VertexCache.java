@@ -12,6 +12,11 @@ public interface VertexCache {
 
     public void set(Vertex vertex, Object externalID);
 
+    /**
+     * Replaces the vertices set since the last transaction by their ids, since the vertices must not be accessed
+     * outside of their transaction. Implementations should only visit the entries set in the last transaction, so
+     * that a commit takes time proportional to the buffer size rather than the size of the cache.
+     */
     public void newTransaction();
 
 }
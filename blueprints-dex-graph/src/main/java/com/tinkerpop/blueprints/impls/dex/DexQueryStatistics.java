@@ -0,0 +1,46 @@
+package com.tinkerpop.blueprints.impls.dex;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.QueryPlanner;
+
+/**
+ * Counts the edges of a vertex through the native degree of Dex. Only Query.count() uses the degree, query plans
+ * keep the unknown estimate as summing the degrees of all edge types for every plan would be too costly.
+ */
+class DexQueryStatistics extends QueryPlanner.DefaultStatistics {
+
+    public static final DexQueryStatistics INSTANCE = new DexQueryStatistics();
+
+    public long countEdges(final Vertex vertex, final Direction direction, final String... labels) {
+        final DexVertex dexVertex = (DexVertex) vertex;
+        dexVertex.graph.autoStartTransaction();
+
+        long count = 0;
+        if (!direction.equals(Direction.IN))
+            count = count + degree(dexVertex, com.sparsity.dex.gdb.EdgesDirection.Outgoing, labels);
+        if (!direction.equals(Direction.OUT))
+            count = count + degree(dexVertex, com.sparsity.dex.gdb.EdgesDirection.Ingoing, labels);
+        return count;
+    }
+
+    private static long degree(final DexVertex vertex, final com.sparsity.dex.gdb.EdgesDirection direction, final String... labels) {
+        final com.sparsity.dex.gdb.Graph rawGraph = vertex.graph.getRawGraph();
+        long degree = 0;
+        if (labels.length == 0) {
+            com.sparsity.dex.gdb.TypeList tlist = rawGraph.findEdgeTypes();
+            for (Integer etype : tlist) {
+                degree = degree + rawGraph.degree(vertex.oid, etype, direction);
+            }
+            tlist.delete();
+            tlist = null;
+        } else {
+            for (final String label : labels) {
+                final int type = rawGraph.findType(label);
+                if (type != com.sparsity.dex.gdb.Type.InvalidType)
+                    degree = degree + rawGraph.degree(vertex.oid, type, direction);
+            }
+        }
+        return degree;
+    }
+}
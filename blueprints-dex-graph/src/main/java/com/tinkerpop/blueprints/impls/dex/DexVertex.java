@@ -220,6 +220,6 @@ class DexVertex extends DexElement implements Vertex {
     }
 
     public Query query() {
-        return new DefaultQuery(this);
+        return new DefaultQuery(this, DexQueryStatistics.INSTANCE);
     }
 }
\ No newline at end of file
@@ -291,34 +291,16 @@ public class GraphJung<T extends Graph> implements DirectedGraph<Vertex, Edge>,
     }
 
     public int inDegree(final Vertex vertex) {
-        final Iterable<Edge> itty = vertex.getEdges(Direction.IN);
-        if (itty instanceof Collection) {
-            return ((Collection) itty).size();
-        } else {
-            int count = 0;
-            for (final Edge edge : itty) {
-                count++;
-            }
-            return count;
-        }
+        return (int) vertex.query().direction(Direction.IN).count();
     }
 
     public int outDegree(final Vertex vertex) {
-        final Iterable<Edge> itty = vertex.getEdges(Direction.OUT);
-        if (itty instanceof Collection) {
-            return ((Collection) itty).size();
-        } else {
-            int count = 0;
-            for (final Edge edge : itty) {
-                count++;
-            }
-            return count;
-        }
+        return (int) vertex.query().direction(Direction.OUT).count();
     }
 
 
     public int degree(final Vertex vertex) {
-        return this.outDegree(vertex) + this.inDegree(vertex);
+        return (int) vertex.query().count();
     }
 
     public boolean isDest(final Vertex vertex, final Edge edge) {
@@ -0,0 +1,44 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.QueryPlanner;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+
+/**
+ * Counts the relationships of a node without wrapping each of them in a Neo4jEdge.
+ */
+class Neo4jQueryStatistics extends QueryPlanner.DefaultStatistics {
+
+    public static final Neo4jQueryStatistics INSTANCE = new Neo4jQueryStatistics();
+
+    public long countEdges(final Vertex vertex, final com.tinkerpop.blueprints.Direction direction, final String... labels) {
+        final Node node = ((Neo4jVertex) vertex).getRawVertex();
+        if (direction.equals(com.tinkerpop.blueprints.Direction.OUT))
+            return countRelationships(node, Direction.OUTGOING, labels);
+        else if (direction.equals(com.tinkerpop.blueprints.Direction.IN))
+            return countRelationships(node, Direction.INCOMING, labels);
+        else
+            return countRelationships(node, Direction.OUTGOING, labels) + countRelationships(node, Direction.INCOMING, labels);
+    }
+
+    private static long countRelationships(final Node node, final Direction direction, final String... labels) {
+        final Iterable<Relationship> relationships;
+        if (labels.length > 0) {
+            final DynamicRelationshipType[] types = new DynamicRelationshipType[labels.length];
+            for (int i = 0; i < labels.length; i++) {
+                types[i] = DynamicRelationshipType.withName(labels[i]);
+            }
+            relationships = node.getRelationships(direction, types);
+        } else {
+            relationships = node.getRelationships(direction);
+        }
+        long count = 0;
+        for (final Relationship relationship : relationships) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -44,7 +44,7 @@ public class Neo4jVertex extends Neo4jElement implements Vertex {
     }
 
     public Query query() {
-        return new DefaultQuery(this);
+        return new DefaultQuery(this, Neo4jQueryStatistics.INSTANCE);
     }
 
     public boolean equals(final Object object) {
@@ -11,6 +11,7 @@ import com.tinkerpop.blueprints.Parameter;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 import com.tinkerpop.blueprints.util.StringFactory;
+import com.tinkerpop.blueprints.util.wrappers.batch.BulkEdgeGraph;
 import org.neo4j.graphdb.DynamicRelationshipType;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.PropertyContainer;
@@ -43,7 +44,7 @@ import java.util.Set;
  *
  * @author Marko A. Rodriguez (http://markorodriguez.com)
  */
-public class Neo4jBatchGraph implements KeyIndexableGraph, IndexableGraph, MetaGraph<BatchInserter> {
+public class Neo4jBatchGraph implements KeyIndexableGraph, IndexableGraph, MetaGraph<BatchInserter>, BulkEdgeGraph {
 
     private final BatchInserter rawGraph;
     private final BatchInserterIndexProvider indexProvider;
@@ -299,11 +300,19 @@ public class Neo4jBatchGraph implements KeyIndexableGraph, IndexableGraph, MetaG
      * @return the newly created vertex
      */
     public Edge addEdge(final Object id, final Vertex outVertex, final Vertex inVertex, final String label) {
+        return this.addEdge(id, outVertex, inVertex, label, id instanceof Map ? (Map<String, Object>) id : null);
+    }
+
+    /**
+     * Creates the relationship with all of its properties at once, rather than rewriting the property map of the
+     * relationship for every property that is set on the returned edge.
+     */
+    public Edge addEdge(final Object id, final Vertex outVertex, final Vertex inVertex, final String label, final Map<String, Object> properties) {
         final Map<String, Object> finalProperties;
-        if (id == null || !(id instanceof Map))
+        if (properties == null)
             finalProperties = new HashMap<String, Object>();
         else
-            finalProperties = makePropertyMap((Map<String, Object>) id);
+            finalProperties = makePropertyMap(properties);
         final Long finalId = this.rawGraph.createRelationship((Long) outVertex.getId(), (Long) inVertex.getId(), DynamicRelationshipType.withName(label), finalProperties);
 
         return new Neo4jBatchEdge(this, finalId, label);
@@ -23,11 +23,13 @@ import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 import com.tinkerpop.blueprints.util.PropertyFilteredIterable;
 import com.tinkerpop.blueprints.util.StringFactory;
+import com.tinkerpop.blueprints.util.wrappers.batch.BulkEdgeGraph;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -35,7 +37,7 @@ import java.util.Set;
  *
  * @author Luca Garulli (http://www.orientechnologies.com)
  */
-public abstract class OrientBaseGraph implements IndexableGraph, MetaGraph<OGraphDatabase>, KeyIndexableGraph {
+public abstract class OrientBaseGraph implements IndexableGraph, MetaGraph<OGraphDatabase>, KeyIndexableGraph, BulkEdgeGraph {
     /**
    * 
    */
@@ -154,6 +156,13 @@ public abstract class OrientBaseGraph implements IndexableGraph, MetaGraph<OGrap
     }
 
     public Edge addEdge(final Object id, final Vertex outVertex, final Vertex inVertex, final String label) {
+        return this.addEdge(id, outVertex, inVertex, label, null);
+    }
+
+    /**
+     * Creates the edge document with all of its properties, so that it is saved once rather than once per property.
+     */
+    public Edge addEdge(final Object id, final Vertex outVertex, final Vertex inVertex, final String label, final Map<String, Object> properties) {
         String className = null; 
         if( id != null && id instanceof String && id.toString().startsWith(CLASS_PREFIX))
           // GET THE CLASS NAME
@@ -164,6 +173,18 @@ public abstract class OrientBaseGraph implements IndexableGraph, MetaGraph<OGrap
         this.autoStartTransaction();
         final ODocument edgeDoc = db.createEdge(((OrientVertex) outVertex).getRawElement(), ((OrientVertex) inVertex).getRawElement(), className);
         final OrientEdge edge = new OrientEdge(this, edgeDoc, label);
+        if (properties != null) {
+            for (final Map.Entry<String, Object> property : properties.entrySet()) {
+                final String key = property.getKey();
+                if (key.equals(StringFactory.ID))
+                    throw ExceptionFactory.propertyKeyIdIsReserved();
+                if (key.equals(StringFactory.LABEL))
+                    throw ExceptionFactory.propertyKeyLabelIsReservedForEdges();
+                if (key.equals(StringFactory.EMPTY_STRING))
+                    throw ExceptionFactory.elementKeyCanNotBeEmpty();
+                edgeDoc.field(key, property.getValue());
+            }
+        }
 
         // SAVE THE VERTICES TO ASSURE THEY ARE IN TX
         db.save(((OrientVertex) outVertex).getRawElement());
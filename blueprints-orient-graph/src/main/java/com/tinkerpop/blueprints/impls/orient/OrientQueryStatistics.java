@@ -0,0 +1,40 @@
+package com.tinkerpop.blueprints.impls.orient;
+
+import com.orientechnologies.orient.core.db.graph.OGraphDatabase;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.QueryPlanner;
+
+/**
+ * Counts the edges of a vertex from the sizes of its edge sets without loading the edges. This is only done for
+ * Query.count() and not to estimate query plans, since the edge sets would still be loaded.
+ */
+class OrientQueryStatistics extends QueryPlanner.DefaultStatistics {
+
+    public static final OrientQueryStatistics INSTANCE = new OrientQueryStatistics();
+
+    public long countEdges(final Vertex vertex, final Direction direction, final String... labels) {
+        final OrientVertex orientVertex = (OrientVertex) vertex;
+        if (null == orientVertex.getRawVertex())
+            return 0;
+        final OGraphDatabase rawGraph = orientVertex.graph.getRawGraph();
+        final ODocument rawVertex = orientVertex.getRawVertex();
+        long count = 0;
+        if (!direction.equals(Direction.IN))
+            count = count + countEdges(rawGraph, rawVertex, true, labels);
+        if (!direction.equals(Direction.OUT))
+            count = count + countEdges(rawGraph, rawVertex, false, labels);
+        return count;
+    }
+
+    private static long countEdges(final OGraphDatabase rawGraph, final ODocument rawVertex, final boolean out, final String... labels) {
+        if (labels.length == 0)
+            return out ? rawGraph.getOutEdges(rawVertex, null).size() : rawGraph.getInEdges(rawVertex, null).size();
+        long count = 0;
+        for (final String label : labels) {
+            count = count + (out ? rawGraph.getOutEdges(rawVertex, label).size() : rawGraph.getInEdges(rawVertex, label).size());
+        }
+        return count;
+    }
+}
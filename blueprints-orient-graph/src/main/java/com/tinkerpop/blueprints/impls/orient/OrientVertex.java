@@ -90,7 +90,7 @@ public class OrientVertex extends OrientElement implements Vertex {
     }
 
     public Query query() {
-        return new DefaultQuery(this);
+        return new DefaultQuery(this, OrientQueryStatistics.INSTANCE);
     }
 
 
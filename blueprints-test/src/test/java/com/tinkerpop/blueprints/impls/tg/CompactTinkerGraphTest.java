@@ -0,0 +1,67 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests TinkerGraph with compact adjacencies using the standard test suite.
+ */
+public class CompactTinkerGraphTest extends TinkerGraphTest {
+
+    @Override
+    public Graph generateGraph(final String graphDirectoryName) {
+        return new TinkerGraph(getDirectory() + "/" + graphDirectoryName, TinkerGraph.AdjacencyType.COMPACT);
+    }
+
+    public void testAdjacencyTypeSurvivesRestart() {
+        deleteDirectory(new File(getDirectory()));
+        TinkerGraph graph = (TinkerGraph) this.generateGraph();
+        graph.addEdge(null, graph.addVertex("1"), graph.addVertex("2"), "knows");
+        graph.shutdown();
+
+        graph = new TinkerGraph(getDirectory() + "/graph");
+        assertEquals(TinkerGraph.AdjacencyType.COMPACT, graph.getAdjacencyType());
+        assertEquals(1, count(graph.getVertex("1").getEdges(Direction.OUT, "knows")));
+        assertEquals(1, count(graph.getVertex("2").getEdges(Direction.IN, "knows")));
+        graph.shutdown();
+    }
+
+    public void testRemoveEdgesCompactsAdjacency() {
+        TinkerGraph graph = new TinkerGraph(TinkerGraph.AdjacencyType.COMPACT);
+        Vertex a = graph.addVertex(null);
+        Vertex b = graph.addVertex(null);
+        List<Edge> knows = new ArrayList<Edge>();
+        for (int i = 0; i < 100; i++) {
+            knows.add(graph.addEdge(null, a, b, "knows"));
+            graph.addEdge(null, a, b, "likes");
+        }
+        Edge loop = graph.addEdge(null, a, a, "knows");
+
+        for (int i = 0; i < 90; i++) {
+            graph.removeEdge(knows.get(i));
+        }
+        assertEquals(11, count(a.getEdges(Direction.OUT, "knows")));
+        assertEquals(10, count(b.getEdges(Direction.IN, "knows")));
+        assertEquals(100, count(a.getEdges(Direction.OUT, "likes")));
+        assertEquals(111, count(a.getEdges(Direction.OUT)));
+
+        for (int i = 90; i < 100; i++) {
+            graph.removeEdge(knows.get(i));
+        }
+        assertEquals(0, count(b.getEdges(Direction.IN, "knows")));
+        assertEquals(loop, a.getEdges(Direction.OUT, "knows").iterator().next());
+        assertEquals(loop, a.getEdges(Direction.IN, "knows").iterator().next());
+
+        graph.removeEdge(loop);
+        assertEquals(0, count(a.getEdges(Direction.BOTH, "knows")));
+        graph.addEdge(null, a, b, "knows");
+        assertEquals(1, count(a.getEdges(Direction.OUT, "knows")));
+        assertEquals(202, count(a.getEdges(Direction.OUT)) + count(b.getEdges(Direction.IN)));
+    }
+}
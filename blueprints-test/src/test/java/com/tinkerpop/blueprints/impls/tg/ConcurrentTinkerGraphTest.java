@@ -0,0 +1,159 @@
+package com.tinkerpop.blueprints.impls.tg;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.EdgeTestSuite;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.GraphTestSuite;
+import com.tinkerpop.blueprints.IndexTestSuite;
+import com.tinkerpop.blueprints.IndexableGraphTestSuite;
+import com.tinkerpop.blueprints.KeyIndexableGraphTestSuite;
+import com.tinkerpop.blueprints.TestSuite;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.VertexTestSuite;
+import com.tinkerpop.blueprints.impls.GraphTest;
+import com.tinkerpop.blueprints.util.io.gml.GMLReaderTestSuite;
+import com.tinkerpop.blueprints.util.io.graphml.GraphMLReaderTestSuite;
+import com.tinkerpop.blueprints.util.io.graphson.GraphSONReaderTestSuite;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests ConcurrentTinkerGraph using the standard test suite and concurrent mutations.
+ */
+public class ConcurrentTinkerGraphTest extends GraphTest {
+
+    public void testGraphTestSuite() throws Exception {
+        this.stopWatch();
+        doTestSuite(new GraphTestSuite(this));
+        printTestPerformance("GraphTestSuite", this.stopWatch());
+    }
+
+    public void testVertexTestSuite() throws Exception {
+        this.stopWatch();
+        doTestSuite(new VertexTestSuite(this));
+        printTestPerformance("VertexTestSuite", this.stopWatch());
+    }
+
+    public void testEdgeTestSuite() throws Exception {
+        this.stopWatch();
+        doTestSuite(new EdgeTestSuite(this));
+        printTestPerformance("EdgeTestSuite", this.stopWatch());
+    }
+
+    public void testKeyIndexableGraphTestSuite() throws Exception {
+        this.stopWatch();
+        doTestSuite(new KeyIndexableGraphTestSuite(this));
+        printTestPerformance("KeyIndexableGraphTestSuite", this.stopWatch());
+    }
+
+    public void testIndexableGraphTestSuite() throws Exception {
+        this.stopWatch();
+        doTestSuite(new IndexableGraphTestSuite(this));
+        printTestPerformance("IndexableGraphTestSuite", this.stopWatch());
+    }
+
+    public void testIndexTestSuite() throws Exception {
+        this.stopWatch();
+        doTestSuite(new IndexTestSuite(this));
+        printTestPerformance("IndexTestSuite", this.stopWatch());
+    }
+
+    public void testGraphMLReaderTestSuite() throws Exception {
+        this.stopWatch();
+        doTestSuite(new GraphMLReaderTestSuite(this));
+        printTestPerformance("GraphMLReaderTestSuite", this.stopWatch());
+    }
+
+    public void testGraphSONReaderTestSuite() throws Exception {
+        this.stopWatch();
+        doTestSuite(new GraphSONReaderTestSuite(this));
+        printTestPerformance("GraphSONReaderTestSuite", this.stopWatch());
+    }
+
+    public void testGMLReaderTestSuite() throws Exception {
+        this.stopWatch();
+        doTestSuite(new GMLReaderTestSuite(this));
+        printTestPerformance("GMLReaderTestSuite", this.stopWatch());
+    }
+
+    @Override
+    public Graph generateGraph() {
+        return new ConcurrentTinkerGraph();
+    }
+
+    @Override
+    public Graph generateGraph(final String graphDirectoryName) {
+        return this.generateGraph();
+    }
+
+    @Override
+    public void doTestSuite(final TestSuite testSuite) throws Exception {
+        for (Method method : testSuite.getClass().getDeclaredMethods()) {
+            if (method.getName().startsWith("test")) {
+                System.out.println("Testing " + method.getName() + "...");
+                method.invoke(testSuite);
+            }
+        }
+    }
+
+    public void testNullPropertyValuesAreNotSupported() {
+        final ConcurrentTinkerGraph graph = new ConcurrentTinkerGraph();
+        try {
+            graph.addVertex(null).setProperty("name", null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+    }
+
+    public void testConcurrentMutations() throws Exception {
+        for (final TinkerGraph.AdjacencyType adjacencyType : TinkerGraph.AdjacencyType.values()) {
+            final ConcurrentTinkerGraph graph = new ConcurrentTinkerGraph(adjacencyType);
+            graph.createKeyIndex("thread", Vertex.class);
+            final Vertex hub = graph.addVertex("hub");
+            final int threads = 8;
+            final int verticesPerThread = 1000;
+            final AtomicInteger failures = new AtomicInteger(0);
+
+            final List<Thread> workers = new ArrayList<Thread>();
+            for (int i = 0; i < threads; i++) {
+                final int thread = i;
+                workers.add(new Thread() {
+                    public void run() {
+                        try {
+                            for (int j = 0; j < verticesPerThread; j++) {
+                                final Vertex vertex = graph.addVertex(null);
+                                vertex.setProperty("thread", thread);
+                                graph.addEdge(null, hub, vertex, "knows");
+                                graph.addEdge(null, vertex, hub, "knows");
+                                if (j % 2 == 0)
+                                    graph.removeEdge(vertex.getEdges(Direction.OUT).iterator().next());
+                                count(hub.getEdges(Direction.OUT, "knows"));
+                            }
+                        } catch (Throwable t) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (final Thread worker : workers) {
+                worker.start();
+            }
+            for (final Thread worker : workers) {
+                worker.join();
+            }
+
+            assertEquals(0, failures.get());
+            assertEquals(threads * verticesPerThread + 1, count(graph.getVertices()));
+            assertEquals(threads * verticesPerThread, count(hub.getEdges(Direction.OUT, "knows")));
+            assertEquals(threads * verticesPerThread / 2, count(hub.getEdges(Direction.IN, "knows")));
+            assertEquals(threads * verticesPerThread * 3 / 2, count(graph.getEdges()));
+            for (int i = 0; i < threads; i++) {
+                assertEquals(verticesPerThread, count(graph.getVertices("thread", i)));
+            }
+        }
+    }
+}
@@ -4,10 +4,48 @@ import com.tinkerpop.blueprints.BaseTest;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Index;
 import com.tinkerpop.blueprints.TestSuite;
+import com.tinkerpop.blueprints.TransactionalGraph;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.impls.GraphTest;
+import com.tinkerpop.blueprints.util.io.gml.GMLReader;
+import com.tinkerpop.blueprints.util.io.gml.GMLTokenizer;
+import com.tinkerpop.blueprints.util.io.gml.GMLTokens;
 import com.tinkerpop.blueprints.util.io.graphml.GraphMLReader;
+import com.tinkerpop.blueprints.util.io.graphml.GraphMLTokens;
+import com.tinkerpop.blueprints.util.io.graphson.GraphElementFactory;
+import com.tinkerpop.blueprints.util.io.graphson.GraphSONElementWriter;
+import com.tinkerpop.blueprints.util.io.graphson.GraphSONMode;
+import com.tinkerpop.blueprints.util.io.graphson.GraphSONReader;
+import com.tinkerpop.blueprints.util.io.graphson.GraphSONTokens;
+import com.tinkerpop.blueprints.util.io.graphson.GraphSONUtility;
+import com.tinkerpop.blueprints.util.wrappers.batch.BatchGraph;
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.MappingJsonFactory;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StreamTokenizer;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
 
 /**
  * @author Marko A. Rodriguez (http://markorodriguez.com)
@@ -15,6 +53,23 @@ import com.tinkerpop.blueprints.util.io.graphml.GraphMLReader;
 public class TinkerBenchmarkTestSuite extends TestSuite {
 
     private static final int TOTAL_RUNS = 10;
+    private static final int MEMORY_VERTICES = 100000;
+    private static final int MEMORY_EDGES_PER_VERTEX = 10;
+    private static final int CONCURRENT_VERTICES = 10000;
+    private static final int CONCURRENT_OPERATIONS = 200000;
+    private static final int TIMESTAMPED_VERTICES = 1000000;
+    private static final int TIME_WINDOWS = 100;
+    private static final int INDEXED_VERTICES = 5000000;
+    private static final double REMOVED_RATIO = 0.1d;
+    private static final int BATCH_VERTICES = 2000000;
+    private static final int BATCH_BUFFER_SIZE = 100000;
+    private static final int GRAPHSON_VERTICES = 2000000;
+    private static final int GRAPHSON_EDGES_PER_VERTEX = 4;
+    private static final int GRAPHSON_WRITTEN_VERTICES = 500000;
+    private static final int GRAPHML_VERTICES = 2000000;
+    private static final int GRAPHML_EDGES_PER_VERTEX = 4;
+    private static final int GML_VERTICES = 2000000;
+    private static final int GML_EDGES_PER_VERTEX = 4;
 
     public TinkerBenchmarkTestSuite() {
     }
@@ -57,4 +112,438 @@ public class TinkerBenchmarkTestSuite extends TestSuite {
         BaseTest.printPerformance("TinkerGraph", 1, "TinkerGraph experiment average", totalTime / (double) TOTAL_RUNS);
     }
 
+    public void testTinkerGraphAdjacencyMemory() throws Exception {
+        for (final TinkerGraph.AdjacencyType adjacencyType : TinkerGraph.AdjacencyType.values()) {
+            final long before = usedMemory();
+            this.stopWatch();
+            TinkerGraph graph = new TinkerGraph(adjacencyType);
+            final Vertex[] vertices = new Vertex[MEMORY_VERTICES];
+            for (int i = 0; i < MEMORY_VERTICES; i++) {
+                vertices[i] = graph.addVertex(null);
+            }
+            for (int i = 0; i < MEMORY_VERTICES; i++) {
+                for (int j = 1; j <= MEMORY_EDGES_PER_VERTEX; j++) {
+                    graph.addEdge(null, vertices[i], vertices[(i + j) % MEMORY_VERTICES], j % 2 == 0 ? "knows" : "likes");
+                }
+            }
+            BaseTest.printPerformance(graph.toString(), MEMORY_VERTICES * (MEMORY_EDGES_PER_VERTEX + 1), adjacencyType + " elements added", this.stopWatch());
+            final long after = usedMemory();
+            System.out.println("\t" + adjacencyType + " adjacency: " + ((after - before) / (MEMORY_VERTICES * MEMORY_EDGES_PER_VERTEX)) + " bytes per edge");
+            assertEquals(MEMORY_EDGES_PER_VERTEX, count(vertices[0].getEdges(Direction.OUT)));
+            graph.shutdown();
+        }
+    }
+
+    public void testConcurrentTinkerGraphThroughput() throws Exception {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        for (final double readRatio : new double[]{0.5d, 0.9d, 0.99d}) {
+            for (int threads = 1; threads <= processors; threads = threads * 2) {
+                final ConcurrentTinkerGraph graph = new ConcurrentTinkerGraph();
+                graph.createKeyIndex("name", Vertex.class);
+                final Vertex[] vertices = new Vertex[CONCURRENT_VERTICES];
+                for (int i = 0; i < CONCURRENT_VERTICES; i++) {
+                    vertices[i] = graph.addVertex(null);
+                    vertices[i].setProperty("name", "v" + i);
+                }
+                for (int i = 0; i < CONCURRENT_VERTICES; i++) {
+                    graph.addEdge(null, vertices[i], vertices[(i + 1) % CONCURRENT_VERTICES], "knows");
+                }
+
+                final int operationsPerThread = CONCURRENT_OPERATIONS / threads;
+                final Thread[] workers = new Thread[threads];
+                for (int t = 0; t < threads; t++) {
+                    final Random random = new Random(t);
+                    workers[t] = new Thread() {
+                        public void run() {
+                            for (int i = 0; i < operationsPerThread; i++) {
+                                final Vertex vertex = vertices[random.nextInt(CONCURRENT_VERTICES)];
+                                if (random.nextDouble() < readRatio) {
+                                    for (final Edge edge : vertex.getEdges(Direction.OUT)) {
+                                        edge.getVertex(Direction.IN).getProperty("name");
+                                    }
+                                    graph.getVertices("name", vertex.getProperty("name")).iterator().next();
+                                } else {
+                                    graph.addEdge(null, vertex, vertices[random.nextInt(CONCURRENT_VERTICES)], "likes").setProperty("weight", i);
+                                }
+                            }
+                        }
+                    };
+                }
+                this.stopWatch();
+                for (final Thread worker : workers) {
+                    worker.start();
+                }
+                for (final Thread worker : workers) {
+                    worker.join();
+                }
+                BaseTest.printPerformance(graph.toString(), operationsPerThread * threads, "operations with " + threads + " threads and read ratio " + readRatio, this.stopWatch());
+                graph.shutdown();
+            }
+        }
+    }
+
+    public void testOrderedKeyIndexTimeWindows() throws Exception {
+        for (final boolean ordered : new boolean[]{false, true}) {
+            final TinkerGraph graph = new TinkerGraph();
+            if (ordered)
+                graph.createKeyIndex("timestamp", Vertex.class, TinkerGraph.ORDERED_KEY_INDEX);
+            final Random random = new Random(0);
+            for (int i = 0; i < TIMESTAMPED_VERTICES; i++) {
+                graph.addVertex(null).setProperty("timestamp", (long) random.nextInt(TIMESTAMPED_VERTICES));
+            }
+
+            this.stopWatch();
+            long counter = 0;
+            for (int i = 0; i < TIME_WINDOWS; i++) {
+                final long start = random.nextInt(TIMESTAMPED_VERTICES);
+                counter = counter + count(graph.getVerticesInInterval("timestamp", start, start + 1000));
+            }
+            BaseTest.printPerformance(graph.toString(), TIME_WINDOWS, "time windows of " + counter + " vertices " + (ordered ? "with" : "without") + " ordered key index", this.stopWatch());
+            graph.shutdown();
+        }
+    }
+
+    public void testIndexedVertexRemoval() throws Exception {
+        final TinkerGraph graph = new TinkerGraph();
+        graph.createKeyIndex("name", Vertex.class);
+        final Index<Vertex> index = graph.createIndex("vertices", Vertex.class);
+        final Vertex[] vertices = new Vertex[INDEXED_VERTICES];
+        for (int i = 0; i < INDEXED_VERTICES; i++) {
+            vertices[i] = graph.addVertex(null);
+            vertices[i].setProperty("name", "v" + i);
+            index.put("name", "v" + i, vertices[i]);
+            index.put("group", i % 1000, vertices[i]);
+        }
+
+        final int removals = (int) (INDEXED_VERTICES * REMOVED_RATIO);
+        this.stopWatch();
+        for (int i = 0; i < removals; i++) {
+            graph.removeVertex(vertices[i * (int) (1 / REMOVED_RATIO)]);
+        }
+        BaseTest.printPerformance(graph.toString(), removals, "indexed vertices removed", this.stopWatch());
+        assertEquals(0, count(graph.getVertices("name", "v0")));
+        assertEquals(0, count(index.get("name", "v0")));
+        assertEquals(1, count(index.get("name", "v1")));
+        graph.shutdown();
+    }
+
+    public void testBatchGraphCommitLatency() throws Exception {
+        for (final BatchGraph.IdType type : new BatchGraph.IdType[]{BatchGraph.IdType.NUMBER, BatchGraph.IdType.STRING, BatchGraph.IdType.OBJECT}) {
+            final TinkerGraph graph = new TinkerGraph();
+            final BatchGraph<MockTransactionalGraph> batchGraph = new BatchGraph<MockTransactionalGraph>(new MockTransactionalGraph(graph), type, BATCH_BUFFER_SIZE);
+            this.stopWatch();
+            for (int i = 0; i < BATCH_VERTICES; i++) {
+                final Object id = BatchGraph.IdType.NUMBER.equals(type) ? (Object) (long) i : (Object) ("v" + i);
+                if (i > 0 && i % BATCH_BUFFER_SIZE == 0) {
+                    // the buffer is full, so this vertex commits the transaction and the vertex cache first
+                    final long start = System.nanoTime();
+                    batchGraph.addVertex(id);
+                    if (i % (BATCH_VERTICES / 4) == 0 || i == BATCH_BUFFER_SIZE)
+                        BaseTest.printPerformance(type + " cache", i, "vertices cached when committing", (System.nanoTime() - start) / 1000000.0d);
+                } else {
+                    batchGraph.addVertex(id);
+                }
+            }
+            batchGraph.stopTransaction(TransactionalGraph.Conclusion.SUCCESS);
+            BaseTest.printPerformance(graph.toString(), BATCH_VERTICES, "vertices loaded with " + type + " cache", this.stopWatch());
+            graph.shutdown();
+        }
+    }
+
+    public void testGraphSONStreamingReader() throws Exception {
+        final JsonFactory jsonFactory = new MappingJsonFactory();
+        final File file = File.createTempFile("graphson", ".json");
+        file.deleteOnExit();
+        final Random random = new Random(0);
+        final JsonGenerator jg = jsonFactory.createJsonGenerator(file, JsonEncoding.UTF8);
+        jg.writeStartObject();
+        jg.writeStringField(GraphSONTokens.MODE, GraphSONMode.NORMAL.toString());
+        jg.writeArrayFieldStart(GraphSONTokens.VERTICES);
+        for (int i = 0; i < GRAPHSON_VERTICES; i++) {
+            jg.writeStartObject();
+            jg.writeStringField("name", "v" + i);
+            jg.writeNumberField("age", random.nextInt(100));
+            jg.writeNumberField(GraphSONTokens._ID, i);
+            jg.writeStringField(GraphSONTokens._TYPE, GraphSONTokens.VERTEX);
+            jg.writeEndObject();
+        }
+        jg.writeEndArray();
+        jg.writeArrayFieldStart(GraphSONTokens.EDGES);
+        for (int i = 0; i < GRAPHSON_VERTICES * GRAPHSON_EDGES_PER_VERTEX; i++) {
+            jg.writeStartObject();
+            jg.writeNumberField("weight", random.nextDouble());
+            jg.writeNumberField(GraphSONTokens._ID, i);
+            jg.writeStringField(GraphSONTokens._TYPE, GraphSONTokens.EDGE);
+            jg.writeNumberField(GraphSONTokens._OUT_V, i / GRAPHSON_EDGES_PER_VERTEX);
+            jg.writeNumberField(GraphSONTokens._IN_V, random.nextInt(GRAPHSON_VERTICES));
+            jg.writeStringField(GraphSONTokens._LABEL, "knows");
+            jg.writeEndObject();
+        }
+        jg.writeEndArray();
+        jg.writeEndObject();
+        jg.close();
+        final int elements = GRAPHSON_VERTICES * (GRAPHSON_EDGES_PER_VERTEX + 1);
+
+        for (int i = 0; i < 2; i++) {
+            TinkerGraph graph = new TinkerGraph();
+            InputStream in = new BufferedInputStream(new FileInputStream(file));
+            this.stopWatch();
+            inputGraphAsTrees(jsonFactory, graph, in);
+            BaseTest.printPerformance(graph.toString(), elements, "GraphSON elements read as trees", this.stopWatch());
+            in.close();
+            graph.shutdown();
+
+            graph = new TinkerGraph();
+            in = new BufferedInputStream(new FileInputStream(file));
+            this.stopWatch();
+            GraphSONReader.inputGraph(graph, in);
+            BaseTest.printPerformance(graph.toString(), elements, "GraphSON elements read from tokens", this.stopWatch());
+            in.close();
+            assertEquals(GRAPHSON_VERTICES, count(graph.getVertices()));
+            graph.shutdown();
+        }
+        file.delete();
+    }
+
+    /**
+     * Reads GraphSON by materializing every element as a tree, which is what GraphSONReader did before it read
+     * elements from the tokens of the parser.
+     */
+    private static void inputGraphAsTrees(final JsonFactory jsonFactory, final Graph inputGraph, final InputStream in) throws Exception {
+        final BatchGraph graph = BatchGraph.wrap(inputGraph, 1000);
+        final JsonParser jp = jsonFactory.createJsonParser(in);
+        final GraphSONUtility graphson = new GraphSONUtility(GraphSONMode.NORMAL, new GraphElementFactory(graph));
+        while (jp.nextToken() != JsonToken.END_OBJECT) {
+            final String fieldname = jp.getCurrentName() == null ? "" : jp.getCurrentName();
+            if (fieldname.equals(GraphSONTokens.MODE)) {
+                jp.nextToken();
+            } else if (fieldname.equals(GraphSONTokens.VERTICES)) {
+                jp.nextToken();
+                while (jp.nextToken() != JsonToken.END_ARRAY) {
+                    graphson.vertexFromJson(jp.readValueAsTree());
+                }
+            } else if (fieldname.equals(GraphSONTokens.EDGES)) {
+                jp.nextToken();
+                while (jp.nextToken() != JsonToken.END_ARRAY) {
+                    final JsonNode node = jp.readValueAsTree();
+                    final Vertex inV = graph.getVertex(GraphSONUtility.getTypedValueFromJsonNode(node.get(GraphSONTokens._IN_V)));
+                    final Vertex outV = graph.getVertex(GraphSONUtility.getTypedValueFromJsonNode(node.get(GraphSONTokens._OUT_V)));
+                    graphson.edgeFromJson(node, outV, inV);
+                }
+            }
+        }
+        jp.close();
+        graph.stopTransaction(TransactionalGraph.Conclusion.SUCCESS);
+    }
+
+    public void testGraphSONStreamingWriter() throws Exception {
+        final JsonFactory jsonFactory = new MappingJsonFactory();
+        final TinkerGraph graph = new TinkerGraph();
+        final Random random = new Random(0);
+        final Vertex[] vertices = new Vertex[GRAPHSON_WRITTEN_VERTICES];
+        for (int i = 0; i < GRAPHSON_WRITTEN_VERTICES; i++) {
+            vertices[i] = graph.addVertex(null);
+            vertices[i].setProperty("name", "v" + i);
+            vertices[i].setProperty("age", random.nextInt(100));
+        }
+        for (int i = 0; i < GRAPHSON_WRITTEN_VERTICES * GRAPHSON_EDGES_PER_VERTEX; i++) {
+            graph.addEdge(null, vertices[i / GRAPHSON_EDGES_PER_VERTEX], vertices[random.nextInt(GRAPHSON_WRITTEN_VERTICES)], "knows").setProperty("weight", random.nextFloat());
+        }
+        final int elements = GRAPHSON_WRITTEN_VERTICES * (GRAPHSON_EDGES_PER_VERTEX + 1);
+        final OutputStream nowhere = new OutputStream() {
+            public void write(final int b) {
+            }
+
+            public void write(final byte[] b, final int off, final int len) {
+            }
+        };
+
+        for (final GraphSONMode mode : new GraphSONMode[]{GraphSONMode.NORMAL, GraphSONMode.EXTENDED}) {
+            for (int i = 0; i < 2; i++) {
+                final GraphSONUtility graphson = new GraphSONUtility(mode, null);
+                JsonGenerator jg = jsonFactory.createJsonGenerator(nowhere);
+                long allocated = allocatedBytes();
+                this.stopWatch();
+                jg.writeStartArray();
+                for (final Vertex vertex : graph.getVertices()) {
+                    jg.writeTree(graphson.objectNodeFromElement(vertex));
+                }
+                for (final Edge edge : graph.getEdges()) {
+                    jg.writeTree(graphson.objectNodeFromElement(edge));
+                }
+                jg.writeEndArray();
+                jg.flush();
+                BaseTest.printPerformance(graph.toString(), elements, mode + " GraphSON elements written as trees", this.stopWatch());
+                System.out.println("\t" + ((allocatedBytes() - allocated) / elements) + " bytes allocated per element");
+
+                final GraphSONElementWriter writer = new GraphSONElementWriter(mode);
+                jg = jsonFactory.createJsonGenerator(nowhere);
+                allocated = allocatedBytes();
+                this.stopWatch();
+                jg.writeStartArray();
+                for (final Vertex vertex : graph.getVertices()) {
+                    writer.writeElement(jg, vertex);
+                }
+                for (final Edge edge : graph.getEdges()) {
+                    writer.writeElement(jg, edge);
+                }
+                jg.writeEndArray();
+                jg.flush();
+                BaseTest.printPerformance(graph.toString(), elements, mode + " GraphSON elements written to the generator", this.stopWatch());
+                System.out.println("\t" + ((allocatedBytes() - allocated) / elements) + " bytes allocated per element");
+            }
+        }
+        graph.shutdown();
+    }
+
+    public void testGraphMLReader() throws Exception {
+        final File file = File.createTempFile("graphml", ".xml");
+        file.deleteOnExit();
+        final Random random = new Random(0);
+        final OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        final XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF8");
+        writer.writeStartDocument();
+        writer.writeStartElement(GraphMLTokens.GRAPHML);
+        writer.writeAttribute(GraphMLTokens.XMLNS, GraphMLTokens.GRAPHML_XMLNS);
+        writeGraphMLKey(writer, "name", GraphMLTokens.NODE, GraphMLTokens.STRING);
+        writeGraphMLKey(writer, "age", GraphMLTokens.NODE, GraphMLTokens.INT);
+        writeGraphMLKey(writer, "city", GraphMLTokens.NODE, GraphMLTokens.STRING);
+        writeGraphMLKey(writer, "weight", GraphMLTokens.EDGE, GraphMLTokens.DOUBLE);
+        writeGraphMLKey(writer, "since", GraphMLTokens.EDGE, GraphMLTokens.LONG);
+        writer.writeStartElement(GraphMLTokens.GRAPH);
+        writer.writeAttribute(GraphMLTokens.ID, GraphMLTokens.G);
+        writer.writeAttribute(GraphMLTokens.EDGEDEFAULT, GraphMLTokens.DIRECTED);
+        for (int i = 0; i < GRAPHML_VERTICES; i++) {
+            writer.writeStartElement(GraphMLTokens.NODE);
+            writer.writeAttribute(GraphMLTokens.ID, String.valueOf(i));
+            writeGraphMLData(writer, "name", "v" + i);
+            writeGraphMLData(writer, "age", String.valueOf(random.nextInt(100)));
+            writeGraphMLData(writer, "city", "city" + random.nextInt(1000));
+            writer.writeEndElement();
+        }
+        for (int i = 0; i < GRAPHML_VERTICES * GRAPHML_EDGES_PER_VERTEX; i++) {
+            writer.writeStartElement(GraphMLTokens.EDGE);
+            writer.writeAttribute(GraphMLTokens.ID, String.valueOf(i));
+            writer.writeAttribute(GraphMLTokens.SOURCE, String.valueOf(i / GRAPHML_EDGES_PER_VERTEX));
+            writer.writeAttribute(GraphMLTokens.TARGET, String.valueOf(random.nextInt(GRAPHML_VERTICES)));
+            writer.writeAttribute(GraphMLTokens.LABEL, "knows");
+            writeGraphMLData(writer, "weight", String.valueOf(random.nextDouble()));
+            writeGraphMLData(writer, "since", String.valueOf(random.nextLong()));
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+        out.close();
+        final int elements = GRAPHML_VERTICES * (GRAPHML_EDGES_PER_VERTEX + 1);
+        System.out.println("\tGraphML file of " + (file.length() >> 20) + " MB");
+
+        for (int i = 0; i < 2; i++) {
+            final TinkerGraph graph = new TinkerGraph();
+            final InputStream in = new BufferedInputStream(new FileInputStream(file));
+            final long allocated = allocatedBytes();
+            this.stopWatch();
+            GraphMLReader.inputGraph(graph, in);
+            BaseTest.printPerformance(graph.toString(), elements, "GraphML elements read", this.stopWatch());
+            System.out.println("\t" + ((allocatedBytes() - allocated) / elements) + " bytes allocated per element");
+            in.close();
+            assertEquals(GRAPHML_VERTICES, count(graph.getVertices()));
+            graph.shutdown();
+        }
+        file.delete();
+    }
+
+    public void testGMLTokenizer() throws Exception {
+        final File file = File.createTempFile("gml", ".gml");
+        file.deleteOnExit();
+        final Random random = new Random(0);
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "ISO-8859-1"));
+        writer.write("graph [\n\tdirected 1\n");
+        for (int i = 0; i < GML_VERTICES; i++) {
+            writer.write("\tnode [\n\t\tid " + i + "\n\t\tname \"v" + i + "\"\n\t\tage " + random.nextInt(100)
+                    + "\n\t\tcreated " + (1000000000000L + random.nextInt()) + "\n\t]\n");
+        }
+        for (int i = 0; i < GML_VERTICES * GML_EDGES_PER_VERTEX; i++) {
+            writer.write("\tedge [\n\t\tsource " + (i / GML_EDGES_PER_VERTEX) + "\n\t\ttarget " + random.nextInt(GML_VERTICES)
+                    + "\n\t\tlabel \"knows\"\n\t\tweight " + random.nextFloat() + "\n\t]\n");
+        }
+        writer.write("]\n");
+        writer.close();
+        final int elements = GML_VERTICES * (GML_EDGES_PER_VERTEX + 1);
+        System.out.println("\tGML file of " + (file.length() >> 20) + " MB");
+
+        for (int i = 0; i < 2; i++) {
+            InputStream in = new FileInputStream(file);
+            final StreamTokenizer streamTokenizer = new StreamTokenizer(new BufferedReader(new InputStreamReader(in, "ISO-8859-1")));
+            streamTokenizer.commentChar(GMLTokens.COMMENT_CHAR);
+            streamTokenizer.ordinaryChar('[');
+            streamTokenizer.ordinaryChar(']');
+            final String stringCharacters = "/\\(){}<>!$%^&*-+=,.?:;@_`|~";
+            for (int j = 0; j < stringCharacters.length(); j++) {
+                streamTokenizer.wordChars(stringCharacters.charAt(j), stringCharacters.charAt(j));
+            }
+            long allocated = allocatedBytes();
+            this.stopWatch();
+            int tokens = 0;
+            while (streamTokenizer.nextToken() != StreamTokenizer.TT_EOF) {
+                tokens++;
+            }
+            BaseTest.printPerformance("StreamTokenizer", tokens, "GML tokens read", this.stopWatch());
+            System.out.println("\t" + ((allocatedBytes() - allocated) / tokens) + " bytes allocated per token");
+            in.close();
+
+            in = new FileInputStream(file);
+            final GMLTokenizer gmlTokenizer = new GMLTokenizer(in);
+            allocated = allocatedBytes();
+            this.stopWatch();
+            tokens = 0;
+            while (gmlTokenizer.nextToken() != GMLTokenizer.TT_EOF) {
+                tokens++;
+            }
+            BaseTest.printPerformance("GMLTokenizer", tokens, "GML tokens read", this.stopWatch());
+            System.out.println("\t" + ((allocatedBytes() - allocated) / tokens) + " bytes allocated per token");
+            in.close();
+
+            final TinkerGraph graph = new TinkerGraph();
+            in = new FileInputStream(file);
+            this.stopWatch();
+            GMLReader.inputGraph(graph, in);
+            BaseTest.printPerformance(graph.toString(), elements, "GML elements read", this.stopWatch());
+            in.close();
+            assertEquals(GML_VERTICES, count(graph.getVertices()));
+            graph.shutdown();
+        }
+        file.delete();
+    }
+
+    private static void writeGraphMLKey(final XMLStreamWriter writer, final String key, final String elementType,
+                                        final String type) throws Exception {
+        writer.writeStartElement(GraphMLTokens.KEY);
+        writer.writeAttribute(GraphMLTokens.ID, key);
+        writer.writeAttribute(GraphMLTokens.FOR, elementType);
+        writer.writeAttribute(GraphMLTokens.ATTR_NAME, key);
+        writer.writeAttribute(GraphMLTokens.ATTR_TYPE, type);
+        writer.writeEndElement();
+    }
+
+    private static void writeGraphMLData(final XMLStreamWriter writer, final String key, final String value) throws Exception {
+        writer.writeStartElement(GraphMLTokens.DATA);
+        writer.writeAttribute(GraphMLTokens.KEY, key);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
 }
@@ -1,12 +1,15 @@
 package com.tinkerpop.blueprints.impls.tg;
 
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.EdgeTestSuite;
 import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Index;
 import com.tinkerpop.blueprints.GraphTestSuite;
 import com.tinkerpop.blueprints.IndexTestSuite;
 import com.tinkerpop.blueprints.IndexableGraphTestSuite;
 import com.tinkerpop.blueprints.KeyIndexableGraphTestSuite;
+import com.tinkerpop.blueprints.Query;
 import com.tinkerpop.blueprints.TestSuite;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.VertexTestSuite;
@@ -15,8 +18,19 @@ import com.tinkerpop.blueprints.util.io.gml.GMLReaderTestSuite;
 import com.tinkerpop.blueprints.util.io.graphml.GraphMLReaderTestSuite;
 import com.tinkerpop.blueprints.util.io.graphson.GraphSONReaderTestSuite;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -171,4 +185,480 @@ public class TinkerGraphTest extends GraphTest {
         }
         printPerformance(graph.toString(), iterations, "iterations of shutdown and restart", this.stopWatch());
     }
+
+    public void testEdgeIterablesAreSnapshots() {
+        deleteDirectory(new File(getDirectory()));
+        TinkerGraph graph = (TinkerGraph) this.generateGraph();
+        Vertex a = graph.addVertex(null);
+        Vertex b = graph.addVertex(null);
+        List<Edge> added = new ArrayList<Edge>();
+        for (int i = 0; i < 10; i++) {
+            added.add(graph.addEdge(null, a, b, "knows"));
+        }
+        graph.addEdge(null, a, b, "likes");
+
+        Iterable<Edge> knows = a.getEdges(Direction.OUT, "knows");
+        Iterable<Edge> all = a.getEdges(Direction.OUT);
+        graph.addEdge(null, a, b, "knows");
+        graph.removeEdge(added.get(0));
+        assertEquals(10, count(knows));
+        assertEquals(11, count(all));
+        assertEquals(10, count(a.getEdges(Direction.OUT, "knows")));
+
+        int counter = 0;
+        for (Edge edge : a.getEdges(Direction.OUT, "knows")) {
+            graph.removeEdge(edge);
+            graph.addEdge(null, a, b, "knows");
+            counter++;
+        }
+        assertEquals(10, counter);
+        assertEquals(10, count(a.getEdges(Direction.OUT, "knows")));
+        assertEquals(10, count(b.getEdges(Direction.IN, "knows")));
+
+        try {
+            Iterator<Edge> itty = a.getEdges(Direction.OUT, "knows").iterator();
+            itty.next();
+            itty.remove();
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertTrue(true);
+        }
+
+        graph.removeVertex(a);
+        assertEquals(0, count(b.getEdges(Direction.IN)));
+        assertEquals(0, count(graph.getEdges()));
+        graph.shutdown();
+    }
+
+    public void testSnapshotPreservesTypesAndIndices() {
+        deleteDirectory(new File(getDirectory()));
+        TinkerGraph graph = (TinkerGraph) this.generateGraph();
+        graph.createKeyIndex("name", Vertex.class);
+        Index<Vertex> index = graph.createIndex("people", Vertex.class);
+        Vertex a = graph.addVertex(null);
+        a.setProperty("name", "marko");
+        a.setProperty("age", 29);
+        a.setProperty("born", 1982l);
+        a.setProperty("languages", Arrays.asList("java", "groovy"));
+        Vertex b = graph.addVertex("peter");
+        Object bId = b.getId();
+        b.setProperty("weight", 0.5d);
+        b.setProperty("active", true);
+        Edge edge = graph.addEdge(null, a, b, "knows");
+        edge.setProperty("weight", 0.4f);
+        index.put("name", "marko", a);
+        graph.shutdown();
+
+        graph = (TinkerGraph) this.generateGraph();
+        a = graph.getVertices("name", "marko").iterator().next();
+        assertEquals(29, a.getProperty("age"));
+        assertEquals(1982l, a.getProperty("born"));
+        assertEquals(Arrays.asList("java", "groovy"), a.getProperty("languages"));
+        b = graph.getVertex(bId);
+        assertEquals(0.5d, b.getProperty("weight"));
+        assertEquals(true, b.getProperty("active"));
+        edge = a.getEdges(Direction.OUT, "knows").iterator().next();
+        assertEquals(b, edge.getVertex(Direction.IN));
+        assertEquals(0.4f, edge.getProperty("weight"));
+        assertEquals(1, count(b.getEdges(Direction.IN, "knows")));
+        assertEquals(a, graph.getIndex("people", Vertex.class).get("name", "marko").iterator().next());
+        assertFalse(a.getId().equals(graph.addVertex(null).getId()));
+        graph.shutdown();
+    }
+
+    public void testMutationLogReplayAfterCrash() throws Exception {
+        deleteDirectory(new File(getDirectory()));
+        String directory = getDirectory() + "/graph";
+        TinkerGraph graph = new TinkerGraph(directory, TinkerGraph.AdjacencyType.HASH, 0, 0);
+        Index<Vertex> index = graph.createIndex("people", Vertex.class);
+        Vertex a = graph.addVertex("a");
+        a.setProperty("name", "marko");
+        Vertex b = graph.addVertex("b");
+        b.setProperty("name", "peter");
+        b.setProperty("age", 35);
+        b.removeProperty("age");
+        Edge edge = graph.addEdge("e", a, b, "knows");
+        edge.setProperty("weight", 0.5d);
+        graph.removeVertex(graph.addVertex("c"));
+        index.put("name", "marko", a);
+
+        // reopen without shutting down as if the process had crashed
+        graph = new TinkerGraph(directory, TinkerGraph.AdjacencyType.HASH, 0, 0);
+        assertEquals(2, count(graph.getVertices()));
+        assertEquals("peter", graph.getVertex("b").getProperty("name"));
+        assertNull(graph.getVertex("b").getProperty("age"));
+        assertNull(graph.getVertex("c"));
+        assertEquals(0.5d, graph.getEdge("e").getProperty("weight"));
+        assertEquals(graph.getVertex("b"), graph.getVertex("a").getEdges(Direction.OUT, "knows").iterator().next().getVertex(Direction.IN));
+        assertEquals(graph.getVertex("a"), graph.getIndex("people", Vertex.class).get("name", "marko").iterator().next());
+
+        graph.checkpoint();
+        graph.removeEdge(graph.getEdge("e"));
+        graph.addVertex("d");
+
+        // a torn record at the end of the log is ignored
+        FileOutputStream out = new FileOutputStream(directory + "/tinkergraph.log", true);
+        out.write(new byte[]{0, 0, 0, 42, 1, 2});
+        out.close();
+
+        graph = new TinkerGraph(directory, TinkerGraph.AdjacencyType.HASH, 0, 0);
+        assertEquals(3, count(graph.getVertices()));
+        assertEquals(0, count(graph.getEdges()));
+        assertEquals(0, count(graph.getVertex("a").getEdges(Direction.OUT)));
+        graph.addVertex("e");
+        graph.shutdown();
+
+        graph = new TinkerGraph(directory);
+        assertEquals(4, count(graph.getVertices()));
+        graph.shutdown();
+    }
+
+    public void testMutationLogReplayAfterCrashDuringCheckpoint() throws Exception {
+        deleteDirectory(new File(getDirectory()));
+        String directory = getDirectory() + "/graph";
+        TinkerGraph graph = new TinkerGraph(directory, TinkerGraph.AdjacencyType.HASH, 0, 0);
+        graph.addVertex("a").setProperty("name", "marko");
+        byte[] oldLog = readFile(directory + "/tinkergraph.log");
+        graph.checkpoint();
+        graph.addVertex("b");
+        graph.getVertex("a").setProperty("name", "peter");
+        byte[] newLog = readFile(directory + "/tinkergraph.log");
+
+        // as if the process had crashed after writing the snapshot but before switching the log, both logs start
+        // with a header of the same length
+        FileOutputStream out = new FileOutputStream(directory + "/tinkergraph.log");
+        out.write(oldLog);
+        out.write(newLog, 6, newLog.length - 6);
+        out.close();
+
+        graph = new TinkerGraph(directory, TinkerGraph.AdjacencyType.HASH, 0, 0);
+        assertEquals(2, count(graph.getVertices()));
+        assertEquals("peter", graph.getVertex("a").getProperty("name"));
+        assertEquals(newLog.length, new File(directory + "/tinkergraph.log").length());
+        graph.addVertex("c");
+        graph.shutdown();
+
+        graph = new TinkerGraph(directory);
+        assertEquals(3, count(graph.getVertices()));
+        assertEquals("peter", graph.getVertex("a").getProperty("name"));
+        graph.shutdown();
+    }
+
+    private static void copyResource(final String resource, final String file) throws Exception {
+        InputStream in = TinkerGraphTest.class.getResourceAsStream(resource);
+        FileOutputStream out = new FileOutputStream(file);
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        out.close();
+    }
+
+    private static byte[] readFile(final String file) throws Exception {
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        byte[] bytes = new byte[(int) in.length()];
+        in.readFully(bytes);
+        in.close();
+        return bytes;
+    }
+
+    public void testLoadJavaSerializedGraphOfEarlierVersion() throws Exception {
+        deleteDirectory(new File(getDirectory()));
+        String directory = getDirectory() + "/graph";
+        new File(directory).mkdirs();
+        copyResource("legacy-tinkergraph.dat", directory + "/tinkergraph.dat");
+
+        TinkerGraph graph = new TinkerGraph(directory, TinkerGraph.AdjacencyType.COMPACT);
+        assertEquals(TinkerGraph.AdjacencyType.COMPACT, graph.getAdjacencyType());
+        assertEquals(5, count(graph.getVertices()));
+        assertEquals(5, count(graph.getEdges()));
+        Vertex marko = graph.getVertex("1");
+        assertEquals("marko", marko.getProperty("name"));
+        assertEquals(29, marko.getProperty("age"));
+        assertEquals(3, count(marko.getEdges(Direction.OUT)));
+        assertEquals(2, count(marko.getEdges(Direction.OUT, "knows")));
+        Edge likes = marko.getEdges(Direction.IN, "likes").iterator().next();
+        assertEquals(Arrays.asList("a", "b"), likes.getVertex(Direction.OUT).getProperty("tags"));
+        Edge knows = graph.getEdge("7");
+        assertEquals(marko, knows.getVertex(Direction.OUT));
+        assertEquals(graph.getVertex("2"), knows.getVertex(Direction.IN));
+        assertEquals(0.5f, knows.getProperty("weight"));
+
+        assertTrue(graph.getIndexedKeys(Vertex.class).contains("name"));
+        assertTrue(graph.getIndexedKeys(Edge.class).contains("weight"));
+        assertEquals(graph.getVertex("4"), graph.getVertices("name", "josh").iterator().next());
+        assertEquals(2, count(graph.getEdges("weight", 0.4f)));
+        assertEquals(graph.getVertex("4"), graph.getIndex("people", Vertex.class).get("name", "josh").iterator().next());
+        assertEquals(knows, graph.getIndex("friends", Edge.class).get("since", 2010).iterator().next());
+
+        Vertex added = graph.addVertex(null);
+        assertEquals(6, count(graph.getVertices()));
+        graph.shutdown();
+        assertFalse(new File(directory + "/tinkergraph.dat").exists());
+
+        graph = new TinkerGraph(directory);
+        assertEquals(6, count(graph.getVertices()));
+        assertNotNull(graph.getVertex(added.getId()));
+        assertEquals("marko", graph.getVertex("1").getProperty("name"));
+        graph.shutdown();
+    }
+
+    public void testLoadSnapshotOfEarlierVersion() throws Exception {
+        deleteDirectory(new File(getDirectory()));
+        String directory = getDirectory() + "/graph";
+        new File(directory).mkdirs();
+        // written by the first binary snapshot format, without log generation and ordered key indices
+        copyResource("legacy-tinkergraph-v1.snapshot", directory + "/tinkergraph.snapshot");
+
+        TinkerGraph graph = new TinkerGraph(directory, TinkerGraph.AdjacencyType.HASH);
+        assertEquals(TinkerGraph.AdjacencyType.COMPACT, graph.getAdjacencyType());
+        assertEquals(5, count(graph.getVertices()));
+        assertEquals(5, count(graph.getEdges()));
+        Vertex marko = graph.getVertex("1");
+        assertEquals("marko", marko.getProperty("name"));
+        assertEquals(29, marko.getProperty("age"));
+        assertEquals(32l, graph.getVertex("4").getProperty("age"));
+        assertEquals(Arrays.asList("a", "b"), graph.getVertex("fan").getProperty("tags"));
+        Edge likes = marko.getEdges(Direction.IN, "likes").iterator().next();
+        assertEquals(2.5d, likes.getProperty("since"));
+        assertEquals(0.5f, graph.getEdge("7").getProperty("weight"));
+
+        assertTrue(graph.getIndexedKeys(Vertex.class).contains("name"));
+        assertTrue(graph.getIndexedKeys(Edge.class).contains("weight"));
+        assertEquals(graph.getVertex("4"), graph.getVertices("name", "josh").iterator().next());
+        assertEquals(2, count(graph.getEdges("weight", 0.4f)));
+        assertEquals(graph.getVertex("4"), graph.getIndex("people", Vertex.class).get("name", "josh").iterator().next());
+        assertEquals(graph.getEdge("7"), graph.getIndex("friends", Edge.class).get("since", 2010).iterator().next());
+
+        Vertex added = graph.addVertex(null);
+        graph.shutdown();
+
+        graph = new TinkerGraph(directory);
+        assertEquals(6, count(graph.getVertices()));
+        assertNotNull(graph.getVertex(added.getId()));
+        assertEquals(graph.getVertex("4"), graph.getVertices("name", "josh").iterator().next());
+        graph.shutdown();
+    }
+
+    public void testReplayLogOfEarlierVersion() throws Exception {
+        deleteDirectory(new File(getDirectory()));
+        String directory = getDirectory() + "/graph";
+        new File(directory).mkdirs();
+        // written by the first log format, whose key index records have no ordered flag
+        copyResource("legacy-tinkergraph-v1.log", directory + "/tinkergraph.log");
+
+        TinkerGraph graph = new TinkerGraph(directory, TinkerGraph.AdjacencyType.HASH, 0, 0);
+        assertEquals(2, count(graph.getVertices()));
+        assertEquals(graph.getVertex("2"), graph.getVertices("name", "vadas").iterator().next());
+        assertEquals(0.5f, graph.getEdge("7").getProperty("weight"));
+        // the replayed log is checkpointed, so that new records are not appended to a log of the earlier version
+        assertTrue(new File(directory + "/tinkergraph.snapshot").exists());
+        graph.addVertex("3").setProperty("name", "lop");
+        graph = new TinkerGraph(directory, TinkerGraph.AdjacencyType.HASH, 0, 0);
+        assertEquals(3, count(graph.getVertices()));
+        assertEquals(graph.getVertex("3"), graph.getVertices("name", "lop").iterator().next());
+        graph.shutdown();
+    }
+
+    public void testOrderedKeyIndex() {
+        deleteDirectory(new File(getDirectory()));
+        TinkerGraph graph = (TinkerGraph) this.generateGraph();
+        graph.createKeyIndex("time", Vertex.class, TinkerGraph.ORDERED_KEY_INDEX);
+        for (int i = 0; i < 100; i++) {
+            graph.addVertex(null).setProperty("time", (long) i);
+        }
+        Vertex integer = graph.addVertex(null);
+        integer.setProperty("time", 50);
+        Vertex string = graph.addVertex(null);
+        string.setProperty("time", "50");
+        graph.addVertex(null);
+
+        assertEquals(2, count(graph.getVertices("time", Query.Compare.EQUAL, 50l)));
+        assertEquals(2, count(graph.getVertices("time", Query.Compare.EQUAL, 50)));
+        assertEquals(string, graph.getVertices("time", Query.Compare.EQUAL, "50").iterator().next());
+        assertEquals(49, count(graph.getVertices("time", Query.Compare.GREATER_THAN, 50l)));
+        assertEquals(51, count(graph.getVertices("time", Query.Compare.GREATER_THAN_EQUAL, 50)));
+        assertEquals(10, count(graph.getVertices("time", Query.Compare.LESS_THAN, 10l)));
+        assertEquals(11, count(graph.getVertices("time", Query.Compare.LESS_THAN_EQUAL, 10l)));
+        assertEquals(0, count(graph.getVertices("time", Query.Compare.LESS_THAN, "10")));
+        assertEquals(102, count(graph.getVertices("time", Query.Compare.NOT_EQUAL, 10l)));
+        assertEquals(21, count(graph.getVerticesInInterval("time", 40l, 60l)));
+        assertEquals(0, count(graph.getVerticesInInterval("time", 60l, 40l)));
+
+        long last = -1;
+        for (Vertex vertex : graph.getVertices("time", Query.Compare.LESS_THAN, 50l)) {
+            assertTrue(((Long) vertex.getProperty("time")) > last);
+            last = (Long) vertex.getProperty("time");
+        }
+
+        Vertex vertex = graph.getVertices("time", Query.Compare.EQUAL, 45l).iterator().next();
+        vertex.setProperty("time", 1000l);
+        assertEquals(20, count(graph.getVerticesInInterval("time", 40l, 60l)));
+        assertEquals(vertex, graph.getVertices("time", Query.Compare.GREATER_THAN, 999l).iterator().next());
+        graph.removeVertex(vertex);
+        assertEquals(0, count(graph.getVertices("time", Query.Compare.GREATER_THAN, 999l)));
+        graph.removeVertex(integer);
+        graph.removeVertex(string);
+
+        graph.shutdown();
+        graph = (TinkerGraph) this.generateGraph();
+        assertEquals(19, count(graph.getVerticesInInterval("time", 40l, 60l)));
+        graph.dropKeyIndex("time", Vertex.class);
+        assertEquals(19, count(graph.getVerticesInInterval("time", 40l, 60l)));
+        assertEquals(9, count(graph.getVertices("time", Query.Compare.GREATER_THAN, 90l)));
+        graph.shutdown();
+    }
+
+    public void testRemoveElementsFromIndices() {
+        deleteDirectory(new File(getDirectory()));
+        TinkerGraph graph = (TinkerGraph) this.generateGraph();
+        graph.createKeyIndex("name", Vertex.class);
+        graph.createKeyIndex("age", Vertex.class, TinkerGraph.ORDERED_KEY_INDEX);
+        graph.createKeyIndex("weight", Edge.class, TinkerGraph.ORDERED_KEY_INDEX);
+        Index<Vertex> people = graph.createIndex("people", Vertex.class);
+        Index<Edge> friends = graph.createIndex("friends", Edge.class);
+        Vertex marko = graph.addVertex("1");
+        marko.setProperty("name", "marko");
+        marko.setProperty("age", 29);
+        Vertex vadas = graph.addVertex("2");
+        vadas.setProperty("name", "vadas");
+        vadas.setProperty("age", 27);
+        Vertex josh = graph.addVertex("4");
+        josh.setProperty("name", "josh");
+        josh.setProperty("age", 32);
+        Edge knowsVadas = graph.addEdge("7", marko, vadas, "knows");
+        knowsVadas.setProperty("weight", 0.5f);
+        Edge knowsJosh = graph.addEdge("8", marko, josh, "knows");
+        knowsJosh.setProperty("weight", 1.0f);
+        people.put("name", "marko", marko);
+        people.put("name", "vadas", vadas);
+        people.put("name", "josh", josh);
+        people.put("type", "person", vadas);
+        people.put("type", "person", josh);
+        friends.put("since", 2010, knowsVadas);
+        friends.put("since", 2010, knowsJosh);
+
+        graph.removeEdge(knowsVadas);
+        assertEquals(1, friends.count("since", 2010));
+        assertEquals(knowsJosh, friends.get("since", 2010).iterator().next());
+        assertFalse(((TinkerIndex<Edge>) friends).postings.containsKey(knowsVadas));
+        assertEquals(0, graph.edgeKeyIndex.count("weight", 0.5f));
+        assertEquals(1, count(graph.getEdges("weight", Query.Compare.LESS_THAN_EQUAL, 1.0f)));
+
+        graph.removeVertex(vadas);
+        assertEquals(0, people.count("name", "vadas"));
+        assertEquals(josh, people.get("type", "person").iterator().next());
+        assertFalse(((TinkerIndex<Vertex>) people).postings.containsKey(vadas));
+        assertEquals(0, graph.vertexKeyIndex.count("name", "vadas"));
+        assertEquals(0, graph.vertexKeyIndex.count("age", 27));
+        assertEquals(1, count(graph.getVertices("age", Query.Compare.LESS_THAN, 30)));
+        assertEquals(2, count(graph.getVerticesInInterval("age", 0, 100)));
+        graph.shutdown();
+
+        graph = (TinkerGraph) this.generateGraph();
+        people = graph.getIndex("people", Vertex.class);
+        friends = graph.getIndex("friends", Edge.class);
+        josh = graph.getVertex("4");
+        assertEquals(1, count(people.get("type", "person")));
+        assertEquals(1, friends.count("since", 2010));
+        graph.removeVertex(josh);
+        assertEquals(0, people.count("name", "josh"));
+        assertEquals(0, people.count("type", "person"));
+        assertEquals(0, friends.count("since", 2010));
+        assertEquals(1, ((TinkerIndex<Vertex>) people).postings.size());
+        assertFalse(((TinkerIndex<Vertex>) people).postings.containsKey(josh));
+        assertTrue(((TinkerIndex<Edge>) friends).postings.isEmpty());
+        assertEquals(0, graph.vertexKeyIndex.count("name", "josh"));
+        assertEquals(0, count(graph.getVertices("age", Query.Compare.GREATER_THAN, 30)));
+        assertEquals(0, count(graph.getEdges("weight", Query.Compare.GREATER_THAN, 0.0f)));
+        graph.shutdown();
+
+        graph = (TinkerGraph) this.generateGraph();
+        assertEquals(1, count(graph.getVertices()));
+        assertEquals(0, count(graph.getEdges()));
+        assertEquals(0, graph.getIndex("people", Vertex.class).count("type", "person"));
+        assertEquals(graph.getVertex("1"), graph.getIndex("people", Vertex.class).get("name", "marko").iterator().next());
+        assertEquals(1, count(graph.getVerticesInInterval("age", 0, 100)));
+        graph.shutdown();
+    }
+
+    public void testRebuildPostingsOfDeserializedIndex() throws Exception {
+        TinkerGraph graph = new TinkerGraph();
+        Vertex marko = graph.addVertex("1");
+        Vertex vadas = graph.addVertex("2");
+        TinkerIndex<Vertex> people = (TinkerIndex<Vertex>) graph.createIndex("people", Vertex.class);
+        people.put("name", "marko", marko);
+        people.put("name", "vadas", vadas);
+        people.put("type", "person", marko);
+        people.put("type", "person", vadas);
+        people.postings = null;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(people);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        people = (TinkerIndex<Vertex>) in.readObject();
+        in.close();
+
+        assertEquals(2, people.postings.size());
+        marko = people.get("name", "marko").iterator().next();
+        assertEquals(2, people.postings.get(marko).size());
+        people.removeElement(marko);
+        assertEquals(0, people.count("name", "marko"));
+        assertEquals(1, people.count("name", "vadas"));
+        assertEquals(1, people.count("type", "person"));
+        assertFalse(people.postings.containsKey(marko));
+        assertEquals(1, people.postings.size());
+    }
+
+    public void testVertexCentricIndex() {
+        deleteDirectory(new File(getDirectory()));
+        TinkerGraph graph = (TinkerGraph) this.generateGraph();
+        Vertex user = graph.addVertex(null);
+        for (int i = 0; i < 100; i++) {
+            Edge edge = graph.addEdge(null, user, graph.addVertex(null), "rated");
+            edge.setProperty("stars", i % 5);
+            edge.setProperty("time", (long) i);
+            graph.addEdge(null, user, graph.addVertex(null), "knows").setProperty("stars", i % 5);
+        }
+        graph.createVertexCentricIndex("rated", "stars");
+        graph.createVertexCentricIndex("rated", "time", TinkerGraph.ORDERED_KEY_INDEX);
+        assertEquals(2, graph.getVertexCentricIndexedKeys("rated").size());
+        assertEquals(0, graph.getVertexCentricIndexedKeys("knows").size());
+
+        assertEquals(20, user.query().labels("rated").has("stars", 4).count());
+        assertEquals(5, user.query().labels("rated").has("stars", 4).limit(5).count());
+        assertEquals(40, user.query().labels("rated", "knows").has("stars", 4).count());
+        assertEquals(20, user.query().direction(Direction.OUT).labels("rated").interval("time", 40l, 60l).count());
+        assertEquals(4, user.query().labels("rated").has("stars", 4).interval("time", 40l, 60l).count());
+        assertEquals(10, user.query().labels("rated").has("time", 90l, Query.Compare.GREATER_THAN_EQUAL).count());
+        assertEquals(10, user.query().labels("rated").has("time", 10l, Query.Compare.LESS_THAN).count());
+        assertEquals(3, user.query().labels("rated").has("time", 10l, Query.Compare.LESS_THAN).limit(3).count());
+        assertEquals(80, user.query().labels("rated").has("stars", 4, Query.Compare.NOT_EQUAL).count());
+        assertEquals(0, user.query().direction(Direction.IN).labels("rated").has("stars", 4).count());
+
+        Vertex rated = user.query().labels("rated").has("time", 7l).vertices().iterator().next();
+        assertEquals(1, rated.query().direction(Direction.IN).labels("rated").has("time", 7l).count());
+
+        Edge edge = user.query().labels("rated").has("time", 50l).edges().iterator().next();
+        edge.setProperty("time", 1000l);
+        assertEquals(19, user.query().labels("rated").interval("time", 40l, 60l).count());
+        edge.removeProperty("stars");
+        assertEquals(19, user.query().labels("rated").has("stars", 0).count());
+        graph.removeEdge(edge);
+        assertEquals(0, user.query().labels("rated").has("time", 1000l).count());
+
+        graph.shutdown();
+        graph = (TinkerGraph) this.generateGraph();
+        user = graph.getVertex(user.getId());
+        assertEquals(19, user.query().labels("rated").interval("time", 40l, 60l).count());
+        assertEquals(20, user.query().labels("rated").has("stars", 4).count());
+        graph.dropVertexCentricIndex("rated", "time");
+        assertEquals(19, user.query().labels("rated").interval("time", 40l, 60l).count());
+        assertEquals(1, graph.getVertexCentricIndexedKeys("rated").size());
+        graph.shutdown();
+    }
 }
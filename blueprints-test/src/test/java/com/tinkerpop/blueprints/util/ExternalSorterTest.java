@@ -0,0 +1,133 @@
+package com.tinkerpop.blueprints.util;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Random;
+
+public class ExternalSorterTest extends TestCase {
+
+    private static final Comparator<int[]> FIRST = new Comparator<int[]>() {
+        public int compare(final int[] a, final int[] b) {
+            return a[0] < b[0] ? -1 : (a[0] == b[0] ? 0 : 1);
+        }
+    };
+
+    public void testStableSortWithRuns() {
+        final File directory = new File(System.getProperty("java.io.tmpdir"), "blueprints-sort-" + System.nanoTime());
+        assertTrue(directory.mkdirs());
+        final ExternalSorter<int[]> sorter = new ExternalSorter<int[]>(FIRST, 1000, directory);
+        final Random random = new Random(7);
+        for (int i = 0; i < 10500; i++) {
+            sorter.add(new int[]{random.nextInt(100), i});
+        }
+        assertEquals(10500, sorter.size());
+        assertEquals(10, sorter.getRunCount());
+        assertEquals(10, directory.listFiles().length);
+
+        int[] previous = null;
+        int count = 0;
+        for (final int[] element : sorter) {
+            if (previous != null) {
+                assertTrue(previous[0] <= element[0]);
+                if (previous[0] == element[0]) assertTrue(previous[1] < element[1]);
+            }
+            previous = element;
+            count++;
+        }
+        assertEquals(10500, count);
+
+        try {
+            sorter.add(new int[]{0, 0});
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(true);
+        }
+        sorter.close();
+        assertEquals(0, directory.listFiles().length);
+        directory.delete();
+    }
+
+    public void testIntermediateMergePasses() {
+        final File directory = new File(System.getProperty("java.io.tmpdir"), "blueprints-sort-" + System.nanoTime());
+        assertTrue(directory.mkdirs());
+        final ExternalSorter<int[]> sorter = new ExternalSorter<int[]>(FIRST, 10, directory, 3);
+        final Random random = new Random(7);
+        for (int i = 0; i < 1005; i++) {
+            sorter.add(new int[]{random.nextInt(50), i});
+        }
+        assertEquals(100, sorter.getRunCount());
+
+        // 100 runs are merged into 34, 12, 4 and then 2 runs, so that at most 3 runs are read at the same time
+        for (int pass = 0; pass < 2; pass++) {
+            int[] previous = null;
+            int count = 0;
+            for (final int[] element : sorter) {
+                if (previous != null) {
+                    assertTrue(previous[0] <= element[0]);
+                    if (previous[0] == element[0]) assertTrue(previous[1] < element[1]);
+                }
+                previous = element;
+                count++;
+            }
+            assertEquals(1005, count);
+            assertEquals(2, sorter.getRunCount());
+            assertEquals(2, directory.listFiles().length);
+        }
+
+        sorter.close();
+        assertEquals(0, directory.listFiles().length);
+        directory.delete();
+
+        try {
+            new ExternalSorter<int[]>(FIRST, 10, null, 1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(true);
+        }
+    }
+
+    public void testCloseDuringIteration() {
+        final File directory = new File(System.getProperty("java.io.tmpdir"), "blueprints-sort-" + System.nanoTime());
+        assertTrue(directory.mkdirs());
+        final ExternalSorter<int[]> sorter = new ExternalSorter<int[]>(FIRST, 1000, directory);
+        for (int i = 0; i < 10000; i++) {
+            sorter.add(new int[]{i % 10, i});
+        }
+        assertEquals(10, sorter.getRunCount());
+
+        final Iterator<int[]> iterator = sorter.iterator();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, iterator.next()[0]);
+        }
+        sorter.close();
+        assertEquals(0, directory.listFiles().length);
+        directory.delete();
+
+        // the runs that were still being read are closed, so the iteration can not go on
+        try {
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    public void testInMemorySort() {
+        final ExternalSorter<int[]> sorter = new ExternalSorter<int[]>(FIRST, 100, null);
+        for (int i = 10; i > 0; i--) {
+            sorter.add(new int[]{i, 0});
+        }
+        assertEquals(0, sorter.getRunCount());
+        int expected = 1;
+        for (final int[] element : sorter) {
+            assertEquals(expected++, element[0]);
+        }
+        sorter.close();
+    }
+}
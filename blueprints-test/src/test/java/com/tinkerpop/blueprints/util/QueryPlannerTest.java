@@ -0,0 +1,85 @@
+package com.tinkerpop.blueprints.util;
+
+import com.tinkerpop.blueprints.BaseTest;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Query;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+import java.util.List;
+
+public class QueryPlannerTest extends BaseTest {
+
+    public void testHasContainersOrderedBySelectivity() {
+        TinkerGraph graph = new TinkerGraph();
+        Vertex vertex = graph.addVertex(null);
+        DefaultQuery query = new DefaultQuery(vertex);
+        query.has("weight", 0.5f, Query.Compare.NOT_EQUAL).has("weight", 0.1f, Query.Compare.GREATER_THAN).has("name", "marko");
+
+        List<DefaultQuery.HasContainer> hasContainers = query.plan().getHasContainers();
+        assertEquals(Query.Compare.EQUAL, hasContainers.get(0).compare);
+        assertEquals(Query.Compare.GREATER_THAN, hasContainers.get(1).compare);
+        assertEquals(Query.Compare.NOT_EQUAL, hasContainers.get(2).compare);
+        assertTrue(query.plan().getAccessPath() instanceof QueryPlanner.ScanAccessPath);
+        assertTrue(query.explain().startsWith("scan[direction:BOTH labels:[] estimate:unknown]"));
+        assertEquals(3, query.hasContainers.size());
+        assertEquals(Query.Compare.NOT_EQUAL, query.hasContainers.get(0).compare);
+    }
+
+    public void testTinkerGraphStatisticsAndAccessPaths() {
+        TinkerGraph graph = new TinkerGraph();
+        Vertex user = graph.addVertex(null);
+        for (int i = 0; i < 100; i++) {
+            Edge edge = graph.addEdge(null, user, graph.addVertex(null), "rated");
+            edge.setProperty("stars", i % 50 == 0 ? 5 : 1);
+            edge.setProperty("time", (long) i);
+        }
+
+        DefaultQuery query = (DefaultQuery) user.query().direction(Direction.OUT).labels("rated").has("time", 10l, Query.Compare.LESS_THAN).has("stars", 5);
+        assertTrue(query.explain().startsWith("scan[direction:OUT labels:[rated] estimate:100]"));
+        assertEquals(1, count(query.edges()));
+
+        graph.createVertexCentricIndex("rated", "stars");
+        query = (DefaultQuery) user.query().direction(Direction.OUT).labels("rated").has("time", 10l, Query.Compare.LESS_THAN).has("stars", 5);
+        assertTrue(query.explain().startsWith("vertex-centric index[direction:OUT labels:[rated] stars EQUAL 5 estimate:2]"));
+        assertEquals("stars", query.plan().getHasContainers().get(0).key);
+        assertEquals(1, count(query.edges()));
+
+        graph.createVertexCentricIndex("rated", "time", TinkerGraph.ORDERED_KEY_INDEX);
+        query = (DefaultQuery) user.query().direction(Direction.OUT).labels("rated").interval("time", 10l, 20l).limit(5);
+        assertTrue(query.explain().startsWith("vertex-centric index[direction:OUT labels:[rated] time GREATER_THAN_EQUAL 10 and time LESS_THAN 20"));
+        assertTrue(query.explain().endsWith("limit[5]"));
+        assertEquals(5, count(query.edges()));
+
+        query = (DefaultQuery) user.query().labels("rated").has("stars", 1, Query.Compare.NOT_EQUAL);
+        assertTrue(query.explain().startsWith("scan[direction:BOTH labels:[rated] estimate:100]"));
+        assertEquals(2, count(query.edges()));
+    }
+
+    public void testCountPushdown() {
+        TinkerGraph graph = new TinkerGraph();
+        Vertex vertex = graph.addVertex(null);
+        Vertex other = graph.addVertex(null);
+        graph.addEdge(null, vertex, other, "knows").setProperty("weight", 1);
+        graph.addEdge(null, vertex, vertex, "knows").setProperty("weight", 2);
+
+        QueryPlanner.Statistics statistics = new QueryPlanner.DefaultStatistics() {
+            public long countEdges(final Vertex vertex, final Direction direction, final String... labels) {
+                return 42;
+            }
+        };
+        assertEquals(42, new DefaultQuery(vertex, statistics).count());
+        assertEquals(10, new DefaultQuery(vertex, statistics).limit(10).count());
+        assertEquals(1, new DefaultQuery(vertex, statistics).has("weight", 2).direction(Direction.OUT).count());
+        assertEquals(3, new DefaultQuery(vertex, new QueryPlanner.DefaultStatistics()).count());
+
+        assertEquals(3, vertex.query().count());
+        assertEquals(2, vertex.query().direction(Direction.OUT).labels("knows").count());
+        assertEquals(0, vertex.query().direction(Direction.OUT).labels("likes").count());
+        assertEquals(1, other.query().count());
+        graph.removeEdge(other.getEdges(Direction.IN).iterator().next());
+        assertEquals(2, vertex.query().count());
+        assertEquals(0, other.query().count());
+    }
+}
@@ -7,6 +7,7 @@ import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.Map;
@@ -107,6 +108,18 @@ public class GMLReaderTest {
 
     }
 
+    @Test
+    public void largeIntegersAreReadAsLongs() throws IOException {
+        TinkerGraph graph = new TinkerGraph();
+
+        String gml = "graph [\n\tnode [\n\t\tid 1\n\t\tsince 4102444800000\n\t\tage 42\n\t]\n]";
+        GMLReader.inputGraph(graph, new ByteArrayInputStream(gml.getBytes("ISO-8859-1")));
+
+        Vertex v1 = graph.getVertex(1);
+        Assert.assertEquals(4102444800000L, v1.getProperty("since"));
+        Assert.assertEquals(42, v1.getProperty("age"));
+    }
+
     private int getIterableCount(Iterable<?> elements) {
         int counter = 0;
 
@@ -0,0 +1,84 @@
+package com.tinkerpop.blueprints.util.io.gml;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class GMLTokenizerTest {
+
+    @Test
+    public void numbers() throws IOException {
+        final GMLTokenizer st = tokenizer("1 -42 9223372036854775807 12345678901234567890 0.5 -.25 2.0 1e3 1E-2 3x");
+        assertInteger(st, 1);
+        assertInteger(st, -42);
+        assertInteger(st, Long.MAX_VALUE);
+        assertReal(st, 12345678901234567890d);
+        assertReal(st, 0.5);
+        assertReal(st, -0.25);
+        assertReal(st, 2.0);
+        assertReal(st, 1000);
+        assertReal(st, 0.01);
+        assertInteger(st, 3);
+        Assert.assertEquals(GMLTokenizer.TT_WORD, st.nextToken());
+        Assert.assertEquals("x", st.sval);
+        Assert.assertEquals(GMLTokenizer.TT_EOF, st.nextToken());
+    }
+
+    @Test
+    public void wordsStringsAndBrackets() throws IOException {
+        final GMLTokenizer st = tokenizer("node [\n\tlabel \"a \\n\rlong\r\nlabel\" # comment \"not a string\"\n\tid2 7]");
+        Assert.assertEquals(GMLTokenizer.TT_WORD, st.nextToken());
+        Assert.assertEquals("node", st.sval);
+        Assert.assertEquals('[', st.nextToken());
+        Assert.assertEquals(GMLTokenizer.TT_WORD, st.nextToken());
+        Assert.assertEquals("label", st.sval);
+        Assert.assertEquals(2, st.lineno());
+        Assert.assertEquals(GMLTokenizer.TT_STRING, st.nextToken());
+        Assert.assertEquals("a \\n\rlong\r\nlabel", st.sval);
+        Assert.assertEquals(GMLTokenizer.TT_WORD, st.nextToken());
+        Assert.assertEquals("id2", st.sval);
+        Assert.assertEquals(5, st.lineno());
+        assertInteger(st, 7);
+        Assert.assertEquals(']', st.nextToken());
+        Assert.assertEquals(GMLTokenizer.TT_EOF, st.nextToken());
+    }
+
+    @Test
+    public void repeatedKeysShareStrings() throws IOException {
+        final GMLTokenizer st = tokenizer("label 1 label 2");
+        st.nextToken();
+        final String first = st.sval;
+        st.nextToken();
+        st.nextToken();
+        Assert.assertSame(first, st.sval);
+    }
+
+    @Test
+    public void longStringsAcrossBuffers() throws IOException {
+        final StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            value.append((char) ('a' + i % 26));
+        }
+        final GMLTokenizer st = tokenizer("label \"" + value + "\" 1.5e2");
+        st.nextToken();
+        Assert.assertEquals(GMLTokenizer.TT_STRING, st.nextToken());
+        Assert.assertEquals(value.toString(), st.sval);
+        assertReal(st, 150);
+    }
+
+    private static void assertInteger(final GMLTokenizer st, final long value) throws IOException {
+        Assert.assertEquals(GMLTokenizer.TT_INTEGER, st.nextToken());
+        Assert.assertEquals(value, st.lval);
+    }
+
+    private static void assertReal(final GMLTokenizer st, final double value) throws IOException {
+        Assert.assertEquals(GMLTokenizer.TT_REAL, st.nextToken());
+        Assert.assertEquals(value, st.dval, 0.0);
+    }
+
+    private static GMLTokenizer tokenizer(final String gml) throws IOException {
+        return new GMLTokenizer(new ByteArrayInputStream(gml.getBytes("ISO-8859-1")));
+    }
+}
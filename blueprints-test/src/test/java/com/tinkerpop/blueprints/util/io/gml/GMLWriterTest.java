@@ -54,6 +54,33 @@ public class GMLWriterTest extends TestCase {
 
     }
 
+    public void testNormalizeBufferSize() throws Exception {
+        TinkerGraph g = new TinkerGraph();
+        GMLReader.inputGraph(g, GMLReaderTest.class.getResourceAsStream("example.gml"));
+        for (int i = 0; i < 50; i++) {
+            final Vertex v = g.addVertex(1000 + i);
+            v.setProperty("index", i);
+            g.addEdge(2000 + i, v, g.getVertex(1000 + i / 2), "knows").setProperty("weight", i);
+        }
+
+        for (boolean useId : new boolean[]{false, true}) {
+            ByteArrayOutputStream inMemory = new ByteArrayOutputStream();
+            GMLWriter w = new GMLWriter(g);
+            w.setNormalize(true);
+            w.setUseId(useId);
+            w.outputGraph(inMemory);
+
+            ByteArrayOutputStream sorted = new ByteArrayOutputStream();
+            w = new GMLWriter(g);
+            w.setNormalize(true);
+            w.setUseId(useId);
+            w.setNormalizeBufferSize(7);
+            w.outputGraph(sorted);
+
+            assertEquals(inMemory.toString(), sorted.toString());
+        }
+    }
+
     public void testRoundTrip() throws Exception {
         TinkerGraph g1 = TinkerGraphFactory.createTinkerGraph();
 
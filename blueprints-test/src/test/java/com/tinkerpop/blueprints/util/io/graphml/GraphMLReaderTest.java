@@ -0,0 +1,121 @@
+package com.tinkerpop.blueprints.util.io.graphml;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+public class GraphMLReaderTest extends TestCase {
+
+    private static final String HEADER = "<?xml version=\"1.0\" ?><graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">";
+
+    public void testTypedKeys() throws Exception {
+        final TinkerGraph graph = new TinkerGraph();
+        GraphMLReader.inputGraph(graph, graphML(
+                "<key id=\"i\" for=\"node\" attr.name=\"i\" attr.type=\"int\"/>" +
+                "<key id=\"l\" for=\"node\" attr.name=\"l\" attr.type=\"long\"/>" +
+                "<key id=\"f\" for=\"node\" attr.name=\"f\" attr.type=\"float\"/>" +
+                "<key id=\"d\" for=\"edge\" attr.name=\"d\" attr.type=\"double\"/>" +
+                "<key id=\"b\" for=\"edge\" attr.name=\"b\" attr.type=\"boolean\"/>" +
+                "<key id=\"s\" for=\"edge\" attr.name=\"s\" attr.type=\"string\"/>" +
+                "<key id=\"u\" for=\"edge\" attr.name=\"u\"/>" +
+                "<graph edgedefault=\"directed\">" +
+                "<node id=\"1\"><data key=\"i\">42</data><data key=\"l\">4294967296</data><data key=\"f\">0.5</data></node>" +
+                "<node id=\"2\"><data key=\"i\">-7</data></node>" +
+                "<edge id=\"3\" source=\"1\" target=\"2\" label=\"knows\">" +
+                "<data key=\"d\">0.25</data><data key=\"b\">true</data><data key=\"s\">12</data><data key=\"u\">0.1</data></edge>" +
+                "</graph></graphml>"));
+
+        final Vertex one = graph.getVertex("1");
+        assertEquals(42, one.getProperty("i"));
+        assertEquals(4294967296l, one.getProperty("l"));
+        assertEquals(0.5f, one.getProperty("f"));
+        assertEquals(-7, graph.getVertex("2").getProperty("i"));
+        assertEquals(1, graph.getVertex("2").getPropertyKeys().size());
+
+        final Edge edge = graph.getEdge("3");
+        assertEquals("knows", edge.getLabel());
+        assertEquals(0.25d, edge.getProperty("d"));
+        assertEquals(Boolean.TRUE, edge.getProperty("b"));
+        assertEquals("12", edge.getProperty("s"));
+        // a key without a type is read as a string
+        assertEquals("0.1", edge.getProperty("u"));
+    }
+
+    public void testDataWithUndeclaredKey() throws Exception {
+        final TinkerGraph graph = new TinkerGraph();
+        GraphMLReader.inputGraph(graph, graphML(
+                "<key id=\"name\" for=\"node\" attr.name=\"name\" attr.type=\"string\"/>" +
+                "<graph edgedefault=\"directed\">" +
+                "<node id=\"1\"><data key=\"name\">marko</data><data key=\"age\">29</data></node>" +
+                "<node id=\"2\"><data key=\"age\">27</data></node>" +
+                "<edge id=\"3\" source=\"1\" target=\"2\" label=\"knows\"><data key=\"weight\">0.5</data></edge>" +
+                "</graph></graphml>"));
+
+        assertEquals("marko", graph.getVertex("1").getProperty("name"));
+        assertEquals(1, graph.getVertex("1").getPropertyKeys().size());
+        assertEquals(0, graph.getVertex("2").getPropertyKeys().size());
+        assertEquals(0, graph.getEdge("3").getPropertyKeys().size());
+    }
+
+    public void testKeyRedefinition() throws Exception {
+        final TinkerGraph graph = new TinkerGraph();
+        GraphMLReader.inputGraph(graph, graphML(
+                "<key id=\"w\" for=\"node\" attr.name=\"w\" attr.type=\"int\"/>" +
+                "<graph edgedefault=\"directed\">" +
+                "<node id=\"1\"><data key=\"w\">1</data></node>" +
+                "<key id=\"w\" for=\"node\" attr.name=\"w\" attr.type=\"double\"/>" +
+                "<node id=\"2\"><data key=\"w\">2</data></node>" +
+                "<key id=\"w\" for=\"node\" attr.name=\"weight\" attr.type=\"float\"/>" +
+                "<node id=\"3\"><data key=\"w\">3</data></node>" +
+                "</graph></graphml>"));
+
+        assertEquals(1, graph.getVertex("1").getProperty("w"));
+        assertEquals(2.0d, graph.getVertex("2").getProperty("w"));
+        // the type of a value is the type of the attribute named like the key id, which is still w
+        assertNull(graph.getVertex("3").getProperty("w"));
+        assertEquals(3.0d, graph.getVertex("3").getProperty("weight"));
+    }
+
+    public void testIdsAndLabelsFromDataKeys() throws Exception {
+        final TinkerGraph graph = new TinkerGraph();
+        GraphMLReader.inputGraph(graph, graphML(
+                "<key id=\"vid\" for=\"node\" attr.name=\"vid\" attr.type=\"string\"/>" +
+                "<key id=\"eid\" for=\"edge\" attr.name=\"eid\" attr.type=\"string\"/>" +
+                "<key id=\"elabel\" for=\"edge\" attr.name=\"elabel\" attr.type=\"string\"/>" +
+                "<key id=\"weight\" for=\"edge\" attr.name=\"weight\" attr.type=\"float\"/>" +
+                "<graph edgedefault=\"directed\">" +
+                "<node id=\"1\"><data key=\"vid\">marko</data></node>" +
+                "<node id=\"2\"><data key=\"vid\">vadas</data></node>" +
+                "<edge id=\"7\" source=\"1\" target=\"2\" label=\"ignored\">" +
+                "<data key=\"eid\">marko-knows-vadas</data><data key=\"elabel\">knows</data><data key=\"weight\">0.5</data></edge>" +
+                "<edge id=\"8\" source=\"2\" target=\"1\"><data key=\"weight\">1.0</data></edge>" +
+                "</graph></graphml>"), 1000, "vid", "eid", "elabel");
+
+        assertNull(graph.getVertex("1"));
+        final Vertex marko = graph.getVertex("marko");
+        final Vertex vadas = graph.getVertex("vadas");
+        assertEquals(0, marko.getPropertyKeys().size());
+
+        final Edge knows = graph.getEdge("marko-knows-vadas");
+        assertEquals("knows", knows.getLabel());
+        assertEquals(marko, knows.getVertex(Direction.OUT));
+        assertEquals(vadas, knows.getVertex(Direction.IN));
+        assertEquals(1, knows.getPropertyKeys().size());
+        assertEquals(0.5f, knows.getProperty("weight"));
+
+        // an edge without the data keys keeps its id and gets the default label
+        final Edge other = graph.getEdge("8");
+        assertEquals(GraphMLTokens._DEFAULT, other.getLabel());
+        assertEquals(vadas, other.getVertex(Direction.OUT));
+        assertEquals(1.0f, other.getProperty("weight"));
+    }
+
+    private static InputStream graphML(final String body) throws Exception {
+        return new ByteArrayInputStream((HEADER + body).getBytes("UTF-8"));
+    }
+}
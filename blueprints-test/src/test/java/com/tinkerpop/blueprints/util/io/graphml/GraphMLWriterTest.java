@@ -1,11 +1,13 @@
 package com.tinkerpop.blueprints.util.io.graphml;
 
+import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Graph;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
 import junit.framework.TestCase;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -51,6 +53,69 @@ public class GraphMLWriterTest extends TestCase {
         assertEquals(expected.replace("\n", "").replace("\r", ""), bos.toString().replace("\n", "").replace("\r", ""));
     }
 
+    public void testNormalizeBufferSize() throws Exception {
+        TinkerGraph g = new TinkerGraph();
+        GraphMLReader.inputGraph(g, GraphMLReader.class.getResourceAsStream("graph-example-1.xml"));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        GraphMLWriter w = new GraphMLWriter(g);
+        w.setNormalize(true);
+        w.setNormalizeBufferSize(2);
+        w.outputGraph(bos);
+
+        String expected = streamToString(GraphMLWriterTest.class.getResourceAsStream("graph-example-1-normalized.xml"));
+        assertEquals(expected.replace("\n", "").replace("\r", ""), bos.toString().replace("\n", "").replace("\r", ""));
+    }
+
+    public void testSinglePass() throws Exception {
+        TinkerGraph g = new TinkerGraph();
+        GraphMLReader.inputGraph(g, GraphMLReader.class.getResourceAsStream("graph-example-1.xml"));
+        g.addVertex("isolated");
+
+        for (boolean normalize : new boolean[]{false, true}) {
+            for (String edgeLabelKey : new String[]{null, "label"}) {
+                ByteArrayOutputStream twoPass = new ByteArrayOutputStream();
+                GraphMLWriter w = new GraphMLWriter(g);
+                w.setNormalize(normalize);
+                w.setEdgeLabelKey(edgeLabelKey);
+                w.outputGraph(twoPass);
+
+                ByteArrayOutputStream singlePass = new ByteArrayOutputStream();
+                w = new GraphMLWriter(g);
+                w.setNormalize(normalize);
+                w.setEdgeLabelKey(edgeLabelKey);
+                w.setSinglePass(true);
+                w.outputGraph(singlePass);
+
+                assertEquals(twoPass.toString("UTF-8"), singlePass.toString("UTF-8"));
+            }
+        }
+    }
+
+    public void testSinglePassWithoutKeys() throws Exception {
+        TinkerGraph g = new TinkerGraph();
+        g.addEdge(null, g.addVertex(1), g.addVertex(2), "knows");
+
+        for (boolean normalize : new boolean[]{false, true}) {
+            ByteArrayOutputStream twoPass = new ByteArrayOutputStream();
+            GraphMLWriter w = new GraphMLWriter(g);
+            w.setNormalize(normalize);
+            w.outputGraph(twoPass);
+
+            ByteArrayOutputStream singlePass = new ByteArrayOutputStream();
+            w = new GraphMLWriter(g);
+            w.setNormalize(normalize);
+            w.setSinglePass(true);
+            w.outputGraph(singlePass);
+
+            assertEquals(twoPass.toString("UTF-8"), singlePass.toString("UTF-8"));
+
+            TinkerGraph g2 = new TinkerGraph();
+            GraphMLReader.inputGraph(g2, new ByteArrayInputStream(singlePass.toByteArray()));
+            assertEquals("knows", g2.getVertex(1).getEdges(Direction.OUT).iterator().next().getLabel());
+        }
+    }
+
     private String streamToString(final InputStream in) throws IOException {
         Writer writer = new StringWriter();
 
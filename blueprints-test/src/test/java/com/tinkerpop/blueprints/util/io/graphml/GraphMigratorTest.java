@@ -0,0 +1,120 @@
+package com.tinkerpop.blueprints.util.io.graphml;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.ConcurrentTinkerGraph;
+import com.tinkerpop.blueprints.impls.tg.MockTransactionalGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraphFactory;
+import com.tinkerpop.blueprints.util.ElementHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class GraphMigratorTest {
+
+    @Test
+    public void migrateGraph() throws Exception {
+        final TinkerGraph source = TinkerGraphFactory.createTinkerGraph();
+        final TinkerGraph target = new TinkerGraph();
+        GraphMigrator.migrateGraph(source, target);
+
+        assertSameGraph(source, target);
+        Assert.assertEquals(0.5f, target.getEdge("7").getProperty("weight"));
+        Assert.assertEquals(29, target.getVertex("1").getProperty("age"));
+    }
+
+    @Test
+    public void migrateGraphWithSmallBuffers() throws Exception {
+        final TinkerGraph source = TinkerGraphFactory.createTinkerGraph();
+        for (int i = 0; i < 1000; i++) {
+            final Vertex vertex = source.addVertex("v" + i);
+            vertex.setProperty("index", i);
+            source.addEdge("e" + i, vertex, source.getVertex(1), "knows").setProperty("weight", i / 1000.0f);
+        }
+
+        final GraphMigrator migrator = new GraphMigrator(source, new TinkerGraph());
+        migrator.setBufferSize(7);
+        migrator.setQueueSize(3);
+        migrator.migrateGraph();
+        Assert.assertEquals(1006, migrator.getVerticesMigrated());
+        Assert.assertEquals(1006, migrator.getEdgesMigrated());
+        Assert.assertTrue(migrator.getThroughput() > 0);
+    }
+
+    @Test
+    public void migrateGraphWithMultipleWriters() throws Exception {
+        final TinkerGraph source = TinkerGraphFactory.createTinkerGraph();
+        for (int i = 0; i < 1000; i++) {
+            final Vertex vertex = source.addVertex("v" + i);
+            vertex.setProperty("index", i);
+            source.addEdge("e" + i, vertex, source.getVertex(i % 6 + 1), "knows");
+        }
+
+        // only a transactional graph is written by multiple writers
+        final MockTransactionalGraph target = new MockTransactionalGraph(new ConcurrentTinkerGraph());
+        final GraphMigrator migrator = new GraphMigrator(source, target);
+        migrator.setWriters(3);
+        migrator.setBufferSize(10);
+        migrator.migrateGraph();
+
+        assertSameGraph(source, target);
+        Assert.assertEquals(1006, migrator.getVerticesMigrated());
+        Assert.assertEquals(1006, migrator.getEdgesMigrated());
+    }
+
+    @Test(timeout = 10000)
+    public void migrateGraphWithFailingWrite() throws Exception {
+        // the source graph hides vertex 2, so that the writer can not find it for edge 7
+        final TinkerGraph source = new TinkerGraph() {
+            @Override
+            public Iterable<Vertex> getVertices() {
+                final List<Vertex> vertices = new ArrayList<Vertex>();
+                for (final Vertex vertex : super.getVertices()) {
+                    if (!vertex.getId().equals("2")) vertices.add(vertex);
+                }
+                return vertices;
+            }
+        };
+        GraphMigrator.migrateGraph(TinkerGraphFactory.createTinkerGraph(), source);
+
+        final MockTransactionalGraph target = new MockTransactionalGraph(new TinkerGraph());
+        try {
+            GraphMigrator.migrateGraph(source, target);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("2"));
+        }
+        Assert.assertEquals(1, target.getNumTransactionsAborted());
+    }
+
+    private static void assertSameGraph(final Graph expected, final Graph actual) {
+        int vertices = 0;
+        for (final Vertex vertex : expected.getVertices()) {
+            Assert.assertEquals(ElementHelper.getProperties(vertex), ElementHelper.getProperties(actual.getVertex(vertex.getId().toString())));
+            vertices++;
+        }
+        for (final Vertex ignored : actual.getVertices()) {
+            vertices--;
+        }
+        Assert.assertEquals(0, vertices);
+
+        int edges = 0;
+        for (final Edge edge : expected.getEdges()) {
+            final Edge migrated = actual.getEdge(edge.getId().toString());
+            Assert.assertEquals(edge.getLabel(), migrated.getLabel());
+            Assert.assertEquals(edge.getVertex(Direction.OUT).getId().toString(), migrated.getVertex(Direction.OUT).getId());
+            Assert.assertEquals(edge.getVertex(Direction.IN).getId().toString(), migrated.getVertex(Direction.IN).getId());
+            Assert.assertEquals(ElementHelper.getProperties(edge), ElementHelper.getProperties(migrated));
+            edges++;
+        }
+        for (final Edge ignored : actual.getEdges()) {
+            edges--;
+        }
+        Assert.assertEquals(0, edges);
+    }
+}
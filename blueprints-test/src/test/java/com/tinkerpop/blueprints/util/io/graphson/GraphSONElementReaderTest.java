@@ -0,0 +1,128 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.blueprints.util.ElementHelper;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.map.MappingJsonFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class GraphSONElementReaderTest {
+
+    private static final JsonFactory jsonFactory = new MappingJsonFactory();
+
+    private static final String[] NORMAL_VERTICES = new String[]{
+            "{\"name\":\"marko\",\"_id\":1,\"_type\":\"vertex\",\"age\":29}",
+            "{\"_id\":10000000000,\"weight\":0.5,\"alive\":true,\"big\":123456789012345678901234567890}",
+            "{\"_id\":\"x\",\"list\":[1,\"two\",[3.0,null],{\"_id\":4}],\"map\":{\"_label\":\"kept\",\"inner\":{\"a\":false}}}"
+    };
+
+    private static final String[] EXTENDED_VERTICES = new String[]{
+            "{\"name\":{\"type\":\"string\",\"value\":\"marko\"},\"_id\":1,\"_type\":\"vertex\",\"age\":{\"type\":\"integer\",\"value\":29}}",
+            "{\"_id\":2,\"f\":{\"type\":\"float\",\"value\":0.1},\"d\":{\"type\":\"double\",\"value\":3},\"l\":{\"type\":\"long\",\"value\":10000000000},\"b\":{\"type\":\"boolean\",\"value\":true},\"n\":{\"type\":\"unknown\",\"value\":null}}",
+            "{\"_id\":3,\"list\":{\"type\":\"list\",\"value\":[{\"type\":\"integer\",\"value\":1},{\"type\":\"int\",\"value\":2},{\"type\":\"map\",\"value\":{\"k\":{\"type\":\"string\",\"value\":\"v\"}}}]}}",
+            "{\"_id\":4,\"reversed\":{\"value\":7,\"type\":\"long\"},\"mismatch\":{\"type\":\"integer\",\"value\":10000000000},\"text\":{\"type\":\"double\",\"value\":\"1.5\"},\"extra\":{\"type\":\"string\",\"other\":[1],\"value\":\"v\"}}"
+    };
+
+    @Test
+    public void readVerticesModeNormal() throws IOException {
+        assertSameVertices(GraphSONMode.NORMAL, NORMAL_VERTICES, ElementPropertyConfig.AllProperties);
+    }
+
+    @Test
+    public void readVerticesModeExtended() throws IOException {
+        assertSameVertices(GraphSONMode.EXTENDED, EXTENDED_VERTICES, ElementPropertyConfig.AllProperties);
+    }
+
+    @Test
+    public void readVerticesWithPropertyConfig() throws IOException {
+        final Set<String> keys = new HashSet<String>();
+        keys.add("name");
+        keys.add("list");
+        assertSameVertices(GraphSONMode.NORMAL, NORMAL_VERTICES, ElementPropertyConfig.IncludeProperties(keys, null));
+        assertSameVertices(GraphSONMode.EXTENDED, EXTENDED_VERTICES, ElementPropertyConfig.ExcludeProperties(keys, null));
+    }
+
+    @Test
+    public void readEdges() throws IOException {
+        final String[] edges = new String[]{
+                "{\"weight\":{\"type\":\"float\",\"value\":0.4},\"_id\":7,\"_type\":\"edge\",\"_outV\":1,\"_inV\":2,\"_label\":\"knows\"}",
+                "{\"_label\":null,\"_inV\":1,\"_outV\":2,\"_id\":\"e\"}"
+        };
+
+        final TinkerGraph tree = new TinkerGraph();
+        final TinkerGraph stream = new TinkerGraph();
+        for (final TinkerGraph graph : new TinkerGraph[]{tree, stream}) {
+            graph.addVertex(1);
+            graph.addVertex(2);
+        }
+
+        final GraphSONUtility graphson = new GraphSONUtility(GraphSONMode.EXTENDED, new GraphElementFactory(tree));
+        final GraphSONElementReader reader = new GraphSONElementReader(GraphSONMode.EXTENDED, new GraphElementFactory(stream));
+        for (final String json : edges) {
+            final Edge expected = graphson.edgeFromJson(json,
+                    tree.getVertex(GraphSONUtility.getTypedValueFromJsonNode(jsonFactory.createJsonParser(json).readValueAsTree().get(GraphSONTokens._OUT_V))),
+                    tree.getVertex(GraphSONUtility.getTypedValueFromJsonNode(jsonFactory.createJsonParser(json).readValueAsTree().get(GraphSONTokens._IN_V))));
+            final Edge actual = reader.readEdge(parser(json), stream);
+
+            Assert.assertEquals(expected.getId(), actual.getId());
+            Assert.assertEquals(expected.getLabel(), actual.getLabel());
+            Assert.assertEquals(expected.getVertex(Direction.OUT).getId(), actual.getVertex(Direction.OUT).getId());
+            Assert.assertEquals(expected.getVertex(Direction.IN).getId(), actual.getVertex(Direction.IN).getId());
+            Assert.assertEquals(ElementHelper.getProperties(expected), ElementHelper.getProperties(actual));
+        }
+        Assert.assertEquals(0.4f, stream.getEdge(7).getProperty("weight"));
+        Assert.assertEquals("null", stream.getEdge("e").getLabel());
+    }
+
+    private static void assertSameVertices(final GraphSONMode mode, final String[] vertices, final ElementPropertyConfig config) throws IOException {
+        final TinkerGraph tree = new TinkerGraph();
+        final TinkerGraph stream = new TinkerGraph();
+        final GraphSONUtility graphson = new GraphSONUtility(mode, new GraphElementFactory(tree), config);
+        final GraphSONElementReader reader = new GraphSONElementReader(mode, new GraphElementFactory(stream), config);
+
+        for (final String json : vertices) {
+            final Vertex expected = graphson.vertexFromJson(json);
+            final Vertex actual = reader.readVertex(parser(json));
+            Assert.assertEquals(expected.getId(), actual.getId());
+            final Map<String, Object> properties = ElementHelper.getProperties(actual);
+            Assert.assertEquals(ElementHelper.getProperties(expected), properties);
+            for (final Map.Entry<String, Object> entry : properties.entrySet()) {
+                assertSameTypes(expected.getProperty(entry.getKey()), entry.getValue());
+            }
+        }
+    }
+
+    private static void assertSameTypes(final Object expected, final Object actual) {
+        if (expected == null) {
+            Assert.assertNull(actual);
+        } else {
+            Assert.assertEquals(expected.getClass(), actual.getClass());
+            if (expected instanceof List) {
+                for (int i = 0; i < ((List) expected).size(); i++) {
+                    assertSameTypes(((List) expected).get(i), ((List) actual).get(i));
+                }
+            } else if (expected instanceof Map) {
+                for (final Object key : ((Map) expected).keySet()) {
+                    assertSameTypes(((Map) expected).get(key), ((Map) actual).get(key));
+                }
+            }
+        }
+    }
+
+    private static JsonParser parser(final String json) throws IOException {
+        final JsonParser jp = jsonFactory.createJsonParser(json);
+        jp.nextToken();
+        return jp;
+    }
+}
@@ -0,0 +1,123 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraphFactory;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.MappingJsonFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class GraphSONElementWriterTest {
+
+    private static final JsonFactory jsonFactory = new MappingJsonFactory();
+
+    @Test
+    public void writeElementsAllModes() throws IOException {
+        final TinkerGraph graph = createGraph();
+        for (final GraphSONMode mode : GraphSONMode.values()) {
+            assertSameOutput(graph, mode, ElementPropertyConfig.AllProperties);
+        }
+    }
+
+    @Test
+    public void writeElementsWithPropertyKeys() throws IOException {
+        final TinkerGraph graph = createGraph();
+        final Set<String> vertexKeys = new HashSet<String>(Arrays.asList("name", "list", GraphSONTokens._ID));
+        final Set<String> edgeKeys = new HashSet<String>(Arrays.asList("weight", GraphSONTokens._LABEL, GraphSONTokens._IN_V));
+        for (final GraphSONMode mode : GraphSONMode.values()) {
+            assertSameOutput(graph, mode, ElementPropertyConfig.IncludeProperties(vertexKeys, edgeKeys));
+        }
+    }
+
+    @Test
+    public void writeTinkerGraphFactory() throws IOException {
+        for (final GraphSONMode mode : GraphSONMode.values()) {
+            assertSameOutput(TinkerGraphFactory.createTinkerGraph(), mode, ElementPropertyConfig.AllProperties);
+        }
+    }
+
+    private static TinkerGraph createGraph() {
+        final TinkerGraph graph = new TinkerGraph();
+        final Vertex marko = graph.addVertex(1);
+        marko.setProperty("name", "marko");
+        marko.setProperty("age", 29);
+        marko.setProperty("big", 10000000000l);
+        marko.setProperty("f", 0.1f);
+        marko.setProperty("d", 0.2d);
+        marko.setProperty("alive", true);
+        marko.setProperty("other", new StringBuilder("text"));
+        marko.setProperty("ints", new int[]{1, 2});
+        marko.setProperty("floats", new float[]{0.5f});
+        marko.setProperty(GraphSONTokens._ID, "shadowed");
+        marko.setProperty(GraphSONTokens._LABEL, "kept");
+
+        final Vertex peter = graph.addVertex("peter");
+        final List<Object> list = new ArrayList<Object>();
+        list.add(1);
+        list.add(0.3f);
+        list.add(null);
+        list.add(Arrays.asList("a", 2l));
+        list.add(new String[]{"b"});
+        final Map<String, Object> inner = new HashMap<String, Object>();
+        inner.put("x", 1);
+        list.add(inner);
+        list.add(marko);
+        peter.setProperty("list", list);
+
+        final Map<Object, Object> map = new HashMap<Object, Object>();
+        map.put("nested", inner);
+        map.put(7, Arrays.asList(1.5f, true));
+        map.put("vertex", marko);
+        map.put("nothing", null);
+        peter.setProperty("map", map);
+
+        final Edge edge = graph.addEdge(7, marko, peter, "knows");
+        edge.setProperty("weight", 0.4f);
+        edge.setProperty("since", Arrays.asList(2010, 2011));
+        edge.setProperty(GraphSONTokens._IN_V, "shadowed");
+        edge.setProperty("from", peter);
+        graph.addEdge("e", peter, marko, "created");
+        return graph;
+    }
+
+    private static void assertSameOutput(final TinkerGraph graph, final GraphSONMode mode, final ElementPropertyConfig config) throws IOException {
+        final GraphSONUtility graphson = new GraphSONUtility(mode, null, config);
+        final GraphSONElementWriter writer = new GraphSONElementWriter(mode, config);
+
+        final List<Element> elements = new ArrayList<Element>();
+        for (final Vertex vertex : graph.getVertices()) {
+            elements.add(vertex);
+        }
+        for (final Edge edge : graph.getEdges()) {
+            elements.add(edge);
+        }
+
+        for (final Element element : elements) {
+            final StringWriter tree = new StringWriter();
+            final JsonGenerator treeGenerator = jsonFactory.createJsonGenerator(tree);
+            treeGenerator.writeTree(graphson.objectNodeFromElement(element));
+            treeGenerator.close();
+
+            final StringWriter stream = new StringWriter();
+            final JsonGenerator streamGenerator = jsonFactory.createJsonGenerator(stream);
+            writer.writeElement(streamGenerator, element);
+            streamGenerator.close();
+
+            Assert.assertEquals(tree.toString(), stream.toString());
+        }
+    }
+}
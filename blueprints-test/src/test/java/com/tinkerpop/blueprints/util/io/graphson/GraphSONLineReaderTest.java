@@ -0,0 +1,154 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraphFactory;
+import com.tinkerpop.blueprints.util.ElementHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+public class GraphSONLineReaderTest {
+
+    @Test
+    public void writeAndReadLines() throws IOException {
+        final Graph source = TinkerGraphFactory.createTinkerGraph();
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        GraphSONWriter.outputGraphLines(source, stream, GraphSONMode.EXTENDED);
+
+        final String lines = new String(stream.toByteArray(), "UTF-8");
+        Assert.assertEquals(12, lines.split("\n").length);
+        Assert.assertTrue(lines.endsWith("}\n"));
+        Assert.assertFalse(lines.contains("\n "));
+
+        final TinkerGraph target = new TinkerGraph();
+        GraphSONReader.inputGraphLines(target, new ByteArrayInputStream(stream.toByteArray()), GraphSONMode.EXTENDED, 1000);
+        assertSameGraph(source, target);
+    }
+
+    @Test
+    public void appendLines() throws IOException {
+        final File file = File.createTempFile("graphson", ".json");
+        file.deleteOnExit();
+
+        final TinkerGraph first = new TinkerGraph();
+        final Vertex a = first.addVertex("a");
+        a.setProperty("name", "a");
+        GraphSONWriter.outputGraphLines(first, new FileOutputStream(file), GraphSONMode.NORMAL);
+
+        final TinkerGraph second = new TinkerGraph();
+        second.addEdge("e", second.addVertex("b"), second.addVertex("a"), "knows");
+        final GraphSONLineWriter writer = new GraphSONLineWriter(new FileOutputStream(file, true), GraphSONMode.NORMAL);
+        writer.writeElement(second.getVertex("b"));
+        writer.writeElement(second.getEdge("e"));
+        writer.close();
+
+        final TinkerGraph target = new TinkerGraph();
+        final GraphSONLineReader reader = GraphSONLineReader.open(file, 0, file.length(), GraphSONMode.NORMAL,
+                new GraphElementFactory(target), ElementPropertyConfig.AllProperties);
+        Assert.assertTrue(reader.readElement(target) instanceof Vertex);
+        Assert.assertTrue(reader.readElement(target) instanceof Vertex);
+        final Element edge = reader.readElement(target);
+        Assert.assertTrue(edge instanceof Edge);
+        Assert.assertNull(reader.readElement(target));
+        reader.close();
+
+        Assert.assertEquals("a", target.getVertex("a").getProperty("name"));
+        Assert.assertEquals("b", ((Edge) edge).getVertex(Direction.OUT).getId());
+        file.delete();
+    }
+
+    @Test
+    public void splitsReadEveryLineOnce() throws IOException {
+        final Graph source = TinkerGraphFactory.createTinkerGraph();
+        final File file = File.createTempFile("graphson", ".json");
+        file.deleteOnExit();
+        GraphSONWriter.outputGraphLines(source, new FileOutputStream(file), GraphSONMode.NORMAL);
+
+        for (final int splits : new int[]{1, 2, 5, 12, 100, (int) file.length()}) {
+            final long[] offsets = GraphSONLineReader.split(file, splits);
+            final Set<String> ids = new HashSet<String>();
+            for (int i = 0; i < splits; i++) {
+                final GraphSONLineReader reader = GraphSONLineReader.open(file, offsets[i], offsets[i + 1], GraphSONMode.NORMAL,
+                        null, ElementPropertyConfig.AllProperties);
+                while (reader.nextElementLine()) {
+                    final boolean isEdge = reader.parseElement();
+                    Assert.assertTrue(ids.add((isEdge ? "e" : "v") + reader.getElementReader().getId()));
+                }
+                reader.close();
+            }
+            Assert.assertEquals(12, ids.size());
+        }
+        file.delete();
+    }
+
+    @Test
+    public void skipCorruptLines() throws IOException {
+        final String lines = "{\"_id\":1,\"_type\":\"vertex\"}\n" +
+                "{\"_id\":2,\"_ty\u0000\n" +
+                "\n" +
+                "{\"_id\":3,\"name\":\"x\"}\n" +
+                "[1]\n" +
+                "{\"_id\":4,\"_outV\":1,\"_inV\":3,\"_label\":\"knows\"}";
+
+        final TinkerGraph target = new TinkerGraph();
+        final GraphSONLineReader reader = new GraphSONLineReader(new ByteArrayInputStream(lines.getBytes("UTF-8")),
+                GraphSONMode.NORMAL, new GraphElementFactory(target), ElementPropertyConfig.AllProperties);
+        reader.setSkipCorruptLines(true);
+        while (reader.readElement(target) != null) {
+            // read all lines
+        }
+
+        Assert.assertEquals(2, reader.getCorruptLines());
+        Assert.assertEquals("x", target.getVertex(3).getProperty("name"));
+        Assert.assertEquals("knows", target.getEdge(4).getLabel());
+        Assert.assertNull(target.getVertex(2));
+
+        final GraphSONLineReader failing = new GraphSONLineReader(new ByteArrayInputStream(lines.getBytes("UTF-8")),
+                GraphSONMode.NORMAL, new GraphElementFactory(new TinkerGraph()), ElementPropertyConfig.AllProperties);
+        try {
+            while (failing.readElement(target) != null) {
+                // read all lines
+            }
+            Assert.fail("The second line is corrupt");
+        } catch (IOException ioe) {
+            Assert.assertTrue(ioe.getMessage().contains("byte offset 26"));
+        }
+    }
+
+    private static void assertSameGraph(final Graph expected, final Graph actual) {
+        int vertices = 0;
+        for (final Vertex vertex : expected.getVertices()) {
+            Assert.assertEquals(ElementHelper.getProperties(vertex), ElementHelper.getProperties(actual.getVertex(vertex.getId())));
+            vertices++;
+        }
+        for (final Vertex ignored : actual.getVertices()) {
+            vertices--;
+        }
+        Assert.assertEquals(0, vertices);
+
+        int edges = 0;
+        for (final Edge edge : expected.getEdges()) {
+            final Edge loaded = actual.getEdge(edge.getId());
+            Assert.assertEquals(edge.getLabel(), loaded.getLabel());
+            Assert.assertEquals(edge.getVertex(Direction.OUT).getId(), loaded.getVertex(Direction.OUT).getId());
+            Assert.assertEquals(ElementHelper.getProperties(edge), ElementHelper.getProperties(loaded));
+            edges++;
+        }
+        for (final Edge ignored : actual.getEdges()) {
+            edges--;
+        }
+        Assert.assertEquals(0, edges);
+    }
+}
@@ -0,0 +1,120 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.ConcurrentTinkerGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraphFactory;
+import com.tinkerpop.blueprints.util.ElementHelper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class ParallelGraphSONReaderTest {
+
+    @Test
+    public void inputGraphShards() throws IOException {
+        final TinkerGraph source = TinkerGraphFactory.createTinkerGraph();
+        for (int i = 0; i < 100; i++) {
+            final Vertex vertex = source.addVertex("v" + i);
+            vertex.setProperty("index", i);
+            source.addEdge("e" + i, vertex, source.getVertex(1), "knows").setProperty("weight", i / 100.0f);
+        }
+
+        // only the extended mode keeps the floats floats
+        for (final GraphSONMode mode : new GraphSONMode[]{GraphSONMode.EXTENDED}) {
+            final ByteArrayOutputStream[] shards = new ByteArrayOutputStream[3];
+            for (int i = 0; i < shards.length; i++) {
+                shards[i] = new ByteArrayOutputStream();
+            }
+            new ParallelGraphSONWriter(source, 2, 7).outputGraph((OutputStream[]) shards, null, null, mode);
+
+            final ConcurrentTinkerGraph target = new ConcurrentTinkerGraph();
+            new ParallelGraphSONReader(target, 3, 10).inputGraph(toInputStreams(shards));
+
+            int vertices = 0;
+            for (final Vertex vertex : source.getVertices()) {
+                Assert.assertEquals(ElementHelper.getProperties(vertex), ElementHelper.getProperties(target.getVertex(vertex.getId())));
+                vertices++;
+            }
+            Assert.assertEquals(vertices, count(target.getVertices()));
+
+            int edges = 0;
+            for (final Edge edge : source.getEdges()) {
+                final Edge loaded = target.getEdge(edge.getId());
+                Assert.assertEquals(edge.getLabel(), loaded.getLabel());
+                Assert.assertEquals(edge.getVertex(Direction.OUT).getId(), loaded.getVertex(Direction.OUT).getId());
+                Assert.assertEquals(edge.getVertex(Direction.IN).getId(), loaded.getVertex(Direction.IN).getId());
+                Assert.assertEquals(ElementHelper.getProperties(edge), ElementHelper.getProperties(loaded));
+                edges++;
+            }
+            Assert.assertEquals(edges, count(target.getEdges()));
+        }
+    }
+
+    @Test
+    public void inputGraphLineSplits() throws IOException {
+        final TinkerGraph source = TinkerGraphFactory.createTinkerGraph();
+        for (int i = 0; i < 100; i++) {
+            final Vertex vertex = source.addVertex("v" + i);
+            vertex.setProperty("index", i);
+        }
+
+        // edges come first, so that they precede their vertices in the file
+        final File file = File.createTempFile("graphson", ".json");
+        file.deleteOnExit();
+        final GraphSONLineWriter writer = new GraphSONLineWriter(new FileOutputStream(file), GraphSONMode.EXTENDED);
+        writer.writeElements(source.getEdges());
+        writer.writeElements(source.getVertices());
+        writer.close();
+
+        for (final int splits : new int[]{1, 3, 16}) {
+            final ConcurrentTinkerGraph target = new ConcurrentTinkerGraph();
+            new ParallelGraphSONReader(target, 2, 10).inputGraphLines(file, GraphSONMode.EXTENDED, splits, null, null);
+            Assert.assertEquals(106, count(target.getVertices()));
+            Assert.assertEquals(6, count(target.getEdges()));
+            Assert.assertEquals(42, target.getVertex("v42").getProperty("index"));
+            Assert.assertEquals(0.5f, target.getEdge(7).getProperty("weight"));
+        }
+        file.delete();
+    }
+
+    @Test
+    public void inputGraphFailsOnMissingVertex() throws IOException {
+        final InputStream[] shards = new InputStream[]{
+                new ByteArrayInputStream("{\"mode\":\"NORMAL\",\"vertices\":[{\"_id\":1}],\"edges\":[]}".getBytes()),
+                new ByteArrayInputStream("{\"mode\":\"NORMAL\",\"vertices\":[],\"edges\":[{\"_id\":2,\"_outV\":1,\"_inV\":3,\"_label\":\"knows\"}]}".getBytes())
+        };
+
+        try {
+            new ParallelGraphSONReader(new ConcurrentTinkerGraph(), 2, 10).inputGraph(shards);
+            Assert.fail("The in vertex of the edge does not exist");
+        } catch (IllegalArgumentException iae) {
+            // expected
+        }
+    }
+
+    private static InputStream[] toInputStreams(final ByteArrayOutputStream[] shards) {
+        final InputStream[] streams = new InputStream[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            streams[i] = new ByteArrayInputStream(shards[i].toByteArray());
+        }
+        return streams;
+    }
+
+    private static int count(final Iterable<?> iterable) {
+        int count = 0;
+        for (final Object ignored : iterable) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,84 @@
+package com.tinkerpop.blueprints.util.io.graphson;
+
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraphFactory;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+public class ParallelGraphSONWriterTest {
+
+    @Test
+    public void outputGraphSameAsGraphSONWriter() throws IOException {
+        final Graph g = createGraph();
+        for (final GraphSONMode mode : GraphSONMode.values()) {
+            final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            GraphSONWriter.outputGraph(g, expected, mode);
+
+            for (final int chunkSize : new int[]{1, 3, 1000}) {
+                final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                new ParallelGraphSONWriter(g, 3, chunkSize).outputGraph(actual, null, null, mode);
+                Assert.assertEquals(new String(expected.toByteArray(), "UTF-8"), new String(actual.toByteArray(), "UTF-8"));
+            }
+        }
+    }
+
+    @Test
+    public void outputEmptyGraph() throws IOException {
+        final Graph g = new TinkerGraph();
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        GraphSONWriter.outputGraph(g, expected);
+
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        new ParallelGraphSONWriter(g, 2, 10).outputGraph(actual, null, null, GraphSONMode.NORMAL);
+        Assert.assertEquals(new String(expected.toByteArray(), "UTF-8"), new String(actual.toByteArray(), "UTF-8"));
+    }
+
+    @Test
+    public void outputGraphShards() throws IOException {
+        final Graph g = createGraph();
+        final ByteArrayOutputStream[] shards = new ByteArrayOutputStream[]{
+                new ByteArrayOutputStream(), new ByteArrayOutputStream(), new ByteArrayOutputStream(), new ByteArrayOutputStream()};
+        new ParallelGraphSONWriter(g, 2, 5).outputGraph((OutputStream[]) shards, null, null, GraphSONMode.EXTENDED);
+
+        final ObjectMapper m = new ObjectMapper();
+        final Set<String> vertexIds = new HashSet<String>();
+        final Set<String> edgeIds = new HashSet<String>();
+        for (final ByteArrayOutputStream shard : shards) {
+            final JsonNode rootNode = m.readValue(new String(shard.toByteArray(), "UTF-8"), JsonNode.class);
+            Assert.assertEquals("EXTENDED", rootNode.get(GraphSONTokens.MODE).getTextValue());
+            for (final JsonNode vertex : rootNode.get(GraphSONTokens.VERTICES)) {
+                Assert.assertTrue(vertexIds.add(vertex.get(GraphSONTokens._ID).getTextValue()));
+            }
+            for (final JsonNode edge : rootNode.get(GraphSONTokens.EDGES)) {
+                Assert.assertTrue(edgeIds.add(edge.get(GraphSONTokens._ID).getTextValue()));
+            }
+        }
+
+        Assert.assertEquals(16, vertexIds.size());
+        Assert.assertEquals(21, edgeIds.size());
+    }
+
+    private static Graph createGraph() {
+        // the six vertices and edges of the toy graph and some more to fill multiple chunks
+        final TinkerGraph g = TinkerGraphFactory.createTinkerGraph();
+        Vertex previous = g.getVertex(1);
+        for (int i = 0; i < 10; i++) {
+            final Vertex vertex = g.addVertex("v" + i);
+            vertex.setProperty("index", i);
+            g.addEdge("e" + i, previous, vertex, "next").setProperty("weight", i / 10.0f);
+            g.addEdge("f" + i, vertex, g.getVertex(1), "back");
+            previous = vertex;
+        }
+        return g;
+    }
+}
@@ -4,8 +4,11 @@ import com.tinkerpop.blueprints.*;
 import com.tinkerpop.blueprints.impls.tg.IgnoreIdTinkerGraph;
 import com.tinkerpop.blueprints.impls.tg.MockTransactionalGraph;
 import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.blueprints.util.ElementHelper;
 import junit.framework.TestCase;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 
 /**
@@ -137,6 +140,49 @@ public class BatchGraphTest extends TestCase {
     }
     
     
+    public void testEdgePropertyBuffering() {
+        final Map<String, Object> properties = new HashMap<String, Object>();
+        properties.put("weight", 0.5d);
+        properties.put("since", 2010);
+
+        final TinkerGraph tg = new TinkerGraph();
+        BatchGraph bg = BatchGraph.wrap(tg, 10);
+        bg.setEdgeIdKey(edgeIDKey);
+        Edge edge = bg.addEdge("e1", bg.addVertex(1), bg.addVertex(2), "knows", properties);
+        bg.addVertex(3);
+        try {
+            edge.getProperty("weight");
+            fail();
+        } catch (UnsupportedOperationException e) {}
+        bg.shutdown();
+        assertEquals(2, properties.size());
+        Edge loaded = tg.getVertex(1).getEdges(Direction.OUT).iterator().next();
+        assertEquals(0.5d, loaded.getProperty("weight"));
+        assertEquals(2010, loaded.getProperty("since"));
+        assertEquals("e1", loaded.getProperty(edgeIDKey));
+
+        final BulkTinkerGraph bulk = new BulkTinkerGraph();
+        bg = BatchGraph.wrap(bulk, 10);
+        bg.addEdge(null, bg.addVertex(1), bg.addVertex(2), "knows", properties);
+        bg.addEdge(null, bg.getVertex(2), bg.getVertex(1), "knows", null);
+        bg.shutdown();
+        assertEquals(2, bulk.bulkEdges);
+        assertEquals(2010, bulk.getVertex(1).getEdges(Direction.OUT).iterator().next().getProperty("since"));
+        assertEquals(0, bulk.getVertex(2).getEdges(Direction.OUT).iterator().next().getPropertyKeys().size());
+    }
+
+    static class BulkTinkerGraph extends TinkerGraph implements BulkEdgeGraph {
+
+        int bulkEdges = 0;
+
+        public Edge addEdge(final Object id, final Vertex outVertex, final Vertex inVertex, final String label, final Map<String, Object> properties) {
+            bulkEdges++;
+            final Edge edge = super.addEdge(id, outVertex, inVertex, label);
+            if (properties != null) ElementHelper.setProperties(edge, properties);
+            return edge;
+        }
+    }
+
     public static String[][] generateQuads(int numVertices, int numEdges, String[] labels) {
         Random random = new Random();
         String[][] edges = new String[numEdges][4];
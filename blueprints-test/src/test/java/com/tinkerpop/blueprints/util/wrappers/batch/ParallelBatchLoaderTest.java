@@ -0,0 +1,140 @@
+package com.tinkerpop.blueprints.util.wrappers.batch;
+
+import com.tinkerpop.blueprints.BaseTest;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.ConcurrentTinkerGraph;
+import com.tinkerpop.blueprints.impls.tg.IgnoreIdTinkerGraph;
+import com.tinkerpop.blueprints.impls.tg.MockTransactionalGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests {@link ParallelBatchLoader} by loading chains into a ConcurrentTinkerGraph while vertices and edges are
+ * submitted interleaved, so that edges regularly wait for vertices of other partitions.
+ */
+public class ParallelBatchLoaderTest extends TestCase {
+
+    public void testChainLoading() {
+        chainTest(1, 1, 10);
+        chainTest(1000, 4, 7);
+        chainTest(20000, 3, 1000);
+    }
+
+    private void chainTest(final int total, final int threads, final long bufferSize) {
+        final ConcurrentTinkerGraph graph = new ConcurrentTinkerGraph();
+        final ParallelBatchLoader loader = load(graph, threads, bufferSize);
+        assertEquals(threads, loader.getThreads());
+        loader.setVertexIdKey("vid");
+        loader.setEdgeIdKey("eid");
+
+        for (int i = 0; i <= total; i++) {
+            final Map<String, Object> properties = new HashMap<String, Object>();
+            properties.put("uid", i);
+            loader.addVertex("v" + i, properties);
+            if (i > 0) {
+                final Map<String, Object> edgeProperties = new HashMap<String, Object>();
+                edgeProperties.put("weight", i * 0.5d);
+                loader.addEdge("e" + i, "v" + (i - 1), "v" + i, "next", edgeProperties);
+            }
+        }
+        loader.close();
+
+        assertEquals(total + 1, loader.getVertexPhase().getElements());
+        assertEquals(total, loader.getEdgePhase().getElements());
+        assertTrue(loader.getVertexPhase().getThroughput() > 0.0d);
+        assertTrue(loader.getEdgePhase().toString().startsWith("edges[" + total + " in "));
+
+        assertEquals(total + 1, BaseTest.count(graph.getVertices()));
+        assertEquals(total, BaseTest.count(graph.getEdges()));
+        for (int i = 0; i <= total; i++) {
+            final Vertex v = graph.getVertex("v" + i);
+            assertEquals(i, v.getProperty("uid"));
+            assertEquals("v" + i, v.getProperty("vid"));
+            if (i < total) {
+                final Edge e = v.getEdges(Direction.OUT, "next").iterator().next();
+                assertEquals("e" + (i + 1), e.getProperty("eid"));
+                assertEquals((i + 1) * 0.5d, e.getProperty("weight"));
+                assertEquals("v" + (i + 1), e.getVertex(Direction.IN).getId());
+            }
+        }
+    }
+
+    public void testDuplicateAndMissingVertices() {
+        final ParallelBatchLoader loader = load(new ConcurrentTinkerGraph(), 2, 10);
+        loader.addVertex(1, null);
+        try {
+            loader.addVertex(1, null);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            loader.addEdge(null, 1, 2, "knows", null);
+            loader.close();
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            loader.addVertex(3, null);
+            fail();
+        } catch (RuntimeException e) {
+        }
+    }
+
+    public void testLoadingWithExisting() {
+        final ConcurrentTinkerGraph base = new ConcurrentTinkerGraph();
+        base.addVertex("a");
+        ParallelBatchLoader loader = load(base, 2, 10);
+        loader.setLoadingFromScratch(false);
+        loader.addVertex("b", null);
+        loader.addEdge(null, "a", "b", "knows", null);
+        loader.close();
+        assertEquals(1, BaseTest.count(base.getVertex("a").getEdges(Direction.OUT)));
+
+        final IgnoreIdTinkerGraph ignoring = new IgnoreIdTinkerGraph();
+        loader = ParallelBatchLoader.wrap(ignoring, 1, 10);
+        try {
+            loader.setLoadingFromScratch(false);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        loader.setVertexIdKey("uid");
+        loader.addVertex("a", null);
+        loader.addVertex("b", null);
+        loader.addEdge(null, "a", "b", "knows", null);
+        loader.close();
+        assertEquals(1, BaseTest.count(ignoring.getVertices("uid", "b").iterator().next().getEdges(Direction.IN)));
+    }
+
+    public void testWrapUsesSingleThreadForNonTransactionalGraphs() {
+        final TinkerGraph graph = new TinkerGraph();
+        final ParallelBatchLoader loader = ParallelBatchLoader.wrap(graph, 4, 10);
+        assertEquals(1, loader.getThreads());
+        for (int i = 0; i < 100; i++) {
+            loader.addVertex(i, null);
+            if (i > 0) loader.addEdge(null, i - 1, i, "next", null);
+        }
+        loader.close();
+        assertEquals(100, BaseTest.count(graph.getVertices()));
+        assertEquals(99, BaseTest.count(graph.getEdges()));
+
+        assertEquals(4, ParallelBatchLoader.wrap(new MockTransactionalGraph(new ConcurrentTinkerGraph()), 4, 10).getThreads());
+        try {
+            ParallelBatchLoader.wrap(graph, 0, 10);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    /**
+     * ConcurrentTinkerGraph is not transactional, so wrap would load it with a single thread, but it is safe to use
+     * from multiple threads.
+     */
+    private static ParallelBatchLoader<WritethroughGraph> load(final ConcurrentTinkerGraph graph, final int threads, final long bufferSize) {
+        return new ParallelBatchLoader<WritethroughGraph>(new WritethroughGraph(graph), threads, bufferSize, ParallelBatchLoader.DEFAULT_QUEUE_SIZE);
+    }
+}
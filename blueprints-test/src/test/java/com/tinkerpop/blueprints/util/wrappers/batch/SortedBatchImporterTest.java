@@ -0,0 +1,78 @@
+package com.tinkerpop.blueprints.util.wrappers.batch;
+
+import com.tinkerpop.blueprints.BaseTest;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.MockTransactionalGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests {@link SortedBatchImporter} by importing a shuffled chain into a graph that already contains part of the
+ * chain, with sort buffers small enough that the records are spilled to temporary files.
+ */
+public class SortedBatchImporterTest extends TestCase {
+
+    public void testIncrementalImport() {
+        final int total = 2000;
+        final TinkerGraph graph = new TinkerGraph();
+        for (int i = 0; i < total; i += 2) {
+            graph.addVertex("v" + i).setProperty("existing", true);
+        }
+
+        final BatchGraph<MockTransactionalGraph> bgraph = new BatchGraph<MockTransactionalGraph>(new MockTransactionalGraph(graph), BatchGraph.IdType.STRING, 100);
+        bgraph.setLoadingFromScratch(false);
+        bgraph.setEdgeIdKey("eid");
+        final SortedBatchImporter importer = new SortedBatchImporter(bgraph, 64, null);
+
+        final int[] order = new int[total];
+        for (int i = 0; i < total; i++) order[i] = i;
+        final Random random = new Random(42);
+        for (int i = total - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        for (final int i : order) {
+            if (i % 3 == 0) {
+                final Map<String, Object> properties = new HashMap<String, Object>();
+                properties.put("uid", i);
+                importer.addVertex("v" + i, properties);
+            }
+            if (i > 0) {
+                final Map<String, Object> properties = new HashMap<String, Object>();
+                properties.put("weight", i);
+                importer.addEdge("e" + i, "v" + (i - 1), "v" + i, "next", properties);
+            }
+        }
+        importer.importGraph();
+
+        assertEquals(total, BaseTest.count(graph.getVertices()));
+        assertEquals(total - 1, BaseTest.count(graph.getEdges()));
+        for (int i = 0; i < total; i++) {
+            final Vertex v = graph.getVertex("v" + i);
+            assertEquals(i % 2 == 0 ? true : null, v.getProperty("existing"));
+            assertEquals(i % 3 == 0 ? i : null, v.getProperty("uid"));
+            if (i < total - 1) {
+                final Edge e = v.getEdges(Direction.OUT, "next").iterator().next();
+                assertEquals("e" + (i + 1), e.getProperty("eid"));
+                assertEquals(i + 1, e.getProperty("weight"));
+                assertEquals("v" + (i + 1), e.getVertex(Direction.IN).getId());
+            }
+        }
+
+        try {
+            importer.addVertex("x", null);
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(true);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.tinkerpop.blueprints.util.wrappers.batch.cache;
+
+import com.tinkerpop.blueprints.BaseTest;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.MockTransactionalGraph;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.blueprints.util.wrappers.batch.BatchGraph;
+import com.tinkerpop.blueprints.util.wrappers.id.IdGraph;
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Tests the off-heap vertex caches with vertices whose ids are longs, so that they are stored in the off-heap table.
+ */
+public class OffHeapVertexCacheTest extends TestCase {
+
+    public void testLongIDCache() {
+        final OffHeapLongIDVertexCache cache = new OffHeapLongIDVertexCache();
+        cacheTest(cache, new Object[]{-1l, 0l, 1, Long.MAX_VALUE, Long.MIN_VALUE}, 100000);
+        assertEquals(100004, cache.size());
+        cache.close();
+    }
+
+    public void testStringIDCacheMapped() throws Exception {
+        final File directory = new File(System.getProperty("java.io.tmpdir"), "blueprints-offheap-" + System.nanoTime());
+        assertTrue(directory.mkdirs());
+        final OffHeapStringIDVertexCache cache = new OffHeapStringIDVertexCache(new URLCompression(), directory);
+        cacheTest(cache, new Object[]{"", "http://tinkerpop.com#marko", "ümlaut"}, 50000);
+        assertEquals(50003, cache.size());
+        assertTrue(directory.listFiles().length > 0);
+        cache.close();
+        assertEquals(0, directory.listFiles().length);
+        directory.delete();
+    }
+
+    private void cacheTest(final OffHeapVertexCache cache, final Object[] specialIds, final int total) {
+        final Object[] externalIds = new Object[total + specialIds.length];
+        System.arraycopy(specialIds, 0, externalIds, 0, specialIds.length);
+        for (int i = 0; i < total; i++) {
+            final long id = (i + 1) * 7919l;
+            externalIds[specialIds.length + i] = specialIds[1] instanceof String ? "http://tinkerpop.com#" + id : id;
+        }
+
+        for (int i = 0; i < externalIds.length; i++) {
+            assertNull(cache.getEntry(externalIds[i]));
+            final Vertex vertex = vertex(i);
+            cache.set(vertex, externalIds[i]);
+            assertSame(vertex, cache.getEntry(externalIds[i]));
+            if (i % 1000 == 999) cache.newTransaction();
+        }
+        cache.newTransaction();
+        for (int i = 0; i < externalIds.length; i++) {
+            assertEquals((long) i, cache.getEntry(externalIds[i]));
+        }
+
+        // overwriting an entry keeps the size and vertices with other ids are cached on the heap
+        cache.set(vertex(-5l), externalIds[3]);
+        cache.set(new TinkerGraph().addVertex("x"), externalIds[4]);
+        cache.newTransaction();
+        assertEquals(-5l, cache.getEntry(externalIds[3]));
+        assertEquals("x", cache.getEntry(externalIds[4]));
+    }
+
+    public void testBatchGraphLoading() {
+        // the IdGraph gives the vertices the numeric ids they are loaded with, so that they are stored in the table
+        final IdGraph<TinkerGraph> graph = new IdGraph<TinkerGraph>(new TinkerGraph());
+        final MockTransactionalGraph tgraph = new MockTransactionalGraph(graph);
+        final OffHeapLongIDVertexCache cache = new OffHeapLongIDVertexCache();
+        final BatchGraph<MockTransactionalGraph> bgraph = new BatchGraph<MockTransactionalGraph>(tgraph, cache, 100);
+        Vertex previous = bgraph.addVertex(0l);
+        for (long i = 1; i <= 1000; i++) {
+            final Vertex next = bgraph.addVertex(i);
+            bgraph.addEdge(null, bgraph.getVertex(previous.getId()), next, "next").setProperty("uid", i);
+            previous = next;
+        }
+        bgraph.stopTransaction(MockTransactionalGraph.Conclusion.SUCCESS);
+        assertTrue(tgraph.getNumTransactionsCommitted() > 10);
+        assertTrue(cache.size() > 900);
+
+        // vertices of committed buffers are looked up through their ids in the table
+        for (long i = 0; i <= 1000; i++) {
+            final Object entry = cache.getEntry(i);
+            if (!(entry instanceof Vertex)) assertEquals(i, entry);
+            assertEquals(i, bgraph.getVertex(i).getId());
+        }
+        final Vertex first = bgraph.getVertex(0l);
+        bgraph.addEdge(null, bgraph.getVertex(1000l), first, "next");
+        bgraph.stopTransaction(MockTransactionalGraph.Conclusion.SUCCESS);
+
+        assertEquals(1001, BaseTest.count(graph.getVertices()));
+        assertEquals(1, BaseTest.count(graph.getVertex(500l).getEdges(Direction.OUT)));
+        assertEquals(graph.getVertex(0l), graph.getVertex(1000l).getEdges(Direction.OUT).iterator().next().getVertex(Direction.IN));
+        cache.close();
+    }
+
+    private static Vertex vertex(final long id) {
+        return (Vertex) Proxy.newProxyInstance(Vertex.class.getClassLoader(), new Class[]{Vertex.class}, new InvocationHandler() {
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                if (method.getName().equals("getId")) return id;
+                if (method.getName().equals("hashCode")) return (int) id;
+                if (method.getName().equals("equals")) return proxy == args[0];
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.tinkerpop.blueprints.util.wrappers.batch.cache;
+
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import junit.framework.TestCase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests that the vertex caches only replace the vertices set in the current transaction by their ids.
+ */
+public class VertexCacheTest extends TestCase {
+
+    private final Map<Long, Integer> getIdCalls = new HashMap<Long, Integer>();
+
+    public void testLongIDCache() {
+        transactionTest(new LongIDVertexCache(new TinkerGraph()), 1l, 2l, 3l);
+    }
+
+    public void testObjectIDCache() {
+        transactionTest(new ObjectIDVertexCache(new TinkerGraph()), 1, "b", 3.0d);
+    }
+
+    public void testStringIDCache() {
+        transactionTest(new StringIDVertexCache(new TinkerGraph(), new URLCompression()), "http://tinkerpop.com#a", "http://tinkerpop.com#b", "c");
+    }
+
+    public void testOffHeapLongIDCache() {
+        final OffHeapLongIDVertexCache cache = new OffHeapLongIDVertexCache();
+        transactionTest(cache, 1l, 2l, 3l);
+        cache.close();
+    }
+
+    public void testOffHeapStringIDCache() {
+        final OffHeapStringIDVertexCache cache = new OffHeapStringIDVertexCache();
+        transactionTest(cache, "a", "b", "c");
+        cache.close();
+    }
+
+    private void transactionTest(final VertexCache cache, final Object a, final Object b, final Object c) {
+        cache.set(vertex(1l), a);
+        cache.set(vertex(2l), b);
+        cache.newTransaction();
+        assertEquals(1l, cache.getEntry(a));
+        assertEquals(2l, cache.getEntry(b));
+        assertEquals(1, (int) getIdCalls.get(1l));
+        assertEquals(1, (int) getIdCalls.get(2l));
+
+        // the second transaction overwrites a and adds c, while b keeps the id of the first transaction
+        final Vertex vertex4 = vertex(4l);
+        final Vertex vertex3 = vertex(3l);
+        cache.set(vertex4, a);
+        cache.set(vertex3, c);
+        assertSame(vertex4, cache.getEntry(a));
+        assertEquals(2l, cache.getEntry(b));
+        assertSame(vertex3, cache.getEntry(c));
+        cache.newTransaction();
+        assertEquals(4l, cache.getEntry(a));
+        assertEquals(2l, cache.getEntry(b));
+        assertEquals(3l, cache.getEntry(c));
+        assertEquals(1, (int) getIdCalls.get(1l));
+        assertEquals(1, (int) getIdCalls.get(2l));
+        assertEquals(1, (int) getIdCalls.get(3l));
+        assertEquals(1, (int) getIdCalls.get(4l));
+
+        // a transaction without new entries converts nothing
+        cache.newTransaction();
+        assertEquals(1, (int) getIdCalls.get(3l));
+        assertEquals(1, (int) getIdCalls.get(4l));
+    }
+
+    private Vertex vertex(final long id) {
+        getIdCalls.put(id, 0);
+        return (Vertex) Proxy.newProxyInstance(Vertex.class.getClassLoader(), new Class[]{Vertex.class}, new InvocationHandler() {
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                if (method.getName().equals("getId")) {
+                    getIdCalls.put(id, getIdCalls.get(id) + 1);
+                    return id;
+                }
+                if (method.getName().equals("hashCode")) return (int) id;
+                if (method.getName().equals("equals")) return proxy == args[0];
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}